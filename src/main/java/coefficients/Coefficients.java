@@ -1,5 +1,9 @@
 package coefficients;
 
+import math.Fraction;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -84,6 +88,46 @@ public final class Coefficients {
         throw new IllegalArgumentException("Invalid Input Coefficient");
     }
 
+    /**
+     * Convert a constant coefficient into an exact Fraction. Doubles are converted exactly, i.e. to the binary fraction
+     * they actually hold.
+     */
+    public static Fraction asFraction(final Coefficient coefficient) {
+        if (coefficient instanceof IntegerCoefficient) {
+            return Fraction.of(BigInteger.valueOf(((IntegerCoefficient) coefficient).getValue()));
+        } else if (coefficient instanceof DoubleCoefficient) {
+            final double value = ((DoubleCoefficient) coefficient).getValue();
+            if (!Double.isFinite(value)) {
+                throw new IllegalArgumentException("Can't represent " + value + " as a fraction");
+            }
+            final BigDecimal decimalValue = new BigDecimal(value);
+            return decimalValue.scale() <= 0
+                    ? Fraction.of(decimalValue.toBigIntegerExact())
+                    : Fraction.of(decimalValue.unscaledValue(), BigInteger.TEN.pow(decimalValue.scale()));
+        } else if (coefficient instanceof RationalCoefficient) {
+            final RationalCoefficient rationalCoefficient = (RationalCoefficient) coefficient;
+            return Fraction.of(rationalCoefficient.getNumeratorValue(), rationalCoefficient.getDenominatorValue());
+        }
+
+        throw new IllegalArgumentException("Invalid Input Coefficient");
+    }
+
+    /**
+     * Convert a Fraction back into a constant coefficient, falling back to a double if it doesn't fit in an int.
+     */
+    public static ConstantCoefficient fromFraction(final Fraction fraction) {
+        final BigInteger numerator = fraction.getNumerator();
+        final BigInteger denominator = fraction.getDenominator();
+        if (numerator.bitLength() < Integer.SIZE && denominator.bitLength() < Integer.SIZE) {
+            return fromNumeratorAndDenominator(
+                    numerator.longValue(),
+                    denominator.longValue()
+            );
+        }
+
+        return from(fraction.doubleValue());
+    }
+
     public static boolean isPositive(final Coefficient coefficient) {
         return Coefficients.greaterThan(coefficient, Coefficients.ZERO);
     }
@@ -0,0 +1,43 @@
+package core;
+
+import coefficients.ConstantCoefficient;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A tableau that keeps the M and constant parts of the Big-M reduced costs as two extra rows below the constraint
+ * rows, so that the Simplex can pivot it without going through Coefficients. Column 0 holds the value of each row's
+ * basis variable, so variable j lives in column j + 1.
+ * <p>
+ * Implementations differ only in how they store numbers, and all of them follow the same pivoting rules as the Tableau
+ * so every engine takes the same path to the same optimum.
+ */
+interface BigMTableau extends Closeable {
+    /**
+     * Return the column with the most negative reduced cost (comparing M parts first), or -1 if none are negative.
+     */
+    int findOptimalPivotCol() throws IOException;
+
+    /**
+     * Returns the argmin b_i / a_ik, for i in the constraint rows and k == col, or -1 if no a_ik is positive.
+     */
+    int findOptimalPivotRow(int col) throws IOException;
+
+    /**
+     * Pivot on a row and column, making variable col - 1 the basis variable of the row.
+     */
+    void pivot(int row, int col) throws IOException;
+
+    int[] getBasisVariables();
+
+    /**
+     * Return the values of the basis variables, i.e. column 0 of each constraint row.
+     */
+    ConstantCoefficient[] getBasisCoefficients() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+        // Only tableaus that hold on to a file have anything to release
+    }
+}
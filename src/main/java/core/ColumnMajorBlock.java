@@ -0,0 +1,89 @@
+package core;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import math.Vector;
+
+/**
+ * A TableauBlock stored as one array per column, so that pricing and the ratio test read contiguous memory. Pivots are
+ * applied column by column, and columns with a zero in the pivot row are shared with the new block rather than copied.
+ */
+final class ColumnMajorBlock implements TableauBlock {
+    private final Coefficient[][] columns;
+    private final int height;
+
+    private ColumnMajorBlock(final Coefficient[][] columns, final int height) {
+        this.columns = columns;
+        this.height = height;
+    }
+
+    static ColumnMajorBlock fromRows(final Vector[] vectors) {
+        final int width = vectors.length == 0 ? 0 : vectors[0].length();
+        final Coefficient[][] columns = new Coefficient[width][vectors.length];
+        for (int row = 0; row < vectors.length; row++) {
+            for (int col = 0; col < width; col++) {
+                columns[col][row] = vectors[row].get(col);
+            }
+        }
+
+        return new ColumnMajorBlock(columns, vectors.length);
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return columns.length;
+    }
+
+    @Override
+    public Coefficient get(final int row, final int col) {
+        return columns[col][row];
+    }
+
+    @Override
+    public Coefficient[] getColumn(final int col) {
+        return columns[col];
+    }
+
+    @Override
+    public ColumnMajorBlock pivot(final int row,
+                                  final Coefficient[] pivotColumn,
+                                  final Coefficient inversePivotCoefficient) {
+        final Coefficient[][] newColumns = new Coefficient[columns.length][];
+        for (int col = 0; col < columns.length; col++) {
+            newColumns[col] = rankOneUpdate(columns[col], row, pivotColumn, inversePivotCoefficient);
+        }
+
+        return new ColumnMajorBlock(newColumns, height);
+    }
+
+    /**
+     * Apply a pivot to a single column: a_r' = a_r / p and a_i' = a_i - f_i * a_r / p for the other rows.
+     */
+    static Coefficient[] rankOneUpdate(final Coefficient[] column,
+                                       final int row,
+                                       final Coefficient[] pivotColumn,
+                                       final Coefficient inversePivotCoefficient) {
+        final Coefficient scaledPivotValue = Coefficients.scaleBy(column[row], inversePivotCoefficient);
+        if (Coefficients.isZero(scaledPivotValue)) {
+            return column;
+        }
+
+        final Coefficient[] newColumn = new Coefficient[column.length];
+        for (int i = 0; i < column.length; i++) {
+            if (i == row) {
+                newColumn[i] = scaledPivotValue;
+            } else if (Coefficients.isZero(pivotColumn[i])) {
+                newColumn[i] = column[i];
+            } else {
+                newColumn[i] = Coefficients.subtract(column[i], Coefficients.scaleBy(scaledPivotValue, pivotColumn[i]));
+            }
+        }
+
+        return newColumn;
+    }
+}
@@ -0,0 +1,509 @@
+package core;
+
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import lang.Preconditions;
+
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A dense, in-memory tableau of primitive doubles. This skips the boxing and type dispatch of the Coefficient Tableau
+ * entirely, so it is by far the fastest engine when the problem is given in doubles anyway.
+ * <p>
+ * Like the Tableau it can be stored row-major or column-major. Either way the layout is [b_i | a_i1 ... a_in] for each
+ * constraint row, followed by the M and constant objective rows.
+ * <p>
+ * A row-major tableau can also have rows added in place, and its pivots undone, for a PivotJournal. Its arrays then
+ * have room to spare for more rows and columns, so only height and width are meaningful.
+ */
+final class DoubleTableau implements BigMTableau {
+    private static final double EPSILON = 1e-9;
+    // The dual simplex skips pivots this much smaller than the largest coefficient of their row, which are mostly
+    // round-off, and blow the tableau up when pivoted on
+    private static final double RELATIVE_PIVOT_TOLERANCE = 1e-7;
+
+    private final Tableau.Layout layout;
+    private int height;
+    private int width;
+    private boolean[] artificial;
+    private int[] basisVariables;
+    private boolean[] dropped;
+    // Either rows[row][col] or columns[col][row], depending on the layout
+    private double[][] values;
+
+    /**
+     * @param rows the height constraint rows followed by the M and constant objective rows
+     * @param firstArtificialColumn the tableau column of the first artificial variable, which are dropped once they
+     *                              leave the basis
+     */
+    DoubleTableau(final Tableau.Layout layout,
+                  final int[] basisVariables,
+                  final double[][] rows,
+                  final int firstArtificialColumn) {
+        this.layout = layout;
+        this.height = basisVariables.length;
+        this.width = rows[0].length - 1;
+        this.artificial = new boolean[width + 1];
+        for (int col = firstArtificialColumn; col <= width; col++) {
+            artificial[col] = true;
+        }
+        this.basisVariables = basisVariables.clone();
+        this.dropped = new boolean[width + 1];
+        if (layout == Tableau.Layout.ROW_MAJOR) {
+            this.values = rows;
+        } else {
+            this.values = new double[width + 1][height + 2];
+            for (int row = 0; row < height + 2; row++) {
+                for (int col = 0; col <= width; col++) {
+                    values[col][row] = rows[row][col];
+                }
+            }
+        }
+    }
+
+    private DoubleTableau(final int[] basisVariables,
+                          final double[][] rows,
+                          final boolean[] artificial,
+                          final boolean[] dropped) {
+        this.layout = Tableau.Layout.ROW_MAJOR;
+        this.height = basisVariables.length;
+        this.width = rows[0].length - 1;
+        this.artificial = artificial;
+        this.basisVariables = basisVariables;
+        this.dropped = dropped;
+        this.values = rows;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * The entry at a row and column. Rows height and height + 1 are the M and constant parts of the reduced costs.
+     */
+    double get(final int row, final int col) {
+        return layout == Tableau.Layout.ROW_MAJOR ? values[row][col] : values[col][row];
+    }
+
+    boolean isArtificial(final int col) {
+        return artificial[col];
+    }
+
+    boolean isDropped(final int col) {
+        return dropped[col];
+    }
+
+    /**
+     * Return a row-major copy of this tableau with the constraint sum_j coefficients[j] * x_j <= constant added as a
+     * new row, whose slack variable goes into the basis as the last column. The coefficients are over the tableau's
+     * variables, so the row is first written in terms of the non-basic variables by eliminating the basic ones. This
+     * leaves the reduced costs alone, so an optimal tableau stays dual feasible, but the new slack can be negative.
+     */
+    DoubleTableau addLessThanRow(final double[] coefficients, final double constant) {
+        final double[][] rows = new double[height + 3][width + 2];
+        for (int row = 0; row < height + 2; row++) {
+            final int targetRow = row < height ? row : row + 1;
+            for (int col = 0; col <= width; col++) {
+                rows[targetRow][col] = get(row, col);
+            }
+        }
+
+        final int[] newBasisVariables = Arrays.copyOf(basisVariables, height + 1);
+        newBasisVariables[height] = width;
+        fillLessThanRow(rows[height], rows, coefficients, constant);
+        return new DoubleTableau(
+                newBasisVariables,
+                rows,
+                Arrays.copyOf(artificial, width + 2),
+                Arrays.copyOf(dropped, width + 2)
+        );
+    }
+
+    /**
+     * Return a row-major copy of this tableau with room for rows to be added in place.
+     */
+    DoubleTableau growableCopy() {
+        final int rowCapacity = getCapacity(height + 2);
+        final int columnCapacity = getCapacity(width + 1);
+        final double[][] rows = new double[rowCapacity][];
+        for (int row = 0; row < height + 2; row++) {
+            rows[row] = new double[columnCapacity];
+            for (int col = 0; col <= width; col++) {
+                rows[row][col] = get(row, col);
+            }
+        }
+
+        final DoubleTableau copy = new DoubleTableau(
+                Arrays.copyOf(basisVariables, rowCapacity),
+                rows,
+                Arrays.copyOf(artificial, columnCapacity),
+                Arrays.copyOf(dropped, columnCapacity)
+        );
+        copy.height = height;
+        copy.width = width;
+        return copy;
+    }
+
+    /**
+     * Add the constraint sum_j coefficients[j] * x_j <= constant to this row-major tableau in place, like
+     * addLessThanRow. Its arrays grow if they run out of room, by a fraction of their size, so adding k rows copies
+     * the tableau O(log k) times.
+     */
+    void appendLessThanRow(final double[] coefficients, final double constant) {
+        Preconditions.checkArgument(layout == Tableau.Layout.ROW_MAJOR, "Only row-major tableaus can grow in place");
+        if (values.length < height + 3) {
+            values = Arrays.copyOf(values, getCapacity(height + 3));
+            basisVariables = Arrays.copyOf(basisVariables, values.length);
+        }
+        final int columnCapacity = values[0].length;
+        if (columnCapacity < width + 2) {
+            final int newColumnCapacity = getCapacity(width + 2);
+            for (int row = 0; row < height + 2; row++) {
+                values[row] = Arrays.copyOf(values[row], newColumnCapacity);
+            }
+            artificial = Arrays.copyOf(artificial, newColumnCapacity);
+            dropped = Arrays.copyOf(dropped, newColumnCapacity);
+        }
+
+        // The objective rows move down to make room, and the new slack column starts out at zero
+        values[height + 2] = values[height + 1];
+        values[height + 1] = values[height];
+        values[height] = new double[values[0].length];
+        for (int row = 0; row < height + 3; row++) {
+            values[row][width + 1] = 0d;
+        }
+        artificial[width + 1] = false;
+        dropped[width + 1] = false;
+        basisVariables[height] = width;
+        fillLessThanRow(values[height], values, coefficients, constant);
+        height++;
+        width++;
+    }
+
+    /**
+     * Undo appendLessThanRow, once every pivot since has been undone, which leaves its slack in the basis of the last
+     * row.
+     */
+    void removeLastRow() {
+        Preconditions.checkArgument(height > 0 && basisVariables[height - 1] == width - 1,
+                "The last row's slack must be in its basis");
+        values[height - 1] = values[height];
+        values[height] = values[height + 1];
+        values[height + 1] = null;
+        height--;
+        width--;
+    }
+
+    /**
+     * Write sum_j coefficients[j] * x_j + s = constant into a new row, with the basic variables of the first height
+     * rows eliminated, where the slack s is column width + 1.
+     */
+    private void fillLessThanRow(final double[] newRow,
+                                 final double[][] rows,
+                                 final double[] coefficients,
+                                 final double constant) {
+        newRow[0] = constant;
+        System.arraycopy(coefficients, 0, newRow, 1, coefficients.length);
+        newRow[width + 1] = 1d;
+        for (int row = 0; row < height; row++) {
+            final double factor = newRow[basisVariables[row] + 1];
+            if (factor == 0d) {
+                continue;
+            }
+
+            final double[] basisRow = rows[row];
+            for (int col = 0; col <= width; col++) {
+                newRow[col] -= factor * basisRow[col];
+            }
+            newRow[basisVariables[row] + 1] = 0d;
+        }
+    }
+
+    /**
+     * Re-optimize a dual feasible tableau with the dual simplex method: while some basis variable is negative, pivot
+     * it out of the basis in favor of the column that keeps every reduced cost non-negative. Returns the number of
+     * pivots, or -1 if the problem turns out to be infeasible.
+     */
+    int reoptimize() {
+        return reoptimize(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Re-optimize like reoptimize(), but stop after at most maxPivots pivots. The tableau is still dual feasible when
+     * it stops short, so its objective value bounds the optimum, and it can be re-optimized further later on.
+     */
+    int reoptimize(final int maxPivots) {
+        return reoptimize(maxPivots, null);
+    }
+
+    /**
+     * Re-optimize like reoptimize(maxPivots), pushing every pivot onto a journal if one is given, so undo can take
+     * them back.
+     */
+    int reoptimize(final int maxPivots, final Deque<Pivot> journal) {
+        int numPivots = 0;
+        while (numPivots < maxPivots) {
+            // Past a point the most negative row can take the dual simplex round a cycle of degenerate pivots, so it
+            // falls back to Bland's rule, which picks the negative basis variable with the smallest index
+            final boolean useBlandsRule = numPivots >= height;
+            int pivotRow = -1;
+            double mostNegativeValue = -EPSILON;
+            for (int row = 0; row < height; row++) {
+                if (get(row, 0) >= -EPSILON) {
+                    continue;
+                }
+                if (useBlandsRule
+                        ? pivotRow == -1 || basisVariables[row] < basisVariables[pivotRow]
+                        : get(row, 0) < mostNegativeValue) {
+                    pivotRow = row;
+                    mostNegativeValue = get(row, 0);
+                }
+            }
+            if (pivotRow == -1) {
+                return numPivots;
+            }
+
+            final int pivotCol = findDualPivotCol(pivotRow);
+            if (pivotCol == -1) {
+                // The row can't be made non-negative, since all of its coefficients are
+                return -1;
+            }
+
+            if (journal != null) {
+                journal.push(new Pivot(this, pivotRow, pivotCol));
+            }
+            pivot(pivotRow, pivotCol);
+            numPivots++;
+        }
+
+        return numPivots;
+    }
+
+    /**
+     * Whether every basis variable is non-negative, i.e. whether the dual simplex has nothing left to do.
+     */
+    boolean isPrimalFeasible() {
+        for (int row = 0; row < height; row++) {
+            if (get(row, 0) < -EPSILON) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the argmin d_k / |a_rk| over the columns k with a_rk < 0, comparing the M parts of the reduced costs
+     * first, or -1 if there is no such column. Coefficients that are tiny next to the rest of the row don't count as
+     * negative.
+     */
+    private int findDualPivotCol(final int row) {
+        double largestCoefficient = 0d;
+        for (int col = 1; col <= width; col++) {
+            if (!dropped[col]) {
+                largestCoefficient = Math.max(largestCoefficient, Math.abs(get(row, col)));
+            }
+        }
+        final double tolerance = Math.max(EPSILON, RELATIVE_PIVOT_TOLERANCE * largestCoefficient);
+
+        int optimalCol = -1;
+        double minimumMRatio = Double.POSITIVE_INFINITY;
+        double minimumConstantRatio = Double.POSITIVE_INFINITY;
+        for (int col = 1; col <= width; col++) {
+            final double coefficient = get(row, col);
+            if (dropped[col] || coefficient >= -tolerance) {
+                continue;
+            }
+
+            final double mRatio = Math.max(0d, clean(get(height, col))) / -coefficient;
+            final double constantRatio = Math.max(0d, clean(get(height + 1, col))) / -coefficient;
+            if (mRatio < minimumMRatio || mRatio == minimumMRatio && constantRatio < minimumConstantRatio) {
+                optimalCol = col;
+                minimumMRatio = mRatio;
+                minimumConstantRatio = constantRatio;
+            }
+        }
+
+        return optimalCol;
+    }
+
+    @Override
+    public int findOptimalPivotCol() {
+        int optimalPivotCol = -1;
+        double mostNegativeM = 0d;
+        double mostNegativeConstant = 0d;
+        for (int col = 1; col <= width; col++) {
+            if (dropped[col]) {
+                continue;
+            }
+
+            final double m = clean(get(height, col));
+            final double constant = clean(get(height + 1, col));
+            if (m < mostNegativeM || m == mostNegativeM && constant < mostNegativeConstant) {
+                optimalPivotCol = col;
+                mostNegativeM = m;
+                mostNegativeConstant = constant;
+            }
+        }
+
+        return optimalPivotCol;
+    }
+
+    @Override
+    public int findOptimalPivotRow(final int col) {
+        int optimalRow = -1;
+        double minimumRatio = Double.POSITIVE_INFINITY;
+        for (int row = 0; row < height; row++) {
+            final double divisor = get(row, col);
+            if (divisor <= EPSILON) {
+                continue;
+            }
+
+            final double ratio = get(row, 0) / divisor;
+            if (ratio < minimumRatio) {
+                minimumRatio = ratio;
+                optimalRow = row;
+            }
+        }
+
+        return optimalRow;
+    }
+
+    @Override
+    public void pivot(final int row, final int col) {
+        final int leavingColumn = basisVariables[row] + 1;
+        if (artificial[leavingColumn]) {
+            dropped[leavingColumn] = true;
+        }
+        basisVariables[row] = col - 1;
+
+        if (layout == Tableau.Layout.ROW_MAJOR) {
+            pivotRows(row, col);
+        } else {
+            pivotColumns(row, col);
+        }
+    }
+
+    /**
+     * Undo the last pivot of a row-major tableau. Row i was R_i - f_i R_r / p, where f is the pivot column from before
+     * the pivot and p = f_r, so adding f_i times the pivot row back, and scaling the pivot row back up by p, restores
+     * the rows up to round-off. The pivot column itself is restored exactly.
+     */
+    void undo(final Pivot pivot) {
+        Preconditions.checkArgument(layout == Tableau.Layout.ROW_MAJOR, "Only row-major tableaus can undo pivots");
+        final int row = pivot.row;
+        final int col = pivot.col;
+        final double[] pivotRow = values[row];
+        for (int i = 0; i < height + 2; i++) {
+            final double factor = pivot.column[i];
+            if (i == row || factor == 0d) {
+                continue;
+            }
+
+            final double[] rowValues = values[i];
+            for (int j = 0; j <= width; j++) {
+                rowValues[j] += factor * pivotRow[j];
+            }
+            rowValues[col] = factor;
+        }
+
+        final double pivotCoefficient = pivot.column[row];
+        for (int j = 0; j <= width; j++) {
+            pivotRow[j] *= pivotCoefficient;
+        }
+        pivotRow[col] = pivotCoefficient;
+
+        basisVariables[row] = pivot.leavingVariable;
+        dropped[pivot.leavingVariable + 1] = pivot.wasLeavingColumnDropped;
+    }
+
+    private void pivotRows(final int row, final int col) {
+        final double[] pivotRow = values[row];
+        final double inversePivotCoefficient = 1 / pivotRow[col];
+        for (int j = 0; j <= width; j++) {
+            pivotRow[j] *= inversePivotCoefficient;
+        }
+        pivotRow[col] = 1d;
+
+        for (int i = 0; i < height + 2; i++) {
+            final double factor = values[i][col];
+            if (i == row || factor == 0d) {
+                continue;
+            }
+
+            final double[] rowValues = values[i];
+            for (int j = 0; j <= width; j++) {
+                rowValues[j] -= factor * pivotRow[j];
+            }
+            rowValues[col] = 0d;
+        }
+    }
+
+    private void pivotColumns(final int row, final int col) {
+        final double[] pivotColumn = values[col].clone();
+        final double inversePivotCoefficient = 1 / pivotColumn[row];
+        for (int j = 0; j <= width; j++) {
+            final double[] columnValues = values[j];
+            final double factor = columnValues[row] * inversePivotCoefficient;
+            if (factor == 0d) {
+                continue;
+            }
+
+            for (int i = 0; i < height + 2; i++) {
+                columnValues[i] -= factor * pivotColumn[i];
+            }
+            columnValues[row] = factor;
+        }
+    }
+
+    @Override
+    public int[] getBasisVariables() {
+        return Arrays.copyOf(basisVariables, height);
+    }
+
+    @Override
+    public ConstantCoefficient[] getBasisCoefficients() {
+        final ConstantCoefficient[] coefficients = new ConstantCoefficient[height];
+        for (int row = 0; row < height; row++) {
+            coefficients[row] = Coefficients.from(get(row, 0));
+        }
+
+        return coefficients;
+    }
+
+    private static double clean(final double value) {
+        return Math.abs(value) <= EPSILON ? 0d : value;
+    }
+
+    private static int getCapacity(final int size) {
+        return size + size / 8 + 4;
+    }
+
+    /**
+     * What undo needs to take a pivot back: the pivot column from before the pivot, which holds the pivot coefficient,
+     * and the variable that left the basis, along with whether its column had been dropped.
+     */
+    static final class Pivot {
+        private final int row;
+        private final int col;
+        private final double[] column;
+        private final int leavingVariable;
+        private final boolean wasLeavingColumnDropped;
+
+        private Pivot(final DoubleTableau tableau, final int row, final int col) {
+            this.row = row;
+            this.col = col;
+            this.column = new double[tableau.height + 2];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = tableau.get(i, col);
+            }
+            this.leavingVariable = tableau.basisVariables[row];
+            this.wasLeavingColumnDropped = tableau.dropped[leavingVariable + 1];
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package core;
+
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import math.Fraction;
+
+import java.math.BigInteger;
+
+/**
+ * A dense, in-memory tableau of BigIntegers for problems with integer coefficients, pivoted without ever forming a
+ * fraction.
+ * <p>
+ * Every entry is kept as an integer over one common denominator d, which starts at 1. Pivoting on p = T_rc leaves the
+ * pivot row as is, replaces every other entry with (p * T_ij - T_ic * T_rj) / d and makes p the new denominator. The
+ * division is always exact (each entry is a minor of the original matrix), so there are no gcds to compute, and since
+ * the ratio test only picks positive pivots d stays positive and signs can be read straight off the numerators.
+ */
+final class FractionFreeTableau implements BigMTableau {
+    private final int height;
+    private final int width;
+    private final int firstArtificialColumn;
+    private final int[] basisVariables;
+    private final boolean[] dropped;
+    private final BigInteger[][] rows;
+    private BigInteger denominator;
+
+    /**
+     * @param rows the height constraint rows followed by the M and constant objective rows, all integers
+     * @param firstArtificialColumn the tableau column of the first artificial variable, which are dropped once they
+     *                              leave the basis
+     */
+    FractionFreeTableau(final int[] basisVariables, final BigInteger[][] rows, final int firstArtificialColumn) {
+        this.height = basisVariables.length;
+        this.width = rows[0].length - 1;
+        this.firstArtificialColumn = firstArtificialColumn;
+        this.basisVariables = basisVariables.clone();
+        this.dropped = new boolean[width + 1];
+        this.rows = rows;
+        this.denominator = BigInteger.ONE;
+    }
+
+    @Override
+    public int findOptimalPivotCol() {
+        // Every entry shares the same positive denominator, so comparing numerators is enough
+        int optimalPivotCol = -1;
+        BigInteger mostNegativeM = BigInteger.ZERO;
+        BigInteger mostNegativeConstant = BigInteger.ZERO;
+        for (int col = 1; col <= width; col++) {
+            if (dropped[col]) {
+                continue;
+            }
+
+            final BigInteger m = rows[height][col];
+            final BigInteger constant = rows[height + 1][col];
+            final int comparison = m.compareTo(mostNegativeM);
+            if (comparison < 0 || comparison == 0 && constant.compareTo(mostNegativeConstant) < 0) {
+                optimalPivotCol = col;
+                mostNegativeM = m;
+                mostNegativeConstant = constant;
+            }
+        }
+
+        return optimalPivotCol;
+    }
+
+    @Override
+    public int findOptimalPivotRow(final int col) {
+        // The denominators cancel in b_i / a_ic, and we compare b_i / a_ic < b_k / a_kc as b_i * a_kc < b_k * a_ic
+        int optimalRow = -1;
+        for (int row = 0; row < height; row++) {
+            final BigInteger divisor = rows[row][col];
+            if (divisor.signum() <= 0) {
+                continue;
+            }
+
+            if (optimalRow == -1 || rows[row][0].multiply(rows[optimalRow][col])
+                    .compareTo(rows[optimalRow][0].multiply(divisor)) < 0) {
+                optimalRow = row;
+            }
+        }
+
+        return optimalRow;
+    }
+
+    @Override
+    public void pivot(final int row, final int col) {
+        final int leavingColumn = basisVariables[row] + 1;
+        if (leavingColumn >= firstArtificialColumn) {
+            dropped[leavingColumn] = true;
+        }
+        basisVariables[row] = col - 1;
+
+        final BigInteger[] pivotRow = rows[row];
+        final BigInteger pivotCoefficient = pivotRow[col];
+        final boolean isUnitDenominator = denominator.equals(BigInteger.ONE);
+        for (int i = 0; i < height + 2; i++) {
+            if (i == row) {
+                continue;
+            }
+
+            final BigInteger[] rowValues = rows[i];
+            final BigInteger factor = rowValues[col];
+            for (int j = 0; j <= width; j++) {
+                BigInteger value = rowValues[j].multiply(pivotCoefficient);
+                if (factor.signum() != 0 && pivotRow[j].signum() != 0) {
+                    value = value.subtract(factor.multiply(pivotRow[j]));
+                }
+                rowValues[j] = isUnitDenominator ? value : value.divide(denominator);
+            }
+        }
+
+        denominator = pivotCoefficient;
+    }
+
+    @Override
+    public int[] getBasisVariables() {
+        return basisVariables.clone();
+    }
+
+    @Override
+    public ConstantCoefficient[] getBasisCoefficients() {
+        final ConstantCoefficient[] coefficients = new ConstantCoefficient[height];
+        for (int row = 0; row < height; row++) {
+            coefficients[row] = Coefficients.fromFraction(Fraction.of(rows[row][0], denominator));
+        }
+
+        return coefficients;
+    }
+}
@@ -0,0 +1,225 @@
+package core;
+
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import math.Fraction;
+
+/**
+ * An in-memory tableau of exact Fractions. This is exact for any rational input, and unlike the Coefficient Tableau
+ * its entries never overflow no matter how many pivots the solve takes.
+ * <p>
+ * Like the Coefficient Tableau, only the real variables are stored densely. The slack and artificial columns start out
+ * as unit columns, which a pivot leaves alone unless it's on their own row, so a tall problem only ever materializes
+ * the few of them that leave the basis.
+ */
+final class FractionTableau implements BigMTableau {
+    private final int height;
+    private final int width;
+    private final int numExplicitVariables;
+    private final int firstArtificialColumn;
+    private final int[] basisVariables;
+    private final boolean[] dropped;
+    private final Fraction[][] rows;
+    private final ImplicitColumn[] implicitColumns;
+
+    /**
+     * @param rows the height constraint rows followed by the M and constant objective rows, over the value column and
+     *             the explicit variables
+     * @param implicitColumns the columns of the remaining variables, in order
+     * @param firstArtificialColumn the tableau column of the first artificial variable, which are dropped once they
+     *                              leave the basis
+     */
+    FractionTableau(final int[] basisVariables,
+                    final Fraction[][] rows,
+                    final ImplicitColumn[] implicitColumns,
+                    final int firstArtificialColumn) {
+        this.height = basisVariables.length;
+        this.numExplicitVariables = rows[0].length - 1;
+        this.width = numExplicitVariables + implicitColumns.length;
+        this.firstArtificialColumn = firstArtificialColumn;
+        this.basisVariables = basisVariables.clone();
+        this.dropped = new boolean[width + 1];
+        this.rows = rows;
+        this.implicitColumns = implicitColumns.clone();
+    }
+
+    @Override
+    public int findOptimalPivotCol() {
+        int optimalPivotCol = -1;
+        Fraction mostNegativeM = Fraction.ZERO;
+        Fraction mostNegativeConstant = Fraction.ZERO;
+        for (int col = 1; col <= width; col++) {
+            if (dropped[col]) {
+                continue;
+            }
+
+            final Fraction m = get(height, col);
+            final Fraction constant = get(height + 1, col);
+            final int comparison = m.compareTo(mostNegativeM);
+            if (comparison < 0 || comparison == 0 && constant.compareTo(mostNegativeConstant) < 0) {
+                optimalPivotCol = col;
+                mostNegativeM = m;
+                mostNegativeConstant = constant;
+            }
+        }
+
+        return optimalPivotCol;
+    }
+
+    @Override
+    public int findOptimalPivotRow(final int col) {
+        int optimalRow = -1;
+        Fraction minimumRatio = null;
+        for (int row = 0; row < height; row++) {
+            final Fraction divisor = get(row, col);
+            if (divisor.signum() <= 0) {
+                continue;
+            }
+
+            final Fraction ratio = rows[row][0].divide(divisor);
+            if (minimumRatio == null || ratio.compareTo(minimumRatio) < 0) {
+                minimumRatio = ratio;
+                optimalRow = row;
+            }
+        }
+
+        return optimalRow;
+    }
+
+    @Override
+    public void pivot(final int row, final int col) {
+        final int leavingColumn = basisVariables[row] + 1;
+        if (leavingColumn >= firstArtificialColumn) {
+            dropped[leavingColumn] = true;
+        }
+        basisVariables[row] = col - 1;
+
+        final Fraction[] pivotColumn = new Fraction[height + 2];
+        for (int i = 0; i < height + 2; i++) {
+            pivotColumn[i] = get(i, col);
+        }
+        final Fraction inversePivotCoefficient = pivotColumn[row].inverse();
+
+        final Fraction[] pivotRow = rows[row];
+        for (int j = 0; j <= numExplicitVariables; j++) {
+            pivotRow[j] = pivotRow[j].multiply(inversePivotCoefficient);
+        }
+        for (int i = 0; i < height + 2; i++) {
+            final Fraction factor = pivotColumn[i];
+            if (i == row || factor.signum() == 0) {
+                continue;
+            }
+
+            final Fraction[] rowValues = rows[i];
+            for (int j = 0; j <= numExplicitVariables; j++) {
+                if (pivotRow[j].signum() != 0) {
+                    rowValues[j] = rowValues[j].subtract(factor.multiply(pivotRow[j]));
+                }
+            }
+        }
+
+        for (int j = 0; j < implicitColumns.length; j++) {
+            final int implicitCol = numExplicitVariables + j + 1;
+            if (dropped[implicitCol]) {
+                // A dropped column is never read again
+                implicitColumns[j] = null;
+            } else if (implicitCol == col) {
+                // The entering variable becomes the basis variable of the pivot row
+                implicitColumns[j] = ImplicitColumn.unit(row, Fraction.ONE, Fraction.ZERO, Fraction.ZERO);
+            } else {
+                implicitColumns[j] = implicitColumns[j].pivot(row, pivotColumn, inversePivotCoefficient);
+            }
+        }
+    }
+
+    private Fraction get(final int row, final int col) {
+        if (col > numExplicitVariables) {
+            return implicitColumns[col - numExplicitVariables - 1].get(row, height);
+        }
+
+        return rows[row][col];
+    }
+
+    @Override
+    public int[] getBasisVariables() {
+        return basisVariables.clone();
+    }
+
+    @Override
+    public ConstantCoefficient[] getBasisCoefficients() {
+        final ConstantCoefficient[] coefficients = new ConstantCoefficient[height];
+        for (int row = 0; row < height; row++) {
+            coefficients[row] = Coefficients.fromFraction(rows[row][0]);
+        }
+
+        return coefficients;
+    }
+
+    /**
+     * A column with a single non-zero value among the constraint rows, and its values in the two objective rows, which
+     * is materialized into a dense column once a pivot on that row makes it one.
+     */
+    static final class ImplicitColumn {
+        private final int unitRow;
+        private final Fraction unitValue;
+        private final Fraction m;
+        private final Fraction constant;
+        private final Fraction[] values;
+
+        private ImplicitColumn(final int unitRow,
+                               final Fraction unitValue,
+                               final Fraction m,
+                               final Fraction constant,
+                               final Fraction[] values) {
+            this.unitRow = unitRow;
+            this.unitValue = unitValue;
+            this.m = m;
+            this.constant = constant;
+            this.values = values;
+        }
+
+        /**
+         * A column whose only non-zero constraint value is in the given row, with the given reduced cost.
+         */
+        static ImplicitColumn unit(final int row, final Fraction value, final Fraction m, final Fraction constant) {
+            return new ImplicitColumn(row, value, m, constant, null);
+        }
+
+        private Fraction get(final int row, final int height) {
+            if (values != null) {
+                return values[row];
+            }
+            if (row == unitRow) {
+                return unitValue;
+            }
+            if (row == height) {
+                return m;
+            }
+
+            return row == height + 1 ? constant : Fraction.ZERO;
+        }
+
+        private ImplicitColumn pivot(final int row,
+                                     final Fraction[] pivotColumn,
+                                     final Fraction inversePivotCoefficient) {
+            if (values == null && unitRow != row) {
+                // Unit columns outside the pivot row are untouched by the pivot
+                return this;
+            }
+
+            final Fraction[] newValues = new Fraction[pivotColumn.length];
+            final int height = pivotColumn.length - 2;
+            for (int i = 0; i < newValues.length; i++) {
+                newValues[i] = get(i, height);
+            }
+            newValues[row] = newValues[row].multiply(inversePivotCoefficient);
+            for (int i = 0; i < newValues.length; i++) {
+                if (i != row && pivotColumn[i].signum() != 0) {
+                    newValues[i] = newValues[i].subtract(pivotColumn[i].multiply(newValues[row]));
+                }
+            }
+
+            return new ImplicitColumn(-1, null, null, null, newValues);
+        }
+    }
+}
@@ -0,0 +1,671 @@
+package core;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import coefficients.DoubleCoefficient;
+import coefficients.RationalCoefficient;
+import math.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shrinks an LP before its tableau is built, and maps solutions of the smaller LP back to the original variables.
+ * <p>
+ * Each pass removes empty rows, turns rows over a single variable into bounds on it, fixes variables whose bounds
+ * meet, and fixes dominated variables, i.e. ones whose cost and rows all say they're best at one of their bounds.
+ * Equalities over two variables are solved for one of them, which is substituted out of the other rows, and rows that
+ * are multiples of each other are merged into one, or two if they bound the same combination from both sides. Passes
+ * repeat while they find something, since each reduction can expose others.
+ * <p>
+ * What's left is the LP over the remaining variables, shifted so that their lower bounds are 0, with a row for each
+ * upper bound that's left. The arithmetic is done in Coefficients, so an exact engine stays exact. Since the tableau
+ * grows with the product of rows and columns, every row and column removed here pays off twice.
+ */
+final class LinearPresolve {
+    private static final int MAX_PASSES = 20;
+    // How far a double can be from satisfying an empty row, or a bound from its opposite, and still count as feasible
+    private static final double FEASIBILITY_TOLERANCE = 1e-9;
+    // Doubles this small left by substitutions are taken to be zeros that rounding missed
+    private static final double ZERO_TOLERANCE = 1e-12;
+    private static final int LESS_THAN = -1;
+    private static final int EQUALITY = 0;
+    private static final int GREATER_THAN = 1;
+
+    private final boolean maximize;
+    private final Vector originalCostVector;
+    private final int numOriginalRows;
+    private final Coefficient[] costs;
+    private final Coefficient[][] rows;
+    private final int[] types;
+    private final Coefficient[] constants;
+    private final boolean[] isRowRemoved;
+    private final Coefficient[] lowerBounds;
+    // Null for variables without an upper bound
+    private final Coefficient[] upperBounds;
+    private final boolean[] isColumnRemoved;
+    // In the order they were made, which postsolve undoes in reverse
+    private final List<Reduction> reductions;
+    private boolean isInfeasible;
+
+    // The presolved LP, over the variables that are left, in their original order
+    private int[] originalVariables;
+    private Vector costVector;
+    private final List<Vector> lessThanInequalities;
+    private final List<ConstantCoefficient> lessThanConstants;
+    private final List<Vector> equalities;
+    private final List<ConstantCoefficient> equalityConstants;
+    private final List<Vector> greaterThanInequalities;
+    private final List<ConstantCoefficient> greaterThanConstants;
+
+    /**
+     * A variable removed from the LP, whose value is constant + coefficient * x_other, or just constant without an
+     * other variable.
+     */
+    private static final class Reduction {
+        private final int variable;
+        private final Coefficient constant;
+        private final int otherVariable;
+        private final Coefficient coefficient;
+
+        private Reduction(final int variable,
+                          final Coefficient constant,
+                          final int otherVariable,
+                          final Coefficient coefficient) {
+            this.variable = variable;
+            this.constant = constant;
+            this.otherVariable = otherVariable;
+            this.coefficient = coefficient;
+        }
+    }
+
+    private LinearPresolve(final boolean maximize,
+                           final Vector costVector,
+                           final List<Vector> lessThanInequalities,
+                           final List<ConstantCoefficient> lessThanConstants,
+                           final List<Vector> equalities,
+                           final List<ConstantCoefficient> equalityConstants,
+                           final List<Vector> greaterThanInequalities,
+                           final List<ConstantCoefficient> greaterThanConstants) {
+        this.maximize = maximize;
+        this.originalCostVector = costVector;
+        final int numVariables = costVector.length();
+        this.costs = costVector.getValues().clone();
+        this.numOriginalRows = lessThanInequalities.size() + equalities.size() + greaterThanInequalities.size();
+        this.rows = new Coefficient[numOriginalRows][];
+        this.types = new int[numOriginalRows];
+        this.constants = new Coefficient[numOriginalRows];
+        int row = 0;
+        for (int i = 0; i < lessThanInequalities.size(); i++, row++) {
+            setRow(row, lessThanInequalities.get(i), lessThanConstants.get(i), LESS_THAN);
+        }
+        for (int i = 0; i < equalities.size(); i++, row++) {
+            setRow(row, equalities.get(i), equalityConstants.get(i), EQUALITY);
+        }
+        for (int i = 0; i < greaterThanInequalities.size(); i++, row++) {
+            setRow(row, greaterThanInequalities.get(i), greaterThanConstants.get(i), GREATER_THAN);
+        }
+        this.isRowRemoved = new boolean[numOriginalRows];
+        this.lowerBounds = new Coefficient[numVariables];
+        Arrays.fill(lowerBounds, Coefficients.ZERO);
+        this.upperBounds = new Coefficient[numVariables];
+        this.isColumnRemoved = new boolean[numVariables];
+        this.reductions = new ArrayList<>();
+        this.lessThanInequalities = new ArrayList<>();
+        this.lessThanConstants = new ArrayList<>();
+        this.equalities = new ArrayList<>();
+        this.equalityConstants = new ArrayList<>();
+        this.greaterThanInequalities = new ArrayList<>();
+        this.greaterThanConstants = new ArrayList<>();
+    }
+
+    private void setRow(final int row, final Vector vector, final ConstantCoefficient constant, final int type) {
+        rows[row] = vector.getValues().clone();
+        constants[row] = constant;
+        types[row] = type;
+    }
+
+    /**
+     * Presolve an LP given as the Simplex builder holds it. Returns null if it can't be presolved, which is the case
+     * when its rows hold Ms, since the reductions need constant rows.
+     */
+    static LinearPresolve run(final boolean maximize,
+                              final Vector costVector,
+                              final List<Vector> lessThanInequalities,
+                              final List<ConstantCoefficient> lessThanConstants,
+                              final List<Vector> equalities,
+                              final List<ConstantCoefficient> equalityConstants,
+                              final List<Vector> greaterThanInequalities,
+                              final List<ConstantCoefficient> greaterThanConstants) {
+        final List<Vector> allRows = new ArrayList<>(lessThanInequalities);
+        allRows.addAll(equalities);
+        allRows.addAll(greaterThanInequalities);
+        for (final Vector row : allRows) {
+            for (final Coefficient coefficient : row.getValues()) {
+                if (!(coefficient instanceof ConstantCoefficient)) {
+                    return null;
+                }
+            }
+        }
+
+        final LinearPresolve presolve = new LinearPresolve(
+                maximize,
+                costVector,
+                lessThanInequalities,
+                lessThanConstants,
+                equalities,
+                equalityConstants,
+                greaterThanInequalities,
+                greaterThanConstants
+        );
+        boolean changed = true;
+        for (int pass = 0; pass < MAX_PASSES && changed && !presolve.isInfeasible; pass++) {
+            changed = presolve.removeSmallRows()
+                    | presolve.fixColumns()
+                    | presolve.eliminateDoubletonEqualities()
+                    | presolve.mergeDuplicateRows();
+        }
+        if (!presolve.isInfeasible) {
+            presolve.build();
+        }
+
+        return presolve;
+    }
+
+    /**
+     * Whether presolve proved the LP infeasible, in which case the presolved LP is empty.
+     */
+    boolean isInfeasible() {
+        return isInfeasible;
+    }
+
+    Vector getOriginalCostVector() {
+        return originalCostVector;
+    }
+
+    Vector getCostVector() {
+        return costVector;
+    }
+
+    List<Vector> getLessThanInequalities() {
+        return lessThanInequalities;
+    }
+
+    List<ConstantCoefficient> getLessThanConstants() {
+        return lessThanConstants;
+    }
+
+    List<Vector> getEqualities() {
+        return equalities;
+    }
+
+    List<ConstantCoefficient> getEqualityConstants() {
+        return equalityConstants;
+    }
+
+    List<Vector> getGreaterThanInequalities() {
+        return greaterThanInequalities;
+    }
+
+    List<ConstantCoefficient> getGreaterThanConstants() {
+        return greaterThanConstants;
+    }
+
+    int getRemovedRows() {
+        return numOriginalRows - lessThanInequalities.size() - equalities.size() - greaterThanInequalities.size();
+    }
+
+    int getRemovedColumns() {
+        return originalCostVector.length() - costVector.length();
+    }
+
+    /**
+     * Map a solution of the presolved LP back to the original variables.
+     */
+    Vector postsolve(final Vector solution) {
+        final Coefficient[] values = new Coefficient[originalCostVector.length()];
+        Arrays.fill(values, Coefficients.ZERO);
+        if (!isInfeasible) {
+            for (int i = 0; i < originalVariables.length; i++) {
+                final int variable = originalVariables[i];
+                values[variable] = Coefficients.isZero(lowerBounds[variable])
+                        ? solution.get(i)
+                        : Coefficients.add(lowerBounds[variable], solution.get(i));
+            }
+        }
+        for (int i = reductions.size() - 1; i >= 0; i--) {
+            final Reduction reduction = reductions.get(i);
+            values[reduction.variable] = reduction.otherVariable == -1
+                    ? reduction.constant
+                    : Coefficients.add(
+                            reduction.constant,
+                            Coefficients.scaleBy(reduction.coefficient, values[reduction.otherVariable])
+                    );
+        }
+
+        return new Vector(values);
+    }
+
+    /**
+     * Remove rows over no variables, after checking they hold, and turn rows over one variable into its bounds.
+     */
+    private boolean removeSmallRows() {
+        boolean changed = false;
+        for (int row = 0; row < rows.length && !isInfeasible; row++) {
+            if (isRowRemoved[row]) {
+                continue;
+            }
+
+            int variable = -1;
+            int numNonZeros = 0;
+            for (int column = 0; column < costs.length; column++) {
+                if (!isColumnRemoved[column] && !isZero(rows[row][column])) {
+                    variable = column;
+                    numNonZeros++;
+                }
+            }
+            if (numNonZeros > 1) {
+                continue;
+            }
+
+            if (numNonZeros == 0) {
+                final double constant = Coefficients.asDouble(constants[row]);
+                isInfeasible = types[row] == LESS_THAN && constant < -FEASIBILITY_TOLERANCE
+                        || types[row] == GREATER_THAN && constant > FEASIBILITY_TOLERANCE
+                        || types[row] == EQUALITY && Math.abs(constant) > FEASIBILITY_TOLERANCE;
+            } else {
+                final Coefficient coefficient = rows[row][variable];
+                final Coefficient bound = divide(constants[row], coefficient);
+                final boolean isPositive = Coefficients.isPositive(coefficient);
+                if (types[row] == EQUALITY || (types[row] == GREATER_THAN) == isPositive) {
+                    tightenLowerBound(variable, bound);
+                }
+                if (types[row] == EQUALITY || (types[row] == LESS_THAN) == isPositive) {
+                    tightenUpperBound(variable, bound);
+                }
+            }
+            isRowRemoved[row] = true;
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    private void tightenLowerBound(final int variable, final Coefficient bound) {
+        if (Coefficients.greaterThan(bound, lowerBounds[variable])) {
+            lowerBounds[variable] = bound;
+        }
+        checkBounds(variable);
+    }
+
+    private void tightenUpperBound(final int variable, final Coefficient bound) {
+        if (upperBounds[variable] == null || Coefficients.lessThan(bound, upperBounds[variable])) {
+            upperBounds[variable] = bound;
+        }
+        checkBounds(variable);
+    }
+
+    private void checkBounds(final int variable) {
+        if (upperBounds[variable] != null && Coefficients.asDouble(lowerBounds[variable])
+                > Coefficients.asDouble(upperBounds[variable]) + FEASIBILITY_TOLERANCE) {
+            isInfeasible = true;
+        }
+    }
+
+    /**
+     * Fix the variables whose bounds meet, and the dominated ones: a variable whose rows all get harder to satisfy as
+     * it grows, and whose cost doesn't reward it for growing, is best at its lower bound, and the other way around.
+     */
+    private boolean fixColumns() {
+        boolean changed = false;
+        for (int column = 0; column < costs.length && !isInfeasible; column++) {
+            if (isColumnRemoved[column]) {
+                continue;
+            }
+
+            final Coefficient upperBound = upperBounds[column];
+            if (upperBound != null && !Coefficients.lessThan(lowerBounds[column], upperBound)) {
+                fix(column, lowerBounds[column]);
+                changed = true;
+                continue;
+            }
+
+            boolean hurts = false;
+            boolean helps = false;
+            for (int row = 0; row < rows.length; row++) {
+                if (isRowRemoved[row] || isZero(rows[row][column])) {
+                    continue;
+                }
+
+                final boolean isPositive = Coefficients.isPositive(rows[row][column]);
+                hurts |= types[row] == EQUALITY || (types[row] == LESS_THAN) == isPositive;
+                helps |= types[row] == EQUALITY || (types[row] == GREATER_THAN) == isPositive;
+            }
+
+            final int gain = Coefficients.compare(maximize ? costs[column] : costs[column].negate(), Coefficients.ZERO);
+            if (!helps && gain <= 0) {
+                fix(column, lowerBounds[column]);
+                changed = true;
+            } else if (!hurts && gain >= 0 && upperBound != null) {
+                fix(column, upperBound);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    private void fix(final int column, final Coefficient value) {
+        for (int row = 0; row < rows.length; row++) {
+            if (!isRowRemoved[row] && !isZero(rows[row][column])) {
+                constants[row] = subtract(constants[row], Coefficients.scaleBy(rows[row][column], value));
+                rows[row][column] = Coefficients.ZERO;
+            }
+        }
+        isColumnRemoved[column] = true;
+        reductions.add(new Reduction(column, value, -1, null));
+    }
+
+    /**
+     * Solve each equality over two variables, a x_j + b x_k = c, for the variable in fewer rows, and substitute
+     * x_k = c / b - (a / b) x_j out of the LP. The bounds of x_k become bounds on x_j.
+     */
+    private boolean eliminateDoubletonEqualities() {
+        boolean changed = false;
+        for (int row = 0; row < rows.length && !isInfeasible; row++) {
+            if (isRowRemoved[row] || types[row] != EQUALITY) {
+                continue;
+            }
+
+            int first = -1;
+            int second = -1;
+            int numNonZeros = 0;
+            for (int column = 0; column < costs.length; column++) {
+                if (!isColumnRemoved[column] && !isZero(rows[row][column])) {
+                    first = first == -1 ? column : first;
+                    second = first == column ? second : column;
+                    numNonZeros++;
+                }
+            }
+            if (numNonZeros != 2) {
+                continue;
+            }
+
+            final boolean keepFirst = countRows(first) >= countRows(second);
+            final int kept = keepFirst ? first : second;
+            final int eliminated = keepFirst ? second : first;
+            final Coefficient constant = divide(constants[row], rows[row][eliminated]);
+            final Coefficient coefficient = divide(rows[row][kept], rows[row][eliminated]).negate();
+            isRowRemoved[row] = true;
+
+            // l <= constant + coefficient x_j <= u
+            final boolean isPositive = Coefficients.isPositive(coefficient);
+            final Coefficient fromLowerBound = divide(subtract(lowerBounds[eliminated], constant), coefficient);
+            if (isPositive) {
+                tightenLowerBound(kept, fromLowerBound);
+            } else {
+                tightenUpperBound(kept, fromLowerBound);
+            }
+            if (upperBounds[eliminated] != null) {
+                final Coefficient fromUpperBound = divide(subtract(upperBounds[eliminated], constant), coefficient);
+                if (isPositive) {
+                    tightenUpperBound(kept, fromUpperBound);
+                } else {
+                    tightenLowerBound(kept, fromUpperBound);
+                }
+            }
+
+            for (int otherRow = 0; otherRow < rows.length; otherRow++) {
+                final Coefficient[] values = rows[otherRow];
+                if (isRowRemoved[otherRow] || isZero(values[eliminated])) {
+                    continue;
+                }
+
+                final Coefficient substituted = Coefficients.scaleBy(values[eliminated], coefficient);
+                values[kept] = simplify(Coefficients.add(values[kept], substituted));
+                constants[otherRow] = subtract(constants[otherRow], Coefficients.scaleBy(values[eliminated], constant));
+                values[eliminated] = Coefficients.ZERO;
+            }
+            costs[kept] = Coefficients.add(costs[kept], Coefficients.scaleBy(costs[eliminated], coefficient));
+            isColumnRemoved[eliminated] = true;
+            reductions.add(new Reduction(eliminated, constant, kept, coefficient));
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    private int countRows(final int column) {
+        int count = 0;
+        for (int row = 0; row < rows.length; row++) {
+            if (!isRowRemoved[row] && !isZero(rows[row][column])) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Merge rows that are multiples of each other. Scaled so that their first coefficient is 1, they all bound the
+     * same combination of variables, so together they bound it from above, below or both, which one row, or a pair,
+     * says as well.
+     */
+    private boolean mergeDuplicateRows() {
+        final Map<List<Double>, List<Integer>> rowsByKey = new HashMap<>();
+        final Coefficient[][] scaledRows = new Coefficient[rows.length][];
+        final Coefficient[] scales = new Coefficient[rows.length];
+        for (int row = 0; row < rows.length; row++) {
+            if (isRowRemoved[row]) {
+                continue;
+            }
+
+            Coefficient scale = null;
+            final Coefficient[] scaledRow = new Coefficient[costs.length];
+            final List<Double> key = new ArrayList<>();
+            for (int column = 0; column < costs.length; column++) {
+                if (isColumnRemoved[column] || isZero(rows[row][column])) {
+                    scaledRow[column] = Coefficients.ZERO;
+                    continue;
+                }
+
+                scale = scale == null ? rows[row][column] : scale;
+                scaledRow[column] = divide(rows[row][column], scale);
+                key.add((double) column);
+                key.add(Coefficients.asDouble(scaledRow[column]));
+            }
+            if (scale == null) {
+                // Left empty by this pass, and removed by the next
+                continue;
+            }
+
+            scaledRows[row] = scaledRow;
+            scales[row] = scale;
+            rowsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+        }
+
+        boolean changed = false;
+        for (final List<Integer> group : rowsByKey.values()) {
+            if (group.size() > 1 && !isInfeasible) {
+                changed |= mergeRows(group, scaledRows, scales);
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Merge a group of rows with the same scaled coefficients, and return whether any were removed.
+     */
+    private boolean mergeRows(final List<Integer> group, final Coefficient[][] scaledRows, final Coefficient[] scales) {
+        final int first = group.get(0);
+        Coefficient lowerBound = null;
+        Coefficient upperBound = null;
+        final List<Integer> merged = new ArrayList<>();
+        for (final int row : group) {
+            if (!Arrays.equals(toDoubles(scaledRows[row]), toDoubles(scaledRows[first]))
+                    || !allEqual(scaledRows[row], scaledRows[first])) {
+                continue;
+            }
+
+            merged.add(row);
+            final Coefficient bound = divide(constants[row], scales[row]);
+            final boolean isFlipped = Coefficients.isNegative(scales[row]);
+            if (types[row] == EQUALITY || (types[row] == GREATER_THAN) != isFlipped) {
+                lowerBound = lowerBound == null || Coefficients.greaterThan(bound, lowerBound) ? bound : lowerBound;
+            }
+            if (types[row] == EQUALITY || (types[row] == LESS_THAN) != isFlipped) {
+                upperBound = upperBound == null || Coefficients.lessThan(bound, upperBound) ? bound : upperBound;
+            }
+        }
+        if (merged.size() < 2) {
+            return false;
+        }
+        if (lowerBound != null && upperBound != null && Coefficients.asDouble(lowerBound)
+                > Coefficients.asDouble(upperBound) + FEASIBILITY_TOLERANCE) {
+            isInfeasible = true;
+            return false;
+        }
+
+        for (final int row : merged) {
+            isRowRemoved[row] = true;
+        }
+        final boolean isEquality = lowerBound != null && upperBound != null
+                && !Coefficients.lessThan(lowerBound, upperBound);
+        if (isEquality) {
+            restoreRow(merged.get(0), scaledRows[first], lowerBound, EQUALITY);
+            return true;
+        }
+        if (upperBound != null) {
+            restoreRow(merged.get(0), scaledRows[first], upperBound, LESS_THAN);
+        }
+        if (lowerBound != null) {
+            restoreRow(merged.get(upperBound != null ? 1 : 0), scaledRows[first], lowerBound, GREATER_THAN);
+        }
+
+        return true;
+    }
+
+    private void restoreRow(final int row, final Coefficient[] values, final Coefficient constant, final int type) {
+        rows[row] = values.clone();
+        constants[row] = constant;
+        types[row] = type;
+        isRowRemoved[row] = false;
+    }
+
+    /**
+     * Build the presolved LP from the rows and columns that are left, with every variable shifted by its lower bound.
+     */
+    private void build() {
+        final List<Integer> variables = new ArrayList<>();
+        for (int column = 0; column < costs.length; column++) {
+            if (!isColumnRemoved[column]) {
+                variables.add(column);
+            }
+        }
+        this.originalVariables = variables.stream().mapToInt(Integer::intValue).toArray();
+
+        final Coefficient[] reducedCosts = new Coefficient[originalVariables.length];
+        for (int i = 0; i < originalVariables.length; i++) {
+            reducedCosts[i] = costs[originalVariables[i]];
+        }
+        this.costVector = new Vector(reducedCosts);
+
+        for (int row = 0; row < rows.length; row++) {
+            if (isRowRemoved[row]) {
+                continue;
+            }
+
+            Coefficient constant = constants[row];
+            final Coefficient[] values = new Coefficient[originalVariables.length];
+            for (int i = 0; i < originalVariables.length; i++) {
+                final int variable = originalVariables[i];
+                values[i] = isZero(rows[row][variable]) ? Coefficients.ZERO : rows[row][variable];
+                if (!Coefficients.isZero(lowerBounds[variable])) {
+                    constant = subtract(constant, Coefficients.scaleBy(values[i], lowerBounds[variable]));
+                }
+            }
+            addRow(new Vector(values), constant, types[row]);
+        }
+
+        for (int i = 0; i < originalVariables.length; i++) {
+            final int variable = originalVariables[i];
+            if (upperBounds[variable] != null) {
+                final Coefficient[] unit = new Coefficient[originalVariables.length];
+                Arrays.fill(unit, Coefficients.ZERO);
+                unit[i] = Coefficients.ONE;
+                final Coefficient range = subtract(upperBounds[variable], lowerBounds[variable]);
+                addRow(new Vector(unit), Coefficients.isNegative(range) ? Coefficients.ZERO : range, LESS_THAN);
+            }
+        }
+    }
+
+    /**
+     * Add a row to the presolved LP, flipped if need be so that its constant isn't negative, as the Simplex expects.
+     */
+    private void addRow(final Vector row, final Coefficient constant, final int type) {
+        final boolean isFlipped = Coefficients.isNegative(constant);
+        final Vector flippedRow = isFlipped ? Vector.negate(row) : row;
+        final ConstantCoefficient flippedConstant = (ConstantCoefficient) (isFlipped ? constant.negate() : constant);
+        final int flippedType = isFlipped ? -type : type;
+        if (flippedType == LESS_THAN) {
+            lessThanInequalities.add(flippedRow);
+            lessThanConstants.add(flippedConstant);
+        } else if (flippedType == EQUALITY) {
+            equalities.add(flippedRow);
+            equalityConstants.add(flippedConstant);
+        } else {
+            greaterThanInequalities.add(flippedRow);
+            greaterThanConstants.add(flippedConstant);
+        }
+    }
+
+    private static boolean isZero(final Coefficient coefficient) {
+        return coefficient instanceof DoubleCoefficient
+                ? Math.abs(Coefficients.asDouble(coefficient)) <= ZERO_TOLERANCE
+                : Coefficients.isZero(coefficient);
+    }
+
+    private static Coefficient divide(final Coefficient first, final Coefficient second) {
+        return simplify(Coefficients.divide(first, second));
+    }
+
+    private static Coefficient subtract(final Coefficient first, final Coefficient second) {
+        return simplify(Coefficients.subtract(first, second));
+    }
+
+    /**
+     * Turn a rational that's a whole number back into an integer, which keeps integer LPs integer where they can be.
+     */
+    private static Coefficient simplify(final Coefficient coefficient) {
+        if (coefficient instanceof RationalCoefficient
+                && ((RationalCoefficient) coefficient).getDenominatorValue() == 1) {
+            return Coefficients.from(((RationalCoefficient) coefficient).getNumeratorValue());
+        }
+
+        return coefficient;
+    }
+
+    private static double[] toDoubles(final Coefficient[] values) {
+        final double[] doubles = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubles[i] = Coefficients.asDouble(values[i]);
+        }
+
+        return doubles;
+    }
+
+    private static boolean allEqual(final Coefficient[] first, final Coefficient[] second) {
+        for (int i = 0; i < first.length; i++) {
+            if (!Coefficients.equalTo(first[i], second[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,419 @@
+package core;
+
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import lang.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * A tableau of doubles whose rows live in a memory-mapped file rather than on the heap.
+ * <p>
+ * The layout mirrors the Tableau: each row is [b_i | a_i1 ... a_in], and column 0 holds the value of the row's basis
+ * variable. Below the m constraint rows we keep two objective rows holding the M and constant parts of the Big-M
+ * reduced costs, so pricing only ever reads two rows and a pivot updates them like any other row.
+ * <p>
+ * The file holds a header page followed by two regions, each with a basis and a full copy of the rows. A pivot reads
+ * the active region and writes the other one block of rows at a time, so pages are touched sequentially, and then
+ * flips the active region in the header once the new rows are on disk. If the process dies part way through a pivot
+ * the active region is still intact and the solve can be resumed from the file.
+ * <p>
+ * Each region is mapped once, as its basis and one window per block of rows, and the windows are reused by every
+ * pivot. Mappings are only released when their buffers are garbage collected, so mapping afresh on every access would
+ * pile them up over a long solve until the process runs out of them.
+ */
+final class MappedTableau implements BigMTableau {
+    private static final long MAGIC = 0x4D494C5054424C45L;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4096;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int HEIGHT_OFFSET = 12;
+    private static final int WIDTH_OFFSET = 16;
+    private static final int ACTIVE_REGION_OFFSET = 20;
+    private static final int FINGERPRINT_OFFSET = 24;
+    private static final int ITERATIONS_OFFSET = 32;
+
+    // Roughly how many bytes of rows we map and pivot at once
+    private static final long BLOCK_SIZE = 1 << 24;
+    private static final double EPSILON = 1e-9;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int height;
+    private final int width;
+    private final int rowLength;
+    private final long basisSize;
+    private final long regionSize;
+    private final int rowsPerBlock;
+    private final int[] basisVariables;
+    // The basis and the blocks of rows of each region, mapped the first time they're used
+    private final MappedByteBuffer[] basisWindows;
+    private final MappedByteBuffer[][] rowWindows;
+    private int numMappings;
+
+    private MappedTableau(final FileChannel channel,
+                          final int height,
+                          final int width) throws IOException {
+        this.channel = channel;
+        this.header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+        this.header.order(ByteOrder.LITTLE_ENDIAN);
+        this.height = height;
+        this.width = width;
+        this.rowLength = width + 1;
+        this.basisSize = align((long) Integer.BYTES * height, Double.BYTES);
+        this.regionSize = align(basisSize + (long) Double.BYTES * rowLength * (height + 2), HEADER_SIZE);
+        this.rowsPerBlock = (int) Math.max(1, Math.min(height + 2, BLOCK_SIZE / ((long) Double.BYTES * rowLength)));
+        this.basisVariables = new int[height];
+        this.basisWindows = new MappedByteBuffer[2];
+        this.rowWindows = new MappedByteBuffer[2][(height + 2 + rowsPerBlock - 1) / rowsPerBlock];
+        this.numMappings = 1;
+    }
+
+    /**
+     * Create a new tableau file for a problem with the given number of constraint rows and variables. Rows must then be
+     * written with setRow/setObjectiveRows and the initial state committed with checkpoint().
+     */
+    static MappedTableau create(final Path file,
+                                final int height,
+                                final int width,
+                                final long fingerprint) throws IOException {
+        final FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        );
+        final MappedTableau tableau = new MappedTableau(channel, height, width);
+        // Size the file up front (sparsely) so every region we map is backed by it
+        channel.write(ByteBuffer.wrap(new byte[1]), HEADER_SIZE + 2 * tableau.regionSize - 1);
+        // The magic number is only written once the initial rows are committed
+        tableau.header.putLong(MAGIC_OFFSET, 0L);
+        tableau.header.putInt(VERSION_OFFSET, VERSION);
+        tableau.header.putInt(HEIGHT_OFFSET, height);
+        tableau.header.putInt(WIDTH_OFFSET, width);
+        tableau.header.putInt(ACTIVE_REGION_OFFSET, 0);
+        tableau.header.putLong(FINGERPRINT_OFFSET, fingerprint);
+        tableau.header.putLong(ITERATIONS_OFFSET, 0L);
+        return tableau;
+    }
+
+    /**
+     * Reopen a tableau file left behind by an earlier solve of the same problem. Returns empty if the file doesn't
+     * hold a committed tableau, and throws if it holds one for a different problem.
+     */
+    static Optional<MappedTableau> resume(final Path file,
+                                          final int height,
+                                          final int width,
+                                          final long fingerprint) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_SIZE) {
+            return Optional.empty();
+        }
+
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final MappedTableau tableau = new MappedTableau(channel, height, width);
+        final MappedByteBuffer header = tableau.header;
+        if (header.getLong(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            channel.close();
+            return Optional.empty();
+        }
+
+        if (header.getInt(HEIGHT_OFFSET) != height
+                || header.getInt(WIDTH_OFFSET) != width
+                || header.getLong(FINGERPRINT_OFFSET) != fingerprint) {
+            channel.close();
+            throw new IllegalArgumentException("Tableau file " + file + " belongs to a different problem");
+        }
+
+        tableau.readBasis(tableau.getActiveRegion());
+        return Optional.of(tableau);
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    long getIterations() {
+        return header.getLong(ITERATIONS_OFFSET);
+    }
+
+    /**
+     * How many regions of the file are mapped, including the header, which is at most 2 * (blocks + 1) + 1.
+     */
+    int getNumMappings() {
+        return numMappings;
+    }
+
+    @Override
+    public int[] getBasisVariables() {
+        return basisVariables.clone();
+    }
+
+    void setBasisVariables(final int[] basisVariables) {
+        Preconditions.checkArgument(basisVariables.length == height, "Basis must have one variable per row");
+        System.arraycopy(basisVariables, 0, this.basisVariables, 0, height);
+    }
+
+    /**
+     * Write a constraint row, including its right hand side, into the active region.
+     */
+    void setRow(final int row, final double[] values) throws IOException {
+        Preconditions.checkArgument(row >= 0 && row < height, "Row out of range");
+        writeRow(getActiveRegion(), row, values);
+    }
+
+    /**
+     * Write the M and constant parts of the reduced costs into the active region.
+     */
+    void setObjectiveRows(final double[] mValues, final double[] constantValues) throws IOException {
+        writeRow(getActiveRegion(), height, mValues);
+        writeRow(getActiveRegion(), height + 1, constantValues);
+    }
+
+    /**
+     * Flush the active region and mark the file as holding a committed tableau.
+     */
+    void checkpoint() throws IOException {
+        writeBasis(getActiveRegion());
+        channel.force(false);
+        header.putLong(MAGIC_OFFSET, MAGIC);
+        header.force();
+    }
+
+    /**
+     * Return the column with the most negative reduced cost (comparing M parts first), or -1 if none are negative.
+     * As with the Tableau, column 0 is the value of the basis variable so variable j lives in column j + 1.
+     */
+    @Override
+    public int findOptimalPivotCol() throws IOException {
+        final double[] mValues = new double[rowLength];
+        final double[] constantValues = new double[rowLength];
+        // The objective rows can straddle two windows, so they're read one at a time
+        getRows(getActiveRegion(), height, 1).get(mValues);
+        getRows(getActiveRegion(), height + 1, 1).get(constantValues);
+
+        int optimalPivotCol = -1;
+        double mostNegativeM = 0d;
+        double mostNegativeConstant = 0d;
+        for (int col = 1; col < rowLength; col++) {
+            final double m = Math.abs(mValues[col]) <= EPSILON ? 0d : mValues[col];
+            final double constant = Math.abs(constantValues[col]) <= EPSILON ? 0d : constantValues[col];
+            if (m < mostNegativeM || m == mostNegativeM && constant < mostNegativeConstant) {
+                optimalPivotCol = col;
+                mostNegativeM = m;
+                mostNegativeConstant = constant;
+            }
+        }
+
+        return optimalPivotCol;
+    }
+
+    /**
+     * Returns the argmin b_i / a_ik, for i in the constraint rows and k == col, or -1 if no a_ik is positive.
+     */
+    @Override
+    public int findOptimalPivotRow(final int col) throws IOException {
+        final int region = getActiveRegion();
+        int optimalRow = -1;
+        double minimumRatio = Double.POSITIVE_INFINITY;
+        for (int firstRow = 0; firstRow < height; firstRow += rowsPerBlock) {
+            final int numRows = Math.min(rowsPerBlock, height - firstRow);
+            final DoubleBuffer block = getRows(region, firstRow, numRows);
+            for (int i = 0; i < numRows; i++) {
+                final double divisor = block.get(i * rowLength + col);
+                if (divisor <= EPSILON) {
+                    continue;
+                }
+
+                final double ratio = block.get(i * rowLength) / divisor;
+                if (ratio < minimumRatio) {
+                    minimumRatio = ratio;
+                    optimalRow = firstRow + i;
+                }
+            }
+        }
+
+        return optimalRow;
+    }
+
+    /**
+     * Pivot on a row and column, writing the result into the inactive region and then making it the active one.
+     */
+    @Override
+    public void pivot(final int row, final int col) throws IOException {
+        final int sourceRegion = getActiveRegion();
+        final int targetRegion = 1 - sourceRegion;
+
+        final double[] pivotRow = new double[rowLength];
+        getRows(sourceRegion, row, 1).get(pivotRow);
+        final double inversePivotCoefficient = 1 / pivotRow[col];
+        for (int j = 0; j < rowLength; j++) {
+            pivotRow[j] *= inversePivotCoefficient;
+        }
+        pivotRow[col] = 1d;
+
+        final double[] rowValues = new double[rowLength];
+        for (int firstRow = 0; firstRow < height + 2; firstRow += rowsPerBlock) {
+            final int numRows = Math.min(rowsPerBlock, height + 2 - firstRow);
+            final DoubleBuffer source = getRows(sourceRegion, firstRow, numRows);
+            final DoubleBuffer target = getRows(targetRegion, firstRow, numRows);
+            for (int i = firstRow; i < firstRow + numRows; i++) {
+                source.get(rowValues);
+                if (i == row) {
+                    target.put(pivotRow);
+                    continue;
+                }
+
+                final double factor = rowValues[col];
+                if (factor != 0d) {
+                    for (int j = 0; j < rowLength; j++) {
+                        rowValues[j] -= factor * pivotRow[j];
+                    }
+                    rowValues[col] = 0d;
+                }
+                target.put(rowValues);
+            }
+            getRowWindow(targetRegion, firstRow / rowsPerBlock).force();
+        }
+
+        basisVariables[row] = col - 1;
+        writeBasis(targetRegion);
+
+        // Only now that the target region is on disk do we switch over to it
+        header.putInt(ACTIVE_REGION_OFFSET, targetRegion);
+        header.putLong(ITERATIONS_OFFSET, getIterations() + 1);
+        header.force();
+    }
+
+    /**
+     * Return the values of the basis variables, i.e. column 0 of each constraint row.
+     */
+    double[] getBasisValues() throws IOException {
+        final int region = getActiveRegion();
+        final double[] values = new double[height];
+        for (int firstRow = 0; firstRow < height; firstRow += rowsPerBlock) {
+            final int numRows = Math.min(rowsPerBlock, height - firstRow);
+            final DoubleBuffer block = getRows(region, firstRow, numRows);
+            for (int i = 0; i < numRows; i++) {
+                values[firstRow + i] = block.get(i * rowLength);
+            }
+        }
+
+        return values;
+    }
+
+    @Override
+    public ConstantCoefficient[] getBasisCoefficients() throws IOException {
+        final double[] values = getBasisValues();
+        final ConstantCoefficient[] coefficients = new ConstantCoefficient[height];
+        for (int row = 0; row < height; row++) {
+            coefficients[row] = Coefficients.from(values[row]);
+        }
+
+        return coefficients;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int getActiveRegion() {
+        return header.getInt(ACTIVE_REGION_OFFSET);
+    }
+
+    private long regionOffset(final int region) {
+        return HEADER_SIZE + region * regionSize;
+    }
+
+    private long rowOffset(final int region, final int row) {
+        return regionOffset(region) + basisSize + (long) Double.BYTES * rowLength * row;
+    }
+
+    /**
+     * The window holding a block of rows of a region, which is mapped the first time it's asked for.
+     */
+    private MappedByteBuffer getRowWindow(final int region, final int block) throws IOException {
+        if (rowWindows[region][block] == null) {
+            final int firstRow = block * rowsPerBlock;
+            final int numRows = Math.min(rowsPerBlock, height + 2 - firstRow);
+            rowWindows[region][block] = map(rowOffset(region, firstRow), (long) Double.BYTES * rowLength * numRows);
+        }
+
+        return rowWindows[region][block];
+    }
+
+    private MappedByteBuffer getBasisWindow(final int region) throws IOException {
+        if (basisWindows[region] == null) {
+            basisWindows[region] = map(regionOffset(region), basisSize);
+        }
+
+        return basisWindows[region];
+    }
+
+    private MappedByteBuffer map(final long offset, final long size) throws IOException {
+        final MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, offset, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        numMappings++;
+        return buffer;
+    }
+
+    /**
+     * A view of consecutive rows of a region, which must all lie in the same block.
+     */
+    private DoubleBuffer getRows(final int region, final int firstRow, final int numRows) throws IOException {
+        final int block = firstRow / rowsPerBlock;
+        Preconditions.checkArgument((firstRow + numRows - 1) / rowsPerBlock == block, "Rows must lie in one block");
+        final DoubleBuffer rows = getRowWindow(region, block).duplicate()
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asDoubleBuffer();
+        final int offset = (firstRow - block * rowsPerBlock) * rowLength;
+        rows.position(offset);
+        rows.limit(offset + numRows * rowLength);
+        return rows;
+    }
+
+    private void writeRow(final int region, final int row, final double[] values) throws IOException {
+        Preconditions.checkArgument(values.length == rowLength, "Row must have one value per variable plus one");
+        getRows(region, row, 1).put(values);
+    }
+
+    private void writeBasis(final int region) throws IOException {
+        if (height == 0) {
+            return;
+        }
+
+        final MappedByteBuffer buffer = getBasisWindow(region);
+        buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(basisVariables);
+        buffer.force();
+    }
+
+    private void readBasis(final int region) throws IOException {
+        if (height == 0) {
+            return;
+        }
+
+        final IntBuffer buffer = getBasisWindow(region).duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        buffer.get(basisVariables);
+    }
+
+    private static long align(final long size, final long alignment) {
+        return (size + alignment - 1) / alignment * alignment;
+    }
+}
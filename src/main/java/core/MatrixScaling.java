@@ -0,0 +1,264 @@
+package core;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import math.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scales the rows and columns of an LP so that its coefficients are all about 1, and maps solutions of the scaled LP
+ * back.
+ * <p>
+ * Row i is multiplied by r_i and column j by s_j, so the scaled LP has coefficients r_i a_ij s_j, constants r_i b_i
+ * and costs c_j s_j, and its solutions are x_j / s_j. The scales come from passes of geometric mean scaling, which
+ * divide each row and then each column by the geometric mean of its largest and smallest coefficients, for as long as
+ * that narrows the spread of the coefficients. Equilibration then divides each column and finally each row by its
+ * largest coefficient, so every row peaks at 1 and the ratio test compares like with like.
+ * <p>
+ * The scales are rounded to powers of 2, which scale doubles without rounding them, so the scaled LP is the original
+ * one exactly, only easier to pivot on.
+ */
+final class MatrixScaling {
+    private static final int MAX_PASSES = 8;
+    // A pass has to narrow the spread by at least this much for another to be worth it
+    private static final double MIN_PASS_IMPROVEMENT = 0.9;
+
+    private final Vector originalCostVector;
+    private final double[] rowScales;
+    private final double[] columnScales;
+    private final ScalingReport report;
+    private final Vector costVector;
+    private final List<Vector> lessThanInequalities;
+    private final List<ConstantCoefficient> lessThanConstants;
+    private final List<Vector> equalities;
+    private final List<ConstantCoefficient> equalityConstants;
+    private final List<Vector> greaterThanInequalities;
+    private final List<ConstantCoefficient> greaterThanConstants;
+
+    private MatrixScaling(final Vector originalCostVector,
+                          final double[] rowScales,
+                          final double[] columnScales,
+                          final ScalingReport report) {
+        this.originalCostVector = originalCostVector;
+        this.rowScales = rowScales;
+        this.columnScales = columnScales;
+        this.report = report;
+        final Coefficient[] costs = new Coefficient[columnScales.length];
+        for (int column = 0; column < columnScales.length; column++) {
+            costs[column] = scale(originalCostVector.get(column), columnScales[column]);
+        }
+        this.costVector = new Vector(costs);
+        this.lessThanInequalities = new ArrayList<>();
+        this.lessThanConstants = new ArrayList<>();
+        this.equalities = new ArrayList<>();
+        this.equalityConstants = new ArrayList<>();
+        this.greaterThanInequalities = new ArrayList<>();
+        this.greaterThanConstants = new ArrayList<>();
+    }
+
+    /**
+     * Scale an LP given as the Simplex builder holds it. Returns null if it can't be scaled, which is the case when
+     * it holds Ms.
+     */
+    static MatrixScaling run(final Vector costVector,
+                             final List<Vector> lessThanInequalities,
+                             final List<ConstantCoefficient> lessThanConstants,
+                             final List<Vector> equalities,
+                             final List<ConstantCoefficient> equalityConstants,
+                             final List<Vector> greaterThanInequalities,
+                             final List<ConstantCoefficient> greaterThanConstants) {
+        final List<Vector> rows = new ArrayList<>(lessThanInequalities);
+        rows.addAll(equalities);
+        rows.addAll(greaterThanInequalities);
+        final List<Vector> vectors = new ArrayList<>(rows);
+        vectors.add(costVector);
+        for (final Vector vector : vectors) {
+            for (final Coefficient coefficient : vector.getValues()) {
+                if (!(coefficient instanceof ConstantCoefficient)) {
+                    return null;
+                }
+            }
+        }
+
+        final double[][] matrix = new double[rows.size()][];
+        for (int row = 0; row < rows.size(); row++) {
+            final Coefficient[] values = rows.get(row).getValues();
+            matrix[row] = new double[values.length];
+            for (int column = 0; column < values.length; column++) {
+                matrix[row][column] = Math.abs(Coefficients.asDouble(values[column]));
+            }
+        }
+
+        final double[] rowScales = new double[rows.size()];
+        final double[] columnScales = new double[costVector.length()];
+        Arrays.fill(rowScales, 1d);
+        Arrays.fill(columnScales, 1d);
+        final double originalSpread = getSpread(matrix, rowScales, columnScales);
+        double spread = originalSpread;
+        int passes = 0;
+        while (passes < MAX_PASSES && spread > 1) {
+            scaleRows(matrix, rowScales, columnScales, true);
+            scaleColumns(matrix, rowScales, columnScales, true);
+            passes++;
+            final double passSpread = getSpread(matrix, rowScales, columnScales);
+            final boolean isWorthAnother = passSpread < MIN_PASS_IMPROVEMENT * spread;
+            spread = passSpread;
+            if (!isWorthAnother) {
+                break;
+            }
+        }
+        scaleColumns(matrix, rowScales, columnScales, false);
+        scaleRows(matrix, rowScales, columnScales, false);
+        roundToPowersOfTwo(rowScales);
+        roundToPowersOfTwo(columnScales);
+
+        final ScalingReport report
+                = new ScalingReport(originalSpread, getSpread(matrix, rowScales, columnScales), passes);
+        final MatrixScaling scaling = new MatrixScaling(costVector, rowScales, columnScales, report);
+        int row = 0;
+        for (int i = 0; i < lessThanInequalities.size(); i++, row++) {
+            scaling.lessThanInequalities.add(scaling.scaleRow(row, lessThanInequalities.get(i)));
+            scaling.lessThanConstants.add(scale(lessThanConstants.get(i), rowScales[row]));
+        }
+        for (int i = 0; i < equalities.size(); i++, row++) {
+            scaling.equalities.add(scaling.scaleRow(row, equalities.get(i)));
+            scaling.equalityConstants.add(scale(equalityConstants.get(i), rowScales[row]));
+        }
+        for (int i = 0; i < greaterThanInequalities.size(); i++, row++) {
+            scaling.greaterThanInequalities.add(scaling.scaleRow(row, greaterThanInequalities.get(i)));
+            scaling.greaterThanConstants.add(scale(greaterThanConstants.get(i), rowScales[row]));
+        }
+
+        return scaling;
+    }
+
+    ScalingReport getReport() {
+        return report;
+    }
+
+    Vector getOriginalCostVector() {
+        return originalCostVector;
+    }
+
+    Vector getCostVector() {
+        return costVector;
+    }
+
+    List<Vector> getLessThanInequalities() {
+        return lessThanInequalities;
+    }
+
+    List<ConstantCoefficient> getLessThanConstants() {
+        return lessThanConstants;
+    }
+
+    List<Vector> getEqualities() {
+        return equalities;
+    }
+
+    List<ConstantCoefficient> getEqualityConstants() {
+        return equalityConstants;
+    }
+
+    List<Vector> getGreaterThanInequalities() {
+        return greaterThanInequalities;
+    }
+
+    List<ConstantCoefficient> getGreaterThanConstants() {
+        return greaterThanConstants;
+    }
+
+    /**
+     * Map a solution of the scaled LP back to the original variables.
+     */
+    Vector unscale(final Vector solution) {
+        final Coefficient[] values = new Coefficient[solution.length()];
+        for (int column = 0; column < values.length; column++) {
+            values[column] = scale(solution.get(column), columnScales[column]);
+        }
+
+        return new Vector(values);
+    }
+
+    private Vector scaleRow(final int row, final Vector vector) {
+        final Coefficient[] values = new Coefficient[vector.length()];
+        for (int column = 0; column < values.length; column++) {
+            values[column] = scale(vector.get(column), rowScales[row] * columnScales[column]);
+        }
+
+        return new Vector(values);
+    }
+
+    private static ConstantCoefficient scale(final Coefficient coefficient, final double scale) {
+        return Coefficients.from(Coefficients.asDouble(coefficient) * scale);
+    }
+
+    /**
+     * Divide each row by the geometric mean of its largest and smallest scaled coefficients, or by the largest alone.
+     */
+    private static void scaleRows(final double[][] matrix,
+                                  final double[] rowScales,
+                                  final double[] columnScales,
+                                  final boolean geometricMean) {
+        for (int row = 0; row < matrix.length; row++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = 0;
+            for (int column = 0; column < columnScales.length; column++) {
+                final double value = matrix[row][column] * rowScales[row] * columnScales[column];
+                if (value > 0) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+            if (max > 0) {
+                rowScales[row] /= geometricMean ? Math.sqrt(min * max) : max;
+            }
+        }
+    }
+
+    private static void scaleColumns(final double[][] matrix,
+                                     final double[] rowScales,
+                                     final double[] columnScales,
+                                     final boolean geometricMean) {
+        for (int column = 0; column < columnScales.length; column++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = 0;
+            for (int row = 0; row < matrix.length; row++) {
+                final double value = matrix[row][column] * rowScales[row] * columnScales[column];
+                if (value > 0) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+            if (max > 0) {
+                columnScales[column] /= geometricMean ? Math.sqrt(min * max) : max;
+            }
+        }
+    }
+
+    private static double getSpread(final double[][] matrix, final double[] rowScales, final double[] columnScales) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = 0;
+        for (int row = 0; row < matrix.length; row++) {
+            for (int column = 0; column < columnScales.length; column++) {
+                final double value = matrix[row][column] * rowScales[row] * columnScales[column];
+                if (value > 0) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+        }
+
+        return max > 0 ? max / min : 1;
+    }
+
+    private static void roundToPowersOfTwo(final double[] scales) {
+        for (int i = 0; i < scales.length; i++) {
+            scales[i] = Math.scalb(1d, (int) Math.round(Math.log(scales[i]) / Math.log(2)));
+        }
+    }
+}
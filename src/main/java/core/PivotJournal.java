@@ -0,0 +1,144 @@
+package core;
+
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import lang.Preconditions;
+import math.Vector;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Adds constraints to a copy of a WarmStart's tableau in place, and journals them so they can be rolled back.
+ * <p>
+ * Adding a constraint to a WarmStart copies its whole tableau, so trying k constraints one after another costs
+ * O(k * m * n) memory. A journal copies the tableau once, when it's started. After that, a constraint costs its row,
+ * and each dual simplex pivot costs the pivot column from before it, so k pivots roll back in O(k * m). Undoing a pivot
+ * applies the inverse rank-1 update, which restores the tableau up to round-off, and undoing a constraint then drops
+ * its row and slack column again.
+ * <p>
+ * The WarmStarts a journal returns are views of its tableau, which only hold until the next constraint is added or
+ * rolled back. The last one stays valid for as long as the journal is left alone, so it can be kept once the journal
+ * is done with.
+ */
+public final class PivotJournal {
+    private final DoubleTableau tableau;
+    private final Vector costVector;
+    private double[][] slackRows;
+    private final Deque<DoubleTableau.Pivot> pivots;
+    private final Deque<Entry> entries;
+    private WarmStart warmStart;
+
+    PivotJournal(final WarmStart warmStart,
+                 final DoubleTableau tableau,
+                 final Vector costVector,
+                 final double[][] slackRows) {
+        this.tableau = tableau;
+        this.costVector = costVector;
+        this.slackRows = slackRows;
+        this.pivots = new ArrayDeque<>();
+        this.entries = new ArrayDeque<>();
+        this.warmStart = new WarmStart(
+                tableau,
+                costVector,
+                slackRows,
+                warmStart.getNumPivots(),
+                warmStart.isFeasible()
+        );
+    }
+
+    /**
+     * Add the constraint a^x <= b and re-optimize, cut short like WarmStart.addLessThanInequality.
+     */
+    public WarmStart addLessThanInequality(final Vector lessThanInequality,
+                                           final ConstantCoefficient lessThanConstant) {
+        return addRow(lessThanInequality, lessThanConstant, 1d, warmStart.getDefaultMaxPivots());
+    }
+
+    /**
+     * Add a constraint like addLessThanInequality, but give up on re-optimizing after maxPivots pivots.
+     */
+    public WarmStart addLessThanInequality(final Vector lessThanInequality,
+                                           final ConstantCoefficient lessThanConstant,
+                                           final int maxPivots) {
+        return addRow(lessThanInequality, lessThanConstant, 1d, maxPivots);
+    }
+
+    /**
+     * Add the constraint a^x >= b and re-optimize, cut short like WarmStart.addGreaterThanInequality.
+     */
+    public WarmStart addGreaterThanInequality(final Vector greaterThanInequality,
+                                              final ConstantCoefficient greaterThanConstant) {
+        return addRow(greaterThanInequality, greaterThanConstant, -1d, warmStart.getDefaultMaxPivots());
+    }
+
+    /**
+     * Add a constraint like addGreaterThanInequality, but give up on re-optimizing after maxPivots pivots.
+     */
+    public WarmStart addGreaterThanInequality(final Vector greaterThanInequality,
+                                              final ConstantCoefficient greaterThanConstant,
+                                              final int maxPivots) {
+        return addRow(greaterThanInequality, greaterThanConstant, -1d, maxPivots);
+    }
+
+    private WarmStart addRow(final Vector constraint,
+                             final ConstantCoefficient constraintConstant,
+                             final double sign,
+                             final int maxPivots) {
+        final double[] coefficients = warmStart.getCoefficients(constraint, sign);
+        final double constant = sign * Coefficients.asDouble(constraintConstant);
+        entries.push(new Entry(warmStart, pivots.size()));
+        slackRows = Arrays.copyOf(slackRows, slackRows.length + 1);
+        slackRows[slackRows.length - 1] = warmStart.createSlackRow(coefficients, constant);
+        tableau.appendLessThanRow(coefficients, constant);
+        final int numPivots = tableau.reoptimize(maxPivots, pivots);
+        warmStart = new WarmStart(tableau, costVector, slackRows, Math.max(numPivots, 0), numPivots >= 0);
+        return warmStart;
+    }
+
+    /**
+     * Roll back the constraints added since the journal held size of them, and return the relaxation as it was then.
+     */
+    public WarmStart rollback(final int size) {
+        Preconditions.checkArgument(size >= 0 && size <= entries.size(), "Can't roll back to that many constraints");
+        while (entries.size() > size) {
+            final Entry entry = entries.pop();
+            while (pivots.size() > entry.numPivots) {
+                tableau.undo(pivots.pop());
+            }
+            tableau.removeLastRow();
+            slackRows = Arrays.copyOf(slackRows, slackRows.length - 1);
+            warmStart = entry.warmStart;
+        }
+
+        return warmStart;
+    }
+
+    /**
+     * The number of constraints added that can be rolled back.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * The relaxation with every constraint added so far.
+     */
+    public WarmStart getWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * A constraint that was added, with the relaxation from before it and how many pivots had been journaled then.
+     */
+    private static final class Entry {
+        private final WarmStart warmStart;
+        private final int numPivots;
+
+        private Entry(final WarmStart warmStart, final int numPivots) {
+            this.warmStart = warmStart;
+            this.numPivots = numPivots;
+        }
+    }
+}
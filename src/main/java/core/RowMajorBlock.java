@@ -0,0 +1,61 @@
+package core;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import math.Vector;
+
+/**
+ * A TableauBlock stored as one Vector per row.
+ */
+final class RowMajorBlock implements TableauBlock {
+    private final Vector[] vectors;
+
+    RowMajorBlock(final Vector[] vectors) {
+        this.vectors = vectors;
+    }
+
+    @Override
+    public int getHeight() {
+        return vectors.length;
+    }
+
+    @Override
+    public int getWidth() {
+        return vectors.length == 0 ? 0 : vectors[0].length();
+    }
+
+    @Override
+    public Coefficient get(final int row, final int col) {
+        return vectors[row].get(col);
+    }
+
+    @Override
+    public Coefficient[] getColumn(final int col) {
+        final Coefficient[] column = new Coefficient[vectors.length];
+        for (int row = 0; row < vectors.length; row++) {
+            column[row] = vectors[row].get(col);
+        }
+
+        return column;
+    }
+
+    @Override
+    public RowMajorBlock pivot(final int row,
+                               final Coefficient[] pivotColumn,
+                               final Coefficient inversePivotCoefficient) {
+        final Vector[] newVectors = new Vector[vectors.length];
+        final Vector inverseScaledVector = vectors[row].scale(inversePivotCoefficient);
+        for (int i = 0; i < vectors.length; i++) {
+            if (i == row) {
+                newVectors[i] = inverseScaledVector;
+            } else if (Coefficients.isZero(pivotColumn[i])) {
+                newVectors[i] = vectors[i];
+            } else {
+                final Vector vectorToSubtract = inverseScaledVector.scale(pivotColumn[i]);
+                newVectors[i] = vectors[i].subtract(vectorToSubtract);
+            }
+        }
+
+        return new RowMajorBlock(newVectors);
+    }
+}
@@ -0,0 +1,46 @@
+package core;
+
+/**
+ * How much scaling evened out the coefficients of a Simplex. The spread of a problem is the ratio of its largest
+ * constraint coefficient to its smallest nonzero one, in absolute value. It's a cheap stand-in for the condition of
+ * the constraint matrix: the wider it is, the more the double engines round off, and the likelier their ratio tests
+ * are to pick a pivot by rounding error.
+ */
+public final class ScalingReport {
+    private final double originalSpread;
+    private final double scaledSpread;
+    private final int passes;
+
+    ScalingReport(final double originalSpread, final double scaledSpread, final int passes) {
+        this.originalSpread = originalSpread;
+        this.scaledSpread = scaledSpread;
+        this.passes = passes;
+    }
+
+    public double getOriginalSpread() {
+        return originalSpread;
+    }
+
+    public double getScaledSpread() {
+        return scaledSpread;
+    }
+
+    /**
+     * How many times the spread improved by scaling, which is at least 1.
+     */
+    public double getImprovement() {
+        return originalSpread / scaledSpread;
+    }
+
+    /**
+     * How many geometric mean passes were made before they stopped paying off.
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("spread %.3g -> %.3g after %d passes", originalSpread, scaledSpread, passes);
+    }
+}
@@ -3,13 +3,23 @@ package core;
 import coefficients.Coefficient;
 import coefficients.Coefficients;
 import coefficients.ConstantCoefficient;
+import coefficients.DoubleCoefficient;
+import coefficients.IntegerCoefficient;
 import coefficients.LinearMCoefficient;
 import lang.Preconditions;
+import math.Fraction;
 import math.Vector;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Predicate;
 
 /**
@@ -33,8 +43,17 @@ import java.util.function.Predicate;
  * The Simplex contains a Tableau, which is just a list of vectors we perform pivot operations on to obtain a final
  * solution. The number of rows is equal to the number of constraints, which is also the number of basis variables
  * we use to find the final solution.
+ * <p>
+ * The tableau is pivoted by the SimplexEngine chosen on the builder. By default the builder looks at the problem and
+ * picks one: doubles go to a primitive double tableau, integers and rationals to one of the exact BigInteger tableaus,
+ * and anything holding an M to the Tableau of Coefficients.
  */
 public final class Simplex {
+    // Past this many tableau entries exact arithmetic gets too slow, so we fall back to doubles
+    private static final long MAX_EXACT_TABLEAU_SIZE = 1_000_000L;
+    // Integer problems at least this dense go to the fraction-free engine, which can't skip zeros in the pivot row
+    private static final double MIN_FRACTION_FREE_DENSITY = 1d / 3;
+
     private final boolean maximize;
     private final Vector costVector;
     private final List<Vector> lessThanInequalities;
@@ -47,9 +66,25 @@ public final class Simplex {
     private final int numSlackVariables;
     private final int numArtificialVariables;
     private final int[] basisVariables;
+    private final SimplexEngine engine;
+    private final Tableau.Layout tableauLayout;
+    private final Path tableauFile;
+    private final boolean retainFinalTableau;
+    private final boolean crashing;
+    // Null unless the builder presolved the problem, in which case the fields above hold the presolved problem
+    private final LinearPresolve presolve;
+    // Null unless the builder scaled the problem, in which case the fields above hold the scaled problem
+    private final MatrixScaling scaling;
     private final SimplexResults simplexResults;
 
-    private Simplex(final boolean maximize,
+    private Simplex(final SimplexEngine engine,
+                    final Tableau.Layout tableauLayout,
+                    final Path tableauFile,
+                    final boolean retainFinalTableau,
+                    final boolean crashing,
+                    final LinearPresolve presolve,
+                    final MatrixScaling scaling,
+                    final boolean maximize,
                     final Vector costVector,
                     final List<Vector> lessThanInequalities,
                     final List<ConstantCoefficient> lessThanConstants,
@@ -57,6 +92,13 @@ public final class Simplex {
                     final List<ConstantCoefficient> equalityConstants,
                     final List<Vector> greaterThanInequalities,
                     final List<ConstantCoefficient> greaterThanConstants) {
+        this.engine = engine;
+        this.tableauLayout = tableauLayout;
+        this.tableauFile = tableauFile;
+        this.retainFinalTableau = retainFinalTableau;
+        this.crashing = crashing;
+        this.presolve = presolve;
+        this.scaling = scaling;
         this.maximize = maximize;
         this.costVector = costVector;
         this.lessThanInequalities = lessThanInequalities;
@@ -73,82 +115,66 @@ public final class Simplex {
     }
 
     private SimplexResults calculateSolution() {
-        // Initialize the basis with the slack and artificial variables
-        final int slackVariableOffset = costVector.length();
-        for (int i = 0; i < lessThanInequalities.size(); i++) {
-            basisVariables[i] = slackVariableOffset + i;
-        }
-        final int equalityVariableOffset = slackVariableOffset + lessThanInequalities.size();
-        for (int i = 0; i < equalities.size(); i++) {
-            basisVariables[i + lessThanInequalities.size()] = equalityVariableOffset + i;
-        }
-        final int greaterThanVariableOffset
-                = equalityVariableOffset + equalities.size() + greaterThanInequalities.size();
-        for (int i = 0; i < greaterThanInequalities.size(); i++) {
-            basisVariables[i + lessThanInequalities.size() + equalities.size()] = greaterThanVariableOffset + i;
+        if (presolve != null && presolve.isInfeasible()) {
+            final Vector solution = presolve.postsolve(new Vector());
+            return new SimplexResults(
+                    Collections.singletonList(solution),
+                    maximize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY,
+                    false,
+                    true
+            );
         }
 
-        final List<Vector> tableauVectors = new ArrayList<>(numBasisVariables);
-
-        // Add less than inequality variable rows
-        for (int i = 0; i < lessThanConstants.size(); i++) {
-            final Vector.Builder lessThanInequalityVectorBuilder = Vector.newBuilder();
-            for (int j = 0; j < numSlackVariables + numArtificialVariables; j++) {
-                lessThanInequalityVectorBuilder.addCoefficient(i == j ? Coefficients.ONE : Coefficients.ZERO);
+        if (numBasisVariables == 0) {
+            // Without rows, such as when presolve removed them all, each variable is 0 unless it can grow forever
+            boolean isBounded = true;
+            for (int variable = 0; variable < costVector.length(); variable++) {
+                isBounded &= !Coefficients.isPositive(getVariableCost(variable));
             }
+            final Coefficient[] zeros = new Coefficient[costVector.length()];
+            Arrays.fill(zeros, Coefficients.ZERO);
+            return createResults(Collections.singletonList(new Vector(zeros)), isBounded);
+        }
 
-            final Vector vectorToAdd = Vector.newBuilder()
-                    .addCoefficient(lessThanConstants.get(i))
-                    .addFromVector(lessThanInequalities.get(i))
-                    .addFromVector(lessThanInequalityVectorBuilder.build())
-                    .build();
-            tableauVectors.add(vectorToAdd);
+        // Initialize the basis with the slack and artificial variables
+        for (int row = 0; row < numBasisVariables; row++) {
+            basisVariables[row] = getArtificialColumn(row) == -1 ? getSlackColumn(row) : getArtificialColumn(row);
         }
 
-        // Add equality rows
-        for (int i = 0; i < equalities.size(); i++) {
-            final Vector.Builder equalityVectorBuilder = Vector.newBuilder();
-            for (int j = 0; j < numSlackVariables + numArtificialVariables; j++) {
-                final int artficialOffset = i + numSlackVariables;
-                equalityVectorBuilder.addCoefficient(artficialOffset == j ? Coefficients.ONE : Coefficients.ZERO);
-            }
+        if (engine == SimplexEngine.COEFFICIENT) {
+            return calculateCoefficientSolution();
+        }
+
+        return calculateBigMSolution();
+    }
 
-            final Vector vectorToAdd = Vector.newBuilder()
-                    .addCoefficient(equalityConstants.get(i))
-                    .addFromVector(equalities.get(i))
-                    .addFromVector(equalityVectorBuilder.build())
+    private SimplexResults calculateCoefficientSolution() {
+        // Only the real variables are stored in the rows, the slack and artificial columns are kept as unit columns
+        final Vector[] tableauVectors = new Vector[numBasisVariables];
+        final Tableau.ImplicitColumn[] implicitColumns
+                = new Tableau.ImplicitColumn[numSlackVariables + numArtificialVariables];
+        for (int row = 0; row < numBasisVariables; row++) {
+            tableauVectors[row] = Vector.newBuilder()
+                    .addCoefficient(getConstant(row))
+                    .addFromVector(getConstraint(row))
                     .build();
-            tableauVectors.add(vectorToAdd);
-        }
 
-        // Add the greater than inequality variable rows
-        for (int i = 0; i < greaterThanInequalities.size(); i++) {
-            final Vector.Builder greaterThanInequalityVectorBuilder = Vector.newBuilder();
-            for (int j = 0; j < numSlackVariables + numArtificialVariables; j++) {
-                final int lessThanOffset = lessThanInequalities.size();
-                final int artificialOffset = numSlackVariables;
-                // Subtract slack variables
-                if (j == i + lessThanOffset) {
-                    greaterThanInequalityVectorBuilder.addCoefficient(Coefficients.NEGATIVE_ONE);
-                } else if (j == i + artificialOffset) {
-                    greaterThanInequalityVectorBuilder.addCoefficient(Coefficients.ONE);
-                } else {
-                    greaterThanInequalityVectorBuilder.addCoefficient(Coefficients.ZERO);
-                }
+            final int slackColumn = getSlackColumn(row);
+            if (slackColumn != -1) {
+                // Slack variables are subtracted from greater than inequalities
+                implicitColumns[slackColumn - costVector.length()] = Tableau.ImplicitColumn.unit(
+                        row,
+                        row < lessThanInequalities.size() ? Coefficients.ONE : Coefficients.NEGATIVE_ONE
+                );
             }
 
-            final Vector vectorToAdd = Vector.newBuilder()
-                    .addCoefficient(greaterThanConstants.get(i))
-                    .addFromVector(greaterThanInequalities.get(i))
-                    .addFromVector(greaterThanInequalityVectorBuilder.build())
-                    .build();
-            tableauVectors.add(vectorToAdd);
+            final int artificialColumn = getArtificialColumn(row);
+            if (artificialColumn != -1) {
+                implicitColumns[artificialColumn - costVector.length()] = Tableau.ImplicitColumn.artificial(row);
+            }
         }
 
-        Tableau tableau = new Tableau(
-                costVector.length() + numSlackVariables + numArtificialVariables,
-                tableauVectors.toArray(new Vector[0])
-        );
+        Tableau tableau = Tableau.withImplicitColumns(tableauLayout, tableauVectors, implicitColumns);
 
         boolean isBounded = true;
         final List<Vector> simplexSolutions = new ArrayList<>();
@@ -177,18 +203,500 @@ public final class Simplex {
             tableau = tableau.pivot(pivotRow, pivotCol);
         }
 
+        return createResults(simplexSolutions, isBounded);
+    }
+
+    /**
+     * Solve using one of the tableaus that keep the objective as two extra rows. The in-memory ones keep a trace of
+     * every pivot like the Tableau does, but the MappedTableau only keeps the final solution, since a trace of every
+     * pivot would defeat the point of keeping the tableau off the heap.
+     */
+    private SimplexResults calculateBigMSolution() {
+        try {
+            final boolean isTemporaryFile = engine == SimplexEngine.MEMORY_MAPPED && tableauFile == null;
+            final Path file = isTemporaryFile ? Files.createTempFile("simplex", ".tableau") : tableauFile;
+            try (BigMTableau tableau = openBigMTableau(file)) {
+                final boolean keepTrace = engine != SimplexEngine.MEMORY_MAPPED;
+                final List<Vector> simplexSolutions = new ArrayList<>();
+                if (crashing) {
+                    crash(tableau, keepTrace ? simplexSolutions : null);
+                }
+                boolean isBounded = true;
+                while (true) {
+                    if (keepTrace) {
+                        simplexSolutions.add(createSolutionFromBasis(tableau));
+                    }
+
+                    final int pivotCol = tableau.findOptimalPivotCol();
+                    if (pivotCol == -1) {
+                        // Solved
+                        break;
+                    }
+
+                    final int pivotRow = tableau.findOptimalPivotRow(pivotCol);
+                    if (pivotRow == -1) {
+                        // Problem is unbounded above
+                        isBounded = false;
+                        break;
+                    }
+
+                    tableau.pivot(pivotRow, pivotCol);
+                }
+
+                if (!keepTrace) {
+                    simplexSolutions.add(createSolutionFromBasis(tableau));
+                }
+                System.arraycopy(tableau.getBasisVariables(), 0, basisVariables, 0, numBasisVariables);
+                final SimplexResults results = createResults(simplexSolutions, isBounded);
+                if (retainFinalTableau && tableau instanceof DoubleTableau && results.isFeasible && isBounded) {
+                    final WarmStart warmStart
+                            = new WarmStart((DoubleTableau) tableau, costVector, createSlackRows(), 0, true);
+                    return results.withWarmStart(warmStart);
+                }
+                return results;
+            } finally {
+                if (isTemporaryFile) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Pivot real variables into the rows whose basis variable is artificial, before the Simplex starts pricing. The
+     * Big-M pricing picks entering variables by their M parts, which favors variables that appear in many artificial
+     * rows, even where a variable of a single row could take its artificial's place in one pivot.
+     * <p>
+     * Each step takes, of the variables that appear in just one row still to go, the one with the best cost, which
+     * keeps the basis triangular: the pivot leaves the other artificial rows alone, and may leave more variables in
+     * just one of them. Variables that would cost the objective something are left to the pricing, since a basis of
+     * them would take more pivots to undo than it saves. A pivot only happens if the ratio test picks the artificial
+     * row, and the artificial isn't already 0, which keeps the basis feasible and skips rows that need no pivot. Pivots
+     * are added to the trace, if there is one.
+     */
+    private void crash(final BigMTableau tableau, final List<Vector> simplexSolutions) throws IOException {
+        final int firstArtificialVariable = costVector.length() + numSlackVariables;
+        // For each variable, how many rows with an artificial basis variable it appears in
+        final int[] numArtificialRows = new int[costVector.length()];
+        final int[] tableauBasisVariables = tableau.getBasisVariables();
+        for (int row = 0; row < numBasisVariables; row++) {
+            if (tableauBasisVariables[row] >= firstArtificialVariable) {
+                countNonZeros(row, numArtificialRows, 1);
+            }
+        }
+
+        final boolean[] isTried = new boolean[costVector.length()];
+        while (true) {
+            int variable = -1;
+            for (int candidate = 0; candidate < costVector.length(); candidate++) {
+                final Coefficient cost = getVariableCost(candidate);
+                if (!isTried[candidate] && numArtificialRows[candidate] == 1 && !Coefficients.isNegative(cost)
+                        && (variable == -1 || Coefficients.greaterThan(cost, getVariableCost(variable)))) {
+                    variable = candidate;
+                }
+            }
+            if (variable == -1) {
+                break;
+            }
+
+            isTried[variable] = true;
+            final int row = tableau.findOptimalPivotRow(variable + 1);
+            if (row == -1 || tableau.getBasisVariables()[row] < firstArtificialVariable
+                    || !Coefficients.isPositive(tableau.getBasisCoefficients()[row])) {
+                continue;
+            }
+
+            if (simplexSolutions != null) {
+                simplexSolutions.add(createSolutionFromBasis(tableau));
+            }
+            tableau.pivot(row, variable + 1);
+            countNonZeros(row, numArtificialRows, -1);
+        }
+    }
+
+    private void countNonZeros(final int row, final int[] counts, final int increment) {
+        final Vector constraint = getConstraint(row);
+        for (int variable = 0; variable < constraint.length(); variable++) {
+            if (!Coefficients.isZero(constraint.get(variable))) {
+                counts[variable] += increment;
+            }
+        }
+    }
+
+    /**
+     * For each variable, the row [d | c_1 ... c_n] that defines it as s = d - c^x if it's a slack variable, and null
+     * otherwise. A less than slack is b - a^x, and a greater than surplus is a^x - b.
+     */
+    private double[][] createSlackRows() {
+        final double[][] slackRows = new double[costVector.length() + numSlackVariables + numArtificialVariables][];
+        for (int row = 0; row < numBasisVariables; row++) {
+            final int slackColumn = getSlackColumn(row);
+            if (slackColumn == -1) {
+                continue;
+            }
+
+            final double sign = row < lessThanInequalities.size() ? 1d : -1d;
+            final Vector constraint = getConstraint(row);
+            final double[] slackRow = new double[costVector.length() + 1];
+            slackRow[0] = sign * Coefficients.asDouble(getConstant(row));
+            for (int i = 0; i < constraint.length(); i++) {
+                slackRow[i + 1] = sign * Coefficients.asDouble(constraint.get(i));
+            }
+            slackRows[slackColumn] = slackRow;
+        }
+
+        return slackRows;
+    }
+
+    private BigMTableau openBigMTableau(final Path file) throws IOException {
+        final int firstArtificialColumn = costVector.length() + numSlackVariables + 1;
+        switch (engine) {
+            case DOUBLE:
+                return new DoubleTableau(tableauLayout, basisVariables, createDoubleRows(), firstArtificialColumn);
+            case RATIONAL:
+                return new FractionTableau(
+                        basisVariables,
+                        createFractionRows(costVector.length()),
+                        createImplicitFractionColumns(),
+                        firstArtificialColumn
+                );
+            case FRACTION_FREE:
+                final Fraction[][] fractionRows
+                        = createFractionRows(costVector.length() + numSlackVariables + numArtificialVariables);
+                final BigInteger[][] integerRows = new BigInteger[fractionRows.length][];
+                for (int row = 0; row < fractionRows.length; row++) {
+                    integerRows[row] = new BigInteger[fractionRows[row].length];
+                    for (int col = 0; col < fractionRows[row].length; col++) {
+                        // The builder only lets integer problems through, so every fraction here is an integer
+                        integerRows[row][col] = fractionRows[row][col].getNumerator();
+                    }
+                }
+                return new FractionFreeTableau(basisVariables, integerRows, firstArtificialColumn);
+            case MEMORY_MAPPED:
+            default:
+                return openMappedTableau(file);
+        }
+    }
+
+    private MappedTableau openMappedTableau(final Path file) throws IOException {
+        final int width = costVector.length() + numSlackVariables + numArtificialVariables;
+        final long fingerprint = getFingerprint();
+        final Optional<MappedTableau> resumedTableau
+                = MappedTableau.resume(file, numBasisVariables, width, fingerprint);
+        if (resumedTableau.isPresent()) {
+            return resumedTableau.get();
+        }
+
+        final MappedTableau tableau = MappedTableau.create(file, numBasisVariables, width, fingerprint);
+        tableau.setBasisVariables(basisVariables);
+        // Stream the rows into the file one at a time, so only the objective rows are ever held on the heap
+        final double[][] objectiveRows = createObjectiveRows(width);
+        for (int row = 0; row < numBasisVariables; row++) {
+            final double[] rowValues = createDoubleRow(row, width);
+            addBasisCost(row, rowValues, objectiveRows);
+            tableau.setRow(row, rowValues);
+        }
+        tableau.setObjectiveRows(objectiveRows[0], objectiveRows[1]);
+        tableau.checkpoint();
+        return tableau;
+    }
+
+    /**
+     * The initial rows of a BigMTableau: the constraint rows with their slack and artificial columns, followed by the
+     * M and constant parts of the reduced costs.
+     */
+    private double[][] createDoubleRows() {
+        final int width = costVector.length() + numSlackVariables + numArtificialVariables;
+        final double[][] rows = new double[numBasisVariables + 2][];
+        final double[][] objectiveRows = createObjectiveRows(width);
+        for (int row = 0; row < numBasisVariables; row++) {
+            rows[row] = createDoubleRow(row, width);
+            addBasisCost(row, rows[row], objectiveRows);
+        }
+        rows[numBasisVariables] = objectiveRows[0];
+        rows[numBasisVariables + 1] = objectiveRows[1];
+
+        return rows;
+    }
+
+    /**
+     * The M and constant parts of the reduced costs before any row is added, which are -c_j.
+     */
+    private double[][] createObjectiveRows(final int width) {
+        final double[][] objectiveRows = new double[2][width + 1];
+        for (int col = 0; col < width; col++) {
+            final Coefficient variableCost = getVariableCost(col);
+            objectiveRows[0][col + 1] = -getMPart(variableCost);
+            objectiveRows[1][col + 1] = -getConstantPart(variableCost);
+        }
+
+        return objectiveRows;
+    }
+
+    /**
+     * A constraint row with its slack and artificial columns.
+     */
+    private double[] createDoubleRow(final int row, final int width) {
+        final double[] rowValues = new double[width + 1];
+        rowValues[0] = Coefficients.asDouble(getConstant(row));
+        final Vector constraint = getConstraint(row);
+        for (int col = 0; col < constraint.length(); col++) {
+            rowValues[col + 1] = Coefficients.asDouble(constraint.get(col));
+        }
+        if (getSlackColumn(row) != -1) {
+            rowValues[getSlackColumn(row) + 1] = row < lessThanInequalities.size() ? 1d : -1d;
+        }
+        if (getArtificialColumn(row) != -1) {
+            rowValues[getArtificialColumn(row) + 1] = 1d;
+        }
+
+        return rowValues;
+    }
+
+    /**
+     * Add the cost of the row's basis variable times the row to the objective rows.
+     */
+    private void addBasisCost(final int row, final double[] rowValues, final double[][] objectiveRows) {
+        final double basisMPart = getMPart(getBasisCost(row));
+        final double basisConstantPart = getConstantPart(getBasisCost(row));
+        if (basisMPart == 0 && basisConstantPart == 0) {
+            // Slack variables cost nothing, so most rows leave the objective rows alone
+            return;
+        }
+        for (int col = 0; col < rowValues.length; col++) {
+            objectiveRows[0][col] += basisMPart * rowValues[col];
+            objectiveRows[1][col] += basisConstantPart * rowValues[col];
+        }
+    }
+
+    /**
+     * The same rows as createDoubleRows, but exact, and only over the value column and the first width variables.
+     */
+    private Fraction[][] createFractionRows(final int width) {
+        final Fraction[][] rows = new Fraction[numBasisVariables + 2][width + 1];
+        final Fraction[] mValues = rows[numBasisVariables];
+        final Fraction[] constantValues = rows[numBasisVariables + 1];
+        mValues[0] = Fraction.ZERO;
+        constantValues[0] = Fraction.ZERO;
+        for (int col = 0; col < width; col++) {
+            final Coefficient variableCost = getVariableCost(col);
+            mValues[col + 1] = getMPartAsFraction(variableCost).negate();
+            constantValues[col + 1] = getConstantPartAsFraction(variableCost).negate();
+        }
+
+        for (int row = 0; row < numBasisVariables; row++) {
+            final Fraction[] rowValues = rows[row];
+            Arrays.fill(rowValues, Fraction.ZERO);
+            rowValues[0] = Coefficients.asFraction(getConstant(row));
+            final Vector constraint = getConstraint(row);
+            for (int col = 0; col < constraint.length(); col++) {
+                rowValues[col + 1] = Coefficients.asFraction(constraint.get(col));
+            }
+            if (getSlackColumn(row) != -1 && getSlackColumn(row) < width) {
+                rowValues[getSlackColumn(row) + 1] = getSlackValue(row);
+            }
+            if (getArtificialColumn(row) != -1 && getArtificialColumn(row) < width) {
+                rowValues[getArtificialColumn(row) + 1] = Fraction.ONE;
+            }
+
+            final Fraction basisMPart = getMPartAsFraction(getBasisCost(row));
+            final Fraction basisConstantPart = getConstantPartAsFraction(getBasisCost(row));
+            for (int col = 0; col <= width; col++) {
+                if (rowValues[col].signum() != 0) {
+                    mValues[col] = mValues[col].add(basisMPart.multiply(rowValues[col]));
+                    constantValues[col] = constantValues[col].add(basisConstantPart.multiply(rowValues[col]));
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * The slack and artificial columns that createFractionRows(costVector.length()) leaves out, as unit columns with
+     * their initial reduced costs.
+     */
+    private FractionTableau.ImplicitColumn[] createImplicitFractionColumns() {
+        final FractionTableau.ImplicitColumn[] implicitColumns
+                = new FractionTableau.ImplicitColumn[numSlackVariables + numArtificialVariables];
+        for (int row = 0; row < numBasisVariables; row++) {
+            if (getSlackColumn(row) != -1) {
+                implicitColumns[getSlackColumn(row) - costVector.length()]
+                        = createImplicitFractionColumn(row, getSlackColumn(row), getSlackValue(row));
+            }
+            if (getArtificialColumn(row) != -1) {
+                implicitColumns[getArtificialColumn(row) - costVector.length()]
+                        = createImplicitFractionColumn(row, getArtificialColumn(row), Fraction.ONE);
+            }
+        }
+
+        return implicitColumns;
+    }
+
+    private FractionTableau.ImplicitColumn createImplicitFractionColumn(final int row,
+                                                                        final int column,
+                                                                        final Fraction value) {
+        // Like in createFractionRows, the reduced cost is the cost of the row's basis variable times the value, minus
+        // the cost of the column's own variable
+        final Coefficient variableCost = getVariableCost(column);
+        final Coefficient basisCost = getBasisCost(row);
+        return FractionTableau.ImplicitColumn.unit(
+                row,
+                value,
+                getMPartAsFraction(basisCost).multiply(value).subtract(getMPartAsFraction(variableCost)),
+                getConstantPartAsFraction(basisCost).multiply(value).subtract(getConstantPartAsFraction(variableCost))
+        );
+    }
+
+    /**
+     * The coefficient of a row's slack variable, which is subtracted from greater than inequalities.
+     */
+    private Fraction getSlackValue(final int row) {
+        return row < lessThanInequalities.size() ? Fraction.ONE : Fraction.ONE.negate();
+    }
+
+    private static double getMPart(final Coefficient coefficient) {
+        if (coefficient instanceof LinearMCoefficient) {
+            return Coefficients.asDouble(((LinearMCoefficient) coefficient).getSlopeValue());
+        }
+
+        return 0d;
+    }
+
+    private static double getConstantPart(final Coefficient coefficient) {
+        if (coefficient instanceof LinearMCoefficient) {
+            return Coefficients.asDouble(((LinearMCoefficient) coefficient).getInterceptValue());
+        }
+
+        return Coefficients.asDouble(coefficient);
+    }
+
+    private static Fraction getMPartAsFraction(final Coefficient coefficient) {
+        if (coefficient instanceof LinearMCoefficient) {
+            return Coefficients.asFraction(((LinearMCoefficient) coefficient).getSlopeValue());
+        }
+
+        return Fraction.ZERO;
+    }
+
+    private static Fraction getConstantPartAsFraction(final Coefficient coefficient) {
+        if (coefficient instanceof LinearMCoefficient) {
+            return Coefficients.asFraction(((LinearMCoefficient) coefficient).getInterceptValue());
+        }
+
+        return Coefficients.asFraction(coefficient);
+    }
+
+    /**
+     * A hash of the problem, used to check that a tableau file we resume from was written for this problem.
+     */
+    private long getFingerprint() {
+        long fingerprint = maximize ? 1 : 0;
+        for (final Coefficient cost : costVector.getValues()) {
+            fingerprint = fingerprint * 1_000_003 + Double.doubleToLongBits(Coefficients.asDouble(cost));
+        }
+        for (int row = 0; row < numBasisVariables; row++) {
+            fingerprint = fingerprint * 1_000_003 + getSlackColumn(row) * 31L + getArtificialColumn(row);
+            fingerprint = fingerprint * 1_000_003 + Double.doubleToLongBits(Coefficients.asDouble(getConstant(row)));
+            for (final Coefficient coefficient : getConstraint(row).getValues()) {
+                fingerprint = fingerprint * 1_000_003 + Double.doubleToLongBits(Coefficients.asDouble(coefficient));
+            }
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Rows are ordered as the less than inequalities, then the equalities, then the greater than inequalities.
+     */
+    private Vector getConstraint(final int row) {
+        if (row < lessThanInequalities.size()) {
+            return lessThanInequalities.get(row);
+        } else if (row < lessThanInequalities.size() + equalities.size()) {
+            return equalities.get(row - lessThanInequalities.size());
+        } else {
+            return greaterThanInequalities.get(row - lessThanInequalities.size() - equalities.size());
+        }
+    }
+
+    private ConstantCoefficient getConstant(final int row) {
+        if (row < lessThanInequalities.size()) {
+            return lessThanConstants.get(row);
+        } else if (row < lessThanInequalities.size() + equalities.size()) {
+            return equalityConstants.get(row - lessThanInequalities.size());
+        } else {
+            return greaterThanConstants.get(row - lessThanInequalities.size() - equalities.size());
+        }
+    }
+
+    /**
+     * Variables are laid out as [real | less than slacks | greater than slacks | equality artificials | greater than
+     * artificials]. Returns the slack variable of a row, or -1 for an equality.
+     */
+    private int getSlackColumn(final int row) {
+        if (row < lessThanInequalities.size()) {
+            return costVector.length() + row;
+        } else if (row < lessThanInequalities.size() + equalities.size()) {
+            return -1;
+        } else {
+            return costVector.length() + row - equalities.size();
+        }
+    }
+
+    /**
+     * Returns the artificial variable of a row, or -1 for a less than inequality.
+     */
+    private int getArtificialColumn(final int row) {
+        if (row < lessThanInequalities.size()) {
+            return -1;
+        }
+
+        return costVector.length() + numSlackVariables + row - lessThanInequalities.size();
+    }
+
+    private SimplexResults createResults(final List<Vector> simplexSolutions, final boolean isBounded) {
         // Assemble a solution using the basis variables
-        final Vector solutionVector = createSolutionFromBasis(tableau, costVector.length(), basisVariables);
+        final Vector solutionVector = simplexSolutions.get(simplexSolutions.size() - 1);
 
         final boolean isFeasible = isFeasibleSolution(solutionVector);
-        final double optimalValue;
+        if (presolve == null && scaling == null) {
+            return new SimplexResults(
+                    simplexSolutions,
+                    getOptimalValue(solutionVector, costVector, isFeasible, isBounded),
+                    isFeasible,
+                    isBounded
+            );
+        }
+
+        // Feasibility is checked on the problem the tableau solved, but the caller gets the solutions of the original
+        final List<Vector> originalSolutions = new ArrayList<>(simplexSolutions.size());
+        for (final Vector solution : simplexSolutions) {
+            final Vector unscaledSolution = scaling == null ? solution : scaling.unscale(solution);
+            originalSolutions.add(presolve == null ? unscaledSolution : presolve.postsolve(unscaledSolution));
+        }
+        final Vector originalSolution = originalSolutions.get(originalSolutions.size() - 1);
+        final Vector originalCostVector = presolve == null
+                ? scaling.getOriginalCostVector()
+                : presolve.getOriginalCostVector();
+        return new SimplexResults(
+                originalSolutions,
+                getOptimalValue(originalSolution, originalCostVector, isFeasible, isBounded),
+                isFeasible,
+                isBounded
+        );
+    }
+
+    private double getOptimalValue(final Vector solution,
+                                   final Vector costs,
+                                   final boolean isFeasible,
+                                   final boolean isBounded) {
         if (isFeasible && isBounded) {
-            optimalValue = solutionVector.dotProductAsDouble(costVector);
-        } else {
-            optimalValue = (maximize ? 1.0 : -1.0) * (isFeasible ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+            return solution.dotProductAsDouble(costs);
         }
 
-        return new SimplexResults(simplexSolutions, optimalValue, isFeasible, isBounded);
+        return (maximize ? 1.0 : -1.0) * (isFeasible ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
     }
 
     private static Vector createSolutionFromBasis(final Tableau tableau,
@@ -206,18 +714,34 @@ public final class Simplex {
         return Vector.newBuilder().addAllCoefficients(solutionCoefficients).build();
     }
 
+    private Vector createSolutionFromBasis(final BigMTableau tableau) throws IOException {
+        final int[] tableauBasisVariables = tableau.getBasisVariables();
+        final ConstantCoefficient[] basisValues = tableau.getBasisCoefficients();
+        final Coefficient[] solutionCoefficients = new Coefficient[costVector.length()];
+        Arrays.fill(solutionCoefficients, Coefficients.ZERO);
+        for (int rowIndex = 0; rowIndex < tableauBasisVariables.length; rowIndex++) {
+            final int basisIndex = tableauBasisVariables[rowIndex];
+            if (basisIndex < solutionCoefficients.length) {
+                solutionCoefficients[basisIndex] = basisValues[rowIndex];
+            }
+        }
+
+        return Vector.newBuilder().addAllCoefficients(solutionCoefficients).build();
+    }
+
     public Vector getObjectiveVector(final Tableau tableau) {
+        final Coefficient[] basisCosts = new Coefficient[tableau.getHeight()];
+        for (int row = 0; row < tableau.getHeight(); row++) {
+            basisCosts[row] = getBasisCost(row);
+        }
+
         final Vector.Builder objectiveVectorBuilder = Vector.newBuilder();
         for (int col = 0; col < tableau.getWidth(); col++) {
             final Coefficient variableCost = getVariableCost(col);
-            Coefficient coefficient = Coefficients.subtract(Coefficients.ZERO, variableCost);
-            for (int row = 0; row < tableau.getHeight(); row++) {
-                final Coefficient basisCost = getBasisCost(row);
-                coefficient = Coefficients.add(
-                        coefficient,
-                        Coefficients.scaleBy(tableau.get(row, col + 1), basisCost)
-                );
-            }
+            final Coefficient coefficient = Coefficients.add(
+                    Coefficients.subtract(Coefficients.ZERO, variableCost),
+                    tableau.weightedColumnSum(col + 1, basisCosts)
+            );
             objectiveVectorBuilder.addCoefficient(coefficient);
         }
 
@@ -292,6 +816,41 @@ public final class Simplex {
         return simplexResults.isBounded;
     }
 
+    /**
+     * The variable each row of the final tableau solves for. Slack and artificial variables are numbered after the real
+     * ones, as [less than slacks | greater than slacks | equality artificials | greater than artificials]. With
+     * presolve, these are the rows and variables of the presolved problem.
+     */
+    public int[] getBasisVariables() {
+        return basisVariables.clone();
+    }
+
+    /**
+     * The engine the Simplex was solved with, which is the one it picked for itself unless one was given.
+     */
+    public SimplexEngine getEngine() {
+        return engine;
+    }
+
+    public Tableau.Layout getTableauLayout() {
+        return tableauLayout;
+    }
+
+    /**
+     * How much scaling evened out the coefficients, if the builder asked for scaling and the engine scaled.
+     */
+    public Optional<ScalingReport> getScalingReport() {
+        return Optional.ofNullable(scaling).map(MatrixScaling::getReport);
+    }
+
+    /**
+     * The final tableau, ready to have constraints added to it, if the builder asked for it to be retained. Only the
+     * DOUBLE engine keeps one, and only for a feasible and bounded problem.
+     */
+    public Optional<WarmStart> getWarmStart() {
+        return Optional.ofNullable(simplexResults.warmStart);
+    }
+
     /**
      * Simple struct to hold the results of the Simplex algorithm.
      */
@@ -301,16 +860,30 @@ public final class Simplex {
         private final double optimalValue;
         private final boolean isFeasible;
         private final boolean isBounded;
+        private final WarmStart warmStart;
 
         public SimplexResults(final List<Vector> solutionTrace,
                               final double optimalValue,
                               final boolean isFeasible,
                               final boolean isBounded) {
+            this(solutionTrace, optimalValue, isFeasible, isBounded, null);
+        }
+
+        private SimplexResults(final List<Vector> solutionTrace,
+                               final double optimalValue,
+                               final boolean isFeasible,
+                               final boolean isBounded,
+                               final WarmStart warmStart) {
             this.solutionTrace = solutionTrace;
             this.optimalSolution = solutionTrace.get(solutionTrace.size() - 1);
             this.optimalValue = optimalValue;
             this.isFeasible = isFeasible;
             this.isBounded = isBounded;
+            this.warmStart = warmStart;
+        }
+
+        private SimplexResults withWarmStart(final WarmStart warmStart) {
+            return new SimplexResults(solutionTrace, optimalValue, isFeasible, isBounded, warmStart);
         }
     }
 
@@ -321,6 +894,13 @@ public final class Simplex {
     public static class Builder {
         private Vector costVector;
         private boolean maximize;
+        private SimplexEngine engine;
+        private Tableau.Layout tableauLayout;
+        private Path tableauFile;
+        private boolean retainFinalTableau;
+        private boolean presolving;
+        private boolean scaling;
+        private boolean crashing;
         private final List<Vector> lessThanInequalities;
         private final List<ConstantCoefficient> lessThanConstants;
         private final List<Vector> equalities;
@@ -330,6 +910,8 @@ public final class Simplex {
 
         private Builder() {
             this.maximize = true;
+            this.engine = SimplexEngine.AUTOMATIC;
+            this.tableauLayout = Tableau.Layout.ROW_MAJOR;
             this.lessThanInequalities = new ArrayList<>();
             this.lessThanConstants = new ArrayList<>();
             this.equalities = new ArrayList<>();
@@ -348,6 +930,77 @@ public final class Simplex {
             return this;
         }
 
+        /**
+         * Override the engine the Simplex would otherwise pick for itself.
+         */
+        public Builder withEngine(final SimplexEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * How the COEFFICIENT and DOUBLE engines store their tableaus, including when AUTOMATIC picks one of them.
+         * COLUMN_MAJOR favors tall and narrow problems, where the ratio test scans long columns. The exact engines and
+         * the MEMORY_MAPPED one are always row-major.
+         */
+        public Builder withTableauLayout(final Tableau.Layout tableauLayout) {
+            this.tableauLayout = tableauLayout;
+            return this;
+        }
+
+        /**
+         * The file the MEMORY_MAPPED engine keeps its tableau in. If the file holds an interrupted solve of the same
+         * problem, the solve resumes from it. Without one, a temporary file is used and deleted afterwards.
+         */
+        public Builder withTableauFile(final Path tableauFile) {
+            this.tableauFile = tableauFile;
+            return this;
+        }
+
+        /**
+         * Keep the final tableau around as a WarmStart, so constraints can be added to the solved problem without
+         * solving it from scratch. Needs the DOUBLE engine, or an AUTOMATIC one that picks it.
+         */
+        public Builder withFinalTableauRetained() {
+            this.retainFinalTableau = true;
+            return this;
+        }
+
+        /**
+         * Presolve the problem before building its tableau: rows over one variable become bounds, variables that are
+         * fixed or dominated are fixed, equalities over two variables are substituted out, and empty and duplicate
+         * rows are dropped. Solutions are mapped back to the original variables, but the basis is the presolved
+         * problem's, so this doesn't go with a retained final tableau. Problems with Ms in their rows are solved as
+         * they are.
+         */
+        public Builder withPresolve() {
+            this.presolving = true;
+            return this;
+        }
+
+        /**
+         * Scale the rows and columns of the problem so its coefficients are all about 1 before solving it. Solutions
+         * and values are unscaled, and getScalingReport() tells how much the spread of the coefficients narrowed.
+         * Only the DOUBLE and MEMORY_MAPPED engines scale, since rounding is what scaling is for, and like presolve,
+         * this doesn't go with a retained final tableau.
+         */
+        public Builder withScaling() {
+            this.scaling = true;
+            return this;
+        }
+
+        /**
+         * Start from a crash basis: before pricing, pivot real variables into the rows of equalities and greater than
+         * inequalities in place of their artificial variables, one pivot per row, in triangular order. This saves
+         * Big-M iterations on problems where variables of single rows can stand in for the artificials, such as
+         * models written with explicit slack, surplus or excess variables. The COEFFICIENT engine, which only problems
+         * with Ms need, doesn't crash.
+         */
+        public Builder withCrashBasis() {
+            this.crashing = true;
+            return this;
+        }
+
         public Builder withCostVector(final Vector costVector) {
             this.costVector = costVector;
             return this;
@@ -410,7 +1063,107 @@ public final class Simplex {
                     "One or more greater than inequalities provided do not match the length of the cost vector"
             );
 
+            Preconditions.checkNotNull(engine, "Must provide an engine");
+            Preconditions.checkNotNull(tableauLayout, "Must provide a tableau layout");
+            Preconditions.checkArgument(tableauFile == null || engine == SimplexEngine.MEMORY_MAPPED,
+                    "A tableau file can only be used with the memory-mapped engine"
+            );
+            Preconditions.checkArgument(!presolving || !retainFinalTableau,
+                    "A presolved problem can't retain its final tableau"
+            );
+            Preconditions.checkArgument(!scaling || !retainFinalTableau,
+                    "A scaled problem can't retain its final tableau"
+            );
+
+            final LinearPresolve presolve = presolving ? presolve() : null;
+            if (presolve == null) {
+                return build(null);
+            }
+
+            final Builder presolvedBuilder = new Builder();
+            presolvedBuilder.maximize = maximize;
+            presolvedBuilder.tableauLayout = tableauLayout;
+            presolvedBuilder.tableauFile = tableauFile;
+            presolvedBuilder.scaling = scaling;
+            presolvedBuilder.crashing = crashing;
+            presolvedBuilder.costVector = presolve.isInfeasible() ? new Vector() : presolve.getCostVector();
+            if (!presolve.isInfeasible()) {
+                presolvedBuilder.lessThanInequalities.addAll(presolve.getLessThanInequalities());
+                presolvedBuilder.lessThanConstants.addAll(presolve.getLessThanConstants());
+                presolvedBuilder.equalities.addAll(presolve.getEqualities());
+                presolvedBuilder.equalityConstants.addAll(presolve.getEqualityConstants());
+                presolvedBuilder.greaterThanInequalities.addAll(presolve.getGreaterThanInequalities());
+                presolvedBuilder.greaterThanConstants.addAll(presolve.getGreaterThanConstants());
+            }
+            // Substitutions can turn an integer problem rational, which the fraction-free engine can't take
+            final boolean isFractionFree = engine == SimplexEngine.FRACTION_FREE;
+            presolvedBuilder.engine = isFractionFree && !presolvedBuilder.allCoefficientsMatch(
+                    coefficient -> coefficient instanceof IntegerCoefficient) ? SimplexEngine.RATIONAL : engine;
+            return presolvedBuilder.build(presolve);
+        }
+
+        private Simplex build(final LinearPresolve presolve) {
+            final SimplexEngine selectedEngine = engine == SimplexEngine.AUTOMATIC ? selectEngine() : engine;
+            Preconditions.checkArgument(selectedEngine != SimplexEngine.FRACTION_FREE || allCoefficientsMatch(
+                    coefficient -> coefficient instanceof IntegerCoefficient),
+                    "The fraction-free engine needs integer coefficients"
+            );
+
+            final boolean isDouble = selectedEngine == SimplexEngine.DOUBLE
+                    || selectedEngine == SimplexEngine.MEMORY_MAPPED;
+            final MatrixScaling matrixScaling = scaling && isDouble ? MatrixScaling.run(
+                    costVector,
+                    lessThanInequalities,
+                    lessThanConstants,
+                    equalities,
+                    equalityConstants,
+                    greaterThanInequalities,
+                    greaterThanConstants
+            ) : null;
+            if (matrixScaling != null) {
+                return new Simplex(
+                        selectedEngine,
+                        tableauLayout,
+                        tableauFile,
+                        retainFinalTableau,
+                        crashing,
+                        presolve,
+                        matrixScaling,
+                        maximize,
+                        matrixScaling.getCostVector(),
+                        matrixScaling.getLessThanInequalities(),
+                        matrixScaling.getLessThanConstants(),
+                        matrixScaling.getEqualities(),
+                        matrixScaling.getEqualityConstants(),
+                        matrixScaling.getGreaterThanInequalities(),
+                        matrixScaling.getGreaterThanConstants()
+                );
+            }
+
             return new Simplex(
+                    selectedEngine,
+                    tableauLayout,
+                    tableauFile,
+                    retainFinalTableau,
+                    crashing,
+                    presolve,
+                    null,
+                    maximize,
+                    costVector,
+                    lessThanInequalities,
+                    lessThanConstants,
+                    equalities,
+                    equalityConstants,
+                    greaterThanInequalities,
+                    greaterThanConstants
+            );
+        }
+
+        /**
+         * Presolve the problem as it stands, or return null if it holds Ms the presolve can't handle.
+         */
+        LinearPresolve presolve() {
+            return LinearPresolve.run(
                     maximize,
                     costVector,
                     lessThanInequalities,
@@ -421,5 +1174,59 @@ public final class Simplex {
                     greaterThanConstants
             );
         }
+
+        /**
+         * Pick the fastest engine that can solve the problem as given. Ms need the Coefficient Tableau, doubles would
+         * only be approximated by the exact engines anyway, and so would very big problems, in practice. Of the exact
+         * engines the fraction-free one wins on dense integer problems, while the rational one skips zeros.
+         * <p>
+         * A problem with many more rows than variables is mostly slack and artificial columns. The rational engine
+         * keeps them implicit, so only its rows of real variables count towards the size limit, and it takes such
+         * problems even when they're dense integer ones, since the fraction-free engine would store every column.
+         */
+        private SimplexEngine selectEngine() {
+            if (!allCoefficientsMatch(coefficient -> coefficient instanceof ConstantCoefficient)) {
+                return SimplexEngine.COEFFICIENT;
+            }
+
+            if (!allCoefficientsMatch(coefficient -> !(coefficient instanceof DoubleCoefficient))) {
+                return SimplexEngine.DOUBLE;
+            }
+
+            final List<Vector> constraints = new ArrayList<>(lessThanInequalities);
+            constraints.addAll(equalities);
+            constraints.addAll(greaterThanInequalities);
+            final long height = constraints.size();
+            final long width = costVector.length() + lessThanInequalities.size() + equalities.size()
+                    + 2L * greaterThanInequalities.size();
+            if ((height + 2) * (costVector.length() + 1) > MAX_EXACT_TABLEAU_SIZE) {
+                return SimplexEngine.DOUBLE;
+            }
+
+            if (!allCoefficientsMatch(coefficient -> coefficient instanceof IntegerCoefficient)
+                    || (height + 2) * (width + 1) > MAX_EXACT_TABLEAU_SIZE) {
+                return SimplexEngine.RATIONAL;
+            }
+
+            final long numNonZeros = constraints.stream()
+                    .flatMap(constraint -> Arrays.stream(constraint.getValues()))
+                    .filter(coefficient -> !Coefficients.isZero(coefficient))
+                    .count();
+            final long numEntries = height * costVector.length();
+            return numNonZeros >= MIN_FRACTION_FREE_DENSITY * numEntries
+                    ? SimplexEngine.FRACTION_FREE
+                    : SimplexEngine.RATIONAL;
+        }
+
+        private boolean allCoefficientsMatch(final Predicate<Coefficient> predicate) {
+            final Predicate<Vector> vectorPredicate = vector -> Arrays.stream(vector.getValues()).allMatch(predicate);
+            return vectorPredicate.test(costVector)
+                    && lessThanInequalities.stream().allMatch(vectorPredicate)
+                    && equalities.stream().allMatch(vectorPredicate)
+                    && greaterThanInequalities.stream().allMatch(vectorPredicate)
+                    && lessThanConstants.stream().allMatch(predicate)
+                    && equalityConstants.stream().allMatch(predicate)
+                    && greaterThanConstants.stream().allMatch(predicate);
+        }
     }
 }
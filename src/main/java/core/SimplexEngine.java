@@ -0,0 +1,44 @@
+package core;
+
+/**
+ * The backends a Simplex can pivot its tableau with.
+ */
+public enum SimplexEngine {
+    /**
+     * Let the Simplex pick one of the engines below when it's built, based on the types of the coefficients and the
+     * shape of the problem. This is the default, and a Simplex always reports the engine it actually picked.
+     */
+    AUTOMATIC,
+
+    /**
+     * The in-memory Tableau of Coefficients. This is the only engine that can handle LinearMCoefficients in the problem
+     * itself, and it's picked automatically whenever there are any.
+     */
+    COEFFICIENT,
+
+    /**
+     * A dense tableau of primitive doubles. Picked automatically when any coefficient is a double, or when the problem
+     * is too big for exact arithmetic to be practical.
+     */
+    DOUBLE,
+
+    /**
+     * A tableau of exact BigInteger fractions, which never overflow, whose slack and artificial columns stay implicit
+     * until they leave the basis. Picked automatically for rational problems, for integer problems that are mostly
+     * zeros, and for exact problems with too many rows for a dense tableau, as long as they have few variables.
+     */
+    RATIONAL,
+
+    /**
+     * A dense tableau of BigIntegers over a common denominator, pivoted with exact integer division so there are no
+     * gcds to compute. Only works on integer problems, and is picked automatically for the denser ones.
+     */
+    FRACTION_FREE,
+
+    /**
+     * A tableau of primitive doubles whose rows live in a memory-mapped file, for problems that don't fit in memory.
+     * The file is pivoted in blocks of rows and double-buffered, so a solve that dies part way through can be resumed
+     * from the same file. This engine is never picked unless asked for.
+     */
+    MEMORY_MAPPED
+}
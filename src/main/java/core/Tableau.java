@@ -2,18 +2,74 @@ package core;
 
 import coefficients.Coefficient;
 import coefficients.Coefficients;
+import lang.Preconditions;
 import math.Vector;
 
-import java.util.Arrays;
-
+/**
+ * A table of coefficients we perform pivot operations on. Column 0 of each row is the value of that row's basis
+ * variable, and variable j lives in column j + 1.
+ * <p>
+ * The first variables are stored explicitly in a TableauBlock. Any remaining variables (e.g. the slack and artificial
+ * variables of a Simplex) can be given as ImplicitColumns instead, which start out as unit columns and cost O(1) memory
+ * until a pivot forces them to be materialized. A unit column only changes when we pivot on its own row, i.e. when its
+ * variable leaves the basis, so most of them stay implicit. Artificial columns are dropped entirely when they leave.
+ * <p>
+ * The explicit part is stored row-major by default. The COLUMN_MAJOR layout stores it as one array per column instead,
+ * which suits tall and narrow tableaus where the ratio test scanning a column dominates.
+ */
 public final class Tableau {
-    private final Vector[] vectors;
+    public enum Layout {
+        ROW_MAJOR,
+        /**
+         * One array per column, for tableaus with many more rows than variables, such as the norm solvers' LPs with
+         * two constraints per data point. Their ratio tests scan long columns, which this keeps contiguous.
+         */
+        COLUMN_MAJOR
+    }
+
+    private final TableauBlock block;
     private final int numVariables;
+    private final int numExplicitVariables;
+    private final ImplicitColumn[] implicitColumns;
 
     public Tableau(final int numVariables,
                    final Vector... vectors) {
-        this.vectors = vectors;
+        this(numVariables, new RowMajorBlock(vectors), new ImplicitColumn[0]);
+    }
+
+    private Tableau(final int numVariables,
+                    final TableauBlock block,
+                    final ImplicitColumn[] implicitColumns) {
+        this.block = block;
         this.numVariables = numVariables;
+        this.numExplicitVariables = numVariables - implicitColumns.length;
+        this.implicitColumns = implicitColumns;
+    }
+
+    /**
+     * Create a row-major Tableau whose last variables are implicit columns. The vectors only hold the value column and
+     * the explicit variables.
+     */
+    public static Tableau withImplicitColumns(final Vector[] vectors, final ImplicitColumn... implicitColumns) {
+        return withImplicitColumns(Layout.ROW_MAJOR, vectors, implicitColumns);
+    }
+
+    /**
+     * Create a Tableau with the given layout whose last variables are implicit columns. The vectors only hold the
+     * value column and the explicit variables.
+     */
+    public static Tableau withImplicitColumns(final Layout layout,
+                                              final Vector[] vectors,
+                                              final ImplicitColumn... implicitColumns) {
+        final int numExplicitVariables = vectors.length == 0 ? 0 : vectors[0].length() - 1;
+        for (final ImplicitColumn implicitColumn : implicitColumns) {
+            Preconditions.checkArgument(implicitColumn.unitRow < vectors.length, "Unit column row out of range");
+        }
+
+        final TableauBlock block = layout == Layout.COLUMN_MAJOR
+                ? ColumnMajorBlock.fromRows(vectors)
+                : new RowMajorBlock(vectors);
+        return new Tableau(numExplicitVariables + implicitColumns.length, block, implicitColumns);
     }
 
     public int getWidth() {
@@ -21,28 +77,32 @@ public final class Tableau {
     }
 
     public int getHeight() {
-        return vectors.length;
+        return block.getHeight();
+    }
+
+    public Layout getLayout() {
+        return block instanceof ColumnMajorBlock ? Layout.COLUMN_MAJOR : Layout.ROW_MAJOR;
     }
 
     /**
      * Create a new Tableau by pivoting on a row and column.
      */
     public Tableau pivot(final int row, final int col) {
-        final Vector[] newVectors = new Vector[vectors.length];
-        final Coefficient inversePivotCoefficient = Coefficients.invert(
-                vectors[row].get(col)
-        );
-        final Vector inverseScaledVector = vectors[row].scale(inversePivotCoefficient);
-        for (int i = 0; i < vectors.length; i++) {
-            if (i == row) {
-                newVectors[i] = inverseScaledVector;
+        final Coefficient[] pivotColumn = getColumn(col);
+        final Coefficient inversePivotCoefficient = Coefficients.invert(pivotColumn[row]);
+        final TableauBlock newBlock = block.pivot(row, pivotColumn, inversePivotCoefficient);
+
+        final ImplicitColumn[] newImplicitColumns = new ImplicitColumn[implicitColumns.length];
+        for (int j = 0; j < implicitColumns.length; j++) {
+            if (j + numExplicitVariables + 1 == col) {
+                // The entering variable becomes the basis variable of the pivot row
+                newImplicitColumns[j] = ImplicitColumn.unit(row, Coefficients.ONE);
             } else {
-                final Vector vectorToSubtract = inverseScaledVector.scale(vectors[i].get(col));
-                newVectors[i] = vectors[i].subtract(vectorToSubtract);
+                newImplicitColumns[j] = implicitColumns[j].pivot(row, pivotColumn, inversePivotCoefficient);
             }
         }
 
-        return new Tableau(numVariables, newVectors);
+        return new Tableau(numVariables, newBlock, newImplicitColumns);
     }
 
     public Tableau pivot() {
@@ -63,7 +123,12 @@ public final class Tableau {
      * Return the "most negative" column, or if all values are non-negative return -1.
      */
     public int findOptimalPivotCol() {
-        return findOptimalPivotCol(vectors[vectors.length - 1]);
+        final int lastRow = block.getHeight() - 1;
+        final Vector.Builder objectiveRowBuilder = Vector.newBuilder();
+        for (int col = 1; col <= numVariables; col++) {
+            objectiveRowBuilder.addCoefficient(get(lastRow, col));
+        }
+        return findOptimalPivotCol(objectiveRowBuilder.build());
     }
 
     /**
@@ -74,6 +139,10 @@ public final class Tableau {
         Coefficient mostNegativeCoefficient = Coefficients.from(0);
 
         for (int col = 0; col < numVariables; col++) {
+            if (isDropped(col + 1)) {
+                continue;
+            }
+
             final Coefficient coefficientToCompare = objectiveRow.get(col);
             if (Coefficients.compare(coefficientToCompare, mostNegativeCoefficient) < 0) {
                 optimalPivotCol = col + 1; // The first value is the value of the basis variable
@@ -88,17 +157,18 @@ public final class Tableau {
      * Returns the argmin b_i / a_ik, for i in rows, k == col, and ignoring the final row.
      */
     public int findOptimalPivotRow(final int col) {
+        final Coefficient[] valueColumn = block.getColumn(0);
+        final Coefficient[] divisorColumn = getColumn(col);
         int optimalRow = -1;
         Coefficient minimumRatio = Coefficients.from(Double.POSITIVE_INFINITY);
-        for (int row = 0; row < vectors.length; row++) {
-            final Vector rowVector = vectors[row];
-            final Coefficient divisorCoefficient = rowVector.get(col);
+        for (int row = 0; row < divisorColumn.length; row++) {
+            final Coefficient divisorCoefficient = divisorColumn[row];
             if (!Coefficients.isPositive(divisorCoefficient)) {
                 continue;
             }
 
             final Coefficient ratio = Coefficients.divide(
-                    rowVector.get(0),
+                    valueColumn[row],
                     divisorCoefficient
             );
 
@@ -111,8 +181,59 @@ public final class Tableau {
         return optimalRow;
     }
 
+    /**
+     * Returns sum_i weights[i] * a_ik for k == col, only visiting the non-zero entries of implicit columns.
+     */
+    public Coefficient weightedColumnSum(final int col, final Coefficient[] weights) {
+        Preconditions.checkArgument(weights.length == block.getHeight(), "Must provide one weight per row");
+        if (col > numExplicitVariables) {
+            return implicitColumns[col - numExplicitVariables - 1].weightedSum(weights);
+        }
+
+        return weightedSum(block.getColumn(col), weights);
+    }
+
+    /**
+     * Return the values of a column. The array may be shared with the Tableau, so it must not be modified.
+     */
+    public Coefficient[] getColumn(final int col) {
+        if (col > numExplicitVariables) {
+            final ImplicitColumn implicitColumn = implicitColumns[col - numExplicitVariables - 1];
+            final Coefficient[] column = new Coefficient[block.getHeight()];
+            for (int row = 0; row < column.length; row++) {
+                column[row] = implicitColumn.get(row);
+            }
+            return column;
+        }
+
+        return block.getColumn(col);
+    }
+
+    private static Coefficient weightedSum(final Coefficient[] column, final Coefficient[] weights) {
+        Coefficient sum = Coefficients.ZERO;
+        for (int row = 0; row < column.length; row++) {
+            if (Coefficients.isZero(column[row]) || Coefficients.isZero(weights[row])) {
+                continue;
+            }
+            sum = Coefficients.add(sum, Coefficients.scaleBy(column[row], weights[row]));
+        }
+
+        return sum;
+    }
+
+    /**
+     * Whether a column belonged to an artificial variable that has left the basis. Dropped columns read as zero.
+     */
+    public boolean isDropped(final int col) {
+        return col > numExplicitVariables && implicitColumns[col - numExplicitVariables - 1].isDropped();
+    }
+
     public Coefficient get(final int row, final int col) {
-        return vectors[row].get(col);
+        if (col > numExplicitVariables) {
+            return implicitColumns[col - numExplicitVariables - 1].get(row);
+        }
+
+        return block.get(row, col);
     }
 
     @Override
@@ -124,6 +245,109 @@ public final class Tableau {
             return false;
         }
         final Tableau otherTableau = (Tableau) o;
-        return Arrays.equals(vectors, otherTableau.vectors);
+        if (numVariables != otherTableau.numVariables || getHeight() != otherTableau.getHeight()) {
+            return false;
+        }
+
+        for (int row = 0; row < getHeight(); row++) {
+            for (int col = 0; col <= numVariables; col++) {
+                if (!get(row, col).equals(otherTableau.get(row, col))) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A column that is stored as a unit column (a single non-zero value in one row) for as long as possible, and
+     * materialized into a dense column once a pivot makes it one.
+     */
+    public static final class ImplicitColumn {
+        private static final ImplicitColumn DROPPED = new ImplicitColumn(-1, null, false, null);
+
+        private final int unitRow;
+        private final Coefficient unitValue;
+        private final boolean isArtificial;
+        private final Coefficient[] values;
+
+        private ImplicitColumn(final int unitRow,
+                               final Coefficient unitValue,
+                               final boolean isArtificial,
+                               final Coefficient[] values) {
+            this.unitRow = unitRow;
+            this.unitValue = unitValue;
+            this.isArtificial = isArtificial;
+            this.values = values;
+        }
+
+        /**
+         * A column whose only non-zero value is in the given row.
+         */
+        public static ImplicitColumn unit(final int row, final Coefficient value) {
+            Preconditions.checkArgument(row >= 0, "Row must be non-negative");
+            return new ImplicitColumn(row, value, false, null);
+        }
+
+        /**
+         * The column of an artificial variable that starts out basic in the given row, and is dropped once it leaves.
+         */
+        public static ImplicitColumn artificial(final int row) {
+            Preconditions.checkArgument(row >= 0, "Row must be non-negative");
+            return new ImplicitColumn(row, Coefficients.ONE, true, null);
+        }
+
+        private boolean isDropped() {
+            return this == DROPPED;
+        }
+
+        private Coefficient get(final int row) {
+            if (values != null) {
+                return values[row];
+            }
+
+            return row == unitRow ? unitValue : Coefficients.ZERO;
+        }
+
+        private Coefficient weightedSum(final Coefficient[] weights) {
+            if (values == null) {
+                return isDropped() ? Coefficients.ZERO : Coefficients.scaleBy(unitValue, weights[unitRow]);
+            }
+
+            return Tableau.weightedSum(values, weights);
+        }
+
+        private ImplicitColumn pivot(final int row,
+                                     final Coefficient[] pivotColumn,
+                                     final Coefficient inversePivotCoefficient) {
+            if (isDropped()) {
+                return this;
+            }
+
+            if (values == null && unitRow != row) {
+                // Unit columns outside the pivot row are untouched by the pivot
+                return this;
+            }
+
+            if (isArtificial) {
+                // An artificial variable that leaves the basis never needs to come back
+                return DROPPED;
+            }
+
+            final Coefficient[] currentValues = values != null ? values : materialize(pivotColumn.length);
+            final Coefficient[] newValues
+                    = ColumnMajorBlock.rankOneUpdate(currentValues, row, pivotColumn, inversePivotCoefficient);
+            return new ImplicitColumn(-1, null, false, newValues);
+        }
+
+        private Coefficient[] materialize(final int height) {
+            final Coefficient[] column = new Coefficient[height];
+            for (int row = 0; row < height; row++) {
+                column[row] = get(row);
+            }
+
+            return column;
+        }
     }
 }
@@ -0,0 +1,30 @@
+package core;
+
+import coefficients.Coefficient;
+
+/**
+ * The explicitly stored part of a Tableau: the value column followed by the columns of the explicit variables. The
+ * storage layout is up to the implementation, but every block offers the two kernels the simplex spends its time in:
+ * scanning a single column, and the rank-1 update of a pivot.
+ */
+interface TableauBlock {
+    int getHeight();
+
+    /**
+     * The number of columns, including the value column.
+     */
+    int getWidth();
+
+    Coefficient get(int row, int col);
+
+    /**
+     * Return the values of a column. Implementations may hand out their own storage, so callers must not modify it.
+     */
+    Coefficient[] getColumn(int col);
+
+    /**
+     * Return a new block with the pivot row scaled by the inverse pivot coefficient and every other row i reduced by
+     * pivotColumn[i] times the scaled pivot row.
+     */
+    TableauBlock pivot(int row, Coefficient[] pivotColumn, Coefficient inversePivotCoefficient);
+}
@@ -0,0 +1,272 @@
+package core;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import lang.Preconditions;
+import math.Vector;
+
+import java.util.Arrays;
+
+/**
+ * The final tableau of a solved Simplex, which new constraints can be added to without solving the problem again.
+ * <p>
+ * Adding a constraint leaves the reduced costs of an optimal tableau alone, so the tableau stays dual feasible and the
+ * dual simplex method gets it back to an optimum, usually in a handful of pivots. This is what makes re-solving a
+ * branch and bound child, which only adds a bound to its parent, cheap. Each added constraint works on a copy, so a
+ * WarmStart can be shared between any number of children.
+ * <p>
+ * The dual simplex can also be cut short after a number of pivots, which is enough to bound the objective with a
+ * constraint added, as strong branching wants. Such a WarmStart isn't optimal, but constraints can still be added to
+ * it.
+ * <p>
+ * Copying the tableau for every constraint adds up when many are tried one after another, so a caller that only needs
+ * one relaxation at a time can start a PivotJournal instead, which copies it once and adds constraints in place.
+ */
+public final class WarmStart {
+    private static final double FEASIBILITY_TOLERANCE = 1e-9;
+    // Adding a constraint usually takes a handful of pivots, so one that takes more than this many per row has run
+    // into trouble, and is cut short rather than left to run
+    private static final int MAX_PIVOTS_PER_ROW = 10;
+    private static final int MIN_MAX_PIVOTS = 100;
+
+    private final DoubleTableau tableau;
+    private final Vector costVector;
+    // For each slack variable, the row [d | c_1 ... c_n] that defines it as s = d - c^x, and null for the others
+    private final double[][] slackRows;
+    private final int numPivots;
+    private final boolean isFeasible;
+    private final boolean isOptimal;
+
+    WarmStart(final DoubleTableau tableau,
+              final Vector costVector,
+              final double[][] slackRows,
+              final int numPivots,
+              final boolean isFeasible) {
+        this.tableau = tableau;
+        this.costVector = costVector;
+        this.slackRows = slackRows;
+        this.numPivots = numPivots;
+        this.isFeasible = isFeasible && !hasArtificialBasisVariable(tableau);
+        this.isOptimal = this.isFeasible && tableau.isPrimalFeasible();
+    }
+
+    /**
+     * Add the constraint a^x <= b and re-optimize. The dual simplex is cut short if it takes far more pivots than a
+     * single constraint should, in which case the WarmStart isn't optimal and the caller is better off solving from
+     * scratch.
+     */
+    public WarmStart addLessThanInequality(final Vector lessThanInequality,
+                                           final ConstantCoefficient lessThanConstant) {
+        return addRow(lessThanInequality, Coefficients.asDouble(lessThanConstant), 1d, getDefaultMaxPivots());
+    }
+
+    /**
+     * Add a constraint like addLessThanInequality, but give up on re-optimizing after maxPivots pivots.
+     */
+    public WarmStart addLessThanInequality(final Vector lessThanInequality,
+                                           final ConstantCoefficient lessThanConstant,
+                                           final int maxPivots) {
+        return addRow(lessThanInequality, Coefficients.asDouble(lessThanConstant), 1d, maxPivots);
+    }
+
+    /**
+     * Add the constraint a^x >= b and re-optimize, cut short like addLessThanInequality.
+     */
+    public WarmStart addGreaterThanInequality(final Vector greaterThanInequality,
+                                              final ConstantCoefficient greaterThanConstant) {
+        return addRow(greaterThanInequality, Coefficients.asDouble(greaterThanConstant), -1d, getDefaultMaxPivots());
+    }
+
+    /**
+     * Add a constraint like addGreaterThanInequality, but give up on re-optimizing after maxPivots pivots.
+     */
+    public WarmStart addGreaterThanInequality(final Vector greaterThanInequality,
+                                              final ConstantCoefficient greaterThanConstant,
+                                              final int maxPivots) {
+        return addRow(greaterThanInequality, Coefficients.asDouble(greaterThanConstant), -1d, maxPivots);
+    }
+
+    private WarmStart addRow(final Vector constraint, final double constant, final double sign, final int maxPivots) {
+        final double[] coefficients = getCoefficients(constraint, sign);
+        final double[][] newSlackRows = Arrays.copyOf(slackRows, slackRows.length + 1);
+        newSlackRows[slackRows.length] = createSlackRow(coefficients, sign * constant);
+        final DoubleTableau newTableau = tableau.addLessThanRow(coefficients, sign * constant);
+        final int newNumPivots = newTableau.reoptimize(maxPivots);
+        return new WarmStart(newTableau, costVector, newSlackRows, Math.max(newNumPivots, 0), newNumPivots >= 0);
+    }
+
+    /**
+     * Start a journal of constraints added to a copy of this relaxation in place.
+     */
+    public PivotJournal startJournal() {
+        return new PivotJournal(this, tableau.growableCopy(), costVector, slackRows);
+    }
+
+    int getDefaultMaxPivots() {
+        return Math.max(MIN_MAX_PIVOTS, MAX_PIVOTS_PER_ROW * (tableau.getHeight() + 1));
+    }
+
+    /**
+     * The coefficients of a constraint over every variable of the tableau, times sign, checking it can be added.
+     */
+    double[] getCoefficients(final Vector constraint, final double sign) {
+        Preconditions.checkArgument(constraint.length() == costVector.length(),
+                "The constraint does not match the length of the cost vector"
+        );
+        Preconditions.checkArgument(isFeasible, "Can't add a constraint to an infeasible problem");
+
+        final double[] coefficients = new double[tableau.getWidth()];
+        for (int i = 0; i < constraint.length(); i++) {
+            coefficients[i] = sign * Coefficients.asDouble(constraint.get(i));
+        }
+
+        return coefficients;
+    }
+
+    /**
+     * The row [d | c_1 ... c_n] that defines the slack of the constraint c^x <= d as s = d - c^x.
+     */
+    double[] createSlackRow(final double[] coefficients, final double constant) {
+        final double[] slackRow = new double[costVector.length() + 1];
+        slackRow[0] = constant;
+        System.arraycopy(coefficients, 0, slackRow, 1, costVector.length());
+        return slackRow;
+    }
+
+    private static boolean hasArtificialBasisVariable(final DoubleTableau tableau) {
+        final int[] basisVariables = tableau.getBasisVariables();
+        for (int row = 0; row < basisVariables.length; row++) {
+            if (tableau.isArtificial(basisVariables[row] + 1) && tableau.get(row, 0) > FEASIBILITY_TOLERANCE) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean isFeasible() {
+        return isFeasible;
+    }
+
+    /**
+     * Whether the dual simplex ran to the end. If it was cut short, the solution isn't feasible yet, but the objective
+     * value still bounds the optimum: from above for a maximization, and from below for a minimization.
+     */
+    public boolean isOptimal() {
+        return isOptimal;
+    }
+
+    public Vector getOptimalSolution() {
+        final Coefficient[] solutionCoefficients = new Coefficient[costVector.length()];
+        Arrays.fill(solutionCoefficients, Coefficients.ZERO);
+        final int[] basisVariables = tableau.getBasisVariables();
+        for (int row = 0; row < basisVariables.length; row++) {
+            if (basisVariables[row] < solutionCoefficients.length) {
+                solutionCoefficients[basisVariables[row]] = Coefficients.from(tableau.get(row, 0));
+            }
+        }
+
+        return Vector.newBuilder().addAllCoefficients(solutionCoefficients).build();
+    }
+
+    public double getOptimalValue() {
+        return getOptimalSolution().dotProductAsDouble(costVector);
+    }
+
+    /**
+     * The variable each row solves for, numbered like Simplex.getBasisVariables with the slacks of the added
+     * constraints at the end.
+     */
+    public int[] getBasisVariables() {
+        return tableau.getBasisVariables();
+    }
+
+    public int getNumRows() {
+        return tableau.getHeight();
+    }
+
+    /**
+     * The number of variables in the tableau: the real ones, then the slack and artificial ones.
+     */
+    public int getNumVariables() {
+        return tableau.getWidth();
+    }
+
+    /**
+     * The value of the basis variable of a row.
+     */
+    public double getValue(final int row) {
+        return tableau.get(row, 0);
+    }
+
+    /**
+     * The coefficient of a variable in a row of the final tableau, i.e. of B^-1 A.
+     */
+    public double getCoefficient(final int row, final int variable) {
+        return tableau.get(row, variable + 1);
+    }
+
+    /**
+     * How much the objective would drop per unit that a non-basic variable is raised by, which is zero for a basic
+     * variable. The objective is the one maximized internally, so for a minimization it's a rise in the real objective.
+     * While an artificial variable is still basic at zero, a reduced cost can have a Big-M part, and then this is 0,
+     * which claims nothing.
+     */
+    public double getReducedCost(final int variable) {
+        final int height = tableau.getHeight();
+        if (Math.abs(tableau.get(height, variable + 1)) > FEASIBILITY_TOLERANCE) {
+            return 0d;
+        }
+
+        return tableau.get(height + 1, variable + 1);
+    }
+
+    /**
+     * Whether a variable is a slack variable, as opposed to a real or an artificial one.
+     */
+    public boolean isSlackVariable(final int variable) {
+        return slackRows[variable] != null;
+    }
+
+    /**
+     * Whether a variable has been dropped from the tableau, which artificial variables are once they leave the basis.
+     * Such a variable is zero in every feasible solution.
+     */
+    public boolean isDropped(final int variable) {
+        return tableau.isDropped(variable + 1);
+    }
+
+    /**
+     * Rewrite the constraint sum_j coefficients[j] * v_j >= constant, over every variable of the tableau, as one over
+     * the real variables only, by substituting the row that defines each slack variable. Dropped variables are left
+     * out, since they're zero. Returns the constant followed by the coefficients of the real variables.
+     */
+    public double[] projectOntoRealVariables(final double[] coefficients, final double constant) {
+        final int numRealVariables = costVector.length();
+        final double[] projection = new double[numRealVariables + 1];
+        projection[0] = constant;
+        System.arraycopy(coefficients, 0, projection, 1, numRealVariables);
+        for (int variable = numRealVariables; variable < coefficients.length; variable++) {
+            if (coefficients[variable] == 0d || slackRows[variable] == null) {
+                continue;
+            }
+
+            // a * s = a * d - a * c^x
+            final double[] slackRow = slackRows[variable];
+            projection[0] -= coefficients[variable] * slackRow[0];
+            for (int i = 1; i <= numRealVariables; i++) {
+                projection[i] -= coefficients[variable] * slackRow[i];
+            }
+        }
+
+        return projection;
+    }
+
+    /**
+     * How many dual simplex pivots the last added constraint took.
+     */
+    public int getNumPivots() {
+        return numPivots;
+    }
+}
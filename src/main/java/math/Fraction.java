@@ -0,0 +1,136 @@
+package math;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * An exact rational number backed by BigIntegers, always kept in lowest terms with a positive denominator.
+ * <p>
+ * Unlike a RationalCoefficient this never overflows, which makes it suitable for the exact simplex engines where the
+ * numerators and denominators of a tableau grow with every pivot.
+ */
+public final class Fraction implements Comparable<Fraction> {
+    public static final Fraction ZERO = new Fraction(BigInteger.ZERO, BigInteger.ONE);
+    public static final Fraction ONE = new Fraction(BigInteger.ONE, BigInteger.ONE);
+
+    private final BigInteger numerator;
+    private final BigInteger denominator;
+
+    private Fraction(final BigInteger numerator, final BigInteger denominator) {
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+
+    public static Fraction of(final long numerator, final long denominator) {
+        return of(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+    }
+
+    public static Fraction of(final BigInteger numerator, final BigInteger denominator) {
+        if (denominator.signum() == 0) {
+            throw new ArithmeticException("Denominator can't be zero");
+        }
+
+        if (numerator.signum() == 0) {
+            return ZERO;
+        }
+
+        final BigInteger gcd = numerator.gcd(denominator);
+        final BigInteger reducedNumerator = numerator.divide(gcd);
+        final BigInteger reducedDenominator = denominator.divide(gcd);
+        return reducedDenominator.signum() < 0
+                ? new Fraction(reducedNumerator.negate(), reducedDenominator.negate())
+                : new Fraction(reducedNumerator, reducedDenominator);
+    }
+
+    public static Fraction of(final BigInteger value) {
+        return value.signum() == 0 ? ZERO : new Fraction(value, BigInteger.ONE);
+    }
+
+    public BigInteger getNumerator() {
+        return numerator;
+    }
+
+    public BigInteger getDenominator() {
+        return denominator;
+    }
+
+    public Fraction add(final Fraction other) {
+        if (denominator.equals(other.denominator)) {
+            return of(numerator.add(other.numerator), denominator);
+        }
+
+        return of(
+                numerator.multiply(other.denominator).add(other.numerator.multiply(denominator)),
+                denominator.multiply(other.denominator)
+        );
+    }
+
+    public Fraction subtract(final Fraction other) {
+        return add(other.negate());
+    }
+
+    public Fraction multiply(final Fraction other) {
+        if (signum() == 0 || other.signum() == 0) {
+            return ZERO;
+        }
+
+        return of(numerator.multiply(other.numerator), denominator.multiply(other.denominator));
+    }
+
+    public Fraction divide(final Fraction other) {
+        return multiply(other.inverse());
+    }
+
+    public Fraction inverse() {
+        return of(denominator, numerator);
+    }
+
+    public Fraction negate() {
+        return signum() == 0 ? this : new Fraction(numerator.negate(), denominator);
+    }
+
+    public int signum() {
+        return numerator.signum();
+    }
+
+    public boolean isInteger() {
+        return denominator.equals(BigInteger.ONE);
+    }
+
+    public double doubleValue() {
+        if (numerator.bitLength() < 53 && denominator.bitLength() < 53) {
+            return numerator.doubleValue() / denominator.doubleValue();
+        }
+
+        // Either part may be too big for a double on its own, so divide first
+        return new BigDecimal(numerator).divide(new BigDecimal(denominator), MathContext.DECIMAL64).doubleValue();
+    }
+
+    @Override
+    public int compareTo(final Fraction other) {
+        return numerator.multiply(other.denominator).compareTo(other.numerator.multiply(denominator));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Fraction that = (Fraction) o;
+        return numerator.equals(that.numerator) && denominator.equals(that.denominator);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * numerator.hashCode() + denominator.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return isInteger() ? numerator.toString() : numerator + "/" + denominator;
+    }
+}
@@ -0,0 +1,71 @@
+package milp;
+
+import java.util.Arrays;
+
+/**
+ * One link of a chain of bound changes, from a node of the branch-and-bound tree up to the root. A node only adds the
+ * bound it branched on to its parent's chain, so a whole subtree shares the chain above it and an open node costs a
+ * few dozen bytes however deep it is.
+ * <p>
+ * Bounds only ever tighten on the way down the tree, so the bounds of a node are the tightest ones in its chain.
+ */
+final class BoundChange {
+    static final long NO_UPPER_BOUND = Long.MAX_VALUE;
+
+    private final BoundChange parent;
+    private final int variable;
+    private final long value;
+    private final boolean isUpperBound;
+
+    private BoundChange(final BoundChange parent, final int variable, final long value, final boolean isUpperBound) {
+        this.parent = parent;
+        this.variable = variable;
+        this.value = value;
+        this.isUpperBound = isUpperBound;
+    }
+
+    /**
+     * Add x_variable >= value to a chain, which may be null for the root.
+     */
+    static BoundChange lowerBound(final BoundChange parent, final int variable, final long value) {
+        return new BoundChange(parent, variable, value, false);
+    }
+
+    /**
+     * Add x_variable <= value to a chain, which may be null for the root.
+     */
+    static BoundChange upperBound(final BoundChange parent, final int variable, final long value) {
+        return new BoundChange(parent, variable, value, true);
+    }
+
+    /**
+     * Rebuild the bounds a chain ends up at. Variables the chain doesn't touch get bounds [0, NO_UPPER_BOUND].
+     */
+    static void applyChain(final BoundChange chain, final long[] lowerBounds, final long[] upperBounds) {
+        Arrays.fill(lowerBounds, 0);
+        Arrays.fill(upperBounds, NO_UPPER_BOUND);
+        for (BoundChange change = chain; change != null; change = change.parent) {
+            if (change.isUpperBound) {
+                upperBounds[change.variable] = Math.min(upperBounds[change.variable], change.value);
+            } else {
+                lowerBounds[change.variable] = Math.max(lowerBounds[change.variable], change.value);
+            }
+        }
+    }
+
+    BoundChange getParent() {
+        return parent;
+    }
+
+    int getVariable() {
+        return variable;
+    }
+
+    long getValue() {
+        return value;
+    }
+
+    boolean isUpperBound() {
+        return isUpperBound;
+    }
+}
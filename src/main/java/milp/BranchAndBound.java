@@ -0,0 +1,1629 @@
+package milp;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import core.Simplex;
+import core.WarmStart;
+import lang.Preconditions;
+import math.Vector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Solves a MixedIntegerProgram by branch-and-bound over its Simplex relaxations.
+ * <p>
+ * Each node of the tree is solved as an LP. A node whose relaxation is infeasible, or can't beat the best integer
+ * solution found so far (the incumbent) by more than the gap tolerance, is pruned. A node whose relaxation is integral
+ * on every integer variable becomes the new incumbent. Any other node is split on one of its fractional integer
+ * variables, picked by the branching rule, into a child with x <= floor(v) and one with x >= ceil(v).
+ * <p>
+ * Internally every objective is maximized, so a minimization's objective is negated on the way in and out.
+ * <p>
+ * With more than one thread the tree is searched on a ForkJoinPool. Relaxations are independent of each other, so
+ * the only state the workers share is the incumbent, which they read and replace without locks. That search is
+ * opportunistic: which worker finds which incumbent first depends on scheduling, and so does the rest of the search.
+ * For reproducible results it can instead run in deterministic rounds.
+ * <p>
+ * A child only differs from its parent by one bound, so rather than solving its relaxation from scratch, a child is
+ * warm started from its parent's final tableau: the bound is added as a new row and a few dual simplex pivots restore
+ * optimality. This needs the relaxations to be solved in doubles, so it's skipped if the program asks for another
+ * engine.
+ * <p>
+ * Before the search starts, the root relaxation is tightened with rounds of Gomory mixed-integer cuts, along with
+ * lifted cover and clique cuts on rows over binary variables, which are added to the program for the rest of the
+ * search. Optionally, nodes deeper in the tree get a round of cuts of their own,
+ * which only hold within the node and so are only passed on to its children through its final tableau. Cuts are read
+ * off the final tableau too, so they're skipped along with warm starts.
+ * <p>
+ * Primal heuristics look for integer solutions near the relaxations of fractional nodes, each at the depths its
+ * frequency calls for, so that good incumbents turn up long before the tree would find them on its own. What they find
+ * is only offered to the incumbent when the node is branched on, which keeps deterministic rounds deterministic.
+ * <p>
+ * For the same reason, pseudocosts are learned, and branching variables picked, when a node is branched on rather than
+ * when it's solved. With deterministic rounds that means strong branching runs one node at a time.
+ * <p>
+ * Before its relaxation is solved, a node's bounds are tightened by propagating the rows its new bounds touch, and by
+ * reduced-cost fixing against its parent's final tableau. A node whose bounds turn out to be infeasible is pruned
+ * without solving anything, and the bounds that did tighten are passed on to its children.
+ * <p>
+ * With conflict analysis on, a node that turns out to be infeasible, by propagation or by its relaxation, is analyzed
+ * into a conflict: a few of its bounds that no solution satisfies together. Conflicts are kept in a bounded store, and
+ * prune or tighten other nodes the same way propagation does.
+ * <p>
+ * Symmetries of the program, such as interchangeable machines, would have the search explore every permutation of a
+ * solution. With symmetry breaking on, they're detected up front, and their lexicographic symmetry-breaking
+ * constraints are propagated on each node's bounds along with its rows, leaving one solution per class to be found.
+ * <p>
+ * A solve can be cut short by a time or node limit, checked before each node. The nodes still open are then given up
+ * on, their bounds kept as the best bound, and the best incumbent so far is returned, with a status saying whether it
+ * is proven optimal. New incumbents can be acted on as soon as they're found through a callback.
+ * <p>
+ * The program is presolved before it's searched, and the search is carried out on the smaller program presolve leaves.
+ * Once the root has an incumbent, reduced costs against it often fix a good share of the binaries, and then the
+ * search restarts on the program presolved again within those fixings, with cuts, symmetries and everything else
+ * worked out afresh on the smaller program. Solutions are mapped back to the original program when they're reported.
+ * <p>
+ * For programs whose structure suits it, a Lagrangian relaxation can bound the whole program before the search starts.
+ * Every node's bound is then capped by it, which can prove an incumbent optimal long before the tree runs out.
+ */
+public final class BranchAndBound {
+    // How far from an integer a value can be and still count as one. This has to be well above the tolerance bounds
+    // are enforced within, or a variable just past its bound keeps being branched on without the relaxation moving
+    private static final double INTEGRALITY_TOLERANCE = 1e-6;
+    // How far an incumbent can be from satisfying a row of the original program. Snapping its integer variables can
+    // push a row out by a few times the integrality tolerance, but anything further is a bug upstream
+    private static final double INCUMBENT_FEASIBILITY_TOLERANCE = 1e-5;
+    // Nodes that can't beat the incumbent by more than this are pruned even with a gap tolerance of 0
+    private static final double ABSOLUTE_TOLERANCE = 1e-9;
+    // How many final tableaus are kept for warm starts
+    private static final int WARM_START_CACHE_SIZE = 64;
+    private static final int DEFAULT_ROOT_CUT_ROUNDS = 10;
+    // Heuristics run at every node whose depth is a multiple of their frequency, so this runs them at the root only
+    private static final int ROOT_ONLY = Integer.MAX_VALUE;
+    private static final int DEFAULT_STRONG_BRANCHING_PIVOTS = 20;
+    private static final int DEFAULT_RELIABILITY_THRESHOLD = 4;
+    // Conflicts with more bounds than this rarely prune anything
+    private static final int MAX_CONFLICT_SIZE = 20;
+    // How many nodes a conflict can go without pruning or tightening one before it's dropped, per stored conflict
+    private static final int CONFLICT_AGE_PER_ENTRY = 20;
+    private static final ConflictStatistics EMPTY_CONFLICT_STATISTICS = new ConflictStatistics(0, 0, 0, 0);
+    // How many times symmetry breaking and propagation take turns tightening a node's bounds
+    private static final int MAX_SYMMETRY_ROUNDS = 5;
+    private static final int DEFAULT_MAX_RESTARTS = 1;
+    // The share of the unfixed integer variables the root has to fix for a restart to be worth it
+    private static final double RESTART_FRACTION = 0.1;
+    private static final PresolveStatistics EMPTY_PRESOLVE_STATISTICS = new PresolveStatistics(0, 0, 0, 0, 0);
+
+    private final NodeSelection nodeSelection;
+    private final double gapTolerance;
+    private final int threads;
+    private final boolean isDeterministic;
+    private final int roundSize;
+    private final boolean storeBases;
+    private final long nodeMemoryLimit;
+    private final Path spillDirectory;
+    private final boolean warmStarts;
+    private final int rootCutRounds;
+    private final int treeCutFrequency;
+    private final Map<Heuristic, Integer> heuristicFrequencies;
+    private final BranchingRule branchingRule;
+    private final int strongBranchingPivots;
+    private final int reliabilityThreshold;
+    private final boolean propagation;
+    private final int conflictStoreSize;
+    private final boolean symmetryBreaking;
+    private final double absoluteGapTolerance;
+    private final long timeLimitNanos;
+    private final long nodeLimit;
+    private final IncumbentCallback incumbentCallback;
+    private final boolean presolving;
+    private final int maxRestarts;
+    private final LagrangianRelaxation lagrangianRelaxation;
+
+    private BranchAndBound(final NodeSelection nodeSelection,
+                           final double gapTolerance,
+                           final int threads,
+                           final boolean isDeterministic,
+                           final int roundSize,
+                           final boolean storeBases,
+                           final long nodeMemoryLimit,
+                           final Path spillDirectory,
+                           final boolean warmStarts,
+                           final int rootCutRounds,
+                           final int treeCutFrequency,
+                           final Map<Heuristic, Integer> heuristicFrequencies,
+                           final BranchingRule branchingRule,
+                           final int strongBranchingPivots,
+                           final int reliabilityThreshold,
+                           final boolean propagation,
+                           final int conflictStoreSize,
+                           final boolean symmetryBreaking,
+                           final double absoluteGapTolerance,
+                           final long timeLimitNanos,
+                           final long nodeLimit,
+                           final IncumbentCallback incumbentCallback,
+                           final boolean presolving,
+                           final int maxRestarts,
+                           final LagrangianRelaxation lagrangianRelaxation) {
+        this.nodeSelection = nodeSelection;
+        this.gapTolerance = gapTolerance;
+        this.threads = threads;
+        this.isDeterministic = isDeterministic;
+        this.roundSize = roundSize;
+        this.storeBases = storeBases;
+        this.nodeMemoryLimit = nodeMemoryLimit;
+        this.spillDirectory = spillDirectory;
+        this.warmStarts = warmStarts;
+        this.rootCutRounds = rootCutRounds;
+        this.treeCutFrequency = treeCutFrequency;
+        this.heuristicFrequencies = heuristicFrequencies;
+        this.branchingRule = branchingRule;
+        this.strongBranchingPivots = strongBranchingPivots;
+        this.reliabilityThreshold = reliabilityThreshold;
+        this.propagation = propagation;
+        this.conflictStoreSize = conflictStoreSize;
+        this.symmetryBreaking = symmetryBreaking;
+        this.absoluteGapTolerance = absoluteGapTolerance;
+        this.timeLimitNanos = timeLimitNanos;
+        this.nodeLimit = nodeLimit;
+        this.incumbentCallback = incumbentCallback;
+        this.presolving = presolving;
+        this.maxRestarts = maxRestarts;
+        this.lagrangianRelaxation = lagrangianRelaxation;
+    }
+
+    public BranchAndBoundResult solve(final MixedIntegerProgram program) {
+        final long startNanos = System.nanoTime();
+        Restart restart = Restart.NONE;
+        Vector lagrangianSolution = null;
+        double lagrangianScore = Double.POSITIVE_INFINITY;
+        if (lagrangianRelaxation != null) {
+            final LagrangianResult lagrangianResult = lagrangianRelaxation.solve(program);
+            lagrangianScore = program.isMaximization() ? lagrangianResult.getBound() : -lagrangianResult.getBound();
+            if (lagrangianScore == Double.NEGATIVE_INFINITY) {
+                return createEmptySearch(program, startNanos, restart, lagrangianScore).createResult();
+            }
+            lagrangianSolution = lagrangianResult.getSolution().orElse(null);
+            restart = new Restart(null, lagrangianSolution, 0, 0);
+            if (lagrangianSolution != null && incumbentCallback != null) {
+                incumbentCallback.onIncumbent(lagrangianSolution, lagrangianSolution.dotProductAsDouble(
+                        program.getCostVector()));
+            }
+        }
+        if (presolving) {
+            final Presolve presolve = Presolve.run(program, null, null, null);
+            if (presolve == null) {
+                // A search that never runs has no solution to report, which is the right answer
+                return createEmptySearch(program, startNanos, restart, lagrangianScore).createResult();
+            }
+            final Vector reducedSolution = lagrangianSolution == null ? null : presolve.reduce(lagrangianSolution);
+            restart = new Restart(presolve, reducedSolution, 0, 0);
+        }
+
+        while (true) {
+            final MixedIntegerProgram reducedProgram = restart.presolve == null
+                    ? program
+                    : restart.presolve.getProgram();
+            // Detected before the root cuts, which needn't be symmetric themselves
+            final Symmetry symmetry = symmetryBreaking ? Symmetry.detect(reducedProgram) : null;
+            final Search search = separateRootCuts(
+                    reducedProgram,
+                    symmetry != null && symmetry.getNumGenerators() > 0 ? symmetry : null,
+                    startNanos,
+                    restart,
+                    lagrangianScore
+            );
+            if (isDeterministic) {
+                search.runDeterministically();
+            } else if (threads == 1) {
+                search.runSequentially();
+            } else {
+                search.runInParallel();
+            }
+
+            if (search.pendingRestart == null) {
+                return search.createResult();
+            }
+            restart = search.pendingRestart;
+        }
+    }
+
+    /**
+     * Set up a search of the program for a distributed worker, which processes the nodes its coordinator hands it
+     * rather than the whole tree. Every worker has to search the same program, so it's neither presolved nor
+     * restarted, but root cuts are still added: cuts only add rows, so nodes stay valid from one worker to the next.
+     *
+     * @param firstNodeId the id of the first node the search creates, which keeps ids apart between workers
+     */
+    Search createWorkerSearch(final MixedIntegerProgram program, final long firstNodeId) {
+        final Symmetry symmetry = symmetryBreaking ? Symmetry.detect(program) : null;
+        final Search search = separateRootCuts(
+                program,
+                symmetry != null && symmetry.getNumGenerators() > 0 ? symmetry : null,
+                System.nanoTime(),
+                // With every restart used up, the root branches like any other node
+                new Restart(null, null, 0, maxRestarts),
+                Double.POSITIVE_INFINITY
+        );
+        search.nextNodeId.set(firstNodeId);
+        return search;
+    }
+
+    /**
+     * Run the root cut rounds, and set up a search over the program with the cuts added. The search starts from the
+     * root relaxation the cuts left behind, rather than solving it again.
+     */
+    private Search separateRootCuts(final MixedIntegerProgram program,
+                                    final Symmetry symmetry,
+                                    final long startNanos,
+                                    final Restart restart,
+                                    final double lagrangianScore) {
+        if (rootCutRounds == 0 || !program.canWarmStart()) {
+            return new Search(
+                    program,
+                    Collections.emptyList(),
+                    null,
+                    Collections.emptyList(),
+                    symmetry,
+                    startNanos,
+                    restart,
+                    lagrangianScore
+            );
+        }
+
+        final Simplex rootSimplex = program.solveRelaxation(Node.root(), true);
+        if (!rootSimplex.getWarmStart().isPresent()) {
+            // Infeasible or unbounded, which the search will find out for itself
+            return new Search(
+                    program,
+                    Collections.emptyList(),
+                    null,
+                    Collections.emptyList(),
+                    symmetry,
+                    startNanos,
+                    restart,
+                    lagrangianScore
+            );
+        }
+
+        final CutLoop.Result result = new CutLoop(createSeparators(program)).run(
+                rootSimplex.getWarmStart().get(),
+                rootCutRounds
+        );
+        return new Search(
+                program,
+                result.getCuts(),
+                result.getRelaxation(),
+                result.getRounds(),
+                symmetry,
+                startNanos,
+                restart,
+                lagrangianScore
+        );
+    }
+
+    /**
+     * A search of the program without root cuts or symmetries, for when there's nothing to search.
+     */
+    private Search createEmptySearch(final MixedIntegerProgram program,
+                                     final long startNanos,
+                                     final Restart restart,
+                                     final double lagrangianScore) {
+        return new Search(
+                program,
+                Collections.emptyList(),
+                null,
+                Collections.emptyList(),
+                null,
+                startNanos,
+                restart,
+                lagrangianScore
+        );
+    }
+
+    private static Map<Heuristic, PrimalHeuristic> createHeuristics(final MixedIntegerProgram program) {
+        final Map<Heuristic, PrimalHeuristic> heuristics = new EnumMap<>(Heuristic.class);
+        heuristics.put(Heuristic.ROUNDING, new RoundingHeuristic(program, false));
+        heuristics.put(Heuristic.RANDOMIZED_ROUNDING, new RoundingHeuristic(program, true));
+        heuristics.put(Heuristic.FRACTIONAL_DIVING, new DivingHeuristic(program, false));
+        heuristics.put(Heuristic.GUIDED_DIVING, new DivingHeuristic(program, true));
+        heuristics.put(Heuristic.FEASIBILITY_PUMP, new FeasibilityPump(program));
+        return heuristics;
+    }
+
+    private static List<CutSeparator> createSeparators(final MixedIntegerProgram program) {
+        return Arrays.asList(
+                new GomoryCutSeparator(program),
+                new CoverCutSeparator(program),
+                new CliqueCutSeparator(program)
+        );
+    }
+
+    /**
+     * Snap the integer variables of a solution to the integers they're within tolerance of.
+     */
+    static Vector roundIntegerVariables(final MixedIntegerProgram program, final Vector solution) {
+        final Coefficient[] coefficients = solution.getValues().clone();
+        for (int variable = 0; variable < coefficients.length; variable++) {
+            if (program.isIntegerVariable(variable)) {
+                final double value = Coefficients.asDouble(coefficients[variable]);
+                coefficients[variable] = Coefficients.from(Math.round(value));
+            }
+        }
+
+        return new Vector(coefficients);
+    }
+
+    /**
+     * Whether a solution is close enough to satisfying every row of a program to become its incumbent.
+     */
+    static boolean isIncumbentFeasible(final MixedIntegerProgram program, final Vector solution) {
+        return solution.length() == program.getNumVariables()
+                && program.isFeasible(CutLoop.toArray(solution), INCUMBENT_FEASIBILITY_TOLERANCE);
+    }
+
+    /**
+     * The state of a single solve. Everything here is safe to share between the workers of a parallel search.
+     */
+    final class Search {
+        // The program searched, with the root cuts added
+        private final MixedIntegerProgram program;
+        // The program as it was before the root cuts, which a restart presolves again
+        private final MixedIntegerProgram uncutProgram;
+        // The program solutions are reported in, before any presolve, which every incumbent is checked against
+        private final MixedIntegerProgram originalProgram;
+        private final Incumbent incumbent;
+        private final AtomicLong nextNodeId;
+        private final AtomicLong nodeCount;
+        private final AtomicBoolean isUnbounded;
+        private final WarmStartCache warmStartCache;
+        private final AtomicLong warmStartCount;
+        // The root relaxation left by the root cuts, if there were any
+        private final WarmStart rootRelaxation;
+        private final List<CutRound> cutRounds;
+        private final CutLoop treeCutLoop;
+        private final AtomicLong treeCutCount;
+        private final Map<Heuristic, PrimalHeuristic> heuristics;
+        // Per heuristic, indexed by ordinal
+        private final AtomicLongArray heuristicCalls;
+        private final AtomicLongArray heuristicSolutions;
+        private final AtomicLongArray heuristicImprovements;
+        private final AtomicLongArray heuristicTimeNanos;
+        private final Pseudocosts pseudocosts;
+        private final VariableSelector variableSelector;
+        // How many nodes each rule picked the branching variable of, indexed by ordinal
+        private final AtomicLongArray branchingCounts;
+        private final Propagator propagator;
+        // The bounds every node starts from, implied by the rows alone, or null if they're infeasible
+        private final long[] globalLowerBounds;
+        private final long[] globalUpperBounds;
+        private final AtomicLong propagationPruneCount;
+        private final AtomicLong propagatedBoundCount;
+        private final ConflictStore conflictStore;
+        private final ConflictAnalyzer conflictAnalyzer;
+        // The program's symmetries, or null if symmetry breaking is off or there are none
+        private final Symmetry symmetry;
+        private final AtomicLong symmetryPruneCount;
+        private final long startNanos;
+        // Set once a time or node limit stops the search with nodes still open
+        private final AtomicBoolean isLimitReached;
+        // The score of the last incumbent reported to the callback, guarded by the incumbent callback
+        private double reportedScore;
+        // The presolve that produced the program, which solutions are mapped back to the original program through
+        private final Presolve presolve;
+        private final int restartCount;
+        // What the original program's scores are over this program's, from the variables presolve fixed
+        private final double scoreOffset;
+        // Set at the root if the search should stop there and restart on a program presolved again
+        private volatile Restart pendingRestart;
+        // The Lagrangian bound on the original program's scores, which no node can beat whatever its relaxation says
+        private final double lagrangianScore;
+
+        private Search(final MixedIntegerProgram uncutProgram,
+                       final List<Cut> rootCuts,
+                       final WarmStart rootRelaxation,
+                       final List<CutRound> cutRounds,
+                       final Symmetry symmetry,
+                       final long startNanos,
+                       final Restart restart,
+                       final double lagrangianScore) {
+            final MixedIntegerProgram program = rootCuts.isEmpty() ? uncutProgram : uncutProgram.withCuts(rootCuts);
+            this.program = program;
+            this.uncutProgram = uncutProgram;
+            this.originalProgram = restart.presolve == null ? uncutProgram : restart.presolve.getOriginalProgram();
+            this.incumbent = new Incumbent();
+            this.nextNodeId = new AtomicLong(1);
+            this.nodeCount = new AtomicLong(restart.nodeCount);
+            this.isUnbounded = new AtomicBoolean();
+            this.warmStartCache = warmStarts && program.canWarmStart()
+                    ? new WarmStartCache(WARM_START_CACHE_SIZE)
+                    : null;
+            this.warmStartCount = new AtomicLong();
+            this.rootRelaxation = rootRelaxation;
+            this.cutRounds = cutRounds;
+            this.treeCutLoop = treeCutFrequency > 0 ? new CutLoop(createSeparators(program)) : null;
+            this.treeCutCount = new AtomicLong();
+            this.heuristics = createHeuristics(program);
+            this.heuristicCalls = new AtomicLongArray(Heuristic.values().length);
+            this.heuristicSolutions = new AtomicLongArray(Heuristic.values().length);
+            this.heuristicImprovements = new AtomicLongArray(Heuristic.values().length);
+            this.heuristicTimeNanos = new AtomicLongArray(Heuristic.values().length);
+            this.pseudocosts = new Pseudocosts(program.getNumVariables());
+            this.variableSelector = new VariableSelector(
+                    program,
+                    branchingRule,
+                    pseudocosts,
+                    strongBranchingPivots,
+                    reliabilityThreshold
+            );
+            this.branchingCounts = new AtomicLongArray(BranchingRule.values().length);
+            this.propagator = propagation ? new Propagator(program) : null;
+            final long[] lowerBounds = new long[program.getNumVariables()];
+            final long[] upperBounds = new long[program.getNumVariables()];
+            Node.root().getBounds(lowerBounds, upperBounds);
+            final boolean isFeasible = propagator == null || propagator.propagate(lowerBounds, upperBounds, null);
+            this.globalLowerBounds = isFeasible ? lowerBounds : null;
+            this.globalUpperBounds = isFeasible ? upperBounds : null;
+            this.propagationPruneCount = new AtomicLong();
+            this.propagatedBoundCount = new AtomicLong();
+            this.conflictStore = conflictStoreSize > 0 && isFeasible
+                    ? new ConflictStore(
+                            conflictStoreSize,
+                            (long) CONFLICT_AGE_PER_ENTRY * conflictStoreSize,
+                            isDeterministic
+                    )
+                    : null;
+            this.conflictAnalyzer = conflictStore != null
+                    ? new ConflictAnalyzer(program, propagator, lowerBounds, upperBounds, MAX_CONFLICT_SIZE)
+                    : null;
+            this.symmetry = symmetry;
+            this.symmetryPruneCount = new AtomicLong();
+            this.startNanos = startNanos;
+            this.isLimitReached = new AtomicBoolean();
+            this.reportedScore = Double.NEGATIVE_INFINITY;
+            this.presolve = restart.presolve;
+            this.restartCount = restart.restartCount;
+            this.scoreOffset = presolve == null ? 0d : toScore(presolve.getObjectiveOffset());
+            this.lagrangianScore = lagrangianScore;
+            if (restart.incumbent != null && isFeasible(restart.incumbent)) {
+                // Already reported before the restart
+                final double score = toScore(restart.incumbent.dotProductAsDouble(program.getCostVector()));
+                incumbent.offer(restart.incumbent, score);
+            }
+        }
+
+        private void runSequentially() {
+            try (NodeQueue openNodes = createNodeQueue()) {
+                while (!openNodes.isEmpty() && !isStopping()) {
+                    openNodes.addAll(process(openNodes.poll()));
+                }
+                abandon(openNodes);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void runInParallel() {
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new NodeTask(this, Node.root()));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        /**
+         * Synchronized rounds: pop a fixed number of nodes in selection order, solve their relaxations in parallel
+         * against the incumbent from the start of the round, then merge the results back in the order the nodes were
+         * popped. The incumbent only changes while merging, and node ids are only handed out while merging, so every
+         * run takes exactly the same path no matter how the threads are scheduled, or how many there are.
+         */
+        private void runDeterministically() {
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            try (NodeQueue openNodes = createNodeQueue()) {
+                while (!openNodes.isEmpty() && !isStopping()) {
+                    final List<ForkJoinTask<Evaluation>> round = new ArrayList<>();
+                    while (!openNodes.isEmpty() && round.size() < roundSize) {
+                        final Node node = openNodes.poll();
+                        round.add(pool.submit(() -> evaluate(node)));
+                    }
+
+                    // Wait for the whole round before merging, so no evaluation sees the merge of another
+                    final List<Evaluation> evaluations = new ArrayList<>();
+                    for (final ForkJoinTask<Evaluation> evaluation : round) {
+                        evaluations.add(evaluation.join());
+                    }
+                    for (final Evaluation evaluation : evaluations) {
+                        openNodes.addAll(branch(evaluation));
+                    }
+                    if (conflictStore != null) {
+                        conflictStore.flush();
+                    }
+                }
+                abandon(openNodes);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        /**
+         * Whether the search should stop before its next node: because the program is unbounded, or because a limit
+         * was reached. This is checked before every node, so it only reads a clock and a counter.
+         */
+        private boolean isStopping() {
+            if (isUnbounded.get() || isLimitReached.get()) {
+                return true;
+            }
+            if (nodeCount.get() >= nodeLimit || System.nanoTime() - startNanos >= timeLimitNanos) {
+                isLimitReached.set(true);
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Give up on the nodes left open when the search stops early, keeping their bounds as the best bound.
+         */
+        private void abandon(final NodeQueue openNodes) {
+            while (!openNodes.isEmpty()) {
+                abandon(openNodes.poll());
+            }
+        }
+
+        private void abandon(final Node node) {
+            incumbent.recordPrunedScore(node.getBound());
+        }
+
+        /**
+         * Search below the given nodes, depth first, until there's nothing left below them or the given number of
+         * nodes has been processed, and return the nodes still open. This is a distributed worker's share of the tree.
+         */
+        List<Node> searchSubtrees(final List<Node> nodes, final long maxNodes) {
+            final Deque<Node> openNodes = new ArrayDeque<>(nodes);
+            long numProcessed = 0;
+            while (!openNodes.isEmpty() && numProcessed < maxNodes && !isUnbounded.get()) {
+                for (final Node child : process(openNodes.pop())) {
+                    openNodes.push(child);
+                }
+                numProcessed++;
+            }
+
+            return new ArrayList<>(openNodes);
+        }
+
+        /**
+         * Offer a solution found elsewhere to the incumbent, checked like one found here, without reporting it to the
+         * callback.
+         */
+        void offerIncumbent(final Vector solution) {
+            final Vector roundedSolution = roundIntegerVariables(program, solution);
+            if (isFeasible(roundedSolution)) {
+                incumbent.offer(roundedSolution, toScore(roundedSolution.dotProductAsDouble(program.getCostVector())));
+            }
+        }
+
+        Incumbent getIncumbent() {
+            return incumbent;
+        }
+
+        long getNodeCount() {
+            return nodeCount.get();
+        }
+
+        boolean isUnbounded() {
+            return isUnbounded.get();
+        }
+
+        private NodeQueue createNodeQueue() {
+            final NodeQueue openNodes = new NodeQueue(nodeSelection.getComparator(), nodeMemoryLimit, spillDirectory);
+            openNodes.add(Node.root());
+            return openNodes;
+        }
+
+        private List<Node> process(final Node node) {
+            return branch(evaluate(node));
+        }
+
+        /**
+         * Solve the relaxation of a node, or return null if the node can be pruned without one or its relaxation is
+         * infeasible or unbounded.
+         */
+        private Evaluation evaluate(final Node node) {
+            if (prune(node.getBound())) {
+                return null;
+            }
+
+            if (node.getParentId() == -1 && rootRelaxation != null) {
+                nodeCount.incrementAndGet();
+                return evaluate(node, rootRelaxation);
+            }
+
+            final WarmStart parentWarmStart = warmStartCache == null ? null : warmStartCache.take(node.getParentId());
+            final long[] lowerBounds = new long[program.getNumVariables()];
+            final long[] upperBounds = new long[program.getNumVariables()];
+            final Node propagatedNode = propagate(node, parentWarmStart, lowerBounds, upperBounds);
+            if (propagatedNode == null) {
+                return null;
+            }
+
+            nodeCount.incrementAndGet();
+            if (parentWarmStart != null) {
+                warmStartCount.incrementAndGet();
+                final WarmStart relaxation = program.solveRelaxation(lowerBounds, upperBounds, parentWarmStart);
+                if (relaxation.isOptimal()) {
+                    return evaluate(propagatedNode, relaxation);
+                }
+                // The dual simplex can give up on round-off alone, or be cut short, so the node is solved again from
+                // scratch, and only pruned once that agrees it's infeasible
+            }
+
+            final Simplex relaxation = program.solveRelaxation(
+                    lowerBounds,
+                    upperBounds,
+                    warmStartCache != null || treeCutLoop != null
+            );
+            if (!relaxation.isFeasible()) {
+                learnConflict(node, null, lowerBounds, upperBounds);
+                return null;
+            }
+            if (!relaxation.isBounded()) {
+                // Only the root can be unbounded, since every child is bounded by its parent
+                isUnbounded.set(true);
+                return null;
+            }
+
+            if (relaxation.getWarmStart().isPresent()) {
+                return evaluate(propagatedNode, relaxation.getWarmStart().get());
+            }
+
+            return createEvaluation(
+                    propagatedNode,
+                    relaxation.getOptimalSolution(),
+                    toScore(relaxation.getOptimalValue()),
+                    relaxation.getBasisVariables(),
+                    null
+            );
+        }
+
+        /**
+         * Work out the bounds of a node, tightened by propagation and the conflicts, and return the node with the
+         * tightened bounds added to its chain beneath the one it was branched on. Returns null if the bounds are
+         * infeasible.
+         */
+        private Node propagate(final Node node,
+                               final WarmStart parentWarmStart,
+                               final long[] lowerBounds,
+                               final long[] upperBounds) {
+            node.getBounds(lowerBounds, upperBounds);
+            if (propagator == null && conflictStore == null && symmetry == null) {
+                return node;
+            }
+            if (globalLowerBounds == null) {
+                return null;
+            }
+
+            for (int variable = 0; variable < lowerBounds.length; variable++) {
+                lowerBounds[variable] = Math.max(lowerBounds[variable], globalLowerBounds[variable]);
+                upperBounds[variable] = Math.min(upperBounds[variable], globalUpperBounds[variable]);
+            }
+            final long[] originalLowerBounds = lowerBounds.clone();
+            final long[] originalUpperBounds = upperBounds.clone();
+
+            final BoundChange branching = node.getBoundChanges();
+            if (branching == null) {
+                // Only the root has no bound changes, and the global bounds are already propagated
+                return node;
+            }
+
+            final List<Integer> changedVariables = new ArrayList<>();
+            changedVariables.add(branching.getVariable());
+            if (propagator != null && parentWarmStart != null && incumbent.isPresent()) {
+                final double lead = node.getBound() - incumbent.getScore();
+                if (!propagator.fixByReducedCosts(parentWarmStart, lead, lowerBounds, upperBounds, changedVariables)) {
+                    propagationPruneCount.incrementAndGet();
+                    return null;
+                }
+            }
+            if (conflictStore != null
+                    && !conflictStore.propagate(lowerBounds, upperBounds, changedVariables, node.getId())) {
+                return null;
+            }
+            if (propagator != null) {
+                final long[] propagatedLowerBounds = lowerBounds.clone();
+                final long[] propagatedUpperBounds = upperBounds.clone();
+                if (!propagator.propagate(propagatedLowerBounds, propagatedUpperBounds, changedVariables)) {
+                    propagationPruneCount.incrementAndGet();
+                    if (conflictStore != null) {
+                        addConflict(conflictAnalyzer.analyzePropagation(lowerBounds, upperBounds), node);
+                    }
+                    return null;
+                }
+                System.arraycopy(propagatedLowerBounds, 0, lowerBounds, 0, lowerBounds.length);
+                System.arraycopy(propagatedUpperBounds, 0, upperBounds, 0, upperBounds.length);
+            }
+            if (symmetry != null && !breakSymmetry(lowerBounds, upperBounds)) {
+                symmetryPruneCount.incrementAndGet();
+                return null;
+            }
+
+            BoundChange boundChanges = branching.getParent();
+            int numTightened = 0;
+            for (int variable = 0; variable < lowerBounds.length; variable++) {
+                if (lowerBounds[variable] > originalLowerBounds[variable]) {
+                    boundChanges = BoundChange.lowerBound(boundChanges, variable, lowerBounds[variable]);
+                    numTightened++;
+                }
+                if (upperBounds[variable] < originalUpperBounds[variable]) {
+                    boundChanges = BoundChange.upperBound(boundChanges, variable, upperBounds[variable]);
+                    numTightened++;
+                }
+            }
+            if (numTightened == 0) {
+                return node;
+            }
+
+            propagatedBoundCount.addAndGet(numTightened);
+            boundChanges = branching.isUpperBound()
+                    ? BoundChange.upperBound(boundChanges, branching.getVariable(), branching.getValue())
+                    : BoundChange.lowerBound(boundChanges, branching.getVariable(), branching.getValue());
+            return node.withBoundChanges(boundChanges);
+        }
+
+        /**
+         * Tighten bounds with the symmetry-breaking constraints, in place, propagating the rows the variables they
+         * tightened touch in between. Returns false if the bounds turn out to be infeasible.
+         */
+        private boolean breakSymmetry(final long[] lowerBounds, final long[] upperBounds) {
+            for (int round = 0; round < MAX_SYMMETRY_ROUNDS; round++) {
+                final List<Integer> changedVariables = new ArrayList<>();
+                if (!symmetry.propagate(lowerBounds, upperBounds, changedVariables)) {
+                    return false;
+                }
+                if (changedVariables.isEmpty()) {
+                    return true;
+                }
+                if (propagator != null && !propagator.propagate(lowerBounds, upperBounds, changedVariables)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Analyze a node whose relaxation within the given bounds is infeasible, and store the conflict if it's small
+         * enough to be worth keeping.
+         *
+         * @param relaxation the infeasible final tableau, or null if the relaxation was solved from scratch
+         */
+        private void learnConflict(final Node node,
+                                   final WarmStart relaxation,
+                                   final long[] lowerBounds,
+                                   final long[] upperBounds) {
+            if (conflictStore != null) {
+                // Local cuts only hold in the subtree they were separated in
+                final boolean hasLocalRows = treeCutLoop != null;
+                final Conflict conflict = conflictAnalyzer.analyzeRelaxation(
+                        relaxation,
+                        hasLocalRows,
+                        lowerBounds,
+                        upperBounds
+                );
+                addConflict(conflict, node);
+            }
+        }
+
+        private void addConflict(final Conflict conflict, final Node node) {
+            if (conflict != null) {
+                conflictStore.add(conflict, node.getId());
+            }
+        }
+
+        /**
+         * Finish evaluating a node whose relaxation was solved into a final tableau, adding a round of local cuts to it
+         * if it's due for one.
+         */
+        private Evaluation evaluate(final Node node, final WarmStart relaxation) {
+            WarmStart finalRelaxation = relaxation;
+            final int depth = node.getDepth();
+            if (finalRelaxation.isFeasible() && treeCutLoop != null && depth > 0 && depth % treeCutFrequency == 0) {
+                final CutLoop.Result result = treeCutLoop.run(finalRelaxation, 1);
+                treeCutCount.addAndGet(result.getCuts().size());
+                finalRelaxation = result.getRelaxation();
+            }
+            if (!finalRelaxation.isFeasible()) {
+                return null;
+            }
+
+            return createEvaluation(
+                    node,
+                    finalRelaxation.getOptimalSolution(),
+                    toScore(finalRelaxation.getOptimalValue()),
+                    finalRelaxation.getBasisVariables(),
+                    finalRelaxation
+            );
+        }
+
+        private Evaluation createEvaluation(final Node node,
+                                            final Vector solution,
+                                            final double score,
+                                            final int[] basisVariables,
+                                            final WarmStart warmStart) {
+            final Map<Heuristic, Vector> heuristicSolutions = isIntegral(solution)
+                    ? Collections.emptyMap()
+                    : runHeuristics(node, solution, score, warmStart);
+            return new Evaluation(node, solution, score, basisVariables, warmStart, heuristicSolutions);
+        }
+
+        /**
+         * Run the heuristics due at a fractional node, unless the node can't beat the incumbent anyway. The random
+         * source is seeded by the node, so the heuristics make the same choices at the same node on every run.
+         */
+        private Map<Heuristic, Vector> runHeuristics(final Node node,
+                                                     final Vector solution,
+                                                     final double score,
+                                                     final WarmStart relaxation) {
+            if (incumbent.isPresent() && score <= incumbent.getScore() + ABSOLUTE_TOLERANCE) {
+                return Collections.emptyMap();
+            }
+
+            final Map<Heuristic, Vector> solutions = new EnumMap<>(Heuristic.class);
+            final double[] values = CutLoop.toArray(solution);
+            final Random random = new Random(node.getId());
+            for (final Map.Entry<Heuristic, PrimalHeuristic> entry : heuristics.entrySet()) {
+                final int frequency = heuristicFrequencies.get(entry.getKey());
+                if (frequency == 0 || node.getDepth() % frequency != 0) {
+                    continue;
+                }
+
+                final int index = entry.getKey().ordinal();
+                final long start = System.nanoTime();
+                final Vector heuristicSolution = entry.getValue().findSolution(relaxation, values, incumbent, random);
+                heuristicTimeNanos.addAndGet(index, System.nanoTime() - start);
+                heuristicCalls.incrementAndGet(index);
+                if (heuristicSolution != null) {
+                    heuristicSolutions.incrementAndGet(index);
+                    solutions.put(entry.getKey(), heuristicSolution);
+                }
+            }
+
+            return solutions;
+        }
+
+        /**
+         * Act on a solved relaxation: prune it, take it as the incumbent, or return the children to branch into.
+         */
+        private List<Node> branch(final Evaluation evaluation) {
+            if (evaluation == null) {
+                return Collections.emptyList();
+            }
+
+            final Node node = evaluation.node;
+            final BoundChange branching = node.getBoundChanges();
+            if (branching != null) {
+                pseudocosts.update(
+                        branching.getVariable(),
+                        !branching.isUpperBound(),
+                        node.getBound() - evaluation.score,
+                        Math.abs(branching.getValue() - node.getBranchingValue())
+                );
+            }
+
+            for (final Map.Entry<Heuristic, Vector> entry : evaluation.heuristicSolutions.entrySet()) {
+                if (updateIncumbent(entry.getValue())) {
+                    heuristicImprovements.incrementAndGet(entry.getKey().ordinal());
+                }
+            }
+            if (prune(evaluation.score)) {
+                return Collections.emptyList();
+            }
+
+            final Vector solution = evaluation.solution;
+            if (isIntegral(solution)) {
+                updateIncumbent(solution);
+                return Collections.emptyList();
+            }
+            if (node.getParentId() == -1) {
+                final Restart restart = findRestart(evaluation);
+                if (restart != null) {
+                    pendingRestart = restart;
+                    return Collections.emptyList();
+                }
+            }
+
+            if (evaluation.warmStart != null && warmStartCache != null) {
+                warmStartCache.put(node.getId(), evaluation.warmStart);
+            }
+
+            final VariableSelector.Selection selection = variableSelector.select(
+                    solution,
+                    evaluation.score,
+                    evaluation.warmStart
+            );
+            branchingCounts.incrementAndGet(selection.getRule().ordinal());
+            final int branchingVariable = selection.getVariable();
+            final double value = Coefficients.asDouble(solution.get(branchingVariable));
+            final CompressedBasis basis = storeBases ? CompressedBasis.compress(evaluation.basisVariables) : null;
+            return Arrays.asList(
+                    node.lowerBoundChild(
+                            nextNodeId.getAndIncrement(),
+                            evaluation.score,
+                            branchingVariable,
+                            value,
+                            basis
+                    ),
+                    node.upperBoundChild(
+                            nextNodeId.getAndIncrement(),
+                            evaluation.score,
+                            branchingVariable,
+                            value,
+                            basis
+                    )
+            );
+        }
+
+        /**
+         * Fix variables at the root by reduced costs against the incumbent, and if that fixes enough of them, presolve
+         * the program again within the fixings and return the restart onto it. Returns null to carry on instead. The
+         * fixings only hold for solutions better than the incumbent, so they're relaxed wherever the incumbent breaks
+         * them, to keep it a solution of the new program.
+         */
+        private Restart findRestart(final Evaluation evaluation) {
+            if (restartCount >= maxRestarts || propagator == null || globalLowerBounds == null
+                    || evaluation.warmStart == null || !incumbent.isPresent()) {
+                return null;
+            }
+
+            final long[] lowerBounds = globalLowerBounds.clone();
+            final long[] upperBounds = globalUpperBounds.clone();
+            final double lead = evaluation.score - incumbent.getScore();
+            final List<Integer> changedVariables = new ArrayList<>();
+            if (!propagator.fixByReducedCosts(evaluation.warmStart, lead, lowerBounds, upperBounds, changedVariables)) {
+                // Nothing beats the incumbent, which the search finds out soon enough without a restart
+                return null;
+            }
+
+            final Vector incumbentVector = incumbent.getVector();
+            int numUnfixed = 0;
+            int numFixed = 0;
+            for (int variable = 0; variable < lowerBounds.length; variable++) {
+                final boolean isUnfixed = globalLowerBounds[variable] < globalUpperBounds[variable];
+                if (!program.isIntegerVariable(variable) || !isUnfixed) {
+                    continue;
+                }
+
+                final long value = Math.round(Coefficients.asDouble(incumbentVector.get(variable)));
+                if (value < lowerBounds[variable] || value > upperBounds[variable]) {
+                    lowerBounds[variable] = globalLowerBounds[variable];
+                    upperBounds[variable] = globalUpperBounds[variable];
+                }
+                numUnfixed++;
+                numFixed += lowerBounds[variable] == upperBounds[variable] ? 1 : 0;
+            }
+            if (numFixed == 0 || numFixed < RESTART_FRACTION * numUnfixed) {
+                return null;
+            }
+
+            // The root cuts are left out, so the restarted search separates its own from the smaller program
+            final Presolve restartPresolve = Presolve.run(uncutProgram, lowerBounds, upperBounds, presolve);
+            final Vector restartIncumbent = restartPresolve == null ? null : restartPresolve.reduce(incumbentVector);
+            return restartIncumbent == null
+                    ? null
+                    : new Restart(restartPresolve, restartIncumbent, nodeCount.get(), restartCount + 1);
+        }
+
+        /**
+         * Returns whether a node with the given bound can be pruned, keeping track of the bound if it's only pruned
+         * because of the gap tolerance.
+         */
+        private boolean prune(final double score) {
+            if (!incumbent.isPresent()) {
+                return false;
+            }
+
+            final double incumbentScore = incumbent.getScore();
+            final double boundedScore = Math.min(score, lagrangianScore - scoreOffset);
+            if (boundedScore > incumbentScore + getTolerance(incumbentScore)) {
+                return false;
+            }
+
+            incumbent.recordPrunedScore(boundedScore);
+            return true;
+        }
+
+        /**
+         * How much better than the incumbent a node has to be to be worth exploring, by the gap tolerances.
+         */
+        private double getTolerance(final double incumbentScore) {
+            final double absoluteTolerance = Math.max(ABSOLUTE_TOLERANCE, absoluteGapTolerance);
+            return Math.max(absoluteTolerance, gapTolerance * Math.abs(incumbentScore + scoreOffset));
+        }
+
+        /**
+         * Returns whether every integer variable is within tolerance of an integer.
+         */
+        private boolean isIntegral(final Vector solution) {
+            for (int variable = 0; variable < solution.length(); variable++) {
+                if (program.isIntegerVariable(variable)
+                        && getFractionality(Coefficients.asDouble(solution.get(variable))) > INTEGRALITY_TOLERANCE) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Offer a solution to the incumbent, and return whether it replaced it.
+         */
+        private boolean updateIncumbent(final Vector solution) {
+            final Vector roundedSolution = roundIntegerVariables(program, solution);
+            if (!isFeasible(roundedSolution)) {
+                return false;
+            }
+            final double score = toScore(roundedSolution.dotProductAsDouble(program.getCostVector()));
+            if (!incumbent.offer(roundedSolution, score)) {
+                return false;
+            }
+
+            if (incumbentCallback != null) {
+                synchronized (incumbentCallback) {
+                    // Another thread may have found, and reported, a better solution in the meantime
+                    if (score > reportedScore) {
+                        reportedScore = score;
+                        incumbentCallback.onIncumbent(restore(roundedSolution), toScore(score + scoreOffset));
+                    }
+                }
+            }
+            return true;
+        }
+
+        private Map<Heuristic, HeuristicStatistics> createHeuristicStatistics() {
+            final Map<Heuristic, HeuristicStatistics> statistics = new EnumMap<>(Heuristic.class);
+            for (final Heuristic heuristic : Heuristic.values()) {
+                final int index = heuristic.ordinal();
+                statistics.put(heuristic, new HeuristicStatistics(
+                        heuristicCalls.get(index),
+                        heuristicSolutions.get(index),
+                        heuristicImprovements.get(index),
+                        heuristicTimeNanos.get(index)
+                ));
+            }
+
+            return Collections.unmodifiableMap(statistics);
+        }
+
+        private Map<BranchingRule, Long> createBranchingCounts() {
+            final Map<BranchingRule, Long> counts = new EnumMap<>(BranchingRule.class);
+            for (final BranchingRule rule : BranchingRule.values()) {
+                counts.put(rule, branchingCounts.get(rule.ordinal()));
+            }
+
+            return Collections.unmodifiableMap(counts);
+        }
+
+        private double toScore(final double objectiveValue) {
+            return program.isMaximization() ? objectiveValue : -objectiveValue;
+        }
+
+        private Vector restore(final Vector solution) {
+            return presolve == null ? solution : presolve.restore(solution);
+        }
+
+        /**
+         * Whether a solution of this search's program maps back to a feasible solution of the original program.
+         */
+        private boolean isFeasible(final Vector solution) {
+            return isIncumbentFeasible(originalProgram, restore(solution));
+        }
+
+        BranchAndBoundResult createResult() {
+            final SolveStatus status = getStatus();
+            final boolean hasIncumbent = status == SolveStatus.OPTIMAL || status == SolveStatus.FEASIBLE;
+            final double incumbentValue = hasIncumbent
+                    ? toScore(incumbent.getScore() + scoreOffset)
+                    : toScore(isUnbounded.get() ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+            final double bestBound;
+            if (hasIncumbent) {
+                final double prunedScore = Math.min(incumbent.getPrunedScore() + scoreOffset, lagrangianScore);
+                bestBound = toScore(Math.max(incumbent.getScore() + scoreOffset, prunedScore));
+            } else {
+                // Without an incumbent, only the nodes a limit left open bound anything
+                bestBound = status == SolveStatus.LIMIT
+                        ? toScore(Math.min(incumbent.getPrunedScore() + scoreOffset, lagrangianScore))
+                        : incumbentValue;
+            }
+
+            return new BranchAndBoundResult(
+                    hasIncumbent ? restore(incumbent.getVector()) : null,
+                    incumbentValue,
+                    bestBound,
+                    status,
+                    nodeCount.get(),
+                    warmStartCount.get(),
+                    cutRounds,
+                    treeCutCount.get(),
+                    createHeuristicStatistics(),
+                    createBranchingCounts(),
+                    propagationPruneCount.get(),
+                    propagatedBoundCount.get(),
+                    conflictStore == null ? EMPTY_CONFLICT_STATISTICS : conflictStore.getStatistics(),
+                    symmetry == null ? 0 : symmetry.getNumGenerators(),
+                    symmetryPruneCount.get(),
+                    presolve == null ? EMPTY_PRESOLVE_STATISTICS : presolve.getStatistics(),
+                    restartCount
+            );
+        }
+
+        /**
+         * A search stopped by a limit still proves its incumbent optimal if no node it gave up on could beat it.
+         */
+        private SolveStatus getStatus() {
+            if (isUnbounded.get()) {
+                return SolveStatus.UNBOUNDED;
+            } else if (!incumbent.isPresent()) {
+                return isLimitReached.get() ? SolveStatus.LIMIT : SolveStatus.INFEASIBLE;
+            }
+
+            final double incumbentScore = incumbent.getScore();
+            return isLimitReached.get() && incumbent.getPrunedScore() > incumbentScore + getTolerance(incumbentScore)
+                    ? SolveStatus.FEASIBLE
+                    : SolveStatus.OPTIMAL;
+        }
+    }
+
+    /**
+     * The solved relaxation of a node.
+     */
+    private static final class Evaluation {
+        private final Node node;
+        private final Vector solution;
+        private final double score;
+        private final int[] basisVariables;
+        // The final tableau, if the children can warm start from it
+        private final WarmStart warmStart;
+        // The solutions the heuristics found near the relaxation, to be offered to the incumbent
+        private final Map<Heuristic, Vector> heuristicSolutions;
+
+        private Evaluation(final Node node,
+                           final Vector solution,
+                           final double score,
+                           final int[] basisVariables,
+                           final WarmStart warmStart,
+                           final Map<Heuristic, Vector> heuristicSolutions) {
+            this.node = node;
+            this.solution = solution;
+            this.score = score;
+            this.basisVariables = basisVariables;
+            this.warmStart = warmStart;
+            this.heuristicSolutions = heuristicSolutions;
+        }
+    }
+
+    /**
+     * Where a search starts: the presolve that produced its program, if any, and what it carries over from the
+     * searches before it, which are its incumbent, mapped onto the new program, and their node count. The first search
+     * starts from the Lagrangian relaxation's solution, if it found one.
+     */
+    private static final class Restart {
+        private static final Restart NONE = new Restart(null, null, 0, 0);
+
+        private final Presolve presolve;
+        private final Vector incumbent;
+        private final long nodeCount;
+        private final int restartCount;
+
+        private Restart(final Presolve presolve,
+                        final Vector incumbent,
+                        final long nodeCount,
+                        final int restartCount) {
+            this.presolve = presolve;
+            this.incumbent = incumbent;
+            this.nodeCount = nodeCount;
+            this.restartCount = restartCount;
+        }
+    }
+
+    /**
+     * Explores the subtree below a node on a ForkJoinPool. Each task dives down one child of every node it branches on
+     * and forks the other, which lands on the worker's own deque. Idle workers steal from the far end of those deques,
+     * so they pick up the shallowest, and so largest, subtrees.
+     */
+    private static final class NodeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final Node node;
+
+        private NodeTask(final Search search, final Node node) {
+            this.search = search;
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            final List<NodeTask> forkedTasks = new ArrayList<>();
+            Node currentNode = node;
+            while (currentNode != null) {
+                if (search.isStopping()) {
+                    search.abandon(currentNode);
+                    break;
+                }
+
+                final List<Node> children = search.process(currentNode);
+                if (children.isEmpty()) {
+                    break;
+                }
+
+                final NodeTask forkedTask = new NodeTask(search, children.get(0));
+                forkedTask.fork();
+                forkedTasks.add(forkedTask);
+                currentNode = children.get(1);
+            }
+
+            for (final NodeTask forkedTask : forkedTasks) {
+                forkedTask.join();
+            }
+        }
+    }
+
+    private static double getFractionality(final double value) {
+        final double fractionalPart = value - Math.floor(value);
+        return Math.min(fractionalPart, 1 - fractionalPart);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private NodeSelection nodeSelection;
+        private double gapTolerance;
+        private int threads;
+        private boolean isDeterministic;
+        private int roundSize;
+        private boolean storeBases;
+        private long nodeMemoryLimit;
+        private Path spillDirectory;
+        private boolean warmStarts;
+        private int rootCutRounds;
+        private int treeCutFrequency;
+        private final Map<Heuristic, Integer> heuristicFrequencies;
+        private BranchingRule branchingRule;
+        private int strongBranchingPivots;
+        private int reliabilityThreshold;
+        private boolean propagation;
+        private int conflictStoreSize;
+        private boolean symmetryBreaking;
+        private double absoluteGapTolerance;
+        private long timeLimitNanos;
+        private long nodeLimit;
+        private IncumbentCallback incumbentCallback;
+        private boolean presolving;
+        private int maxRestarts;
+        private LagrangianRelaxation lagrangianRelaxation;
+
+        private Builder() {
+            this.nodeSelection = NodeSelection.BEST_FIRST;
+            this.gapTolerance = 0d;
+            this.threads = 1;
+            this.isDeterministic = false;
+            this.roundSize = 0;
+            this.storeBases = false;
+            this.nodeMemoryLimit = NodeQueue.NO_MEMORY_LIMIT;
+            this.warmStarts = true;
+            this.rootCutRounds = DEFAULT_ROOT_CUT_ROUNDS;
+            this.treeCutFrequency = 0;
+            this.heuristicFrequencies = new EnumMap<>(Heuristic.class);
+            heuristicFrequencies.put(Heuristic.ROUNDING, 1);
+            heuristicFrequencies.put(Heuristic.RANDOMIZED_ROUNDING, 5);
+            heuristicFrequencies.put(Heuristic.FRACTIONAL_DIVING, 10);
+            heuristicFrequencies.put(Heuristic.GUIDED_DIVING, 10);
+            heuristicFrequencies.put(Heuristic.FEASIBILITY_PUMP, ROOT_ONLY);
+            this.branchingRule = BranchingRule.RELIABILITY;
+            this.strongBranchingPivots = DEFAULT_STRONG_BRANCHING_PIVOTS;
+            this.reliabilityThreshold = DEFAULT_RELIABILITY_THRESHOLD;
+            this.propagation = true;
+            this.conflictStoreSize = 0;
+            this.symmetryBreaking = true;
+            this.absoluteGapTolerance = 0d;
+            this.timeLimitNanos = Long.MAX_VALUE;
+            this.nodeLimit = Long.MAX_VALUE;
+            this.incumbentCallback = null;
+            this.presolving = true;
+            this.maxRestarts = DEFAULT_MAX_RESTARTS;
+            this.lagrangianRelaxation = null;
+        }
+
+        public Builder withNodeSelection(final NodeSelection nodeSelection) {
+            this.nodeSelection = nodeSelection;
+            return this;
+        }
+
+        /**
+         * Stop once the incumbent is proven to be within this relative gap of the optimum. Defaults to 0, i.e. solve
+         * to optimality.
+         */
+        public Builder withGapTolerance(final double gapTolerance) {
+            this.gapTolerance = gapTolerance;
+            return this;
+        }
+
+        /**
+         * Stop once the incumbent is proven to be within this absolute gap of the optimum. Defaults to 0. With both
+         * gap tolerances set, the search stops once either is met.
+         */
+        public Builder withAbsoluteGapTolerance(final double absoluteGapTolerance) {
+            this.absoluteGapTolerance = absoluteGapTolerance;
+            return this;
+        }
+
+        /**
+         * Stop the search once this much time has passed since the solve started, returning the best incumbent found
+         * so far. The limit is checked before every node, so the search overruns it by at most one node, or one round
+         * of nodes with deterministic rounds. Defaults to no limit.
+         */
+        public Builder withTimeLimit(final Duration timeLimit) {
+            Preconditions.checkNotNull(timeLimit, "Time limit must not be null");
+            this.timeLimitNanos = timeLimit.compareTo(Duration.ofNanos(Long.MAX_VALUE)) >= 0
+                    ? Long.MAX_VALUE
+                    : timeLimit.toNanos();
+            return this;
+        }
+
+        /**
+         * Stop the search once this many relaxations have been solved, returning the best incumbent found so far.
+         * Defaults to no limit.
+         */
+        public Builder withNodeLimit(final long nodeLimit) {
+            this.nodeLimit = nodeLimit;
+            return this;
+        }
+
+        /**
+         * Notify the callback of every new incumbent as the search finds it, say to act on good solutions before the
+         * solve is over. Defaults to none.
+         */
+        public Builder withIncumbentCallback(final IncumbentCallback incumbentCallback) {
+            this.incumbentCallback = incumbentCallback;
+            return this;
+        }
+
+        /**
+         * Search the tree with this many worker threads. With more than one, the tree is explored by work stealing
+         * rather than in the order of the node selection. Defaults to 1.
+         */
+        public Builder withThreads(final int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Search in synchronized rounds of roundSize nodes, which gives exactly the same solution and node count on
+         * every run, with any number of threads. This costs some throughput over the default opportunistic search,
+         * since every round waits for its slowest relaxation, and relaxations are pruned against the incumbent from
+         * the start of their round.
+         */
+        public Builder withDeterministicRounds(final int roundSize) {
+            this.isDeterministic = true;
+            this.roundSize = roundSize;
+            return this;
+        }
+
+        /**
+         * Keep the basis of each relaxation, compressed, with the children it branches into. Off by default, since
+         * the basis takes up more space than the rest of a node.
+         */
+        public Builder withStoredBases(final boolean storeBases) {
+            this.storeBases = storeBases;
+            return this;
+        }
+
+        /**
+         * Spill open nodes to disk once they take up more than this many bytes of memory, rather than running out of
+         * memory on a huge tree. The search itself doesn't change, it only gets slower. Doesn't apply to the
+         * opportunistic parallel search, whose open nodes are the tasks of its pool. Defaults to no limit.
+         */
+        public Builder withNodeMemoryLimit(final long nodeMemoryLimit) {
+            this.nodeMemoryLimit = nodeMemoryLimit;
+            return this;
+        }
+
+        /**
+         * Where to put the file nodes are spilled to, which is otherwise the default temporary directory.
+         */
+        public Builder withSpillDirectory(final Path spillDirectory) {
+            this.spillDirectory = spillDirectory;
+            return this;
+        }
+
+        /**
+         * Warm start each child's relaxation from its parent's final tableau with the dual simplex, rather than solving
+         * it from scratch. On by default, unless the program asks for an engine other than DOUBLE.
+         */
+        public Builder withWarmStarts(final boolean warmStarts) {
+            this.warmStarts = warmStarts;
+            return this;
+        }
+
+        /**
+         * Tighten the root relaxation with up to this many rounds of cuts before searching. Defaults to 10, and 0
+         * turns root cuts off.
+         */
+        public Builder withRootCutRounds(final int rootCutRounds) {
+            this.rootCutRounds = rootCutRounds;
+            return this;
+        }
+
+        /**
+         * Add a round of local cuts at every node whose depth is a multiple of this. Defaults to 0, i.e. only cut at
+         * the root.
+         */
+        public Builder withTreeCutFrequency(final int treeCutFrequency) {
+            this.treeCutFrequency = treeCutFrequency;
+            return this;
+        }
+
+        /**
+         * Run a heuristic at every fractional node whose depth is a multiple of this, or never with 0. By default
+         * rounding runs at every node, randomized rounding every 5 levels, both kinds of diving every 10 levels and
+         * the feasibility pump only at the root.
+         */
+        public Builder withHeuristicFrequency(final Heuristic heuristic, final int frequency) {
+            heuristicFrequencies.put(heuristic, frequency);
+            return this;
+        }
+
+        /**
+         * How to pick the variable to branch on. Defaults to RELIABILITY.
+         */
+        public Builder withBranchingRule(final BranchingRule branchingRule) {
+            this.branchingRule = branchingRule;
+            return this;
+        }
+
+        /**
+         * Cut the dual simplex short after this many pivots when strong branching on a child, and make do with the
+         * bound it got to. Defaults to 20.
+         */
+        public Builder withStrongBranchingPivots(final int strongBranchingPivots) {
+            this.strongBranchingPivots = strongBranchingPivots;
+            return this;
+        }
+
+        /**
+         * Trust a variable's pseudocosts, rather than strong branching on it, once both directions have been learned
+         * this many times. Defaults to 4.
+         */
+        public Builder withReliabilityThreshold(final int reliabilityThreshold) {
+            this.reliabilityThreshold = reliabilityThreshold;
+            return this;
+        }
+
+        /**
+         * Tighten the bounds of each node by propagation and reduced-cost fixing before solving its relaxation. On by
+         * default.
+         */
+        public Builder withPropagation(final boolean propagation) {
+            this.propagation = propagation;
+            return this;
+        }
+
+        /**
+         * How many conflicts learned from infeasible nodes to keep, or 0 to not analyze infeasible nodes at all. Off by
+         * default: propagation already prunes most infeasible nodes cheaply, and on the problems measured so far the
+         * analysis took more time than the nodes its conflicts pruned would have.
+         */
+        public Builder withConflictStoreSize(final int conflictStoreSize) {
+            this.conflictStoreSize = conflictStoreSize;
+            return this;
+        }
+
+        /**
+         * Detect the program's symmetries, such as interchangeable machines, and add constraints that cut all but one
+         * of each class of symmetric solutions out of the tree. On by default.
+         */
+        public Builder withSymmetryBreaking(final boolean symmetryBreaking) {
+            this.symmetryBreaking = symmetryBreaking;
+            return this;
+        }
+
+        /**
+         * Presolve the program before searching it: fix what probing and dominance can, find implied integers and
+         * tighten coefficients, then search the smaller program that's left. On by default.
+         */
+        public Builder withPresolve(final boolean presolving) {
+            this.presolving = presolving;
+            return this;
+        }
+
+        /**
+         * How many times the search can restart from the root, on the program presolved again within the bounds
+         * reduced costs fix against the incumbent, when they fix enough of its integer variables. The incumbent and
+         * the node count carry over; everything else learned is thrown away with the old tree. Once by default.
+         */
+        public Builder withRestarts(final int maxRestarts) {
+            this.maxRestarts = maxRestarts;
+            return this;
+        }
+
+        /**
+         * Bound the program by Lagrangian relaxation before searching it. No node is explored for more than that bound,
+         * so the search stops as soon as the incumbent reaches it, and a solution of the subproblems that happens to
+         * be feasible starts off the incumbent. Off by default.
+         */
+        public Builder withLagrangianRelaxation(final LagrangianRelaxation lagrangianRelaxation) {
+            this.lagrangianRelaxation = lagrangianRelaxation;
+            return this;
+        }
+
+        public BranchAndBound build() {
+            Preconditions.checkNotNull(nodeSelection, "Must provide a node selection");
+            Preconditions.checkNotNull(branchingRule, "Must provide a branching rule");
+            Preconditions.checkArgument(gapTolerance >= 0, "Gap tolerance must be non-negative");
+            Preconditions.checkArgument(absoluteGapTolerance >= 0, "Absolute gap tolerance must be non-negative");
+            Preconditions.checkArgument(timeLimitNanos > 0, "Time limit must be positive");
+            Preconditions.checkArgument(nodeLimit > 0, "Node limit must be positive");
+            Preconditions.checkArgument(threads > 0, "Must use at least one thread");
+            Preconditions.checkArgument(!isDeterministic || roundSize > 0, "Rounds must hold at least one node");
+            Preconditions.checkArgument(nodeMemoryLimit > 0, "Node memory limit must be positive");
+            Preconditions.checkArgument(rootCutRounds >= 0, "Root cut rounds must be non-negative");
+            Preconditions.checkArgument(treeCutFrequency >= 0, "Tree cut frequency must be non-negative");
+            Preconditions.checkArgument(conflictStoreSize >= 0, "Conflict store size must be non-negative");
+            Preconditions.checkArgument(maxRestarts >= 0, "Restarts must be non-negative");
+            for (final int frequency : heuristicFrequencies.values()) {
+                Preconditions.checkArgument(frequency >= 0, "Heuristic frequencies must be non-negative");
+            }
+            Preconditions.checkArgument(strongBranchingPivots > 0, "Strong branching must allow at least one pivot");
+            Preconditions.checkArgument(reliabilityThreshold >= 0, "Reliability threshold must be non-negative");
+            return new BranchAndBound(
+                    nodeSelection,
+                    gapTolerance,
+                    threads,
+                    isDeterministic,
+                    roundSize,
+                    storeBases,
+                    nodeMemoryLimit,
+                    spillDirectory,
+                    warmStarts,
+                    rootCutRounds,
+                    treeCutFrequency,
+                    new EnumMap<>(heuristicFrequencies),
+                    branchingRule,
+                    strongBranchingPivots,
+                    reliabilityThreshold,
+                    propagation,
+                    conflictStoreSize,
+                    symmetryBreaking,
+                    absoluteGapTolerance,
+                    timeLimitNanos,
+                    nodeLimit,
+                    incumbentCallback,
+                    presolving,
+                    maxRestarts,
+                    lagrangianRelaxation
+            );
+        }
+    }
+}
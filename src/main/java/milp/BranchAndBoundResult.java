@@ -0,0 +1,214 @@
+package milp;
+
+import math.Vector;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The outcome of a branch-and-bound solve: the best integer solution found and how far from optimal it could be.
+ */
+public final class BranchAndBoundResult {
+    private final Vector incumbent;
+    private final double incumbentValue;
+    private final double bestBound;
+    private final SolveStatus status;
+    private final long nodeCount;
+    private final long warmStartCount;
+    private final List<CutRound> cutRounds;
+    private final long treeCutCount;
+    private final Map<Heuristic, HeuristicStatistics> heuristicStatistics;
+    private final Map<BranchingRule, Long> branchingCounts;
+    private final long propagationPruneCount;
+    private final long propagatedBoundCount;
+    private final ConflictStatistics conflictStatistics;
+    private final int symmetryGeneratorCount;
+    private final long symmetryPruneCount;
+    private final PresolveStatistics presolveStatistics;
+    private final int restartCount;
+
+    BranchAndBoundResult(final Vector incumbent,
+                         final double incumbentValue,
+                         final double bestBound,
+                         final SolveStatus status,
+                         final long nodeCount,
+                         final long warmStartCount,
+                         final List<CutRound> cutRounds,
+                         final long treeCutCount,
+                         final Map<Heuristic, HeuristicStatistics> heuristicStatistics,
+                         final Map<BranchingRule, Long> branchingCounts,
+                         final long propagationPruneCount,
+                         final long propagatedBoundCount,
+                         final ConflictStatistics conflictStatistics,
+                         final int symmetryGeneratorCount,
+                         final long symmetryPruneCount,
+                         final PresolveStatistics presolveStatistics,
+                         final int restartCount) {
+        this.incumbent = incumbent;
+        this.incumbentValue = incumbentValue;
+        this.bestBound = bestBound;
+        this.status = status;
+        this.nodeCount = nodeCount;
+        this.warmStartCount = warmStartCount;
+        this.cutRounds = cutRounds;
+        this.treeCutCount = treeCutCount;
+        this.heuristicStatistics = heuristicStatistics;
+        this.branchingCounts = branchingCounts;
+        this.propagationPruneCount = propagationPruneCount;
+        this.propagatedBoundCount = propagatedBoundCount;
+        this.conflictStatistics = conflictStatistics;
+        this.symmetryGeneratorCount = symmetryGeneratorCount;
+        this.symmetryPruneCount = symmetryPruneCount;
+        this.presolveStatistics = presolveStatistics;
+        this.restartCount = restartCount;
+    }
+
+    public Optional<Vector> getIncumbent() {
+        return Optional.ofNullable(incumbent);
+    }
+
+    /**
+     * The objective value of the incumbent. Without one, this is -infinity for a maximization and infinity for a
+     * minimization, or the other way around if the problem is unbounded.
+     */
+    public double getIncumbentValue() {
+        return incumbentValue;
+    }
+
+    /**
+     * A bound on the objective value of any solution, proven by the search.
+     */
+    public double getBestBound() {
+        return bestBound;
+    }
+
+    /**
+     * The relative optimality gap |bestBound - incumbentValue| / |incumbentValue|, which is 0 once the incumbent is
+     * proven optimal and infinity without an incumbent.
+     */
+    public double getGap() {
+        if (incumbent == null) {
+            return Double.POSITIVE_INFINITY;
+        } else if (bestBound == incumbentValue) {
+            return 0d;
+        }
+
+        return Math.abs(bestBound - incumbentValue) / Math.max(Math.abs(incumbentValue), 1e-10);
+    }
+
+    /**
+     * The absolute optimality gap |bestBound - incumbentValue|, which is infinity without an incumbent.
+     */
+    public double getAbsoluteGap() {
+        return incumbent == null ? Double.POSITIVE_INFINITY : Math.abs(bestBound - incumbentValue);
+    }
+
+    public boolean isUnbounded() {
+        return status == SolveStatus.UNBOUNDED;
+    }
+
+    /**
+     * How the solve ended: whether the incumbent is proven optimal, or a limit stopped the search short of that.
+     */
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * The number of relaxations solved.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * How many of the relaxations were warm started from their parent's final tableau.
+     */
+    public long getWarmStartCount() {
+        return warmStartCount;
+    }
+
+    /**
+     * The rounds of cuts added at the root, in order, with the bound before and after each.
+     */
+    public List<CutRound> getCutRounds() {
+        return cutRounds;
+    }
+
+    /**
+     * How many local cuts were added at nodes below the root.
+     */
+    public long getTreeCutCount() {
+        return treeCutCount;
+    }
+
+    /**
+     * How often each primal heuristic ran, and how many solutions and new incumbents it found.
+     */
+    public Map<Heuristic, HeuristicStatistics> getHeuristicStatistics() {
+        return heuristicStatistics;
+    }
+
+    /**
+     * How many nodes each branching rule picked the branching variable of. Reliability branching picks by pseudocosts
+     * at some nodes and by strong branching at others, so its nodes are counted under PSEUDOCOST and STRONG. Nodes
+     * without a final tableau to strong branch from count under the rule strong branching fell back on.
+     */
+    public Map<BranchingRule, Long> getBranchingCounts() {
+        return branchingCounts;
+    }
+
+    /**
+     * How many nodes propagation proved infeasible, or unable to beat the incumbent, before their relaxations were
+     * solved. These aren't part of the node count.
+     */
+    public long getPropagationPruneCount() {
+        return propagationPruneCount;
+    }
+
+    /**
+     * How many bounds propagation and reduced-cost fixing tightened, over every node.
+     */
+    public long getPropagatedBoundCount() {
+        return propagatedBoundCount;
+    }
+
+    /**
+     * What conflict analysis learned from infeasible nodes, and how many nodes it pruned. Nodes pruned by a conflict
+     * aren't part of the node count either.
+     */
+    public ConflictStatistics getConflictStatistics() {
+        return conflictStatistics;
+    }
+
+    /**
+     * How many symmetries of the program were found and broken, as generators of the group of symmetries.
+     */
+    public int getSymmetryGeneratorCount() {
+        return symmetryGeneratorCount;
+    }
+
+    /**
+     * How many nodes the symmetry-breaking constraints pruned before their relaxations were solved, which aren't part
+     * of the node count. The bounds they tightened count towards the propagated bounds.
+     */
+    public long getSymmetryPruneCount() {
+        return symmetryPruneCount;
+    }
+
+    /**
+     * How much presolve shrank the program, before the search and at every restart. The other statistics are of the
+     * search after the last restart, except for the node count, which covers every search.
+     */
+    public PresolveStatistics getPresolveStatistics() {
+        return presolveStatistics;
+    }
+
+    /**
+     * How many times the search restarted from the root on a program presolved again.
+     */
+    public int getRestartCount() {
+        return restartCount;
+    }
+}
@@ -0,0 +1,33 @@
+package milp;
+
+/**
+ * How branch-and-bound picks the fractional integer variable to branch a node on.
+ * <p>
+ * Every rule but MOST_FRACTIONAL scores a candidate by how much the objective would drop in its two children, as the
+ * product of the two drops. That favors variables that tighten both children over ones that only tighten one.
+ */
+public enum BranchingRule {
+    /**
+     * The variable whose value is furthest from an integer. Costs nothing, but tends to grow large trees.
+     */
+    MOST_FRACTIONAL,
+
+    /**
+     * The variable whose children are expected to drop the most, going by the average drop per unit seen whenever the
+     * variable was branched on before. Variables that haven't been branched on yet get the average over all of them.
+     */
+    PSEUDOCOST,
+
+    /**
+     * The variable whose children actually drop the most, found by solving both children of each candidate with a
+     * limited number of dual simplex pivots. Gives small trees, but is expensive at every node.
+     */
+    STRONG,
+
+    /**
+     * Pseudocost branching, except that candidates whose pseudocosts rest on too few branchings get strong branched,
+     * which in turn feeds their pseudocosts. Strong branching does most of the work near the root and pseudocosts take
+     * over further down.
+     */
+    RELIABILITY
+}
@@ -0,0 +1,135 @@
+package milp;
+
+import core.WarmStart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Separates clique inequalities from the conflict graph of the binary variables.
+ * <p>
+ * The graph has a node for each literal, i.e. for each binary x and for its complement 1 - x, and an edge between two
+ * literals that can't both be 1. Those edges come from knapsack rows, where two items conflict if their weights add up
+ * to more than the capacity. At most one literal of a clique can be 1, so sum_{l in Q} l <= 1. Cliques are grown
+ * greedily from each literal that's positive in the solution, preferring the neighbors with the largest values.
+ */
+final class CliqueCutSeparator implements CutSeparator {
+    // Rows with more items than this would add too many edges, and are left out of the graph
+    private static final int MAX_ROW_SIZE = 1000;
+    private static final double TOLERANCE = 1e-6;
+
+    private final int numVariables;
+    // The neighbors of each literal, where literal 2x is x and 2x + 1 is its complement
+    private final List<Set<Integer>> neighbors;
+
+    CliqueCutSeparator(final MixedIntegerProgram program) {
+        this.numVariables = program.getNumVariables();
+        this.neighbors = new ArrayList<>();
+        for (int literal = 0; literal < 2 * numVariables; literal++) {
+            neighbors.add(new HashSet<>());
+        }
+
+        for (final KnapsackRow row : KnapsackRow.extractAll(program)) {
+            if (row.size() <= MAX_ROW_SIZE) {
+                addConflicts(row);
+            }
+        }
+    }
+
+    /**
+     * Add an edge between every pair of items whose weights add up to more than the capacity. With the items sorted
+     * by decreasing weight, the partners of each item are a prefix of the items after it.
+     */
+    private void addConflicts(final KnapsackRow row) {
+        final Integer[] items = new Integer[row.size()];
+        for (int item = 0; item < items.length; item++) {
+            items[item] = item;
+        }
+        Arrays.sort(items, Comparator.comparingDouble((Integer item) -> row.getWeight(item)).reversed());
+
+        for (int i = 0; i < items.length; i++) {
+            for (int j = i + 1; j < items.length; j++) {
+                if (row.getWeight(items[i]) + row.getWeight(items[j]) <= row.getCapacity() + 1e-9) {
+                    break;
+                }
+
+                final int first = getLiteral(row, items[i]);
+                final int second = getLiteral(row, items[j]);
+                neighbors.get(first).add(second);
+                neighbors.get(second).add(first);
+            }
+        }
+    }
+
+    private static int getLiteral(final KnapsackRow row, final int item) {
+        return 2 * row.getVariable(item) + (row.isComplemented(item) ? 1 : 0);
+    }
+
+    boolean isConflict(final int firstLiteral, final int secondLiteral) {
+        return neighbors.get(firstLiteral).contains(secondLiteral);
+    }
+
+    @Override
+    public List<Cut> separate(final WarmStart relaxation, final double[] solution) {
+        final double[] values = new double[2 * numVariables];
+        for (int variable = 0; variable < numVariables; variable++) {
+            values[2 * variable] = solution[variable];
+            values[2 * variable + 1] = 1 - solution[variable];
+        }
+
+        final List<Cut> cuts = new ArrayList<>();
+        final Set<Set<Integer>> cliques = new HashSet<>();
+        for (int literal = 0; literal < values.length; literal++) {
+            if (values[literal] <= TOLERANCE || neighbors.get(literal).isEmpty()) {
+                continue;
+            }
+
+            final Set<Integer> clique = growClique(literal, values);
+            double total = 0d;
+            for (final int member : clique) {
+                total += values[member];
+            }
+            if (total > 1 + TOLERANCE && cliques.add(clique)) {
+                cuts.add(createCut(clique));
+            }
+        }
+
+        return cuts;
+    }
+
+    private Set<Integer> growClique(final int literal, final double[] values) {
+        final List<Integer> candidates = new ArrayList<>(neighbors.get(literal));
+        candidates.sort(Comparator.comparingDouble((Integer candidate) -> values[candidate])
+                .reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        final Set<Integer> clique = new HashSet<>();
+        clique.add(literal);
+        for (final int candidate : candidates) {
+            if (neighbors.get(candidate).containsAll(clique)) {
+                clique.add(candidate);
+            }
+        }
+
+        return clique;
+    }
+
+    private Cut createCut(final Set<Integer> clique) {
+        final int[] variables = new int[clique.size()];
+        final boolean[] complemented = new boolean[clique.size()];
+        final double[] coefficients = new double[clique.size()];
+        int i = 0;
+        for (final int literal : clique) {
+            variables[i] = literal / 2;
+            complemented[i] = literal % 2 == 1;
+            coefficients[i] = 1d;
+            i++;
+        }
+
+        return Cut.overLiterals(numVariables, variables, complemented, coefficients, 1d);
+    }
+}
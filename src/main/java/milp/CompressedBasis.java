@@ -0,0 +1,87 @@
+package milp;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * The basis variables of a solved relaxation, packed into as few bytes as possible so every open node can keep a
+ * reference to the basis its parent ended up with.
+ * <p>
+ * Consecutive rows tend to have basis variables close to each other (slacks in particular), so we store the difference
+ * to the previous row's variable, zigzag encoded so small negative differences stay small, as a varint. Most rows then
+ * take a single byte instead of four.
+ */
+final class CompressedBasis {
+    private final int length;
+    private final byte[] bytes;
+
+    private CompressedBasis(final int length, final byte[] bytes) {
+        this.length = length;
+        this.bytes = bytes;
+    }
+
+    static CompressedBasis compress(final int[] basisVariables) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(basisVariables.length);
+        int previous = 0;
+        for (final int basisVariable : basisVariables) {
+            final int difference = basisVariable - previous;
+            int zigzag = (difference << 1) ^ (difference >> 31);
+            while ((zigzag & ~0x7F) != 0) {
+                outputStream.write((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            outputStream.write(zigzag);
+            previous = basisVariable;
+        }
+
+        return new CompressedBasis(basisVariables.length, outputStream.toByteArray());
+    }
+
+    /**
+     * Wrap bytes written by an earlier compress, as returned by getBytes.
+     */
+    static CompressedBasis fromBytes(final int length, final byte[] bytes) {
+        return new CompressedBasis(length, bytes);
+    }
+
+    int[] decompress() {
+        final int[] basisVariables = new int[length];
+        int position = 0;
+        int previous = 0;
+        for (int row = 0; row < length; row++) {
+            int zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                zigzag |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            basisVariables[row] = previous;
+        }
+
+        return basisVariables;
+    }
+
+    /**
+     * The number of rows in the basis.
+     */
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * The compressed bytes, which must not be modified.
+     */
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * The number of bytes the basis takes up, not counting object headers.
+     */
+    int getCompressedSize() {
+        return bytes.length;
+    }
+}
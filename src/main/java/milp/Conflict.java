@@ -0,0 +1,182 @@
+package milp;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A set of bounds on integer variables that no feasible solution satisfies all of, like x_3 >= 2 and x_7 <= 0. A node
+ * whose own bounds imply every one of them is infeasible, and a node whose bounds imply all but one has to bound that
+ * one's variable the other way.
+ */
+final class Conflict {
+    private final int[] variables;
+    private final long[] values;
+    private final boolean[] isUpperBound;
+
+    Conflict(final int[] variables, final long[] values, final boolean[] isUpperBound) {
+        this.variables = variables;
+        this.values = values;
+        this.isUpperBound = isUpperBound;
+    }
+
+    /**
+     * The conflict made of every bound that is tighter than the global bounds, or null if there are none.
+     */
+    static Conflict fromBounds(final long[] lowerBounds,
+                               final long[] upperBounds,
+                               final long[] globalLowerBounds,
+                               final long[] globalUpperBounds) {
+        final Builder builder = new Builder();
+        for (int variable = 0; variable < lowerBounds.length; variable++) {
+            if (lowerBounds[variable] > globalLowerBounds[variable]) {
+                builder.add(variable, lowerBounds[variable], false);
+            }
+            if (upperBounds[variable] < globalUpperBounds[variable]) {
+                builder.add(variable, upperBounds[variable], true);
+            }
+        }
+
+        return builder.build();
+    }
+
+    int size() {
+        return variables.length;
+    }
+
+    int getVariable(final int i) {
+        return variables[i];
+    }
+
+    long getValue(final int i) {
+        return values[i];
+    }
+
+    boolean isUpperBound(final int i) {
+        return isUpperBound[i];
+    }
+
+    /**
+     * Whether bounds within the given ones always satisfy the i-th bound of the conflict.
+     */
+    boolean isImplied(final int i, final long[] lowerBounds, final long[] upperBounds) {
+        return isUpperBound[i]
+                ? upperBounds[variables[i]] <= values[i]
+                : lowerBounds[variables[i]] >= values[i];
+    }
+
+    /**
+     * Whether bounds within the given ones never satisfy the i-th bound of the conflict.
+     */
+    boolean isViolated(final int i, final long[] lowerBounds, final long[] upperBounds) {
+        return isUpperBound[i]
+                ? lowerBounds[variables[i]] > values[i]
+                : upperBounds[variables[i]] < values[i];
+    }
+
+    /**
+     * Applies the conflict's bounds on top of the given ones, leaving out the i-th, or none if i is -1.
+     */
+    void apply(final long[] lowerBounds, final long[] upperBounds, final int skipped) {
+        for (int i = 0; i < variables.length; i++) {
+            if (i == skipped) {
+                continue;
+            }
+            if (isUpperBound[i]) {
+                upperBounds[variables[i]] = Math.min(upperBounds[variables[i]], values[i]);
+            } else {
+                lowerBounds[variables[i]] = Math.max(lowerBounds[variables[i]], values[i]);
+            }
+        }
+    }
+
+    /**
+     * The conflict without its i-th bound.
+     */
+    Conflict without(final int skipped) {
+        final Builder builder = new Builder();
+        for (int i = 0; i < variables.length; i++) {
+            if (i != skipped) {
+                builder.add(variables[i], values[i], isUpperBound[i]);
+            }
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder stringBuilder = new StringBuilder("[");
+        for (int i = 0; i < variables.length; i++) {
+            stringBuilder.append(i == 0 ? "" : ", ")
+                    .append('x')
+                    .append(variables[i])
+                    .append(isUpperBound[i] ? " <= " : " >= ")
+                    .append(values[i]);
+        }
+
+        return stringBuilder.append(']').toString();
+    }
+
+    /**
+     * Collects bounds, keeping only the tightest one per variable and direction.
+     */
+    static final class Builder {
+        private int[] variables;
+        private long[] values;
+        private boolean[] isUpperBound;
+        private int size;
+
+        Builder() {
+            this.variables = new int[4];
+            this.values = new long[4];
+            this.isUpperBound = new boolean[4];
+        }
+
+        Builder add(final int variable, final long value, final boolean upperBound) {
+            for (int i = 0; i < size; i++) {
+                if (variables[i] == variable && isUpperBound[i] == upperBound) {
+                    values[i] = upperBound ? Math.min(values[i], value) : Math.max(values[i], value);
+                    return this;
+                }
+            }
+
+            if (size == variables.length) {
+                variables = Arrays.copyOf(variables, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+                isUpperBound = Arrays.copyOf(isUpperBound, 2 * size);
+            }
+            variables[size] = variable;
+            values[size] = value;
+            isUpperBound[size] = upperBound;
+            size++;
+            return this;
+        }
+
+        /**
+         * The conflict, with its bounds in the order of their variables, or null if no bounds were added.
+         */
+        Conflict build() {
+            if (size == 0) {
+                return null;
+            }
+
+            final Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt((Integer i) -> variables[i])
+                    .thenComparing(i -> isUpperBound[i]));
+
+            final int[] sortedVariables = new int[size];
+            final long[] sortedValues = new long[size];
+            final boolean[] sortedIsUpperBound = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                sortedVariables[i] = variables[order[i]];
+                sortedValues[i] = values[order[i]];
+                sortedIsUpperBound[i] = isUpperBound[order[i]];
+            }
+
+            return new Conflict(sortedVariables, sortedValues, sortedIsUpperBound);
+        }
+    }
+}
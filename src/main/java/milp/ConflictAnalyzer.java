@@ -0,0 +1,170 @@
+package milp;
+
+import core.WarmStart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Works out which of an infeasible node's bounds are to blame, as a conflict small enough to prune other nodes with.
+ * <p>
+ * When propagation proves a node infeasible, bounds are dropped one at a time for as long as propagating the rest
+ * still proves it. When the dual simplex does, the row it gave up on reads x_B + sum_j a_j x_j = b, with b < 0 and
+ * every a_j >= 0, so x_B and the x_j with a_j > 0 can't all be non-negative. Those that are slacks of bound rows are
+ * the bounds to blame: the other rows hold everywhere. That's only true while every row of the tableau is globally
+ * valid, so with local cuts, or without a tableau, every bound of the node is blamed instead.
+ * <p>
+ * A conflict with more than the maximum number of bounds is unlikely to prune anything, and is thrown away.
+ */
+final class ConflictAnalyzer {
+    private static final double TOLERANCE = 1e-9;
+    // Bound rows have integer constants, so rounding only has to absorb numerical noise
+    private static final double ROUNDING_TOLERANCE = 1e-6;
+
+    private final MixedIntegerProgram program;
+    private final Propagator propagator;
+    private final long[] globalLowerBounds;
+    private final long[] globalUpperBounds;
+    private final int maxSize;
+
+    /**
+     * @param propagator the propagator to minimize conflicts with, or null to not minimize them
+     */
+    ConflictAnalyzer(final MixedIntegerProgram program,
+                     final Propagator propagator,
+                     final long[] globalLowerBounds,
+                     final long[] globalUpperBounds,
+                     final int maxSize) {
+        this.program = program;
+        this.propagator = propagator;
+        this.globalLowerBounds = globalLowerBounds;
+        this.globalUpperBounds = globalUpperBounds;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Analyze bounds that propagation proved infeasible, or return null if propagating them from the global bounds
+     * doesn't prove it again.
+     */
+    Conflict analyzePropagation(final long[] lowerBounds, final long[] upperBounds) {
+        Conflict conflict = Conflict.fromBounds(lowerBounds, upperBounds, globalLowerBounds, globalUpperBounds);
+        if (conflict == null || propagator == null || !isInfeasible(conflict, -1)) {
+            return null;
+        }
+
+        for (int i = conflict.size() - 1; i >= 0; i--) {
+            if (conflict.size() > 1 && isInfeasible(conflict, i)) {
+                conflict = conflict.without(i);
+            }
+        }
+
+        return limit(conflict);
+    }
+
+    private boolean isInfeasible(final Conflict conflict, final int skipped) {
+        final long[] lowerBounds = globalLowerBounds.clone();
+        final long[] upperBounds = globalUpperBounds.clone();
+        conflict.apply(lowerBounds, upperBounds, skipped);
+        final List<Integer> changedVariables = new ArrayList<>();
+        for (int i = 0; i < conflict.size(); i++) {
+            if (i != skipped) {
+                if (lowerBounds[conflict.getVariable(i)] > upperBounds[conflict.getVariable(i)]) {
+                    return true;
+                }
+                changedVariables.add(conflict.getVariable(i));
+            }
+        }
+
+        return !propagator.propagate(lowerBounds, upperBounds, changedVariables);
+    }
+
+    /**
+     * Analyze the infeasible final tableau of a node within the given bounds.
+     *
+     * @param relaxation the infeasible tableau, or null if the relaxation was solved from scratch
+     * @param hasLocalRows whether the tableau may have rows that only hold within the node's subtree
+     */
+    Conflict analyzeRelaxation(final WarmStart relaxation,
+                               final boolean hasLocalRows,
+                               final long[] lowerBounds,
+                               final long[] upperBounds) {
+        final int proofRow = relaxation == null || hasLocalRows ? -1 : findProofRow(relaxation);
+        if (proofRow == -1) {
+            return limit(Conflict.fromBounds(lowerBounds, upperBounds, globalLowerBounds, globalUpperBounds));
+        }
+
+        final Conflict.Builder builder = new Conflict.Builder();
+        final int basisVariable = relaxation.getBasisVariables()[proofRow];
+        for (int variable = 0; variable < relaxation.getNumVariables(); variable++) {
+            final boolean isBlamed = variable == basisVariable
+                    || !relaxation.isDropped(variable) && relaxation.getCoefficient(proofRow, variable) > TOLERANCE;
+            if (isBlamed && relaxation.isSlackVariable(variable)) {
+                addBoundRow(relaxation, variable, builder);
+            }
+        }
+
+        return limit(builder.build());
+    }
+
+    /**
+     * The row the dual simplex gave up on: negative, with no negative coefficient to pivot on. Returns -1 if there is
+     * no such row, as when the relaxation was infeasible from the start.
+     */
+    private static int findProofRow(final WarmStart relaxation) {
+        for (int row = 0; row < relaxation.getNumRows(); row++) {
+            if (relaxation.getValue(row) >= -TOLERANCE) {
+                continue;
+            }
+
+            boolean canPivot = false;
+            for (int variable = 0; variable < relaxation.getNumVariables() && !canPivot; variable++) {
+                canPivot = !relaxation.isDropped(variable) && relaxation.getCoefficient(row, variable) < -TOLERANCE;
+            }
+            if (!canPivot) {
+                return row;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * If a slack s = d - c x_j belongs to a bound on a single integer variable, add the bound s >= 0 stands for, unless
+     * the global bounds already imply it.
+     */
+    private void addBoundRow(final WarmStart relaxation, final int slack, final Conflict.Builder builder) {
+        final double[] unitCoefficients = new double[relaxation.getNumVariables()];
+        unitCoefficients[slack] = 1d;
+        // s >= 0 projects onto -c^x >= -d
+        final double[] projection = relaxation.projectOntoRealVariables(unitCoefficients, 0d);
+        int variable = -1;
+        for (int i = 1; i < projection.length; i++) {
+            if (projection[i] != 0d) {
+                if (variable != -1) {
+                    return;
+                }
+                variable = i - 1;
+            }
+        }
+        if (variable == -1 || !program.isIntegerVariable(variable)) {
+            return;
+        }
+
+        final double bound = projection[0] / projection[variable + 1];
+        if (projection[variable + 1] < 0) {
+            final long upperBound = (long) Math.floor(bound + ROUNDING_TOLERANCE);
+            if (upperBound < globalUpperBounds[variable]) {
+                builder.add(variable, upperBound, true);
+            }
+        } else {
+            final long lowerBound = (long) Math.ceil(bound - ROUNDING_TOLERANCE);
+            if (lowerBound > globalLowerBounds[variable]) {
+                builder.add(variable, lowerBound, false);
+            }
+        }
+    }
+
+    private Conflict limit(final Conflict conflict) {
+        return conflict == null || conflict.size() > maxSize ? null : conflict;
+    }
+}
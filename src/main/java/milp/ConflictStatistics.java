@@ -0,0 +1,46 @@
+package milp;
+
+/**
+ * What conflict analysis learned during a search, and how much it pruned.
+ */
+public final class ConflictStatistics {
+    private final long conflicts;
+    private final long evictions;
+    private final long prunedNodes;
+    private final long tightenedBounds;
+
+    ConflictStatistics(final long conflicts, final long evictions, final long prunedNodes, final long tightenedBounds) {
+        this.conflicts = conflicts;
+        this.evictions = evictions;
+        this.prunedNodes = prunedNodes;
+        this.tightenedBounds = tightenedBounds;
+    }
+
+    /**
+     * How many conflicts were learned from infeasible nodes and added to the store.
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * How many conflicts were dropped from the store, because it was full or they had aged out.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * How many nodes a conflict proved infeasible before their relaxations were solved.
+     */
+    public long getPrunedNodes() {
+        return prunedNodes;
+    }
+
+    /**
+     * How many bounds were tightened because a node satisfied all but one bound of a conflict.
+     */
+    public long getTightenedBounds() {
+        return tightenedBounds;
+    }
+}
@@ -0,0 +1,183 @@
+package milp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The conflicts learned so far in a search, used to prune and tighten nodes before their relaxations are solved.
+ * <p>
+ * The store is bounded. A conflict's age is how many nodes have been created since it last pruned or tightened one,
+ * counted by node id: a conflict older than the maximum age is dropped, and once the store is full the oldest conflict
+ * makes way for each new one. Reads work on a snapshot, so they never wait on other threads.
+ * <p>
+ * A deferred store holds new conflicts back until flush(), which adds them in node order. A deterministic search
+ * flushes between rounds, so every node of a round sees the same conflicts, however the threads are scheduled. Marking
+ * a conflict as used only ever raises its last use to the id of the node using it, so the order doesn't matter there.
+ */
+final class ConflictStore {
+    // Passes over the conflicts per node, since tightening one bound can bring another conflict down to one bound
+    private static final int MAX_PASSES = 3;
+
+    private final int capacity;
+    private final long maxAge;
+    private final boolean deferred;
+    private volatile Entry[] entries;
+    // New conflicts held back until the next flush, guarded by this
+    private final List<Entry> pendingEntries;
+    private final AtomicLong learnedCount;
+    private final AtomicLong evictedCount;
+    private final AtomicLong prunedNodeCount;
+    private final AtomicLong tightenedBoundCount;
+
+    ConflictStore(final int capacity, final long maxAge, final boolean deferred) {
+        this.capacity = capacity;
+        this.maxAge = maxAge;
+        this.deferred = deferred;
+        this.entries = new Entry[0];
+        this.pendingEntries = new ArrayList<>();
+        this.learnedCount = new AtomicLong();
+        this.evictedCount = new AtomicLong();
+        this.prunedNodeCount = new AtomicLong();
+        this.tightenedBoundCount = new AtomicLong();
+    }
+
+    /**
+     * Add a conflict learned at a node, or hold it back until the next flush if the store is deferred.
+     */
+    synchronized void add(final Conflict conflict, final long nodeId) {
+        final Entry entry = new Entry(conflict, nodeId);
+        if (deferred) {
+            pendingEntries.add(entry);
+        } else {
+            insert(entry);
+        }
+    }
+
+    /**
+     * Add the conflicts held back since the last flush, in the order of the nodes that learned them.
+     */
+    synchronized void flush() {
+        pendingEntries.sort(Comparator.comparingLong(entry -> entry.nodeId));
+        for (final Entry entry : pendingEntries) {
+            insert(entry);
+        }
+        pendingEntries.clear();
+    }
+
+    private void insert(final Entry entry) {
+        final List<Entry> newEntries = new ArrayList<>(Arrays.asList(entries));
+        final int sizeBefore = newEntries.size();
+        newEntries.removeIf(existing -> entry.nodeId - existing.lastUsed.get() > maxAge);
+        if (newEntries.size() == capacity) {
+            Entry oldest = newEntries.get(0);
+            for (final Entry existing : newEntries) {
+                if (existing.lastUsed.get() < oldest.lastUsed.get()) {
+                    oldest = existing;
+                }
+            }
+            newEntries.remove(oldest);
+        }
+        evictedCount.addAndGet(sizeBefore - newEntries.size());
+
+        newEntries.add(entry);
+        learnedCount.incrementAndGet();
+        entries = newEntries.toArray(new Entry[0]);
+    }
+
+    /**
+     * Prune or tighten a node's bounds with the conflicts, tightening the bounds in place and noting which variables
+     * changed.
+     *
+     * @return false if a conflict proves the bounds infeasible
+     */
+    boolean propagate(final long[] lowerBounds,
+                      final long[] upperBounds,
+                      final List<Integer> changedVariables,
+                      final long nodeId) {
+        final Entry[] snapshot = entries;
+        boolean isChanged = true;
+        for (int pass = 0; pass < MAX_PASSES && isChanged; pass++) {
+            isChanged = false;
+            for (final Entry entry : snapshot) {
+                final Conflict conflict = entry.conflict;
+                int unimplied = -1;
+                int numUnimplied = 0;
+                for (int i = 0; i < conflict.size() && numUnimplied < 2; i++) {
+                    if (conflict.isViolated(i, lowerBounds, upperBounds)) {
+                        numUnimplied = 2;
+                    } else if (!conflict.isImplied(i, lowerBounds, upperBounds)) {
+                        unimplied = i;
+                        numUnimplied++;
+                    }
+                }
+
+                if (numUnimplied == 0) {
+                    entry.markUsed(nodeId);
+                    prunedNodeCount.incrementAndGet();
+                    return false;
+                }
+                if (numUnimplied == 1) {
+                    entry.markUsed(nodeId);
+                    tightenOpposite(conflict, unimplied, lowerBounds, upperBounds);
+                    tightenedBoundCount.incrementAndGet();
+                    changedVariables.add(conflict.getVariable(unimplied));
+                    isChanged = true;
+                    if (lowerBounds[conflict.getVariable(unimplied)] > upperBounds[conflict.getVariable(unimplied)]) {
+                        prunedNodeCount.incrementAndGet();
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Bound a variable so that the i-th bound of a conflict can't hold: x <= v becomes x >= v + 1, and x >= v becomes
+     * x <= v - 1.
+     */
+    private static void tightenOpposite(final Conflict conflict,
+                                        final int i,
+                                        final long[] lowerBounds,
+                                        final long[] upperBounds) {
+        final int variable = conflict.getVariable(i);
+        if (conflict.isUpperBound(i)) {
+            lowerBounds[variable] = Math.max(lowerBounds[variable], conflict.getValue(i) + 1);
+        } else {
+            upperBounds[variable] = Math.min(upperBounds[variable], conflict.getValue(i) - 1);
+        }
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    ConflictStatistics getStatistics() {
+        return new ConflictStatistics(
+                learnedCount.get(),
+                evictedCount.get(),
+                prunedNodeCount.get(),
+                tightenedBoundCount.get()
+        );
+    }
+
+    private static final class Entry {
+        private final Conflict conflict;
+        private final long nodeId;
+        private final AtomicLong lastUsed;
+
+        private Entry(final Conflict conflict, final long nodeId) {
+            this.conflict = conflict;
+            this.nodeId = nodeId;
+            this.lastUsed = new AtomicLong(nodeId);
+        }
+
+        private void markUsed(final long usingNodeId) {
+            lastUsed.accumulateAndGet(usingNodeId, Math::max);
+        }
+    }
+}
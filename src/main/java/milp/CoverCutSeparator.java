@@ -0,0 +1,173 @@
+package milp;
+
+import core.WarmStart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Separates lifted cover inequalities from knapsack rows over binary variables.
+ * <p>
+ * A cover C is a set of items whose weights sum to more than the capacity, so at most |C| - 1 of them can be 1, i.e.
+ * sum_{j in C} l_j <= |C| - 1. The cover is picked greedily to be as violated as possible, both by the items with the
+ * least 1 - l_j and by those with the least 1 - l_j per unit of weight, and trimmed to a minimal one. The items outside
+ * of it are then lifted into the inequality one at a time, each with the largest coefficient that keeps it valid, which
+ * is found by a small knapsack over the items already in the inequality.
+ */
+final class CoverCutSeparator implements CutSeparator {
+    private static final double TOLERANCE = 1e-9;
+
+    private final int numVariables;
+    private final List<KnapsackRow> rows;
+
+    CoverCutSeparator(final MixedIntegerProgram program) {
+        this.numVariables = program.getNumVariables();
+        this.rows = KnapsackRow.extractAll(program);
+    }
+
+    @Override
+    public List<Cut> separate(final WarmStart relaxation, final double[] solution) {
+        final List<Cut> cuts = new ArrayList<>();
+        for (final KnapsackRow row : rows) {
+            final Cut cut = separate(row, solution);
+            if (cut != null) {
+                cuts.add(cut);
+            }
+        }
+
+        return cuts;
+    }
+
+    /**
+     * The lifted cover inequality of a row, or null if the row's cover inequality isn't violated.
+     */
+    Cut separate(final KnapsackRow row, final double[] solution) {
+        final Comparator<Integer> byValue = Comparator.comparingDouble(item -> 1 - row.getValue(item, solution));
+        final Comparator<Integer> byValuePerWeight = Comparator.comparingDouble(
+                item -> (1 - row.getValue(item, solution)) / row.getWeight(item));
+
+        List<Integer> bestCover = null;
+        double bestCoverSlack = 1 - TOLERANCE;
+        for (final Comparator<Integer> order : Arrays.asList(byValue.thenComparing(byValuePerWeight),
+                byValuePerWeight)) {
+            final List<Integer> cover = findCover(row, solution, order);
+            if (cover == null) {
+                return null;
+            }
+
+            double coverSlack = 0d;
+            for (final int item : cover) {
+                coverSlack += 1 - row.getValue(item, solution);
+            }
+            if (coverSlack < bestCoverSlack) {
+                bestCover = cover;
+                bestCoverSlack = coverSlack;
+            }
+        }
+
+        return bestCover == null ? null : lift(row, bestCover, solution);
+    }
+
+    /**
+     * Greedily pick a cover of items in the given order, then drop the items with the smallest l_j for as long as
+     * what's left is still a cover. Returns null if all the items fit.
+     */
+    private static List<Integer> findCover(final KnapsackRow row,
+                                           final double[] solution,
+                                           final Comparator<Integer> order) {
+        final List<Integer> items = new ArrayList<>();
+        for (int item = 0; item < row.size(); item++) {
+            items.add(item);
+        }
+        items.sort(order);
+
+        final List<Integer> cover = new ArrayList<>();
+        double weight = 0d;
+        for (final int item : items) {
+            if (weight > row.getCapacity() + TOLERANCE) {
+                break;
+            }
+            cover.add(item);
+            weight += row.getWeight(item);
+        }
+        if (weight <= row.getCapacity() + TOLERANCE) {
+            return null;
+        }
+
+        cover.sort(Comparator.comparingDouble(item -> row.getValue(item, solution)));
+        for (int i = 0; i < cover.size(); ) {
+            final int item = cover.get(i);
+            if (weight - row.getWeight(item) > row.getCapacity() + TOLERANCE) {
+                weight -= row.getWeight(item);
+                cover.remove(i);
+            } else {
+                i++;
+            }
+        }
+
+        return cover;
+    }
+
+    /**
+     * Sequentially up-lift the items outside of the cover, those with the largest l_j first. The coefficient of an
+     * item is |C| - 1 minus the most the inequality can add up to with the item at 1, which minimumWeights tracks:
+     * minimumWeights[v] is the least weight the items already in the inequality need to add up to v.
+     */
+    private Cut lift(final KnapsackRow row, final List<Integer> cover, final double[] solution) {
+        final int constant = cover.size() - 1;
+        final double[] coefficients = new double[row.size()];
+        final double[] minimumWeights = new double[constant + 1];
+        Arrays.fill(minimumWeights, Double.POSITIVE_INFINITY);
+        minimumWeights[0] = 0d;
+        for (final int item : cover) {
+            coefficients[item] = 1d;
+            addItem(minimumWeights, 1, row.getWeight(item));
+        }
+
+        final boolean[] isInCover = new boolean[row.size()];
+        for (final int item : cover) {
+            isInCover[item] = true;
+        }
+        final List<Integer> liftingOrder = new ArrayList<>();
+        for (int item = 0; item < row.size(); item++) {
+            if (!isInCover[item]) {
+                liftingOrder.add(item);
+            }
+        }
+        liftingOrder.sort(Comparator.comparingDouble((Integer item) -> row.getValue(item, solution)).reversed());
+
+        for (final int item : liftingOrder) {
+            final double remainingCapacity = row.getCapacity() - row.getWeight(item);
+            int maximumValue = -1;
+            for (int value = constant; value >= 0 && remainingCapacity >= -TOLERANCE; value--) {
+                if (minimumWeights[value] <= remainingCapacity + TOLERANCE) {
+                    maximumValue = value;
+                    break;
+                }
+            }
+
+            // An item that doesn't fit on its own can't be 1 at all, so it can take the whole constant
+            final int coefficient = maximumValue == -1 ? constant : constant - maximumValue;
+            if (coefficient > 0) {
+                coefficients[item] = coefficient;
+                addItem(minimumWeights, coefficient, row.getWeight(item));
+            }
+        }
+
+        final int[] variables = new int[row.size()];
+        final boolean[] complemented = new boolean[row.size()];
+        for (int item = 0; item < row.size(); item++) {
+            variables[item] = row.getVariable(item);
+            complemented[item] = row.isComplemented(item);
+        }
+        return Cut.overLiterals(numVariables, variables, complemented, coefficients, constant);
+    }
+
+    private static void addItem(final double[] minimumWeights, final int value, final double weight) {
+        for (int total = minimumWeights.length - 1; total >= value; total--) {
+            minimumWeights[total] = Math.min(minimumWeights[total], minimumWeights[total - value] + weight);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package milp;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import math.Vector;
+
+/**
+ * A cutting plane a^x >= b over the variables of a MixedIntegerProgram, which every integer feasible solution
+ * satisfies but the solution of some relaxation doesn't.
+ */
+final class Cut {
+    private final double[] coefficients;
+    private final double constant;
+    private final double norm;
+
+    Cut(final double[] coefficients, final double constant) {
+        this.coefficients = coefficients;
+        this.constant = constant;
+        double sumOfSquares = 0d;
+        for (final double coefficient : coefficients) {
+            sumOfSquares += coefficient * coefficient;
+        }
+        this.norm = Math.sqrt(sumOfSquares);
+    }
+
+    /**
+     * The cut sum_j coefficients[j] l_j <= constant over literals, each of which is either x_variables[j], or the
+     * complement 1 - x_variables[j].
+     */
+    static Cut overLiterals(final int numVariables,
+                            final int[] variables,
+                            final boolean[] complemented,
+                            final double[] coefficients,
+                            final double constant) {
+        // Negated into a greater than inequality, with the constant part of each complement moved over
+        final double[] cutCoefficients = new double[numVariables];
+        double cutConstant = -constant;
+        for (int i = 0; i < variables.length; i++) {
+            if (complemented[i]) {
+                cutCoefficients[variables[i]] += coefficients[i];
+                cutConstant += coefficients[i];
+            } else {
+                cutCoefficients[variables[i]] -= coefficients[i];
+            }
+        }
+
+        return new Cut(cutCoefficients, cutConstant);
+    }
+
+    Vector getCoefficients() {
+        final Coefficient[] vectorCoefficients = new Coefficient[coefficients.length];
+        for (int i = 0; i < coefficients.length; i++) {
+            vectorCoefficients[i] = Coefficients.from(coefficients[i]);
+        }
+
+        return new Vector(vectorCoefficients);
+    }
+
+    ConstantCoefficient getConstant() {
+        return Coefficients.from(constant);
+    }
+
+    /**
+     * The distance a solution is cut off by, i.e. how far it is from the cut's hyperplane on the wrong side. This is
+     * negative for solutions that satisfy the cut.
+     */
+    double getEfficacy(final double[] solution) {
+        if (norm == 0d) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        double activity = 0d;
+        for (int i = 0; i < coefficients.length; i++) {
+            activity += coefficients[i] * solution[i];
+        }
+
+        return (constant - activity) / norm;
+    }
+
+    /**
+     * The cosine of the angle between this cut and another one. Nearly parallel cuts cut off nearly the same part of
+     * the relaxation, so only one of them is worth adding.
+     */
+    double getParallelism(final Cut other) {
+        double dotProduct = 0d;
+        for (int i = 0; i < coefficients.length; i++) {
+            dotProduct += coefficients[i] * other.coefficients[i];
+        }
+
+        return Math.abs(dotProduct) / (norm * other.norm);
+    }
+}
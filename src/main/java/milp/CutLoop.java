@@ -0,0 +1,159 @@
+package milp;
+
+import coefficients.Coefficients;
+import core.PivotJournal;
+import core.WarmStart;
+import math.Vector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Adds cuts to a relaxation in rounds. Each round asks every separator for cuts against the current solution, keeps
+ * the most efficacious ones that aren't nearly parallel to a cut already kept, adds them with the dual simplex, and
+ * stops once a round doesn't move the bound. The cuts go into a PivotJournal, so a cut the dual simplex fails on is
+ * rolled back instead of leaving a copy of the tableau behind for every cut that got in.
+ */
+final class CutLoop {
+    // Cuts that cut off the solution by less than this are not worth the extra row
+    private static final double MIN_EFFICACY = 1e-4;
+    // A cut this parallel to one that's already been kept is skipped
+    private static final double MAX_PARALLELISM = 0.95;
+    private static final int MAX_CUTS_PER_ROUND = 50;
+    // A round that moves the bound by less than this, relative to its size, has stalled
+    private static final double MIN_BOUND_IMPROVEMENT = 1e-6;
+
+    private final List<CutSeparator> separators;
+
+    CutLoop(final List<CutSeparator> separators) {
+        this.separators = separators;
+    }
+
+    /**
+     * Run up to maxRounds rounds of cuts on a feasible relaxation. The relaxation it leaves behind is always optimal.
+     */
+    Result run(final WarmStart relaxation, final int maxRounds) {
+        WarmStart currentRelaxation = relaxation;
+        PivotJournal journal = null;
+        final List<Cut> cuts = new ArrayList<>();
+        final List<CutRound> rounds = new ArrayList<>();
+        for (int round = 1; round <= maxRounds; round++) {
+            final double[] solution = toArray(currentRelaxation.getOptimalSolution());
+            final List<Cut> candidates = new ArrayList<>();
+            for (final CutSeparator separator : separators) {
+                candidates.addAll(separator.separate(currentRelaxation, solution));
+            }
+
+            final List<Cut> selectedCuts = select(candidates, solution);
+            if (selectedCuts.isEmpty()) {
+                break;
+            }
+
+            final double boundBefore = currentRelaxation.getOptimalValue();
+            final List<Cut> addedCuts = new ArrayList<>();
+            boolean isStuck = false;
+            if (journal == null) {
+                journal = relaxation.startJournal();
+            }
+            for (final Cut cut : selectedCuts) {
+                final int size = journal.size();
+                final WarmStart cutRelaxation = journal.addGreaterThanInequality(
+                        cut.getCoefficients(),
+                        cut.getConstant()
+                );
+                if (!cutRelaxation.isOptimal()) {
+                    // The dual simplex can fail on round-off alone, or be cut short, and a cut can't be checked by
+                    // solving from scratch the way a bound can, so the cut is left out rather than trusted
+                    currentRelaxation = journal.rollback(size);
+                    isStuck = true;
+                    break;
+                }
+                currentRelaxation = cutRelaxation;
+                addedCuts.add(cut);
+            }
+            cuts.addAll(addedCuts);
+
+            final double boundAfter = currentRelaxation.getOptimalValue();
+            rounds.add(new CutRound(round, addedCuts.size(), boundBefore, boundAfter));
+            final double minImprovement = MIN_BOUND_IMPROVEMENT * Math.max(1d, Math.abs(boundBefore));
+            if (isStuck || Math.abs(boundAfter - boundBefore) <= minImprovement) {
+                break;
+            }
+        }
+
+        return new Result(currentRelaxation, cuts, rounds);
+    }
+
+    /**
+     * Greedily pick the most efficacious cuts, skipping any that are nearly parallel to one already picked.
+     */
+    private static List<Cut> select(final List<Cut> candidates, final double[] solution) {
+        final List<Cut> efficaciousCuts = new ArrayList<>();
+        final List<Double> efficacies = new ArrayList<>();
+        for (final Cut cut : candidates) {
+            final double efficacy = cut.getEfficacy(solution);
+            if (efficacy >= MIN_EFFICACY) {
+                efficaciousCuts.add(cut);
+                efficacies.add(efficacy);
+            }
+        }
+
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < efficaciousCuts.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing((Integer i) -> efficacies.get(i)).reversed());
+
+        final List<Cut> selectedCuts = new ArrayList<>();
+        for (final int i : order) {
+            if (selectedCuts.size() == MAX_CUTS_PER_ROUND) {
+                break;
+            }
+
+            final Cut cut = efficaciousCuts.get(i);
+            if (selectedCuts.stream().allMatch(selectedCut -> cut.getParallelism(selectedCut) <= MAX_PARALLELISM)) {
+                selectedCuts.add(cut);
+            }
+        }
+
+        return selectedCuts;
+    }
+
+    static double[] toArray(final Vector vector) {
+        final double[] values = new double[vector.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Coefficients.asDouble(vector.get(i));
+        }
+
+        return values;
+    }
+
+    /**
+     * The relaxation with every cut added, the cuts themselves, and what each round did.
+     */
+    static final class Result {
+        private final WarmStart relaxation;
+        private final List<Cut> cuts;
+        private final List<CutRound> rounds;
+
+        private Result(final WarmStart relaxation, final List<Cut> cuts, final List<CutRound> rounds) {
+            this.relaxation = relaxation;
+            this.cuts = Collections.unmodifiableList(cuts);
+            this.rounds = Collections.unmodifiableList(rounds);
+        }
+
+        WarmStart getRelaxation() {
+            return relaxation;
+        }
+
+        List<Cut> getCuts() {
+            return cuts;
+        }
+
+        List<CutRound> getRounds() {
+            return rounds;
+        }
+    }
+}
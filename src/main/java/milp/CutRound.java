@@ -0,0 +1,53 @@
+package milp;
+
+/**
+ * What one round of cutting planes at the root did to the bound of the relaxation.
+ */
+public final class CutRound {
+    private final int round;
+    private final int numCuts;
+    private final double boundBefore;
+    private final double boundAfter;
+
+    CutRound(final int round, final int numCuts, final double boundBefore, final double boundAfter) {
+        this.round = round;
+        this.numCuts = numCuts;
+        this.boundBefore = boundBefore;
+        this.boundAfter = boundAfter;
+    }
+
+    /**
+     * The number of the round, starting from 1.
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * How many cuts were added in the round, after filtering.
+     */
+    public int getNumCuts() {
+        return numCuts;
+    }
+
+    /**
+     * The objective value of the relaxation before the round's cuts were added.
+     */
+    public double getBoundBefore() {
+        return boundBefore;
+    }
+
+    /**
+     * The objective value of the relaxation after the round's cuts were added.
+     */
+    public double getBoundAfter() {
+        return boundAfter;
+    }
+
+    /**
+     * How much the round tightened the bound, which is never negative.
+     */
+    public double getBoundImprovement() {
+        return Math.abs(boundBefore - boundAfter);
+    }
+}
@@ -0,0 +1,16 @@
+package milp;
+
+import core.WarmStart;
+
+import java.util.List;
+
+/**
+ * Finds cuts that separate the solution of a relaxation from the integer solutions.
+ */
+interface CutSeparator {
+    /**
+     * @param relaxation the final tableau of the relaxation
+     * @param solution the values of the real variables in the relaxation's solution
+     */
+    List<Cut> separate(WarmStart relaxation, double[] solution);
+}
@@ -0,0 +1,452 @@
+package milp;
+
+import lang.Preconditions;
+import math.Vector;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Coordinates a branch-and-bound search spread over worker processes, which connect to it over TCP.
+ * <p>
+ * The coordinator holds the open nodes, best first, and the incumbent, and the workers do all the solving. A worker
+ * asks for a few nodes at a time, searches below them depth first for a slice of nodes, then sends back the nodes it
+ * left open along with anything better than the incumbent it found, and asks again. Since every worker hands back
+ * what it has left after each slice, the tree spreads over however many workers there are: one that runs dry just
+ * asks for more, and a worker can join at any point of the solve. The nodes handed to a worker that drops out are put
+ * back in the queue for the others.
+ * <p>
+ * A node travels as its chain of bound changes from the root, so every worker builds the program for itself, and the
+ * coordinator checks they all built the same one by its fingerprint. A solve doesn't finish until some worker has
+ * connected and the whole tree has been searched, or the coordinator is closed.
+ */
+public final class DistributedCoordinator implements Closeable {
+    private static final double ABSOLUTE_TOLERANCE = 1e-9;
+    private static final int DEFAULT_NODES_PER_REQUEST = 4;
+
+    private final ServerSocket serverSocket;
+    private final int nodesPerRequest;
+    // The solve in progress, guarded by this
+    private Solve solve;
+
+    private DistributedCoordinator(final ServerSocket serverSocket, final int nodesPerRequest) {
+        this.serverSocket = serverSocket;
+        this.nodesPerRequest = nodesPerRequest;
+    }
+
+    /**
+     * The port workers connect to, which is only known up front if the builder was given one.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Solve a program with the workers that connect, and wait for them to search the whole tree. A coordinator only
+     * solves one program.
+     */
+    public BranchAndBoundResult solve(final MixedIntegerProgram program) {
+        synchronized (this) {
+            Preconditions.checkArgument(solve == null, "A coordinator only solves one program");
+            solve = new Solve(program);
+        }
+
+        final Thread acceptor = new Thread(this::acceptWorkers, "coordinator-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        synchronized (this) {
+            while (!solve.isDone()) {
+                if (serverSocket.isClosed()) {
+                    throw new IllegalStateException("Coordinator closed before the solve was over");
+                }
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the workers", e);
+                }
+            }
+            // Wake the workers waiting for nodes, to tell them to stop
+            notifyAll();
+            return solve.createResult();
+        }
+    }
+
+    /**
+     * Stop listening for workers, which also gives up on a solve in progress.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    private void acceptWorkers() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (final IOException e) {
+                // Closed
+                return;
+            }
+
+            final Thread handler = new Thread(() -> handleWorker(socket), "coordinator-worker");
+            handler.setDaemon(true);
+            handler.start();
+        }
+    }
+
+    /**
+     * Talk to one worker until the solve is over or the worker drops out.
+     */
+    private void handleWorker(final Socket socket) {
+        int workerId = -1;
+        try (Socket workerSocket = socket;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(workerSocket.getInputStream()));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(workerSocket.getOutputStream()))) {
+            if (input.readByte() != DistributedProtocol.HELLO || input.readLong() != solve.fingerprint) {
+                output.writeByte(DistributedProtocol.REJECT);
+                output.flush();
+                return;
+            }
+
+            workerId = register();
+            output.writeByte(DistributedProtocol.ACCEPT);
+            output.writeInt(workerId);
+            output.flush();
+            while (true) {
+                if (input.readByte() != DistributedProtocol.REPORT) {
+                    throw new IOException("Expected a report");
+                }
+                final long nodeCount = input.readLong();
+                final boolean isUnbounded = input.readBoolean();
+                final double prunedScore = input.readDouble();
+                final Vector incumbent = DistributedProtocol.readVector(input);
+                final List<Node> openNodes = DistributedProtocol.readNodes(input);
+                final BranchAndBoundResult statistics = DistributedProtocol.readStatistics(input);
+
+                final Work work = exchange(
+                        workerId,
+                        nodeCount,
+                        isUnbounded,
+                        prunedScore,
+                        incumbent,
+                        openNodes,
+                        statistics
+                );
+                if (work == null) {
+                    output.writeByte(DistributedProtocol.STOP);
+                    output.flush();
+                    return;
+                }
+                output.writeByte(DistributedProtocol.WORK);
+                DistributedProtocol.writeVector(output, work.incumbent);
+                DistributedProtocol.writeNodes(output, work.nodes);
+                output.flush();
+            }
+        } catch (final IOException e) {
+            // The worker dropped out, so the nodes it was handed go back in the queue
+            if (workerId != -1) {
+                drop(workerId);
+            }
+        }
+    }
+
+    private synchronized int register() {
+        return solve.nextWorkerId++;
+    }
+
+    /**
+     * Take in a worker's report, and wait for nodes to hand it in return. Returns null once the solve is over.
+     */
+    private synchronized Work exchange(final int workerId,
+                                       final long nodeCount,
+                                       final boolean isUnbounded,
+                                       final double prunedScore,
+                                       final Vector incumbent,
+                                       final List<Node> openNodes,
+                                       final BranchAndBoundResult statistics) {
+        // Whatever the worker didn't send back, it processed
+        solve.outstandingNodes.remove(workerId);
+        solve.nodeCount += nodeCount;
+        solve.isUnbounded |= isUnbounded;
+        solve.incumbent.recordPrunedScore(prunedScore);
+        solve.workerStatistics.put(workerId, statistics);
+        if (incumbent != null) {
+            // Checked like an incumbent found by a search of its own, since it came over the network
+            final Vector roundedIncumbent = BranchAndBound.roundIntegerVariables(solve.program, incumbent);
+            if (BranchAndBound.isIncumbentFeasible(solve.program, roundedIncumbent)) {
+                final double score = solve.toScore(roundedIncumbent.dotProductAsDouble(solve.program.getCostVector()));
+                solve.incumbent.offer(roundedIncumbent, score);
+            }
+        }
+        for (final Node node : openNodes) {
+            solve.add(node);
+        }
+        notifyAll();
+
+        while (!solve.isDone()) {
+            final List<Node> nodes = solve.poll(nodesPerRequest);
+            if (!nodes.isEmpty()) {
+                solve.outstandingNodes.put(workerId, nodes);
+                return new Work(solve.incumbent.isPresent() ? solve.incumbent.getVector() : null, nodes);
+            }
+
+            // Other workers still have nodes out, which may come back with more
+            try {
+                wait();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    private synchronized void drop(final int workerId) {
+        final List<Node> nodes = solve.outstandingNodes.remove(workerId);
+        if (nodes != null) {
+            for (final Node node : nodes) {
+                solve.add(node);
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * The nodes handed to a worker, and the incumbent to prune them against.
+     */
+    private static final class Work {
+        private final Vector incumbent;
+        private final List<Node> nodes;
+
+        private Work(final Vector incumbent, final List<Node> nodes) {
+            this.incumbent = incumbent;
+            this.nodes = nodes;
+        }
+    }
+
+    /**
+     * The state of a distributed solve, guarded by the coordinator.
+     */
+    private static final class Solve {
+        private final MixedIntegerProgram program;
+        private final long fingerprint;
+        private final NodeQueue openNodes;
+        // The nodes handed to each worker that it hasn't reported back on yet
+        private final Map<Integer, List<Node>> outstandingNodes;
+        // The statistics of each worker's search as of its last report, kept after it drops out
+        private final Map<Integer, BranchAndBoundResult> workerStatistics;
+        private final Incumbent incumbent;
+        private long nodeCount;
+        private boolean isUnbounded;
+        private int nextWorkerId;
+
+        private Solve(final MixedIntegerProgram program) {
+            this.program = program;
+            this.fingerprint = DistributedProtocol.fingerprint(program);
+            this.openNodes = new NodeQueue(NodeSelection.BEST_FIRST.getComparator());
+            this.outstandingNodes = new HashMap<>();
+            this.workerStatistics = new TreeMap<>();
+            this.incumbent = new Incumbent();
+            openNodes.add(Node.root());
+        }
+
+        private boolean isDone() {
+            return isUnbounded || openNodes.isEmpty() && outstandingNodes.isEmpty();
+        }
+
+        private void add(final Node node) {
+            if (!prune(node)) {
+                openNodes.add(node);
+            }
+        }
+
+        /**
+         * Poll up to the given number of nodes that can't be pruned.
+         */
+        private List<Node> poll(final int maxNodes) {
+            final List<Node> nodes = new ArrayList<>();
+            while (!openNodes.isEmpty() && nodes.size() < maxNodes) {
+                final Node node = openNodes.poll();
+                if (!prune(node)) {
+                    nodes.add(node);
+                }
+            }
+
+            return nodes;
+        }
+
+        private boolean prune(final Node node) {
+            if (!incumbent.isPresent() || node.getBound() > incumbent.getScore() + ABSOLUTE_TOLERANCE) {
+                return false;
+            }
+
+            incumbent.recordPrunedScore(node.getBound());
+            return true;
+        }
+
+        private double toScore(final double objectiveValue) {
+            return program.isMaximization() ? objectiveValue : -objectiveValue;
+        }
+
+        private BranchAndBoundResult createResult() {
+            final SolveStatus status;
+            if (isUnbounded) {
+                status = SolveStatus.UNBOUNDED;
+            } else {
+                status = incumbent.isPresent() ? SolveStatus.OPTIMAL : SolveStatus.INFEASIBLE;
+            }
+            final double incumbentValue = toScore(status == SolveStatus.UNBOUNDED
+                    ? Double.POSITIVE_INFINITY
+                    : incumbent.getScore());
+            final double bestBound = status == SolveStatus.OPTIMAL
+                    ? toScore(Math.max(incumbent.getScore(), incumbent.getPrunedScore()))
+                    : incumbentValue;
+
+            // Every worker runs the same root cut rounds and finds the same symmetries, so those are taken from one of
+            // them, and the other counts add up over the workers
+            List<CutRound> cutRounds = Collections.emptyList();
+            int symmetryGeneratorCount = 0;
+            long warmStartCount = 0;
+            long treeCutCount = 0;
+            final long[][] heuristicCounts = new long[Heuristic.values().length][4];
+            final long[] branchingCounts = new long[BranchingRule.values().length];
+            long propagationPruneCount = 0;
+            long propagatedBoundCount = 0;
+            final long[] conflictCounts = new long[4];
+            long symmetryPruneCount = 0;
+            for (final BranchAndBoundResult statistics : workerStatistics.values()) {
+                if (cutRounds.isEmpty()) {
+                    cutRounds = statistics.getCutRounds();
+                }
+                symmetryGeneratorCount = Math.max(symmetryGeneratorCount, statistics.getSymmetryGeneratorCount());
+                warmStartCount += statistics.getWarmStartCount();
+                treeCutCount += statistics.getTreeCutCount();
+                for (final Heuristic heuristic : Heuristic.values()) {
+                    final HeuristicStatistics heuristicStatistics = statistics.getHeuristicStatistics().get(heuristic);
+                    final long[] counts = heuristicCounts[heuristic.ordinal()];
+                    counts[0] += heuristicStatistics.getCalls();
+                    counts[1] += heuristicStatistics.getSolutions();
+                    counts[2] += heuristicStatistics.getImprovements();
+                    counts[3] += heuristicStatistics.getTimeNanos();
+                }
+                for (final BranchingRule rule : BranchingRule.values()) {
+                    branchingCounts[rule.ordinal()] += statistics.getBranchingCounts().get(rule);
+                }
+                propagationPruneCount += statistics.getPropagationPruneCount();
+                propagatedBoundCount += statistics.getPropagatedBoundCount();
+                final ConflictStatistics conflictStatistics = statistics.getConflictStatistics();
+                conflictCounts[0] += conflictStatistics.getConflicts();
+                conflictCounts[1] += conflictStatistics.getEvictions();
+                conflictCounts[2] += conflictStatistics.getPrunedNodes();
+                conflictCounts[3] += conflictStatistics.getTightenedBounds();
+                symmetryPruneCount += statistics.getSymmetryPruneCount();
+            }
+
+            final Map<Heuristic, HeuristicStatistics> heuristicStatistics = new EnumMap<>(Heuristic.class);
+            for (final Heuristic heuristic : Heuristic.values()) {
+                final long[] counts = heuristicCounts[heuristic.ordinal()];
+                heuristicStatistics.put(heuristic, new HeuristicStatistics(counts[0], counts[1], counts[2], counts[3]));
+            }
+            final Map<BranchingRule, Long> branchingCountsByRule = new EnumMap<>(BranchingRule.class);
+            for (final BranchingRule rule : BranchingRule.values()) {
+                branchingCountsByRule.put(rule, branchingCounts[rule.ordinal()]);
+            }
+
+            // The workers don't presolve or restart, so those counts stay zero
+            return new BranchAndBoundResult(
+                    status == SolveStatus.OPTIMAL ? incumbent.getVector() : null,
+                    incumbentValue,
+                    bestBound,
+                    status,
+                    nodeCount,
+                    warmStartCount,
+                    cutRounds,
+                    treeCutCount,
+                    Collections.unmodifiableMap(heuristicStatistics),
+                    Collections.unmodifiableMap(branchingCountsByRule),
+                    propagationPruneCount,
+                    propagatedBoundCount,
+                    new ConflictStatistics(conflictCounts[0], conflictCounts[1], conflictCounts[2], conflictCounts[3]),
+                    symmetryGeneratorCount,
+                    symmetryPruneCount,
+                    new PresolveStatistics(0, 0, 0, 0, 0),
+                    0
+            );
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int port;
+        private InetAddress bindAddress;
+        private int nodesPerRequest;
+
+        private Builder() {
+            this.port = 0;
+            this.bindAddress = InetAddress.getLoopbackAddress();
+            this.nodesPerRequest = DEFAULT_NODES_PER_REQUEST;
+        }
+
+        /**
+         * The port to listen on. Defaults to 0, i.e. any free port, which getPort() then tells.
+         */
+        public Builder withPort(final int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * The address to listen on. Defaults to the loopback address, which only takes workers on the same machine.
+         */
+        public Builder withBindAddress(final InetAddress bindAddress) {
+            this.bindAddress = bindAddress;
+            return this;
+        }
+
+        /**
+         * How many nodes to hand a worker at a time. Defaults to 4.
+         */
+        public Builder withNodesPerRequest(final int nodesPerRequest) {
+            this.nodesPerRequest = nodesPerRequest;
+            return this;
+        }
+
+        /**
+         * Start listening for workers.
+         */
+        public DistributedCoordinator build() {
+            Preconditions.checkArgument(port >= 0 && port <= 0xFFFF, "Port must be between 0 and 65535");
+            Preconditions.checkNotNull(bindAddress, "Must provide an address to listen on");
+            Preconditions.checkArgument(nodesPerRequest > 0, "Must hand out at least one node at a time");
+            try {
+                return new DistributedCoordinator(new ServerSocket(port, 0, bindAddress), nodesPerRequest);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package milp;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import math.Vector;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The messages a distributed coordinator and its workers exchange over TCP.
+ * <p>
+ * A worker opens with a hello carrying the fingerprint of its program, which the coordinator accepts with an id for
+ * the worker or rejects. From then on the worker sends reports, and the coordinator answers each one with work or a
+ * stop. A report carries how many nodes the worker processed since its last one, whether it found the program
+ * unbounded, the best bound of the nodes it pruned by the gap tolerance, a better incumbent if it found one, the
+ * nodes it left open, and the statistics of its search so far. Work carries the coordinator's incumbent, if any, and
+ * the nodes to search below. Nodes are written by the NodeCodec, and vectors as doubles, which is exact for the integer
+ * values of integer variables.
+ */
+final class DistributedProtocol {
+    static final byte HELLO = 1;
+    static final byte ACCEPT = 2;
+    static final byte REJECT = 3;
+    static final byte REPORT = 4;
+    static final byte WORK = 5;
+    static final byte STOP = 6;
+
+    private DistributedProtocol() {
+        // Exists to defeat instantiation
+    }
+
+    /**
+     * A hash of everything that defines a program, for the coordinator to check that its workers build the same one.
+     */
+    static long fingerprint(final MixedIntegerProgram program) {
+        long hash = program.isMaximization() ? 1 : 2;
+        hash = mix(hash, program.getNumVariables());
+        for (int variable = 0; variable < program.getNumVariables(); variable++) {
+            hash = mix(hash, program.isIntegerVariable(variable) ? 1 : 0);
+        }
+        hash = mix(hash, program.getCostVector());
+        hash = mix(hash, program.getLessThanInequalities(), program.getLessThanConstants());
+        hash = mix(hash, program.getEqualities(), program.getEqualityConstants());
+        return mix(hash, program.getGreaterThanInequalities(), program.getGreaterThanConstants());
+    }
+
+    private static long mix(final long hash, final List<Vector> rows, final List<ConstantCoefficient> constants) {
+        long newHash = mix(hash, rows.size());
+        for (int row = 0; row < rows.size(); row++) {
+            newHash = mix(newHash, rows.get(row));
+            newHash = mix(newHash, Double.doubleToLongBits(Coefficients.asDouble(constants.get(row))));
+        }
+
+        return newHash;
+    }
+
+    private static long mix(final long hash, final Vector vector) {
+        long newHash = hash;
+        for (final Coefficient coefficient : vector.getValues()) {
+            newHash = mix(newHash, Double.doubleToLongBits(Coefficients.asDouble(coefficient)));
+        }
+
+        return newHash;
+    }
+
+    private static long mix(final long hash, final long value) {
+        return 31 * hash + (value ^ (value >>> 32));
+    }
+
+    /**
+     * Write a vector that may be null, in which case only that is written.
+     */
+    static void writeVector(final DataOutput output, final Vector vector) throws IOException {
+        output.writeBoolean(vector != null);
+        if (vector == null) {
+            return;
+        }
+
+        output.writeInt(vector.length());
+        for (final Coefficient coefficient : vector.getValues()) {
+            output.writeDouble(Coefficients.asDouble(coefficient));
+        }
+    }
+
+    static Vector readVector(final DataInput input) throws IOException {
+        if (!input.readBoolean()) {
+            return null;
+        }
+
+        final Coefficient[] coefficients = new Coefficient[input.readInt()];
+        for (int i = 0; i < coefficients.length; i++) {
+            final double value = input.readDouble();
+            coefficients[i] = value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE
+                    ? Coefficients.from((long) value)
+                    : Coefficients.from(value);
+        }
+
+        return new Vector(coefficients);
+    }
+
+    static void writeNodes(final DataOutput output, final List<Node> nodes) throws IOException {
+        output.writeInt(nodes.size());
+        for (final Node node : nodes) {
+            NodeCodec.write(output, node);
+        }
+    }
+
+    static List<Node> readNodes(final DataInput input) throws IOException {
+        final int numNodes = input.readInt();
+        final List<Node> nodes = new ArrayList<>(numNodes);
+        for (int i = 0; i < numNodes; i++) {
+            nodes.add(NodeCodec.read(input));
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Write the counts of a search's result, everything but its solution.
+     */
+    static void writeStatistics(final DataOutput output, final BranchAndBoundResult result) throws IOException {
+        output.writeLong(result.getNodeCount());
+        output.writeLong(result.getWarmStartCount());
+        output.writeInt(result.getCutRounds().size());
+        for (final CutRound cutRound : result.getCutRounds()) {
+            output.writeInt(cutRound.getRound());
+            output.writeInt(cutRound.getNumCuts());
+            output.writeDouble(cutRound.getBoundBefore());
+            output.writeDouble(cutRound.getBoundAfter());
+        }
+        output.writeLong(result.getTreeCutCount());
+        for (final Heuristic heuristic : Heuristic.values()) {
+            final HeuristicStatistics statistics = result.getHeuristicStatistics().get(heuristic);
+            output.writeLong(statistics.getCalls());
+            output.writeLong(statistics.getSolutions());
+            output.writeLong(statistics.getImprovements());
+            output.writeLong(statistics.getTimeNanos());
+        }
+        for (final BranchingRule rule : BranchingRule.values()) {
+            output.writeLong(result.getBranchingCounts().get(rule));
+        }
+        output.writeLong(result.getPropagationPruneCount());
+        output.writeLong(result.getPropagatedBoundCount());
+        final ConflictStatistics conflictStatistics = result.getConflictStatistics();
+        output.writeLong(conflictStatistics.getConflicts());
+        output.writeLong(conflictStatistics.getEvictions());
+        output.writeLong(conflictStatistics.getPrunedNodes());
+        output.writeLong(conflictStatistics.getTightenedBounds());
+        output.writeInt(result.getSymmetryGeneratorCount());
+        output.writeLong(result.getSymmetryPruneCount());
+    }
+
+    /**
+     * Read the counts written by writeStatistics, as a result without a solution. Workers neither presolve nor
+     * restart, so those counts are zero.
+     */
+    static BranchAndBoundResult readStatistics(final DataInput input) throws IOException {
+        final long nodeCount = input.readLong();
+        final long warmStartCount = input.readLong();
+        final List<CutRound> cutRounds = new ArrayList<>();
+        final int numCutRounds = input.readInt();
+        for (int i = 0; i < numCutRounds; i++) {
+            cutRounds.add(new CutRound(input.readInt(), input.readInt(), input.readDouble(), input.readDouble()));
+        }
+        final long treeCutCount = input.readLong();
+        final Map<Heuristic, HeuristicStatistics> heuristicStatistics = new EnumMap<>(Heuristic.class);
+        for (final Heuristic heuristic : Heuristic.values()) {
+            heuristicStatistics.put(heuristic, new HeuristicStatistics(
+                    input.readLong(),
+                    input.readLong(),
+                    input.readLong(),
+                    input.readLong()
+            ));
+        }
+        final Map<BranchingRule, Long> branchingCounts = new EnumMap<>(BranchingRule.class);
+        for (final BranchingRule rule : BranchingRule.values()) {
+            branchingCounts.put(rule, input.readLong());
+        }
+        final long propagationPruneCount = input.readLong();
+        final long propagatedBoundCount = input.readLong();
+        final ConflictStatistics conflictStatistics = new ConflictStatistics(
+                input.readLong(),
+                input.readLong(),
+                input.readLong(),
+                input.readLong()
+        );
+        final int symmetryGeneratorCount = input.readInt();
+        final long symmetryPruneCount = input.readLong();
+
+        return new BranchAndBoundResult(
+                null,
+                Double.NaN,
+                Double.NaN,
+                SolveStatus.LIMIT,
+                nodeCount,
+                warmStartCount,
+                Collections.unmodifiableList(cutRounds),
+                treeCutCount,
+                Collections.unmodifiableMap(heuristicStatistics),
+                Collections.unmodifiableMap(branchingCounts),
+                propagationPruneCount,
+                propagatedBoundCount,
+                conflictStatistics,
+                symmetryGeneratorCount,
+                symmetryPruneCount,
+                new PresolveStatistics(0, 0, 0, 0, 0),
+                0
+        );
+    }
+}
@@ -0,0 +1,123 @@
+package milp;
+
+import lang.Preconditions;
+import math.Vector;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Searches its share of a branch-and-bound tree for a DistributedCoordinator, in this process or another one.
+ * <p>
+ * The worker searches with a BranchAndBound of its own, whose settings for cuts, heuristics, branching and
+ * propagation apply to its share of the tree. Presolve, restarts and limits don't, since the program has to stay the
+ * same across workers. Its warm starts, pseudocosts and conflicts stay with the worker from one slice to the next.
+ */
+public final class DistributedWorker {
+    private static final long DEFAULT_NODES_PER_SLICE = 64;
+    // Each worker's node ids start at its id shifted by this much, so ids are unique across workers
+    private static final int NODE_ID_BITS = 40;
+
+    private final BranchAndBound branchAndBound;
+    private final long nodesPerSlice;
+
+    private DistributedWorker(final BranchAndBound branchAndBound, final long nodesPerSlice) {
+        this.branchAndBound = branchAndBound;
+        this.nodesPerSlice = nodesPerSlice;
+    }
+
+    /**
+     * Connect to a coordinator solving the same program, and search what it hands out until the solve is over.
+     *
+     * @return how many nodes this worker processed
+     */
+    public long run(final MixedIntegerProgram program, final String host, final int port) {
+        try (Socket socket = new Socket(host, port);
+             DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            output.writeByte(DistributedProtocol.HELLO);
+            output.writeLong(DistributedProtocol.fingerprint(program));
+            output.flush();
+            Preconditions.checkArgument(
+                    input.readByte() == DistributedProtocol.ACCEPT,
+                    "The coordinator is solving a different program"
+            );
+
+            final long firstNodeId = (input.readInt() + 1L) << NODE_ID_BITS;
+            final BranchAndBound.Search search = branchAndBound.createWorkerSearch(program, firstNodeId);
+            List<Node> openNodes = Collections.emptyList();
+            long reportedNodeCount = 0;
+            double reportedScore = Double.NEGATIVE_INFINITY;
+            while (true) {
+                final Incumbent incumbent = search.getIncumbent();
+                final Vector newIncumbent = incumbent.getScore() > reportedScore ? incumbent.getVector() : null;
+                reportedScore = incumbent.getScore();
+                output.writeByte(DistributedProtocol.REPORT);
+                output.writeLong(search.getNodeCount() - reportedNodeCount);
+                output.writeBoolean(search.isUnbounded());
+                output.writeDouble(incumbent.getPrunedScore());
+                DistributedProtocol.writeVector(output, newIncumbent);
+                DistributedProtocol.writeNodes(output, openNodes);
+                DistributedProtocol.writeStatistics(output, search.createResult());
+                output.flush();
+                reportedNodeCount = search.getNodeCount();
+
+                if (input.readByte() != DistributedProtocol.WORK) {
+                    return reportedNodeCount;
+                }
+                final Vector coordinatorIncumbent = DistributedProtocol.readVector(input);
+                if (coordinatorIncumbent != null) {
+                    search.offerIncumbent(coordinatorIncumbent);
+                    reportedScore = Math.max(reportedScore, incumbent.getScore());
+                }
+                openNodes = search.searchSubtrees(DistributedProtocol.readNodes(input), nodesPerSlice);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private BranchAndBound branchAndBound;
+        private long nodesPerSlice;
+
+        private Builder() {
+            this.branchAndBound = BranchAndBound.newBuilder().build();
+            this.nodesPerSlice = DEFAULT_NODES_PER_SLICE;
+        }
+
+        /**
+         * The search settings to use on this worker's share of the tree. Defaults to BranchAndBound's own defaults.
+         */
+        public Builder withBranchAndBound(final BranchAndBound branchAndBound) {
+            this.branchAndBound = branchAndBound;
+            return this;
+        }
+
+        /**
+         * How many nodes to process before handing what's left back to the coordinator. Shorter slices balance the
+         * tree better and pick up new incumbents sooner, at the cost of more messages. Defaults to 64.
+         */
+        public Builder withNodesPerSlice(final long nodesPerSlice) {
+            this.nodesPerSlice = nodesPerSlice;
+            return this;
+        }
+
+        public DistributedWorker build() {
+            Preconditions.checkNotNull(branchAndBound, "Must provide a branch and bound");
+            Preconditions.checkArgument(nodesPerSlice > 0, "Slices must hold at least one node");
+            return new DistributedWorker(branchAndBound, nodesPerSlice);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package milp;
+
+import coefficients.Coefficients;
+import core.PivotJournal;
+import core.WarmStart;
+import math.Vector;
+
+import java.util.Random;
+
+/**
+ * Dives from a node's relaxation towards an integer solution: bound one fractional integer variable at a time to an
+ * integer, re-solve the relaxation from its final tableau, and repeat until the solution is integral. If a bound makes
+ * the relaxation infeasible the variable is bounded the other way instead, and if that fails too the dive is abandoned.
+ * So is a dive whose relaxation can no longer beat the incumbent. The bounds are added to a PivotJournal, so a dive
+ * copies the tableau once, and a bound that fails is rolled back rather than thrown away with a copy.
+ * <p>
+ * Fractional diving bounds the variable closest to an integer to that integer, while guided diving bounds the
+ * variable closest to its value in the incumbent towards that value.
+ */
+final class DivingHeuristic implements PrimalHeuristic {
+    private static final double INTEGRALITY_TOLERANCE = 1e-6;
+
+    private final MixedIntegerProgram program;
+    private final boolean guided;
+
+    DivingHeuristic(final MixedIntegerProgram program, final boolean guided) {
+        this.program = program;
+        this.guided = guided;
+    }
+
+    @Override
+    public Vector findSolution(final WarmStart relaxation,
+                               final double[] solution,
+                               final Incumbent incumbent,
+                               final Random random) {
+        if (relaxation == null || guided && !incumbent.isPresent()) {
+            return null;
+        }
+
+        final double[] incumbentValues = guided ? CutLoop.toArray(incumbent.getVector()) : null;
+        final PivotJournal journal = relaxation.startJournal();
+        double[] currentSolution = solution;
+        for (int step = 0; step < 2 * program.getNumVariables(); step++) {
+            final int variable = findDivingVariable(currentSolution, incumbentValues);
+            if (variable == -1) {
+                return RoundingHeuristic.complete(program, journal, currentSolution);
+            }
+
+            final double value = currentSolution[variable];
+            final boolean roundUp = guided ? incumbentValues[variable] > value : value - Math.floor(value) >= 0.5;
+            final int size = journal.size();
+            WarmStart nextRelaxation = bound(journal, variable, value, roundUp);
+            if (!nextRelaxation.isOptimal()) {
+                journal.rollback(size);
+                nextRelaxation = bound(journal, variable, value, !roundUp);
+            }
+            // A dive whose dual simplex was cut short is given up, rather than paying for a solve from scratch
+            if (!nextRelaxation.isOptimal() || !canImprove(nextRelaxation.getOptimalValue(), incumbent)) {
+                return null;
+            }
+
+            currentSolution = CutLoop.toArray(nextRelaxation.getOptimalSolution());
+        }
+
+        return null;
+    }
+
+    /**
+     * The fractional integer variable to bound next, or -1 if there are none.
+     */
+    private int findDivingVariable(final double[] solution, final double[] incumbentValues) {
+        int divingVariable = -1;
+        double minimumDistance = Double.POSITIVE_INFINITY;
+        for (int variable = 0; variable < solution.length; variable++) {
+            final double fractionalPart = solution[variable] - Math.floor(solution[variable]);
+            if (!program.isIntegerVariable(variable)
+                    || fractionalPart <= INTEGRALITY_TOLERANCE
+                    || fractionalPart >= 1 - INTEGRALITY_TOLERANCE) {
+                continue;
+            }
+
+            final double distance = incumbentValues == null
+                    ? Math.min(fractionalPart, 1 - fractionalPart)
+                    : Math.abs(solution[variable] - incumbentValues[variable]);
+            if (distance < minimumDistance) {
+                divingVariable = variable;
+                minimumDistance = distance;
+            }
+        }
+
+        return divingVariable;
+    }
+
+    private WarmStart bound(final PivotJournal journal,
+                            final int variable,
+                            final double value,
+                            final boolean roundUp) {
+        final Vector unitVector = program.createUnitVector(variable);
+        return roundUp
+                ? journal.addGreaterThanInequality(unitVector, Coefficients.from((long) Math.ceil(value)))
+                : journal.addLessThanInequality(unitVector, Coefficients.from((long) Math.floor(value)));
+    }
+
+    private boolean canImprove(final double objectiveValue, final Incumbent incumbent) {
+        final double score = program.isMaximization() ? objectiveValue : -objectiveValue;
+        return !incumbent.isPresent() || score > incumbent.getScore();
+    }
+}
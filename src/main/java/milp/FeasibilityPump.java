@@ -0,0 +1,173 @@
+package milp;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import core.PivotJournal;
+import core.Simplex;
+import core.SimplexEngine;
+import core.WarmStart;
+import math.Vector;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * The feasibility pump: round the relaxation's solution, then find the point of the relaxation closest to the rounded
+ * one in the L1 norm, and repeat until the rounded point is feasible.
+ * <p>
+ * The distance to a binary x is x or 1 - x, depending on which way it was rounded, which is linear as is. For a general
+ * integer x rounded to r, a variable d >= |x - r| is added, through d - x >= -r and d + x >= r. When the rounding stops
+ * changing, the pump is stuck in a cycle, and the integer variables furthest from their rounded values are flipped.
+ */
+final class FeasibilityPump implements PrimalHeuristic {
+    private static final int MAX_ITERATIONS = 20;
+    // How many variables are flipped to break out of a cycle
+    private static final int FLIPS = 10;
+
+    private final MixedIntegerProgram program;
+
+    FeasibilityPump(final MixedIntegerProgram program) {
+        this.program = program;
+    }
+
+    @Override
+    public Vector findSolution(final WarmStart relaxation,
+                               final double[] solution,
+                               final Incumbent incumbent,
+                               final Random random) {
+        final PivotJournal journal = RoundingHeuristic.startJournal(program, relaxation);
+        double[] currentSolution = solution;
+        double[] previousRounding = null;
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            final double[] rounding = round(currentSolution);
+            if (previousRounding != null && Arrays.equals(rounding, previousRounding)) {
+                flip(rounding, currentSolution, random);
+            }
+
+            final Vector feasibleSolution = RoundingHeuristic.complete(program, journal, rounding);
+            if (feasibleSolution != null) {
+                return feasibleSolution;
+            }
+
+            currentSolution = findClosestPoint(rounding);
+            if (currentSolution == null) {
+                return null;
+            }
+            previousRounding = rounding;
+        }
+
+        return null;
+    }
+
+    private double[] round(final double[] solution) {
+        final double[] rounding = solution.clone();
+        for (int variable = 0; variable < rounding.length; variable++) {
+            if (program.isIntegerVariable(variable)) {
+                rounding[variable] = Math.rint(rounding[variable]);
+            }
+        }
+
+        return rounding;
+    }
+
+    /**
+     * Move the integer variables furthest from their rounded values one step towards them, ties broken randomly.
+     * Binaries simply flip.
+     */
+    private void flip(final double[] rounding, final double[] solution, final Random random) {
+        final double[] noise = new double[rounding.length];
+        for (int variable = 0; variable < noise.length; variable++) {
+            noise[variable] = random.nextDouble() * 1e-6;
+        }
+
+        IntStream.range(0, rounding.length)
+                .filter(program::isIntegerVariable)
+                .boxed()
+                .sorted(Comparator.comparingDouble(
+                        (Integer variable) -> Math.abs(solution[variable] - rounding[variable]) + noise[variable])
+                        .reversed())
+                .limit(FLIPS)
+                .forEach(variable -> rounding[variable] = flip(variable, rounding[variable], solution[variable]));
+    }
+
+    private double flip(final int variable, final double rounded, final double value) {
+        if (program.isBinaryVariable(variable)) {
+            return 1 - rounded;
+        }
+
+        return value > rounded ? rounded + 1 : Math.max(0, rounded - 1);
+    }
+
+    /**
+     * Solve min sum_j |x_j - r_j| over the integer variables, subject to the program's constraints. Returns the values
+     * of the real variables, or null if the relaxation is infeasible.
+     */
+    private double[] findClosestPoint(final double[] rounding) {
+        final int numVariables = program.getNumVariables();
+        final int[] distanceVariables = new int[numVariables];
+        int numDistanceVariables = 0;
+        for (int variable = 0; variable < numVariables; variable++) {
+            final boolean needsDistance = program.isIntegerVariable(variable) && !program.isBinaryVariable(variable);
+            distanceVariables[variable] = needsDistance ? numVariables + numDistanceVariables++ : -1;
+        }
+
+        final int width = numVariables + numDistanceVariables;
+        final double[] costs = new double[width];
+        for (int variable = 0; variable < numVariables; variable++) {
+            if (distanceVariables[variable] != -1) {
+                costs[distanceVariables[variable]] = 1d;
+            } else if (program.isBinaryVariable(variable)) {
+                costs[variable] = rounding[variable] >= 1 ? -1d : 1d;
+            }
+        }
+
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .withEngine(SimplexEngine.DOUBLE)
+                .minimizeCostFunction()
+                .withCostVector(createVector(costs));
+        for (int i = 0; i < program.getLessThanInequalities().size(); i++) {
+            builder.addLessThanInequality(pad(program.getLessThanInequalities().get(i), width),
+                    program.getLessThanConstants().get(i));
+        }
+        for (int i = 0; i < program.getEqualities().size(); i++) {
+            builder.addEquality(pad(program.getEqualities().get(i), width), program.getEqualityConstants().get(i));
+        }
+        for (int i = 0; i < program.getGreaterThanInequalities().size(); i++) {
+            builder.addGreaterThanInequality(pad(program.getGreaterThanInequalities().get(i), width),
+                    program.getGreaterThanConstants().get(i));
+        }
+        for (int variable = 0; variable < numVariables; variable++) {
+            if (distanceVariables[variable] == -1) {
+                continue;
+            }
+
+            final double[] aboveRow = new double[width];
+            aboveRow[distanceVariables[variable]] = 1d;
+            aboveRow[variable] = -1d;
+            builder.addGreaterThanInequality(createVector(aboveRow), Coefficients.from(-rounding[variable]));
+            final double[] belowRow = new double[width];
+            belowRow[distanceVariables[variable]] = 1d;
+            belowRow[variable] = 1d;
+            builder.addGreaterThanInequality(createVector(belowRow), Coefficients.from(rounding[variable]));
+        }
+
+        final Simplex simplex = builder.build();
+        if (!simplex.isFeasible()) {
+            return null;
+        }
+
+        return Arrays.copyOf(CutLoop.toArray(simplex.getOptimalSolution()), numVariables);
+    }
+
+    private static Vector pad(final Vector row, final int width) {
+        final Coefficient[] coefficients = Arrays.copyOf(row.getValues(), width);
+        Arrays.fill(coefficients, row.length(), width, Coefficients.ZERO);
+        return new Vector(coefficients);
+    }
+
+    private static Vector createVector(final double[] values) {
+        return RoundingHeuristic.toVector(values);
+    }
+}
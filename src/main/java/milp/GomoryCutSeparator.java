@@ -0,0 +1,161 @@
+package milp;
+
+import core.WarmStart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Separates Gomory mixed-integer cuts, read straight off the rows of the final tableau.
+ * <p>
+ * A row whose basis variable x_i is an integer with a fractional value b reads x_i + sum_j a_j v_j = b over the
+ * non-basic variables v_j, which are all zero in the relaxation's solution. With f = frac(b), every integer feasible
+ * solution satisfies sum_j g_j v_j >= 1, where g_j is frac(a_j) / f if v_j is an integer with frac(a_j) <= f, or
+ * (1 - frac(a_j)) / (1 - f) if it's an integer with a bigger fractional part. For a continuous v_j it's a_j / f if a_j
+ * is non-negative and -a_j / (1 - f) otherwise. Slack variables are treated as continuous, and substituted away so the
+ * cut is over the real variables only.
+ */
+final class GomoryCutSeparator implements CutSeparator {
+    // Rows whose basis variable is closer than this to an integer give numerically unreliable cuts
+    private static final double MIN_FRACTIONALITY = 0.005;
+    // Cuts whose largest and smallest coefficients are further apart than this are numerically unreliable too
+    private static final double MAX_DYNAMISM = 1e8;
+    private static final double ZERO_TOLERANCE = 1e-12;
+    // Coefficients this much smaller than the largest one of their cut are round-off, and are dropped
+    private static final double MIN_RELATIVE_COEFFICIENT = 1e-9;
+    // Coefficients this close, relative to their size, to a fraction with a denominator of at most MAX_DENOMINATOR
+    // are rounded to it
+    private static final double RATIONAL_TOLERANCE = 1e-9;
+    private static final int MAX_DENOMINATOR = 64;
+    // The constant of every cut is relaxed by this much, relative to the size of the cut, to make up for round-off
+    private static final double SAFETY_MARGIN = 1e-6;
+
+    private final MixedIntegerProgram program;
+
+    GomoryCutSeparator(final MixedIntegerProgram program) {
+        this.program = program;
+    }
+
+    @Override
+    public List<Cut> separate(final WarmStart relaxation, final double[] solution) {
+        final List<Cut> cuts = new ArrayList<>();
+        final int[] basisVariables = relaxation.getBasisVariables();
+        final boolean[] isBasic = new boolean[relaxation.getNumVariables()];
+        for (final int basisVariable : basisVariables) {
+            isBasic[basisVariable] = true;
+        }
+
+        for (int row = 0; row < basisVariables.length; row++) {
+            final int basisVariable = basisVariables[row];
+            if (basisVariable >= program.getNumVariables() || !program.isIntegerVariable(basisVariable)) {
+                continue;
+            }
+
+            final double value = relaxation.getValue(row);
+            final double fractionality = value - Math.floor(value);
+            if (fractionality < MIN_FRACTIONALITY || fractionality > 1 - MIN_FRACTIONALITY) {
+                continue;
+            }
+
+            final Cut cut = createCut(relaxation, row, fractionality, isBasic);
+            if (cut != null) {
+                cuts.add(cut);
+            }
+        }
+
+        return cuts;
+    }
+
+    /**
+     * The cut of a single row, or null if it's numerically unreliable.
+     */
+    private Cut createCut(final WarmStart relaxation,
+                          final int row,
+                          final double fractionality,
+                          final boolean[] isBasic) {
+        final double[] coefficients = new double[relaxation.getNumVariables()];
+        for (int variable = 0; variable < coefficients.length; variable++) {
+            if (isBasic[variable] || relaxation.isDropped(variable)) {
+                continue;
+            }
+
+            final double coefficient = relaxation.getCoefficient(row, variable);
+            if (Math.abs(coefficient) <= ZERO_TOLERANCE) {
+                continue;
+            }
+
+            final boolean isInteger = variable < program.getNumVariables() && program.isIntegerVariable(variable);
+            if (isInteger) {
+                final double coefficientFractionality = coefficient - Math.floor(coefficient);
+                coefficients[variable] = coefficientFractionality <= fractionality
+                        ? coefficientFractionality / fractionality
+                        : (1 - coefficientFractionality) / (1 - fractionality);
+            } else {
+                coefficients[variable] = coefficient >= 0
+                        ? coefficient / fractionality
+                        : -coefficient / (1 - fractionality);
+            }
+        }
+
+        final double[] projection = relaxation.projectOntoRealVariables(coefficients, 1d);
+        double largestCoefficient = 0d;
+        for (int variable = 0; variable < program.getNumVariables(); variable++) {
+            largestCoefficient = Math.max(largestCoefficient, Math.abs(projection[variable + 1]));
+        }
+        if (largestCoefficient == 0d) {
+            return null;
+        }
+
+        final double[] cutCoefficients = new double[program.getNumVariables()];
+        double constant = projection[0];
+        double smallestCoefficient = Double.POSITIVE_INFINITY;
+        for (int variable = 0; variable < cutCoefficients.length; variable++) {
+            final double coefficient = projection[variable + 1];
+            double cleanCoefficient = Math.abs(coefficient) < MIN_RELATIVE_COEFFICIENT * largestCoefficient
+                    ? 0d
+                    : roundToRational(coefficient);
+            // Raising a coefficient of a non-negative variable only weakens the cut, but lowering one strengthens it
+            // by up to the drop times the variable's upper bound, which the constant has to give back
+            final double drop = coefficient - cleanCoefficient;
+            if (drop > 0d) {
+                final double upperBound = program.getUpperBound(variable);
+                if (upperBound == Double.POSITIVE_INFINITY) {
+                    cleanCoefficient = coefficient;
+                } else {
+                    constant -= drop * upperBound;
+                }
+            }
+            if (cleanCoefficient != 0d) {
+                smallestCoefficient = Math.min(smallestCoefficient, Math.abs(cleanCoefficient));
+            }
+            cutCoefficients[variable] = cleanCoefficient;
+        }
+
+        if (smallestCoefficient == Double.POSITIVE_INFINITY
+                || largestCoefficient / smallestCoefficient > MAX_DYNAMISM) {
+            return null;
+        }
+
+        // The margin is far wider than the rounding of the constant, so rounding it up is safe too
+        constant = roundToRational(constant);
+        constant -= SAFETY_MARGIN * Math.max(1d, Math.max(Math.abs(constant), largestCoefficient));
+        return new Cut(cutCoefficients, constant);
+    }
+
+    /**
+     * Snap a value to the closest fraction with a small denominator, if it's within round-off of one. A cut read off
+     * a tableau of integer data is made of such fractions, and snapping them keeps round-off from piling up from one
+     * round of cuts to the next.
+     */
+    private static double roundToRational(final double value) {
+        final double tolerance = RATIONAL_TOLERANCE * Math.max(1d, Math.abs(value));
+        for (int denominator = 1; denominator <= MAX_DENOMINATOR; denominator++) {
+            final double rational = Math.round(value * denominator) / (double) denominator;
+            if (Math.abs(value - rational) <= tolerance) {
+                return rational;
+            }
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,35 @@
+package milp;
+
+/**
+ * The primal heuristics branch-and-bound can run on a node's relaxation, to find good integer solutions early so that
+ * the rest of the tree can be pruned against them.
+ */
+public enum Heuristic {
+    /**
+     * Round every integer variable to the nearest integer. Cheap enough to run at every node.
+     */
+    ROUNDING,
+
+    /**
+     * Round every integer variable up with a probability equal to its fractional part, a few times over.
+     */
+    RANDOMIZED_ROUNDING,
+
+    /**
+     * Repeatedly bound the integer variable that's closest to an integer to that integer, re-solving the relaxation
+     * each time, until it's integral or infeasible.
+     */
+    FRACTIONAL_DIVING,
+
+    /**
+     * Dive like FRACTIONAL_DIVING, but towards the incumbent: bound the variable that's closest to its value in the
+     * incumbent. Only runs once there is one.
+     */
+    GUIDED_DIVING,
+
+    /**
+     * Alternate between rounding the relaxation's solution and finding the solution of the relaxation that's closest
+     * to the rounded point, until they meet. Expensive, so it's meant for the root.
+     */
+    FEASIBILITY_PUMP
+}
@@ -0,0 +1,43 @@
+package milp;
+
+/**
+ * How often one primal heuristic ran during a search, and how well it did.
+ */
+public final class HeuristicStatistics {
+    private final long calls;
+    private final long solutions;
+    private final long improvements;
+    private final long timeNanos;
+
+    HeuristicStatistics(final long calls, final long solutions, final long improvements, final long timeNanos) {
+        this.calls = calls;
+        this.solutions = solutions;
+        this.improvements = improvements;
+        this.timeNanos = timeNanos;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * How many of the calls found a feasible solution.
+     */
+    public long getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * How many of those solutions were better than the incumbent at the time, and replaced it.
+     */
+    public long getImprovements() {
+        return improvements;
+    }
+
+    /**
+     * The total time spent in the heuristic.
+     */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+}
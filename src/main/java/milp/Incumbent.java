@@ -0,0 +1,85 @@
+package milp;
+
+import math.Vector;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The best integer solution found so far, shared by every worker of a search without any locks.
+ * <p>
+ * Scores are maximized. Alongside the solution we keep the best bound of any node pruned only because of the gap
+ * tolerance, since the search can no longer prove anything better than that.
+ */
+final class Incumbent {
+    private final AtomicReference<Solution> solution;
+    private final AtomicLong prunedScoreBits;
+
+    Incumbent() {
+        this.solution = new AtomicReference<>();
+        this.prunedScoreBits = new AtomicLong(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+    }
+
+    /**
+     * Replace the incumbent if the given solution beats it, and return whether it did.
+     */
+    boolean offer(final Vector vector, final double score) {
+        final Solution candidate = new Solution(vector, score);
+        while (true) {
+            final Solution current = solution.get();
+            if (current != null && current.score >= score) {
+                return false;
+            }
+            if (solution.compareAndSet(current, candidate)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Note that a node with the given bound was pruned although it might have held a slightly better solution.
+     */
+    void recordPrunedScore(final double score) {
+        while (true) {
+            final long currentBits = prunedScoreBits.get();
+            if (Double.longBitsToDouble(currentBits) >= score
+                    || prunedScoreBits.compareAndSet(currentBits, Double.doubleToLongBits(score))) {
+                return;
+            }
+        }
+    }
+
+    boolean isPresent() {
+        return solution.get() != null;
+    }
+
+    Vector getVector() {
+        final Solution current = solution.get();
+        return current == null ? null : current.vector;
+    }
+
+    /**
+     * The score of the incumbent, or -infinity without one.
+     */
+    double getScore() {
+        final Solution current = solution.get();
+        return current == null ? Double.NEGATIVE_INFINITY : current.score;
+    }
+
+    double getPrunedScore() {
+        return Double.longBitsToDouble(prunedScoreBits.get());
+    }
+
+    /**
+     * A solution and its score, swapped in as one so readers never see one without the other.
+     */
+    private static final class Solution {
+        private final Vector vector;
+        private final double score;
+
+        private Solution(final Vector vector, final double score) {
+            this.vector = vector;
+            this.score = score;
+        }
+    }
+}
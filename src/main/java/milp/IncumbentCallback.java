@@ -0,0 +1,17 @@
+package milp;
+
+import math.Vector;
+
+/**
+ * Notified whenever a branch-and-bound solve finds a better integer solution.
+ * <p>
+ * Calls come from whichever thread found the solution, but never two at a time, and each one reports a better
+ * solution than the last. The search waits for the callback to return, so it should be quick.
+ */
+public interface IncumbentCallback {
+    /**
+     * @param solution the new incumbent
+     * @param value its objective value
+     */
+    void onIncumbent(Vector solution, double value);
+}
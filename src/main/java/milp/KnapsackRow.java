@@ -0,0 +1,125 @@
+package milp;
+
+import coefficients.Coefficients;
+import math.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A constraint over binary variables only, written as a knapsack: sum_j w_j l_j <= c with every weight w_j > 0. Each
+ * literal l_j is either a variable x_j, or its complement 1 - x_j where the constraint had a negative coefficient.
+ * <p>
+ * Any row of a program over binaries alone reads as one: a less than inequality as is, a greater than inequality
+ * negated, and an equality both ways.
+ */
+final class KnapsackRow {
+    private final int[] variables;
+    private final double[] weights;
+    private final boolean[] complemented;
+    private final double capacity;
+
+    private KnapsackRow(final int[] variables,
+                        final double[] weights,
+                        final boolean[] complemented,
+                        final double capacity) {
+        this.variables = variables;
+        this.weights = weights;
+        this.complemented = complemented;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Every row of the program that reads as a knapsack with at least two items that don't all fit.
+     */
+    static List<KnapsackRow> extractAll(final MixedIntegerProgram program) {
+        final List<KnapsackRow> rows = new ArrayList<>();
+        for (int i = 0; i < program.getLessThanInequalities().size(); i++) {
+            addIfKnapsack(rows, program, program.getLessThanInequalities().get(i),
+                    Coefficients.asDouble(program.getLessThanConstants().get(i)), 1d);
+        }
+        for (int i = 0; i < program.getEqualities().size(); i++) {
+            final double constant = Coefficients.asDouble(program.getEqualityConstants().get(i));
+            addIfKnapsack(rows, program, program.getEqualities().get(i), constant, 1d);
+            addIfKnapsack(rows, program, program.getEqualities().get(i), constant, -1d);
+        }
+        for (int i = 0; i < program.getGreaterThanInequalities().size(); i++) {
+            addIfKnapsack(rows, program, program.getGreaterThanInequalities().get(i),
+                    Coefficients.asDouble(program.getGreaterThanConstants().get(i)), -1d);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Add the knapsack sign * a^x <= sign * b, if it is one.
+     */
+    private static void addIfKnapsack(final List<KnapsackRow> rows,
+                                      final MixedIntegerProgram program,
+                                      final Vector row,
+                                      final double constant,
+                                      final double sign) {
+        final List<Integer> variables = new ArrayList<>();
+        final List<Double> weights = new ArrayList<>();
+        double capacity = sign * constant;
+        double totalWeight = 0d;
+        for (int variable = 0; variable < row.length(); variable++) {
+            final double coefficient = sign * Coefficients.asDouble(row.get(variable));
+            if (coefficient == 0d) {
+                continue;
+            }
+            if (!program.isBinaryVariable(variable)) {
+                return;
+            }
+
+            variables.add(variable);
+            weights.add(coefficient);
+            totalWeight += Math.abs(coefficient);
+            if (coefficient < 0) {
+                // w x = w - w (1 - x), so the complement gets weight -w and the capacity goes up by it
+                capacity -= coefficient;
+            }
+        }
+
+        if (variables.size() < 2 || capacity < 0 || totalWeight <= capacity) {
+            return;
+        }
+
+        final int[] variableArray = new int[variables.size()];
+        final double[] weightArray = new double[variables.size()];
+        final boolean[] complementedArray = new boolean[variables.size()];
+        for (int i = 0; i < variableArray.length; i++) {
+            variableArray[i] = variables.get(i);
+            weightArray[i] = Math.abs(weights.get(i));
+            complementedArray[i] = weights.get(i) < 0;
+        }
+        rows.add(new KnapsackRow(variableArray, weightArray, complementedArray, capacity));
+    }
+
+    int size() {
+        return variables.length;
+    }
+
+    int getVariable(final int item) {
+        return variables[item];
+    }
+
+    double getWeight(final int item) {
+        return weights[item];
+    }
+
+    boolean isComplemented(final int item) {
+        return complemented[item];
+    }
+
+    double getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The value of an item's literal in a solution.
+     */
+    double getValue(final int item, final double[] solution) {
+        return complemented[item] ? 1 - solution[variables[item]] : solution[variables[item]];
+    }
+}
@@ -0,0 +1,734 @@
+package milp;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import core.Simplex;
+import core.SimplexEngine;
+import lang.Preconditions;
+import math.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounds a MixedIntegerProgram by Lagrangian relaxation: a few of its rows, typically the ones linking otherwise
+ * independent blocks of variables, are dualized, i.e. moved into the objective weighted by a multiplier each. What's
+ * left decomposes into one subproblem per block, which are solved on their own, and whose optimal values add up to a
+ * bound on the program for any multipliers that are non-negative on the dualized inequalities. The multipliers are then
+ * moved, by subgradient or bundle steps, to make that bound as tight as possible.
+ * <p>
+ * With integer subproblems, solved by branch-and-bound, the bound is at least as tight as the LP relaxation, and
+ * tighter whenever the blocks' own relaxations aren't integral. With LP subproblems, solved as a Simplex, it's never
+ * tighter than the LP relaxation, but is much cheaper when the blocks are large.
+ * <p>
+ * Internally every objective is maximized, so the bound is an upper one to be lowered, and a dualized row
+ * a x <= b contributes a multiplier times (b - a x) to the objective. A greater than inequality is flipped first, and
+ * the multiplier of an equality can take either sign.
+ */
+public final class LagrangianRelaxation {
+    private static final int DEFAULT_MAX_ITERATIONS = 100;
+    // How far a subproblem's solution can be outside a dualized row and still satisfy it
+    private static final double FEASIBILITY_TOLERANCE = 1e-9;
+    // The bound has converged once it's within this of the best solution, relative to the bound
+    private static final double CONVERGENCE_TOLERANCE = 1e-6;
+    // The subgradient step starts at this multiple of the Polyak step, and is halved whenever the bound stalls
+    private static final double INITIAL_STEP_SCALE = 2d;
+    private static final double MIN_STEP_SCALE = 1e-4;
+    // How many steps the bound can go without improving before the subgradient step is halved
+    private static final int STALLED_STEPS = 5;
+    // Without a solution to aim at, the Polyak step aims this far below the bound, relative to the bound
+    private static final double TARGET_GAP = 0.05;
+    // A bundle step to a point whose bound fell by at least this share of what the model predicted moves the center
+    private static final double SERIOUS_STEP_FRACTION = 0.1;
+    private static final int MAX_BUNDLE_SIZE = 50;
+
+    private final int[] lessThanRows;
+    private final int[] equalityRows;
+    private final int[] greaterThanRows;
+    private final MultiplierUpdate multiplierUpdate;
+    private final int maxIterations;
+    private final boolean integerSubproblems;
+
+    private LagrangianRelaxation(final int[] lessThanRows,
+                                 final int[] equalityRows,
+                                 final int[] greaterThanRows,
+                                 final MultiplierUpdate multiplierUpdate,
+                                 final int maxIterations,
+                                 final boolean integerSubproblems) {
+        this.lessThanRows = lessThanRows;
+        this.equalityRows = equalityRows;
+        this.greaterThanRows = greaterThanRows;
+        this.multiplierUpdate = multiplierUpdate;
+        this.maxIterations = maxIterations;
+        this.integerSubproblems = integerSubproblems;
+    }
+
+    public LagrangianResult solve(final MixedIntegerProgram program) {
+        checkRows(lessThanRows, program.getLessThanInequalities().size());
+        checkRows(equalityRows, program.getEqualities().size());
+        checkRows(greaterThanRows, program.getGreaterThanInequalities().size());
+        return new Relaxation(program).run();
+    }
+
+    private static void checkRows(final int[] rows, final int numRows) {
+        for (final int row : rows) {
+            Preconditions.checkArgument(row < numRows, "Row " + row + " is not in the program");
+        }
+    }
+
+    /**
+     * The subproblems at one set of multipliers: their combined solution, the bound it proves, and the subgradient of
+     * the bound there, which is how far the solution is inside each dualized row. The bound is positive infinity if
+     * the subproblems are unbounded, and negative infinity if they're infeasible, neither of which has a subgradient.
+     */
+    private static final class Evaluation {
+        private final double[] multipliers;
+        private final double bound;
+        private final double[] subgradient;
+
+        private Evaluation(final double[] multipliers, final double bound, final double[] subgradient) {
+            this.multipliers = multipliers;
+            this.bound = bound;
+            this.subgradient = subgradient;
+        }
+
+        private boolean isFinite() {
+            return subgradient != null;
+        }
+
+        /**
+         * The bound is at least this linear function of the multipliers everywhere, and equal to it here.
+         */
+        private double getCutConstant() {
+            return bound - dotProduct(subgradient, multipliers);
+        }
+    }
+
+    /**
+     * A block of variables that no kept row links to any other, and the kept rows over it.
+     */
+    private static final class Block {
+        private final int[] variables;
+        private final MixedIntegerProgram.Builder subproblemBuilder;
+
+        private Block(final int[] variables, final MixedIntegerProgram.Builder subproblemBuilder) {
+            this.variables = variables;
+            this.subproblemBuilder = subproblemBuilder;
+        }
+
+        /**
+         * Maximize the reduced costs over the block, writing its part of the solution, and return a proven upper bound
+         * on the maximum: -infinity if the block is infeasible, and infinity if it's unbounded or wasn't solved. The
+         * bound is the search's best bound rather than the value of its incumbent, which is only a lower bound.
+         */
+        private double solve(final BranchAndBound branchAndBound,
+                                  final double[] reducedCosts,
+                                  final double[] solution) {
+            final Vector.Builder costBuilder = Vector.newBuilder();
+            for (final int variable : variables) {
+                costBuilder.addCoefficient(reducedCosts[variable]);
+            }
+            final MixedIntegerProgram subproblem = subproblemBuilder.withCostVector(costBuilder.build()).build();
+
+            final Vector subproblemSolution;
+            final double value;
+            if (branchAndBound != null) {
+                final BranchAndBoundResult result = branchAndBound.solve(subproblem);
+                if (result.getStatus() != SolveStatus.OPTIMAL) {
+                    return result.getStatus() == SolveStatus.INFEASIBLE
+                            ? Double.NEGATIVE_INFINITY
+                            : Double.POSITIVE_INFINITY;
+                }
+                subproblemSolution = result.getIncumbent().get();
+                value = result.getBestBound();
+            } else {
+                final Simplex relaxation = subproblem.solveRelaxation(Node.root());
+                if (!relaxation.isFeasible()) {
+                    return Double.NEGATIVE_INFINITY;
+                }
+                if (!relaxation.isBounded()) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                subproblemSolution = relaxation.getOptimalSolution();
+                value = relaxation.getOptimalValue();
+            }
+
+            for (int i = 0; i < variables.length; i++) {
+                solution[variables[i]] = Coefficients.asDouble(subproblemSolution.get(i));
+            }
+            return value;
+        }
+    }
+
+    /**
+     * The state of a single solve.
+     */
+    private final class Relaxation {
+        private final MixedIntegerProgram program;
+        // The objective, maximized
+        private final double[] costs;
+        // The dualized rows as a x <= b, or a x = b for equalities
+        private final double[][] rows;
+        private final double[] constants;
+        private final boolean[] isEquality;
+        private final List<Block> blocks;
+        // Variables in no kept row, which are only bounded by their reduced costs
+        private final List<Integer> freeVariables;
+        // Set if a kept row over no variables at all can't be satisfied
+        private final boolean isInfeasible;
+        private final BranchAndBound branchAndBound;
+        private int iterations;
+        private Evaluation best;
+        private double[] bestSolution;
+        private double bestSolutionScore;
+
+        private Relaxation(final MixedIntegerProgram program) {
+            this.program = program;
+            final int numVariables = program.getNumVariables();
+            this.costs = new double[numVariables];
+            for (int variable = 0; variable < numVariables; variable++) {
+                final double cost = Coefficients.asDouble(program.getCostVector().get(variable));
+                costs[variable] = program.isMaximization() ? cost : -cost;
+            }
+
+            final int numRows = lessThanRows.length + equalityRows.length + greaterThanRows.length;
+            this.rows = new double[numRows][];
+            this.constants = new double[numRows];
+            this.isEquality = new boolean[numRows];
+            int row = 0;
+            for (final int i : lessThanRows) {
+                setRow(row++, program.getLessThanInequalities().get(i), program.getLessThanConstants().get(i), 1);
+            }
+            for (final int i : equalityRows) {
+                isEquality[row] = true;
+                setRow(row++, program.getEqualities().get(i), program.getEqualityConstants().get(i), 1);
+            }
+            for (final int i : greaterThanRows) {
+                final Vector inequality = program.getGreaterThanInequalities().get(i);
+                setRow(row++, inequality, program.getGreaterThanConstants().get(i), -1);
+            }
+
+            final List<Vector> keptRows = new ArrayList<>();
+            final List<ConstantCoefficient> keptConstants = new ArrayList<>();
+            final List<Integer> keptTypes = new ArrayList<>();
+            // Every list is collected, even once one has an infeasible row
+            this.isInfeasible = addKeptRows(program.getLessThanInequalities(), program.getLessThanConstants(),
+                    lessThanRows, -1, keptRows, keptConstants, keptTypes)
+                    | addKeptRows(program.getEqualities(), program.getEqualityConstants(),
+                    equalityRows, 0, keptRows, keptConstants, keptTypes)
+                    | addKeptRows(program.getGreaterThanInequalities(), program.getGreaterThanConstants(),
+                    greaterThanRows, 1, keptRows, keptConstants, keptTypes);
+
+            this.blocks = new ArrayList<>();
+            this.freeVariables = new ArrayList<>();
+            createBlocks(keptRows, keptConstants, keptTypes);
+            this.branchAndBound = integerSubproblems
+                    ? BranchAndBound.newBuilder().withPresolve(false).withSymmetryBreaking(false).build()
+                    : null;
+            this.bestSolutionScore = Double.NEGATIVE_INFINITY;
+        }
+
+        private void setRow(final int row, final Vector vector, final ConstantCoefficient constant, final int sign) {
+            rows[row] = new double[vector.length()];
+            for (int variable = 0; variable < vector.length(); variable++) {
+                rows[row][variable] = sign * Coefficients.asDouble(vector.get(variable));
+            }
+            constants[row] = sign * Coefficients.asDouble(constant);
+        }
+
+        /**
+         * Collect the rows that aren't dualized, with their type: -1 for less than, 0 for equal, 1 for greater than.
+         * Rows over no variables are checked on the spot instead, and if one can't be satisfied this returns true.
+         */
+        private boolean addKeptRows(final List<Vector> rowsOfType,
+                                 final List<ConstantCoefficient> constantsOfType,
+                                 final int[] dualizedRows,
+                                 final int type,
+                                 final List<Vector> keptRows,
+                                 final List<ConstantCoefficient> keptConstants,
+                                 final List<Integer> keptTypes) {
+            final boolean[] isDualized = new boolean[rowsOfType.size()];
+            for (final int row : dualizedRows) {
+                isDualized[row] = true;
+            }
+
+            boolean isViolated = false;
+            for (int row = 0; row < rowsOfType.size(); row++) {
+                if (isDualized[row]) {
+                    continue;
+                }
+
+                final double constant = Coefficients.asDouble(constantsOfType.get(row));
+                if (isEmpty(rowsOfType.get(row))) {
+                    isViolated |= type < 0 ? constant < 0 : type > 0 ? constant > 0 : constant != 0;
+                } else {
+                    keptRows.add(rowsOfType.get(row));
+                    keptConstants.add(constantsOfType.get(row));
+                    keptTypes.add(type);
+                }
+            }
+
+            return isViolated;
+        }
+
+        /**
+         * Split the variables into blocks, by finding the connected components of the graph whose edges are the kept
+         * rows, and give each block a subproblem builder holding its rows.
+         */
+        private void createBlocks(final List<Vector> keptRows,
+                                  final List<ConstantCoefficient> keptConstants,
+                                  final List<Integer> keptTypes) {
+            final int numVariables = program.getNumVariables();
+            final int[] parents = new int[numVariables];
+            final boolean[] isInRow = new boolean[numVariables];
+            for (int variable = 0; variable < numVariables; variable++) {
+                parents[variable] = variable;
+            }
+            for (final Vector row : keptRows) {
+                int first = -1;
+                for (int variable = 0; variable < numVariables; variable++) {
+                    if (Coefficients.asDouble(row.get(variable)) != 0d) {
+                        isInRow[variable] = true;
+                        if (first == -1) {
+                            first = variable;
+                        } else {
+                            parents[find(parents, variable)] = find(parents, first);
+                        }
+                    }
+                }
+            }
+
+            // Each block's variables in increasing order, and each variable's index within its block
+            final int[] blockOfRoot = new int[numVariables];
+            Arrays.fill(blockOfRoot, -1);
+            final List<List<Integer>> blockVariables = new ArrayList<>();
+            final int[] localIndices = new int[numVariables];
+            for (int variable = 0; variable < numVariables; variable++) {
+                if (!isInRow[variable]) {
+                    freeVariables.add(variable);
+                    continue;
+                }
+
+                final int root = find(parents, variable);
+                if (blockOfRoot[root] == -1) {
+                    blockOfRoot[root] = blockVariables.size();
+                    blockVariables.add(new ArrayList<>());
+                }
+                final List<Integer> variables = blockVariables.get(blockOfRoot[root]);
+                localIndices[variable] = variables.size();
+                variables.add(variable);
+            }
+
+            final List<MixedIntegerProgram.Builder> builders = new ArrayList<>();
+            for (final List<Integer> variables : blockVariables) {
+                final MixedIntegerProgram.Builder builder = MixedIntegerProgram.newBuilder().maximizeCostFunction();
+                for (int i = 0; i < variables.size(); i++) {
+                    if (integerSubproblems && program.isIntegerVariable(variables.get(i))) {
+                        builder.addIntegerVariables(i);
+                    }
+                }
+                builders.add(builder);
+                blocks.add(new Block(variables.stream().mapToInt(Integer::intValue).toArray(), builder));
+            }
+
+            for (int row = 0; row < keptRows.size(); row++) {
+                final Vector keptRow = keptRows.get(row);
+                int block = -1;
+                for (int variable = 0; variable < numVariables && block == -1; variable++) {
+                    if (Coefficients.asDouble(keptRow.get(variable)) != 0d) {
+                        block = blockOfRoot[find(parents, variable)];
+                    }
+                }
+
+                final int[] variables = blocks.get(block).variables;
+                final Coefficient[] coefficients = new Coefficient[variables.length];
+                for (int i = 0; i < variables.length; i++) {
+                    coefficients[localIndices[variables[i]]] = keptRow.get(variables[i]);
+                }
+                final Vector blockRow = new Vector(coefficients);
+                final MixedIntegerProgram.Builder builder = builders.get(block);
+                if (keptTypes.get(row) < 0) {
+                    builder.addLessThanInequality(blockRow, keptConstants.get(row));
+                } else if (keptTypes.get(row) == 0) {
+                    builder.addEquality(blockRow, keptConstants.get(row));
+                } else {
+                    builder.addGreaterThanInequality(blockRow, keptConstants.get(row));
+                }
+            }
+        }
+
+        private LagrangianResult run() {
+            final Evaluation first = evaluate(new double[rows.length]);
+            best = first;
+            if (first.isFinite()) {
+                if (multiplierUpdate == MultiplierUpdate.SUBGRADIENT) {
+                    runSubgradient(first);
+                } else {
+                    runBundle(first);
+                }
+            }
+
+            final Vector solution = bestSolution == null ? null : createSolution(bestSolution);
+            return new LagrangianResult(
+                    program.isMaximization() ? best.bound : -best.bound,
+                    best.multipliers,
+                    iterations,
+                    solution
+            );
+        }
+
+        private void runSubgradient(final Evaluation first) {
+            Evaluation evaluation = first;
+            double stepScale = INITIAL_STEP_SCALE;
+            int stalledSteps = 0;
+            while (iterations < maxIterations && !isConverged()) {
+                final double squaredNorm = dotProduct(evaluation.subgradient, evaluation.subgradient);
+                if (squaredNorm == 0d) {
+                    // The solution satisfies every dualized row with complementary slackness, so it's optimal
+                    return;
+                }
+
+                final double target = bestSolution != null
+                        ? bestSolutionScore
+                        : best.bound - TARGET_GAP * (1 + Math.abs(best.bound));
+                final double step = stepScale * (evaluation.bound - target) / squaredNorm;
+                final double[] multipliers = new double[rows.length];
+                for (int row = 0; row < rows.length; row++) {
+                    multipliers[row] = project(row, evaluation.multipliers[row] - step * evaluation.subgradient[row]);
+                }
+
+                evaluation = evaluate(multipliers);
+                if (!evaluation.isFinite()) {
+                    return;
+                }
+                if (evaluation.bound < best.bound) {
+                    best = evaluation;
+                    stalledSteps = 0;
+                } else if (++stalledSteps == STALLED_STEPS) {
+                    stalledSteps = 0;
+                    stepScale /= 2;
+                    if (stepScale < MIN_STEP_SCALE) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * A proximal bundle method with a box for its trust region, which keeps the master problem an LP. The center
+         * is always the best multipliers so far, and its own cut is never dropped from the bundle, so a model whose
+         * minimum within the box is the center's bound has proven the center optimal.
+         */
+        private void runBundle(final Evaluation first) {
+            final List<Evaluation> bundle = new ArrayList<>();
+            bundle.add(first);
+            final double norm = Math.sqrt(dotProduct(first.subgradient, first.subgradient));
+            if (norm == 0d) {
+                return;
+            }
+
+            double radius = Math.max(1, Math.abs(first.bound)) / norm;
+            while (iterations < maxIterations && !isConverged()) {
+                final double[] multipliers = new double[rows.length];
+                final double predictedBound = solveMaster(bundle, radius, multipliers);
+                final double predictedDecrease = best.bound - predictedBound;
+                if (Double.isNaN(predictedBound)
+                        || predictedDecrease <= CONVERGENCE_TOLERANCE * (1 + Math.abs(best.bound))) {
+                    return;
+                }
+
+                final Evaluation evaluation = evaluate(multipliers);
+                if (!evaluation.isFinite()) {
+                    return;
+                }
+                bundle.add(evaluation);
+                if (best.bound - evaluation.bound >= SERIOUS_STEP_FRACTION * predictedDecrease) {
+                    // A serious step that went all the way to the box was held back by it
+                    if (getDistance(evaluation.multipliers, best.multipliers) >= radius * (1 - 1e-9)) {
+                        radius *= 2;
+                    }
+                    best = evaluation;
+                } else if (evaluation.bound > best.bound) {
+                    radius /= 2;
+                }
+
+                if (bundle.size() > MAX_BUNDLE_SIZE) {
+                    bundle.remove(bundle.get(0) == best ? 1 : 0);
+                }
+            }
+        }
+
+        /**
+         * Minimize the bundle's model of the bound within the box around the center, writing the multipliers that do
+         * into the given array, and return the model's bound there, or NaN if the LP failed. The multipliers are the
+         * center plus d+ - d-, with 0 <= d+, d- <= radius, and the model's bound is v+ - v-.
+         */
+        private double solveMaster(final List<Evaluation> bundle, final double radius, final double[] multipliers) {
+            final int numRows = rows.length;
+            final int numVariables = 2 + 2 * numRows;
+            final double[] center = best.multipliers;
+            final Simplex.Builder masterBuilder = Simplex.newBuilder()
+                    .minimizeCostFunction()
+                    .withEngine(SimplexEngine.DOUBLE);
+            final double[] cost = new double[numVariables];
+            cost[0] = 1;
+            cost[1] = -1;
+            masterBuilder.withCostVector(createVector(cost));
+
+            // v >= constant + s (center + d+ - d-) for every cut
+            for (final Evaluation cut : bundle) {
+                final double[] row = new double[numVariables];
+                row[0] = 1;
+                row[1] = -1;
+                for (int i = 0; i < numRows; i++) {
+                    row[2 + i] = -cut.subgradient[i];
+                    row[2 + numRows + i] = cut.subgradient[i];
+                }
+                masterBuilder.addGreaterThanInequality(
+                        createVector(row),
+                        Coefficients.from(cut.getCutConstant() + dotProduct(cut.subgradient, center))
+                );
+            }
+            for (int i = 0; i < numRows; i++) {
+                masterBuilder.addLessThanInequality(createUnitVector(numVariables, 2 + i), Coefficients.from(radius));
+                masterBuilder.addLessThanInequality(
+                        createUnitVector(numVariables, 2 + numRows + i),
+                        Coefficients.from(radius)
+                );
+                if (!isEquality[i]) {
+                    // Multipliers of inequalities stay non-negative: d- - d+ <= center
+                    final double[] row = new double[numVariables];
+                    row[2 + i] = -1;
+                    row[2 + numRows + i] = 1;
+                    masterBuilder.addLessThanInequality(createVector(row), Coefficients.from(center[i]));
+                }
+            }
+
+            final Simplex master = masterBuilder.build();
+            if (!master.isFeasible() || !master.isBounded()) {
+                return Double.NaN;
+            }
+
+            final Vector solution = master.getOptimalSolution();
+            for (int i = 0; i < numRows; i++) {
+                final double step = Coefficients.asDouble(solution.get(2 + i))
+                        - Coefficients.asDouble(solution.get(2 + numRows + i));
+                multipliers[i] = project(i, center[i] + step);
+            }
+            return Coefficients.asDouble(solution.get(0)) - Coefficients.asDouble(solution.get(1));
+        }
+
+        /**
+         * Solve the subproblems at the given multipliers, keeping their solution if it's the best feasible one yet.
+         */
+        private Evaluation evaluate(final double[] multipliers) {
+            iterations++;
+            if (isInfeasible) {
+                return new Evaluation(multipliers, Double.NEGATIVE_INFINITY, null);
+            }
+
+            final double[] reducedCosts = costs.clone();
+            double bound = 0d;
+            for (int row = 0; row < rows.length; row++) {
+                for (int variable = 0; variable < reducedCosts.length; variable++) {
+                    reducedCosts[variable] -= multipliers[row] * rows[row][variable];
+                }
+                bound += multipliers[row] * constants[row];
+            }
+
+            final double[] solution = new double[costs.length];
+            for (final Block block : blocks) {
+                final double blockBound = block.solve(branchAndBound, reducedCosts, solution);
+                if (Double.isInfinite(blockBound)) {
+                    return new Evaluation(multipliers, blockBound, null);
+                }
+                bound += blockBound;
+            }
+            // Checked after the blocks, since an infeasible block makes the program infeasible whatever these do
+            for (final int variable : freeVariables) {
+                if (reducedCosts[variable] > 0) {
+                    return new Evaluation(multipliers, Double.POSITIVE_INFINITY, null);
+                }
+            }
+
+            // The free variables are all zero by now, so the blocks' bounds are the whole of the subproblems' maximum
+            final double[] subgradient = new double[rows.length];
+            for (int row = 0; row < rows.length; row++) {
+                subgradient[row] = constants[row] - dotProduct(rows[row], solution);
+            }
+
+            final double score = dotProduct(costs, solution);
+            if (score > bestSolutionScore && program.isFeasible(solution, FEASIBILITY_TOLERANCE)) {
+                bestSolution = solution;
+                bestSolutionScore = score;
+            }
+            return new Evaluation(multipliers, bound, subgradient);
+        }
+
+        private boolean isConverged() {
+            return best.bound - bestSolutionScore <= CONVERGENCE_TOLERANCE * (1 + Math.abs(best.bound));
+        }
+
+        private double project(final int row, final double multiplier) {
+            return isEquality[row] ? multiplier : Math.max(0d, multiplier);
+        }
+
+        /**
+         * A solution as a vector, with the values of integer variables snapped to the integers they're close to.
+         */
+        private Vector createSolution(final double[] solution) {
+            final Coefficient[] coefficients = new Coefficient[solution.length];
+            for (int variable = 0; variable < solution.length; variable++) {
+                coefficients[variable] = program.isIntegerVariable(variable)
+                        ? Coefficients.from(Math.round(solution[variable]))
+                        : Coefficients.from(solution[variable]);
+            }
+
+            return new Vector(coefficients);
+        }
+    }
+
+    private static int find(final int[] parents, final int variable) {
+        int root = variable;
+        while (parents[root] != root) {
+            parents[root] = parents[parents[root]];
+            root = parents[root];
+        }
+
+        return root;
+    }
+
+    private static boolean isEmpty(final Vector row) {
+        for (final Coefficient coefficient : row.getValues()) {
+            if (Coefficients.asDouble(coefficient) != 0d) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static double dotProduct(final double[] first, final double[] second) {
+        double total = 0d;
+        for (int i = 0; i < first.length; i++) {
+            total += first[i] * second[i];
+        }
+
+        return total;
+    }
+
+    private static double getDistance(final double[] first, final double[] second) {
+        double distance = 0d;
+        for (int i = 0; i < first.length; i++) {
+            distance = Math.max(distance, Math.abs(first[i] - second[i]));
+        }
+
+        return distance;
+    }
+
+    private static Vector createVector(final double[] values) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final double value : values) {
+            builder.addCoefficient(value);
+        }
+
+        return builder.build();
+    }
+
+    private static Vector createUnitVector(final int length, final int index) {
+        final double[] values = new double[length];
+        values[index] = 1;
+        return createVector(values);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int[] lessThanRows;
+        private int[] equalityRows;
+        private int[] greaterThanRows;
+        private MultiplierUpdate multiplierUpdate;
+        private int maxIterations;
+        private boolean integerSubproblems;
+
+        private Builder() {
+            this.lessThanRows = new int[0];
+            this.equalityRows = new int[0];
+            this.greaterThanRows = new int[0];
+            this.multiplierUpdate = MultiplierUpdate.BUNDLE;
+            this.maxIterations = DEFAULT_MAX_ITERATIONS;
+            this.integerSubproblems = true;
+        }
+
+        /**
+         * The less than inequalities to dualize, by their index among the program's less than inequalities.
+         */
+        public Builder withDualizedLessThanInequalities(final int... rows) {
+            this.lessThanRows = rows.clone();
+            return this;
+        }
+
+        /**
+         * The equalities to dualize, by their index among the program's equalities.
+         */
+        public Builder withDualizedEqualities(final int... rows) {
+            this.equalityRows = rows.clone();
+            return this;
+        }
+
+        /**
+         * The greater than inequalities to dualize, by their index among the program's greater than inequalities.
+         */
+        public Builder withDualizedGreaterThanInequalities(final int... rows) {
+            this.greaterThanRows = rows.clone();
+            return this;
+        }
+
+        /**
+         * How the multipliers are updated from one iteration to the next. Defaults to BUNDLE.
+         */
+        public Builder withMultiplierUpdate(final MultiplierUpdate multiplierUpdate) {
+            this.multiplierUpdate = multiplierUpdate;
+            return this;
+        }
+
+        /**
+         * How many times the subproblems can be solved. Defaults to 100.
+         */
+        public Builder withMaxIterations(final int maxIterations) {
+            this.maxIterations = maxIterations;
+            return this;
+        }
+
+        /**
+         * Whether the subproblems keep the program's integer variables, and are solved by branch-and-bound, rather
+         * than being relaxed to LPs. On by default.
+         */
+        public Builder withIntegerSubproblems(final boolean integerSubproblems) {
+            this.integerSubproblems = integerSubproblems;
+            return this;
+        }
+
+        public LagrangianRelaxation build() {
+            Preconditions.checkNotNull(multiplierUpdate, "Must provide a multiplier update");
+            Preconditions.checkArgument(maxIterations > 0, "Must allow at least one iteration");
+            for (final int[] rows : Arrays.asList(lessThanRows, equalityRows, greaterThanRows)) {
+                for (final int row : rows) {
+                    Preconditions.checkArgument(row >= 0, "Rows must be non-negative");
+                }
+            }
+            return new LagrangianRelaxation(
+                    lessThanRows,
+                    equalityRows,
+                    greaterThanRows,
+                    multiplierUpdate,
+                    maxIterations,
+                    integerSubproblems
+            );
+        }
+    }
+}
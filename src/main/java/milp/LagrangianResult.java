@@ -0,0 +1,53 @@
+package milp;
+
+import math.Vector;
+
+import java.util.Optional;
+
+/**
+ * The bound a LagrangianRelaxation proved, and the multipliers that proved it.
+ */
+public final class LagrangianResult {
+    private final double bound;
+    private final double[] multipliers;
+    private final int iterations;
+    private final Vector solution;
+
+    LagrangianResult(final double bound, final double[] multipliers, final int iterations, final Vector solution) {
+        this.bound = bound;
+        this.multipliers = multipliers;
+        this.iterations = iterations;
+        this.solution = solution;
+    }
+
+    /**
+     * A bound on the objective value of any integer solution of the program: an upper bound when maximizing, a lower
+     * bound when minimizing. It's infinite when the subproblems are unbounded, in which case it bounds nothing, and
+     * infinite the other way when they're infeasible, which proves the program is too.
+     */
+    public double getBound() {
+        return bound;
+    }
+
+    /**
+     * The multipliers of the dualized rows, in the order less than inequalities, equalities, greater than
+     * inequalities, each in the order they were given. Those of inequalities are never negative.
+     */
+    public double[] getMultipliers() {
+        return multipliers.clone();
+    }
+
+    /**
+     * How many times the subproblems were solved.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * The best solution of the subproblems that turned out to satisfy the dualized rows as well, if any did.
+     */
+    public Optional<Vector> getSolution() {
+        return Optional.ofNullable(solution);
+    }
+}
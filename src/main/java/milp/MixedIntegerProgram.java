@@ -0,0 +1,475 @@
+package milp;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import core.PivotJournal;
+import core.Simplex;
+import core.SimplexEngine;
+import core.WarmStart;
+import lang.Preconditions;
+import math.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A mixed integer program:
+ * max [or min] c^x
+ * s.t.
+ * Ax <= b, Cx = d, Ex >= f,
+ * x >= 0,
+ * x_i integer for the variables marked as integers.
+ * <p>
+ * This only holds the problem. Its relaxations are solved as a Simplex, with the bounds of a branch-and-bound Node
+ * added as extra inequalities.
+ */
+public final class MixedIntegerProgram {
+    // How far a relaxation's solution can be outside a bound before the bound is added to its tableau
+    private static final double BOUND_TOLERANCE = 1e-9;
+
+    private final boolean maximize;
+    private final Vector costVector;
+    private final List<Vector> lessThanInequalities;
+    private final List<ConstantCoefficient> lessThanConstants;
+    private final List<Vector> equalities;
+    private final List<ConstantCoefficient> equalityConstants;
+    private final List<Vector> greaterThanInequalities;
+    private final List<ConstantCoefficient> greaterThanConstants;
+    private final boolean[] integerVariables;
+    private final double[] upperBounds;
+    private final SimplexEngine engine;
+
+    private MixedIntegerProgram(final boolean maximize,
+                                final Vector costVector,
+                                final List<Vector> lessThanInequalities,
+                                final List<ConstantCoefficient> lessThanConstants,
+                                final List<Vector> equalities,
+                                final List<ConstantCoefficient> equalityConstants,
+                                final List<Vector> greaterThanInequalities,
+                                final List<ConstantCoefficient> greaterThanConstants,
+                                final boolean[] integerVariables,
+                                final SimplexEngine engine) {
+        this.maximize = maximize;
+        this.costVector = costVector;
+        this.lessThanInequalities = Collections.unmodifiableList(lessThanInequalities);
+        this.lessThanConstants = Collections.unmodifiableList(lessThanConstants);
+        this.equalities = Collections.unmodifiableList(equalities);
+        this.equalityConstants = Collections.unmodifiableList(equalityConstants);
+        this.greaterThanInequalities = Collections.unmodifiableList(greaterThanInequalities);
+        this.greaterThanConstants = Collections.unmodifiableList(greaterThanConstants);
+        this.integerVariables = integerVariables;
+        this.upperBounds = findUpperBounds();
+        this.engine = engine;
+    }
+
+    /**
+     * The upper bound of each variable, as the tightest b / a over the less than inequalities a x <= b with a > 0 over
+     * it alone.
+     */
+    private double[] findUpperBounds() {
+        final double[] bounds = new double[costVector.length()];
+        Arrays.fill(bounds, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < lessThanInequalities.size(); i++) {
+            final Vector inequality = lessThanInequalities.get(i);
+            int variable = -1;
+            for (int j = 0; j < inequality.length(); j++) {
+                if (Coefficients.asDouble(inequality.get(j)) != 0d) {
+                    variable = variable == -1 ? j : -2;
+                }
+            }
+
+            if (variable >= 0) {
+                final double coefficient = Coefficients.asDouble(inequality.get(variable));
+                final double constant = Coefficients.asDouble(lessThanConstants.get(i));
+                if (coefficient > 0) {
+                    bounds[variable] = Math.min(bounds[variable], constant / coefficient);
+                }
+            }
+        }
+
+        return bounds;
+    }
+
+    public boolean isMaximization() {
+        return maximize;
+    }
+
+    public Vector getCostVector() {
+        return costVector;
+    }
+
+    public int getNumVariables() {
+        return costVector.length();
+    }
+
+    public boolean isIntegerVariable(final int variable) {
+        return integerVariables[variable];
+    }
+
+    public SimplexEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Whether a variable is an integer bounded by 1 in this program, i.e. can only be 0 or 1.
+     */
+    boolean isBinaryVariable(final int variable) {
+        return integerVariables[variable] && upperBounds[variable] < 2;
+    }
+
+    /**
+     * The upper bound of a variable given by the less than inequalities over it alone, or infinity if there is none.
+     */
+    double getUpperBound(final int variable) {
+        return upperBounds[variable];
+    }
+
+    boolean hasContinuousVariables() {
+        for (final boolean isInteger : integerVariables) {
+            if (!isInteger) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Whether a point satisfies every constraint, is non-negative, and is integral on the integer variables, all
+     * within a tolerance.
+     */
+    boolean isFeasible(final double[] solution, final double tolerance) {
+        for (int variable = 0; variable < solution.length; variable++) {
+            final double value = solution[variable];
+            if (value < -tolerance || integerVariables[variable] && Math.abs(value - Math.rint(value)) > tolerance) {
+                return false;
+            }
+        }
+
+        for (int i = 0; i < lessThanInequalities.size(); i++) {
+            if (dotProduct(lessThanInequalities.get(i), solution)
+                    > Coefficients.asDouble(lessThanConstants.get(i)) + tolerance) {
+                return false;
+            }
+        }
+        for (int i = 0; i < equalities.size(); i++) {
+            if (Math.abs(dotProduct(equalities.get(i), solution) - Coefficients.asDouble(equalityConstants.get(i)))
+                    > tolerance) {
+                return false;
+            }
+        }
+        for (int i = 0; i < greaterThanInequalities.size(); i++) {
+            if (dotProduct(greaterThanInequalities.get(i), solution)
+                    < Coefficients.asDouble(greaterThanConstants.get(i)) - tolerance) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static double dotProduct(final Vector row, final double[] solution) {
+        double total = 0d;
+        for (int i = 0; i < solution.length; i++) {
+            total += Coefficients.asDouble(row.get(i)) * solution[i];
+        }
+
+        return total;
+    }
+
+    List<Vector> getLessThanInequalities() {
+        return lessThanInequalities;
+    }
+
+    List<ConstantCoefficient> getLessThanConstants() {
+        return lessThanConstants;
+    }
+
+    List<Vector> getEqualities() {
+        return equalities;
+    }
+
+    List<ConstantCoefficient> getEqualityConstants() {
+        return equalityConstants;
+    }
+
+    List<Vector> getGreaterThanInequalities() {
+        return greaterThanInequalities;
+    }
+
+    List<ConstantCoefficient> getGreaterThanConstants() {
+        return greaterThanConstants;
+    }
+
+    /**
+     * This program with cuts added as greater than inequalities. The cuts have to hold for every integer feasible
+     * solution, so the new program has the same solutions and only a tighter relaxation.
+     */
+    MixedIntegerProgram withCuts(final List<Cut> cuts) {
+        final List<Vector> newGreaterThanInequalities = new ArrayList<>(greaterThanInequalities);
+        final List<ConstantCoefficient> newGreaterThanConstants = new ArrayList<>(greaterThanConstants);
+        for (final Cut cut : cuts) {
+            newGreaterThanInequalities.add(cut.getCoefficients());
+            newGreaterThanConstants.add(cut.getConstant());
+        }
+
+        return new MixedIntegerProgram(
+                maximize,
+                costVector,
+                lessThanInequalities,
+                lessThanConstants,
+                equalities,
+                equalityConstants,
+                newGreaterThanInequalities,
+                newGreaterThanConstants,
+                integerVariables,
+                engine
+        );
+    }
+
+    /**
+     * Solve the relaxation of a node, i.e. the problem without integrality, within the node's bounds.
+     */
+    Simplex solveRelaxation(final Node node) {
+        return solveRelaxation(node, false);
+    }
+
+    /**
+     * Solve the relaxation of a node from scratch, optionally keeping its final tableau for its children to warm start
+     * from. Keeping it means solving with the DOUBLE engine.
+     */
+    Simplex solveRelaxation(final Node node, final boolean retainFinalTableau) {
+        final long[] lowerBounds = new long[getNumVariables()];
+        final long[] upperBounds = new long[getNumVariables()];
+        node.getBounds(lowerBounds, upperBounds);
+        return solveRelaxation(lowerBounds, upperBounds, retainFinalTableau);
+    }
+
+    /**
+     * Solve the relaxation within the given bounds from scratch, like solveRelaxation(Node, boolean).
+     */
+    Simplex solveRelaxation(final long[] lowerBounds, final long[] upperBounds, final boolean retainFinalTableau) {
+        final Simplex.Builder simplexBuilder = Simplex.newBuilder()
+                .withEngine(retainFinalTableau ? SimplexEngine.DOUBLE : engine)
+                .withCostVector(costVector);
+        if (retainFinalTableau) {
+            simplexBuilder.withFinalTableauRetained();
+        }
+        if (maximize) {
+            simplexBuilder.maximizeCostFunction();
+        } else {
+            simplexBuilder.minimizeCostFunction();
+        }
+
+        for (int i = 0; i < lessThanInequalities.size(); i++) {
+            simplexBuilder.addLessThanInequality(lessThanInequalities.get(i), lessThanConstants.get(i));
+        }
+        for (int i = 0; i < equalities.size(); i++) {
+            simplexBuilder.addEquality(equalities.get(i), equalityConstants.get(i));
+        }
+        for (int i = 0; i < greaterThanInequalities.size(); i++) {
+            simplexBuilder.addGreaterThanInequality(greaterThanInequalities.get(i), greaterThanConstants.get(i));
+        }
+
+        for (int variable = 0; variable < getNumVariables(); variable++) {
+            if (lowerBounds[variable] > 0) {
+                simplexBuilder.addGreaterThanInequality(
+                        createUnitVector(variable),
+                        Coefficients.from(lowerBounds[variable])
+                );
+            }
+            if (upperBounds[variable] != BoundChange.NO_UPPER_BOUND) {
+                simplexBuilder.addLessThanInequality(
+                        createUnitVector(variable),
+                        Coefficients.from(upperBounds[variable])
+                );
+            }
+        }
+
+        return simplexBuilder.build();
+    }
+
+    /**
+     * Solve the relaxation within the given bounds from the final tableau of a parent whose bounds were looser. Bounds
+     * are only added to the tableau while the solution violates one of them, so a bound that never gets in the way
+     * never costs a row. The bounds are added in a PivotJournal, so the parent's tableau is copied once however many
+     * are needed. The WarmStart returned isn't optimal if the dual simplex was cut short, and then neither its solution
+     * nor its infeasibility can be trusted.
+     */
+    WarmStart solveRelaxation(final long[] lowerBounds, final long[] upperBounds, final WarmStart parentWarmStart) {
+        WarmStart warmStart = parentWarmStart;
+        PivotJournal journal = null;
+        while (warmStart.isOptimal()) {
+            final Vector solution = warmStart.getOptimalSolution();
+            int violatedVariable = -1;
+            for (int variable = 0; variable < getNumVariables() && violatedVariable == -1; variable++) {
+                final double value = Coefficients.asDouble(solution.get(variable));
+                if (value < lowerBounds[variable] - BOUND_TOLERANCE
+                        || upperBounds[variable] != BoundChange.NO_UPPER_BOUND
+                        && value > upperBounds[variable] + BOUND_TOLERANCE) {
+                    violatedVariable = variable;
+                }
+            }
+            if (violatedVariable == -1) {
+                return warmStart;
+            }
+
+            if (journal == null) {
+                journal = parentWarmStart.startJournal();
+            }
+            final Vector unitVector = createUnitVector(violatedVariable);
+            final double value = Coefficients.asDouble(solution.get(violatedVariable));
+            warmStart = value < lowerBounds[violatedVariable]
+                    ? journal.addGreaterThanInequality(unitVector, Coefficients.from(lowerBounds[violatedVariable]))
+                    : journal.addLessThanInequality(unitVector, Coefficients.from(upperBounds[violatedVariable]));
+        }
+
+        return warmStart;
+    }
+
+    /**
+     * Whether relaxations can be warm started, which needs them to be solved in doubles.
+     */
+    boolean canWarmStart() {
+        return engine == SimplexEngine.AUTOMATIC || engine == SimplexEngine.DOUBLE;
+    }
+
+    Vector createUnitVector(final int variable) {
+        final Coefficient[] coefficients = new Coefficient[getNumVariables()];
+        for (int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = i == variable ? Coefficients.ONE : Coefficients.ZERO;
+        }
+
+        return new Vector(coefficients);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Vector costVector;
+        private boolean maximize;
+        private SimplexEngine engine;
+        private final List<Integer> integerVariables;
+        private final List<Vector> lessThanInequalities;
+        private final List<ConstantCoefficient> lessThanConstants;
+        private final List<Vector> equalities;
+        private final List<ConstantCoefficient> equalityConstants;
+        private final List<Vector> greaterThanInequalities;
+        private final List<ConstantCoefficient> greaterThanConstants;
+
+        private Builder() {
+            this.maximize = true;
+            this.engine = SimplexEngine.AUTOMATIC;
+            this.integerVariables = new ArrayList<>();
+            this.lessThanInequalities = new ArrayList<>();
+            this.lessThanConstants = new ArrayList<>();
+            this.equalities = new ArrayList<>();
+            this.equalityConstants = new ArrayList<>();
+            this.greaterThanInequalities = new ArrayList<>();
+            this.greaterThanConstants = new ArrayList<>();
+        }
+
+        public Builder maximizeCostFunction() {
+            this.maximize = true;
+            return this;
+        }
+
+        public Builder minimizeCostFunction() {
+            this.maximize = false;
+            return this;
+        }
+
+        /**
+         * The engine every relaxation is solved with.
+         */
+        public Builder withEngine(final SimplexEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        public Builder withCostVector(final Vector costVector) {
+            this.costVector = costVector;
+            return this;
+        }
+
+        /**
+         * Mark variables (by their index in the cost vector) as integers. All other variables are continuous.
+         */
+        public Builder addIntegerVariables(final int... variables) {
+            for (final int variable : variables) {
+                this.integerVariables.add(variable);
+            }
+            return this;
+        }
+
+        public Builder addLessThanInequality(final Vector lessThanInequality,
+                                             final ConstantCoefficient lessThanConstant) {
+            this.lessThanInequalities.add(lessThanInequality);
+            this.lessThanConstants.add(lessThanConstant);
+            return this;
+        }
+
+        public Builder addEquality(final Vector equality,
+                                   final ConstantCoefficient equalityConstant) {
+            this.equalities.add(equality);
+            this.equalityConstants.add(equalityConstant);
+            return this;
+        }
+
+        public Builder addGreaterThanInequality(final Vector greaterThanInequality,
+                                                final ConstantCoefficient greaterThanConstant) {
+            this.greaterThanInequalities.add(greaterThanInequality);
+            this.greaterThanConstants.add(greaterThanConstant);
+            return this;
+        }
+
+        public MixedIntegerProgram build() {
+            Preconditions.checkNotNull(costVector, "Must provide a cost vector");
+            Preconditions.checkArgument(lessThanInequalities
+                            .stream()
+                            .map(Vector::length)
+                            .allMatch(Predicate.isEqual(costVector.length())),
+                    "One or more less than inequalities provided do not match the length of the cost vector"
+            );
+            Preconditions.checkArgument(equalities
+                            .stream()
+                            .map(Vector::length)
+                            .allMatch(Predicate.isEqual(costVector.length())),
+                    "One or more equalities provided do not match the length of the cost vector"
+            );
+            Preconditions.checkArgument(greaterThanInequalities
+                            .stream()
+                            .map(Vector::length)
+                            .allMatch(Predicate.isEqual(costVector.length())),
+                    "One or more greater than inequalities provided do not match the length of the cost vector"
+            );
+            Preconditions.checkNotNull(engine, "Must provide an engine");
+            final boolean[] integerVariableFlags = new boolean[costVector.length()];
+            for (final int variable : integerVariables) {
+                Preconditions.checkArgument(variable >= 0 && variable < costVector.length(),
+                        "Integer variable " + variable + " is not in the cost vector"
+                );
+                integerVariableFlags[variable] = true;
+            }
+
+            return new MixedIntegerProgram(
+                    maximize,
+                    costVector,
+                    new ArrayList<>(lessThanInequalities),
+                    new ArrayList<>(lessThanConstants),
+                    new ArrayList<>(equalities),
+                    new ArrayList<>(equalityConstants),
+                    new ArrayList<>(greaterThanInequalities),
+                    new ArrayList<>(greaterThanConstants),
+                    integerVariableFlags,
+                    engine
+            );
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package milp;
+
+/**
+ * How a LagrangianRelaxation moves its multipliers towards the ones with the tightest bound.
+ */
+public enum MultiplierUpdate {
+    /**
+     * Step against the subgradient, by the Polyak step towards the best solution found, or a little below the bound
+     * without one. The step is halved whenever the bound stalls. Each step is cheap, but the bound zigzags towards
+     * the optimum and may stop short of it.
+     */
+    SUBGRADIENT,
+
+    /**
+     * Keep a bundle of the subgradients seen so far, which together form a piecewise linear model of the bound, and
+     * step to the minimum of the model within a box around the best multipliers so far. Takes more work per step than
+     * SUBGRADIENT, but converges much more reliably.
+     */
+    BUNDLE
+}
@@ -0,0 +1,145 @@
+package milp;
+
+/**
+ * An open node of the branch-and-bound tree: the original problem with tightened bounds on some of its integer
+ * variables.
+ * <p>
+ * Every variable starts out with bounds [0, infinity), which is implied by the Simplex, and branching on a variable
+ * with a fractional value v splits a node into a child with x <= floor(v) and a child with x >= ceil(v). Rather than a
+ * copy of every bound, a node only holds the chain of bound changes that led to it, its parent's id, and optionally the
+ * basis its parent's relaxation ended up with. These are shared with its sibling, and the bounds are rebuilt when the
+ * node's relaxation is solved.
+ * <p>
+ * A node also remembers the value v its variable was branched off, so that once its relaxation is solved, the drop in
+ * the objective per unit of distance between v and the new bound can be learned as a pseudocost.
+ */
+final class Node {
+    private final long id;
+    private final long parentId;
+    private final int depth;
+    private final double bound;
+    private final double branchingValue;
+    private final BoundChange boundChanges;
+    private final CompressedBasis parentBasis;
+
+    private Node(final long id,
+                 final long parentId,
+                 final int depth,
+                 final double bound,
+                 final double branchingValue,
+                 final BoundChange boundChanges,
+                 final CompressedBasis parentBasis) {
+        this.id = id;
+        this.parentId = parentId;
+        this.depth = depth;
+        this.bound = bound;
+        this.branchingValue = branchingValue;
+        this.boundChanges = boundChanges;
+        this.parentBasis = parentBasis;
+    }
+
+    static Node root() {
+        return new Node(0, -1, 0, Double.POSITIVE_INFINITY, Double.NaN, null, null);
+    }
+
+    /**
+     * Put a node back together from the parts a NodeCodec wrote.
+     */
+    static Node fromParts(final long id,
+                          final long parentId,
+                          final int depth,
+                          final double bound,
+                          final double branchingValue,
+                          final BoundChange boundChanges,
+                          final CompressedBasis parentBasis) {
+        return new Node(id, parentId, depth, bound, branchingValue, boundChanges, parentBasis);
+    }
+
+    /**
+     * A child of this node with x_variable >= ceil(value).
+     *
+     * @param bound the objective value of this node's relaxation, which bounds every child from above
+     * @param value the value of the variable in this node's relaxation
+     * @param basis the basis of this node's relaxation, or null if bases aren't kept
+     */
+    Node lowerBoundChild(final long id,
+                         final double bound,
+                         final int variable,
+                         final double value,
+                         final CompressedBasis basis) {
+        final BoundChange boundChange = BoundChange.lowerBound(boundChanges, variable, (long) Math.ceil(value));
+        return new Node(id, this.id, depth + 1, bound, value, boundChange, basis);
+    }
+
+    /**
+     * A child of this node with x_variable <= floor(value).
+     */
+    Node upperBoundChild(final long id,
+                         final double bound,
+                         final int variable,
+                         final double value,
+                         final CompressedBasis basis) {
+        final BoundChange boundChange = BoundChange.upperBound(boundChanges, variable, (long) Math.floor(value));
+        return new Node(id, this.id, depth + 1, bound, value, boundChange, basis);
+    }
+
+    /**
+     * This node with another chain of bound changes, which must hold the same bounds or tighter ones.
+     */
+    Node withBoundChanges(final BoundChange newBoundChanges) {
+        return new Node(id, parentId, depth, bound, branchingValue, newBoundChanges, parentBasis);
+    }
+
+    /**
+     * A unique id, handed out in the order nodes are created.
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * The id of the node this one was branched from, or -1 for the root.
+     */
+    long getParentId() {
+        return parentId;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * An upper bound on the (maximized) objective of any solution in this node, or infinity for the root.
+     */
+    double getBound() {
+        return bound;
+    }
+
+    /**
+     * The value in the parent's relaxation of the variable this node branched on, or NaN for the root.
+     */
+    double getBranchingValue() {
+        return branchingValue;
+    }
+
+    /**
+     * The chain of bound changes from this node up to the root, or null for the root.
+     */
+    BoundChange getBoundChanges() {
+        return boundChanges;
+    }
+
+    /**
+     * Rebuild the bounds of every variable in this node.
+     */
+    void getBounds(final long[] lowerBounds, final long[] upperBounds) {
+        BoundChange.applyChain(boundChanges, lowerBounds, upperBounds);
+    }
+
+    /**
+     * The basis of the parent's relaxation, or null for the root or if bases aren't kept.
+     */
+    CompressedBasis getParentBasis() {
+        return parentBasis;
+    }
+}
@@ -0,0 +1,102 @@
+package milp;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes open nodes in a compact binary format, so they can leave the heap and be read back later.
+ * <p>
+ * A node is written as its id, its parent's id, depth, bound and branching value, then its chain of bound changes from
+ * the root down, then its parent's basis if it has one. Variables and bound values are written as varints, since both
+ * are nearly always small. A node read back has its own copy of its chain, so it no longer shares it with its siblings.
+ */
+final class NodeCodec {
+    private NodeCodec() {
+        // Exists to defeat instantiation
+    }
+
+    static void write(final DataOutput output, final Node node) throws IOException {
+        output.writeLong(node.getId());
+        output.writeLong(node.getParentId());
+        output.writeInt(node.getDepth());
+        output.writeDouble(node.getBound());
+        output.writeDouble(node.getBranchingValue());
+
+        final List<BoundChange> changes = new ArrayList<>();
+        for (BoundChange change = node.getBoundChanges(); change != null; change = change.getParent()) {
+            changes.add(change);
+        }
+        writeVarLong(output, changes.size());
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            final BoundChange change = changes.get(i);
+            writeVarLong(output, ((long) change.getVariable() << 1) | (change.isUpperBound() ? 1 : 0));
+            writeVarLong(output, change.getValue());
+        }
+
+        final CompressedBasis basis = node.getParentBasis();
+        if (basis == null) {
+            writeVarLong(output, 0);
+        } else {
+            writeVarLong(output, basis.getLength() + 1L);
+            writeVarLong(output, basis.getCompressedSize());
+            output.write(basis.getBytes());
+        }
+    }
+
+    static Node read(final DataInput input) throws IOException {
+        final long id = input.readLong();
+        final long parentId = input.readLong();
+        final int depth = input.readInt();
+        final double bound = input.readDouble();
+        final double branchingValue = input.readDouble();
+
+        BoundChange boundChanges = null;
+        final long numChanges = readVarLong(input);
+        for (long i = 0; i < numChanges; i++) {
+            final long variableAndSide = readVarLong(input);
+            final int variable = (int) (variableAndSide >>> 1);
+            final long value = readVarLong(input);
+            boundChanges = (variableAndSide & 1) == 1
+                    ? BoundChange.upperBound(boundChanges, variable, value)
+                    : BoundChange.lowerBound(boundChanges, variable, value);
+        }
+
+        final long basisLength = readVarLong(input);
+        CompressedBasis basis = null;
+        if (basisLength > 0) {
+            final byte[] bytes = new byte[(int) readVarLong(input)];
+            input.readFully(bytes);
+            basis = CompressedBasis.fromBytes((int) basisLength - 1, bytes);
+        }
+
+        return Node.fromParts(id, parentId, depth, bound, branchingValue, boundChanges, basis);
+    }
+
+    /**
+     * Write a long zigzag encoded as a varint, i.e. seven bits at a time with the high bit set on all but the last.
+     */
+    private static void writeVarLong(final DataOutput output, final long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            output.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        output.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(final DataInput input) throws IOException {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = input.readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
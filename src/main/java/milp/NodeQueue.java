@@ -0,0 +1,298 @@
+package milp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The open nodes of a search, polled in the order of a NodeSelection, that can spill to disk when they outgrow a
+ * memory limit.
+ * <p>
+ * Once the nodes in memory take up more than the limit, the worse half of them are sorted and written to a spill file
+ * of their own as a run, in the compact format of the NodeCodec. Polling then merges the nodes in memory with the head
+ * of every run, so nodes still come out in exactly the same order as without a limit, and each run is paged back in
+ * sequentially as the frontier reaches it. A run's file is deleted once it has been read back, and a run that has been
+ * read back further than it has left is copied into a smaller file, so the disk never holds more than twice the nodes
+ * that are still spilled.
+ */
+final class NodeQueue implements Closeable {
+    static final long NO_MEMORY_LIMIT = Long.MAX_VALUE;
+
+    // Roughly what a Node, its BoundChange and its slot in the queue take up on the heap
+    private static final long NODE_BYTES = 104;
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final Comparator<Node> comparator;
+    private final PriorityQueue<Node> nodes;
+    private final long memoryLimit;
+    private final Path spillDirectory;
+    private final List<Run> runs;
+    private long memoryUsed;
+    private long numSpilledNodes;
+    private long numSpills;
+
+    NodeQueue(final Comparator<Node> comparator) {
+        this(comparator, NO_MEMORY_LIMIT, null);
+    }
+
+    /**
+     * @param spillDirectory where the spill file is created, or null for the default temporary directory
+     */
+    NodeQueue(final Comparator<Node> comparator, final long memoryLimit, final Path spillDirectory) {
+        this.comparator = comparator;
+        this.nodes = new PriorityQueue<>(comparator);
+        this.memoryLimit = memoryLimit;
+        this.spillDirectory = spillDirectory;
+        this.runs = new ArrayList<>();
+    }
+
+    void add(final Node node) {
+        nodes.add(node);
+        memoryUsed += getMemoryUsed(node);
+        if (memoryUsed > memoryLimit && nodes.size() > 1) {
+            spill();
+        }
+    }
+
+    void addAll(final Collection<Node> nodesToAdd) {
+        for (final Node node : nodesToAdd) {
+            add(node);
+        }
+    }
+
+    /**
+     * Remove and return the node to explore next, or null if there are none.
+     */
+    Node poll() {
+        Run bestRun = null;
+        Node bestNode = nodes.peek();
+        for (final Run run : runs) {
+            if (bestNode == null || comparator.compare(run.head, bestNode) < 0) {
+                bestRun = run;
+                bestNode = run.head;
+            }
+        }
+
+        if (bestRun == null) {
+            final Node node = nodes.poll();
+            if (node != null) {
+                memoryUsed -= getMemoryUsed(node);
+            }
+            return node;
+        }
+
+        try {
+            numSpilledNodes--;
+            if (!bestRun.advance()) {
+                runs.remove(bestRun);
+                bestRun.delete();
+            } else {
+                bestRun.compactIfMostlyRead();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bestNode;
+    }
+
+    boolean isEmpty() {
+        return nodes.isEmpty() && runs.isEmpty();
+    }
+
+    long size() {
+        return nodes.size() + numSpilledNodes;
+    }
+
+    /**
+     * The number of nodes that are currently on disk.
+     */
+    long getNumSpilledNodes() {
+        return numSpilledNodes;
+    }
+
+    /**
+     * The number of times nodes were spilled to disk.
+     */
+    long getNumSpills() {
+        return numSpills;
+    }
+
+    /**
+     * The number of bytes the spill files currently take up on disk.
+     */
+    long getSpillFileSize() {
+        long spillFileSize = 0;
+        for (final Run run : runs) {
+            spillFileSize += run.end;
+        }
+
+        return spillFileSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final Run run : runs) {
+            run.delete();
+        }
+        runs.clear();
+    }
+
+    private void spill() {
+        final List<Node> sortedNodes = new ArrayList<>(nodes);
+        sortedNodes.sort(comparator);
+        final int numKept = sortedNodes.size() / 2;
+
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream output = new DataOutputStream(bytes);
+            for (final Node node : sortedNodes.subList(numKept, sortedNodes.size())) {
+                NodeCodec.write(output, node);
+            }
+            output.flush();
+
+            final Run run = new Run(createSpillFile(), bytes.toByteArray());
+            run.advance();
+            run.compactIfMostlyRead();
+            runs.add(run);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        nodes.clear();
+        memoryUsed = 0;
+        for (final Node node : sortedNodes.subList(0, numKept)) {
+            nodes.add(node);
+            memoryUsed += getMemoryUsed(node);
+        }
+        numSpilledNodes += sortedNodes.size() - numKept;
+        numSpills++;
+    }
+
+    private Path createSpillFile() throws IOException {
+        return spillDirectory == null
+                ? Files.createTempFile("milp-nodes", ".spill")
+                : Files.createTempFile(spillDirectory, "milp-nodes", ".spill");
+    }
+
+    private static long getMemoryUsed(final Node node) {
+        final CompressedBasis basis = node.getParentBasis();
+        return NODE_BYTES + (basis == null ? 0 : basis.getCompressedSize());
+    }
+
+    /**
+     * A sorted run of nodes in a spill file of its own, read back one buffer at a time.
+     */
+    private final class Run {
+        private Path file;
+        private FileChannel channel;
+        private long end;
+        private long position;
+        private byte[] buffer;
+        private int bufferPosition;
+        private Node head;
+
+        private Run(final Path file, final byte[] bytes) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.end = 0;
+            this.position = 0;
+            this.buffer = new byte[0];
+            this.bufferPosition = 0;
+
+            final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+            while (byteBuffer.hasRemaining()) {
+                end += channel.write(byteBuffer, end);
+            }
+        }
+
+        /**
+         * Read the next node of the run into head, and return false if the run is exhausted.
+         */
+        private boolean advance() throws IOException {
+            while (true) {
+                // Try to decode a node from what's buffered, and read more of the run if it's cut off
+                final ByteArrayInputStream bufferedBytes
+                        = new ByteArrayInputStream(buffer, bufferPosition, buffer.length - bufferPosition);
+                if (bufferedBytes.available() > 0) {
+                    try {
+                        head = NodeCodec.read(new DataInputStream(bufferedBytes));
+                        bufferPosition = buffer.length - bufferedBytes.available();
+                        return true;
+                    } catch (final EOFException e) {
+                        // The node continues past the end of the buffer
+                    }
+                }
+
+                if (position == end) {
+                    head = null;
+                    return false;
+                }
+                fill();
+            }
+        }
+
+        /**
+         * Keep what's left of the buffer and append the next chunk of the run to it.
+         */
+        private void fill() throws IOException {
+            final int remaining = buffer.length - bufferPosition;
+            final int chunkSize = (int) Math.min(READ_BUFFER_SIZE, end - position);
+            final ByteBuffer chunk = ByteBuffer.allocate(remaining + chunkSize);
+            chunk.put(buffer, bufferPosition, remaining);
+            while (chunk.hasRemaining()) {
+                final int read = channel.read(chunk, position);
+                if (read < 0) {
+                    throw new EOFException("Spill file ended in the middle of a run");
+                }
+                position += read;
+            }
+
+            buffer = chunk.array();
+            bufferPosition = 0;
+        }
+
+        /**
+         * Once more of the run has been read than is left, move what's left into a new file and drop the rest.
+         */
+        private void compactIfMostlyRead() throws IOException {
+            if (position <= end - position) {
+                return;
+            }
+
+            final Path compactedFile = createSpillFile();
+            final FileChannel compactedChannel
+                    = FileChannel.open(compactedFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long copied = 0;
+            while (copied < end - position) {
+                copied += channel.transferTo(position + copied, end - position - copied, compactedChannel);
+            }
+
+            delete();
+            file = compactedFile;
+            channel = compactedChannel;
+            end -= position;
+            position = 0;
+        }
+
+        private void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+    }
+}
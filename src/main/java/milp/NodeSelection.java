@@ -0,0 +1,40 @@
+package milp;
+
+import java.util.Comparator;
+
+/**
+ * The order in which BranchAndBound explores the open nodes of its search tree.
+ */
+public enum NodeSelection {
+    /**
+     * Always explore the most recently created node. Dives straight down the tree, which finds an incumbent quickly
+     * and keeps very few nodes open, but can spend a long time in a bad subtree.
+     */
+    DEPTH_FIRST(Comparator.comparingInt(Node::getDepth)
+            .reversed()
+            .thenComparing(Node::getId, Comparator.reverseOrder())),
+
+    /**
+     * Always explore the node with the best bound. This solves the fewest relaxations before optimality is proven, at
+     * the cost of keeping a wide front of nodes open.
+     */
+    BEST_FIRST(Comparator.comparingDouble(Node::getBound).reversed().thenComparing(Node::getId)),
+
+    /**
+     * Explore the tree level by level, in the order the nodes were created.
+     */
+    BREADTH_FIRST(Comparator.comparingLong(Node::getId));
+
+    private final Comparator<Node> comparator;
+
+    NodeSelection(final Comparator<Node> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Orders nodes so that the one to explore next comes first.
+     */
+    Comparator<Node> getComparator() {
+        return comparator;
+    }
+}
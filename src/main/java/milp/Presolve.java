@@ -0,0 +1,727 @@
+package milp;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import math.Vector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shrinks a mixed integer program before it's searched, and maps the solutions of the smaller program back.
+ * <p>
+ * The bounds of the integer variables are propagated first, and then each binary is probed: both of its values are
+ * propagated in turn. A value that turns out to be infeasible fixes the binary to the other one, and a bound that both
+ * values imply holds either way. Probing a binary to 1 also shows which binaries it forces to 0. If one of those is at
+ * least as good as it, in the objective and in every row, any solution using the probed binary could use the other
+ * one instead, so the probed binary is fixed to 0. Any variable that only makes its rows harder to satisfy and the
+ * objective no better is fixed at its lower bound the same way, and one that only makes both easier at its upper
+ * bound. These dominance fixings can cut off optimal solutions, but never all of them.
+ * <p>
+ * A continuous variable in an equality whose other variables are integers, with integer coefficients and constant,
+ * and whose own coefficient is +-1, has to be an integer as well. Coefficients of binaries are tightened where a row is
+ * always satisfied at one value of the binary, which keeps the row's integer solutions but cuts off fractional ones.
+ * <p>
+ * Finally the fixed variables are taken out, and so are the rows they leave empty or that the bounds make redundant,
+ * which includes any rows over a single integer variable: their bounds are added back as rows of their own.
+ */
+final class Presolve {
+    private static final int LESS_THAN = 0;
+    private static final int EQUALITY = 1;
+    private static final int GREATER_THAN = 2;
+    private static final double TOLERANCE = 1e-9;
+    // How far an emptied row can be from holding before it makes the program infeasible, relative to its constant
+    private static final double FEASIBILITY_TOLERANCE = 1e-6;
+    // Probing stops after this many binaries, keeping presolve cheap on large programs
+    private static final int MAX_PROBED_VARIABLES = 1000;
+
+    // The presolve this one was run after, on its program, or null if this one was run on the original program
+    private final Presolve previous;
+    // The program this presolve was run on
+    private final MixedIntegerProgram presolvedProgram;
+    private final MixedIntegerProgram program;
+    // For each variable of the program presolved, its index in the smaller program, or -1 if it was fixed
+    private final int[] reducedVariables;
+    private final long[] fixedValues;
+    private final List<DualFixing> dualFixings;
+    private final double objectiveOffset;
+    private final PresolveStatistics statistics;
+
+    private Presolve(final Presolve previous,
+                     final MixedIntegerProgram presolvedProgram,
+                     final MixedIntegerProgram program,
+                     final int[] reducedVariables,
+                     final long[] fixedValues,
+                     final List<DualFixing> dualFixings,
+                     final double objectiveOffset,
+                     final PresolveStatistics statistics) {
+        this.previous = previous;
+        this.presolvedProgram = presolvedProgram;
+        this.program = program;
+        this.reducedVariables = reducedVariables;
+        this.fixedValues = fixedValues;
+        this.dualFixings = dualFixings;
+        this.objectiveOffset = objectiveOffset;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Presolve a program within the given bounds on its integer variables, or null bounds for none.
+     *
+     * @param previous the presolve that produced the program, if any, which solutions are then mapped back through
+     * @return the presolved program, or null if it turns out to be infeasible
+     */
+    static Presolve run(final MixedIntegerProgram program,
+                        final long[] lowerBounds,
+                        final long[] upperBounds,
+                        final Presolve previous) {
+        final Reducer reducer = new Reducer(program, lowerBounds, upperBounds);
+        final boolean isFeasible = reducer.propagate(null)
+                && reducer.probe()
+                && reducer.fixDominatedColumns()
+                && reducer.propagate(null);
+        if (!isFeasible) {
+            return null;
+        }
+
+        reducer.findImpliedIntegers();
+        reducer.tightenCoefficients();
+        return reducer.build(previous);
+    }
+
+    /**
+     * The presolved program.
+     */
+    MixedIntegerProgram getProgram() {
+        return program;
+    }
+
+    /**
+     * The program the first presolve in the chain was run on, which restored solutions are solutions of.
+     */
+    MixedIntegerProgram getOriginalProgram() {
+        return previous == null ? presolvedProgram : previous.getOriginalProgram();
+    }
+
+    /**
+     * What the objective of a solution of the original program is over that of the presolved program, from the
+     * variables that were fixed.
+     */
+    double getObjectiveOffset() {
+        return previous == null ? objectiveOffset : objectiveOffset + previous.getObjectiveOffset();
+    }
+
+    PresolveStatistics getStatistics() {
+        return previous == null ? statistics : statistics.add(previous.getStatistics());
+    }
+
+    /**
+     * Map a solution of the presolved program back to one of the original program.
+     */
+    Vector restore(final Vector solution) {
+        final Coefficient[] coefficients = new Coefficient[reducedVariables.length];
+        for (int variable = 0; variable < coefficients.length; variable++) {
+            coefficients[variable] = reducedVariables[variable] == -1
+                    ? Coefficients.from(fixedValues[variable])
+                    : solution.get(reducedVariables[variable]);
+        }
+
+        final Vector restoredSolution = new Vector(coefficients);
+        return previous == null ? restoredSolution : previous.restore(restoredSolution);
+    }
+
+    /**
+     * Map a solution of the program this presolve was run on to one of the presolved program, at least as good, by
+     * moving it onto the fixings that only hold for some optimal solution. Returns null if the solution is outside
+     * the bounds the program was presolved within.
+     */
+    Vector reduce(final Vector solution) {
+        final double[] values = CutLoop.toArray(solution);
+        for (final DualFixing fixing : dualFixings) {
+            if (fixing.partner == -1) {
+                values[fixing.variable] = fixing.value;
+            } else if (Math.round(values[fixing.variable]) == 1) {
+                values[fixing.variable] = 0;
+                values[fixing.partner] = 1;
+            }
+        }
+
+        final Coefficient[] coefficients = new Coefficient[program.getNumVariables()];
+        for (int variable = 0; variable < values.length; variable++) {
+            final int reducedVariable = reducedVariables[variable];
+            if (reducedVariable == -1) {
+                if (Math.abs(values[variable] - fixedValues[variable]) > FEASIBILITY_TOLERANCE) {
+                    return null;
+                }
+            } else {
+                coefficients[reducedVariable] = values[variable] == Coefficients.asDouble(solution.get(variable))
+                        ? solution.get(variable)
+                        : Coefficients.from(Math.round(values[variable]));
+            }
+        }
+
+        return new Vector(coefficients);
+    }
+
+    /**
+     * A variable fixed because it's no better than its bound, or than a partner variable it excludes. Solutions are
+     * moved onto it by setting the variable to the value, or by moving its 1 over to the partner.
+     */
+    private static final class DualFixing {
+        private final int variable;
+        private final long value;
+        private final int partner;
+
+        private DualFixing(final int variable, final long value, final int partner) {
+            this.variable = variable;
+            this.value = value;
+            this.partner = partner;
+        }
+    }
+
+    /**
+     * The program being presolved, as dense rows, and the bounds of its variables. A variable is fixed once its
+     * bounds meet, which for a continuous variable only happens when it's fixed at 0 by dominance.
+     */
+    private static final class Reducer {
+        private final MixedIntegerProgram program;
+        private final Propagator propagator;
+        private final int numVariables;
+        private final Coefficient[][] rows;
+        private final double[][] values;
+        private final ConstantCoefficient[] constants;
+        private final double[] constantValues;
+        private final boolean[] isConstantChanged;
+        private final int[] types;
+        // How many nonzero coefficients each row has
+        private final int[] rowSizes;
+        private final double[] scores;
+        private final boolean[] isInteger;
+        private final long[] lowerBounds;
+        private final long[] upperBounds;
+        // The bounds the rows imply on their own, which the presolved program needn't repeat as rows of their own
+        private final long[] rowLowerBounds;
+        private final long[] rowUpperBounds;
+        // Whether each variable is an integer bounded by a row of its own, which presolve takes out for its bounds
+        private final boolean[] hasBoundRow;
+        private final List<DualFixing> dualFixings;
+        private long tightenedCoefficients;
+        private long impliedIntegers;
+
+        private Reducer(final MixedIntegerProgram program, final long[] lowerBounds, final long[] upperBounds) {
+            this.program = program;
+            this.propagator = new Propagator(program);
+            this.numVariables = program.getNumVariables();
+            final List<Vector> vectors = new ArrayList<>();
+            final List<ConstantCoefficient> rowConstants = new ArrayList<>();
+            final List<Integer> rowTypes = new ArrayList<>();
+            addRows(program.getLessThanInequalities(), program.getLessThanConstants(), LESS_THAN, vectors,
+                    rowConstants, rowTypes);
+            addRows(program.getEqualities(), program.getEqualityConstants(), EQUALITY, vectors, rowConstants,
+                    rowTypes);
+            addRows(program.getGreaterThanInequalities(), program.getGreaterThanConstants(), GREATER_THAN, vectors,
+                    rowConstants, rowTypes);
+
+            final int numRows = vectors.size();
+            this.rows = new Coefficient[numRows][];
+            this.values = new double[numRows][numVariables];
+            this.constants = rowConstants.toArray(new ConstantCoefficient[0]);
+            this.constantValues = new double[numRows];
+            this.isConstantChanged = new boolean[numRows];
+            this.types = new int[numRows];
+            this.rowSizes = new int[numRows];
+            for (int row = 0; row < numRows; row++) {
+                rows[row] = vectors.get(row).getValues().clone();
+                for (int variable = 0; variable < numVariables; variable++) {
+                    values[row][variable] = Coefficients.asDouble(rows[row][variable]);
+                    rowSizes[row] += values[row][variable] != 0d ? 1 : 0;
+                }
+                constantValues[row] = Coefficients.asDouble(constants[row]);
+                types[row] = rowTypes.get(row);
+            }
+
+            this.hasBoundRow = new boolean[numVariables];
+            for (int row = 0; row < numRows; row++) {
+                for (int variable = 0; variable < numVariables && rowSizes[row] == 1; variable++) {
+                    hasBoundRow[variable] |= values[row][variable] != 0d && program.isIntegerVariable(variable);
+                }
+            }
+
+            this.scores = new double[numVariables];
+            this.isInteger = new boolean[numVariables];
+            for (int variable = 0; variable < numVariables; variable++) {
+                final double cost = Coefficients.asDouble(program.getCostVector().get(variable));
+                scores[variable] = program.isMaximization() ? cost : -cost;
+                isInteger[variable] = program.isIntegerVariable(variable);
+            }
+
+            this.lowerBounds = new long[numVariables];
+            this.upperBounds = new long[numVariables];
+            this.rowLowerBounds = new long[numVariables];
+            this.rowUpperBounds = new long[numVariables];
+            Node.root().getBounds(rowLowerBounds, rowUpperBounds);
+            propagator.propagate(rowLowerBounds, rowUpperBounds, null);
+            if (lowerBounds == null) {
+                Node.root().getBounds(this.lowerBounds, this.upperBounds);
+            } else {
+                System.arraycopy(lowerBounds, 0, this.lowerBounds, 0, numVariables);
+                System.arraycopy(upperBounds, 0, this.upperBounds, 0, numVariables);
+            }
+            this.dualFixings = new ArrayList<>();
+        }
+
+        private static void addRows(final List<Vector> vectors,
+                                    final List<ConstantCoefficient> vectorConstants,
+                                    final int type,
+                                    final List<Vector> rows,
+                                    final List<ConstantCoefficient> rowConstants,
+                                    final List<Integer> rowTypes) {
+            rows.addAll(vectors);
+            rowConstants.addAll(vectorConstants);
+            for (int i = 0; i < vectors.size(); i++) {
+                rowTypes.add(type);
+            }
+        }
+
+        private boolean propagate(final List<Integer> changedVariables) {
+            return propagator.propagate(lowerBounds, upperBounds, changedVariables);
+        }
+
+        private boolean isFixed(final int variable) {
+            return lowerBounds[variable] == upperBounds[variable];
+        }
+
+        private boolean isFreeBinary(final int variable) {
+            return program.isBinaryVariable(variable) && lowerBounds[variable] == 0 && upperBounds[variable] == 1;
+        }
+
+        /**
+         * Whether a row only bounds a single integer variable, which its bounds already account for.
+         */
+        private boolean isBoundRow(final int row, final int variable) {
+            return rowSizes[row] == 1 && program.isIntegerVariable(variable);
+        }
+
+        /**
+         * Probe the binaries, fixing and tightening what they imply. Returns false if the program is infeasible.
+         */
+        private boolean probe() {
+            int numProbed = 0;
+            for (int variable = 0; variable < numVariables && numProbed < MAX_PROBED_VARIABLES; variable++) {
+                if (!isFreeBinary(variable)) {
+                    continue;
+                }
+
+                numProbed++;
+                final List<Integer> changedVariables = Collections.singletonList(variable);
+                final long[] downLowerBounds = lowerBounds.clone();
+                final long[] downUpperBounds = upperBounds.clone();
+                downUpperBounds[variable] = 0;
+                final boolean isDownFeasible = propagator.propagate(downLowerBounds, downUpperBounds, changedVariables);
+                final long[] upLowerBounds = lowerBounds.clone();
+                final long[] upUpperBounds = upperBounds.clone();
+                upLowerBounds[variable] = 1;
+                final boolean isUpFeasible = propagator.propagate(upLowerBounds, upUpperBounds, changedVariables);
+
+                if (!isDownFeasible && !isUpFeasible) {
+                    return false;
+                } else if (!isUpFeasible || isUpFeasible && isDownFeasible && isDominated(variable, upUpperBounds)) {
+                    System.arraycopy(downLowerBounds, 0, lowerBounds, 0, numVariables);
+                    System.arraycopy(downUpperBounds, 0, upperBounds, 0, numVariables);
+                } else if (!isDownFeasible) {
+                    System.arraycopy(upLowerBounds, 0, lowerBounds, 0, numVariables);
+                    System.arraycopy(upUpperBounds, 0, upperBounds, 0, numVariables);
+                } else if (!mergeProbes(downLowerBounds, downUpperBounds, upLowerBounds, upUpperBounds)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Whether a binary is dominated by some other binary that setting it to 1 forces to 0, in which case it's
+         * fixed to 0 for the other one to take its place.
+         */
+        private boolean isDominated(final int variable, final long[] upUpperBounds) {
+            for (int other = 0; other < numVariables; other++) {
+                if (other != variable && isFreeBinary(other) && upUpperBounds[other] == 0
+                        && dominates(other, variable)) {
+                    dualFixings.add(new DualFixing(variable, 0, other));
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Whether one binary is at least as good as another, in the objective and in every row but their bounds.
+         */
+        private boolean dominates(final int variable, final int other) {
+            if (scores[variable] < scores[other]) {
+                return false;
+            }
+
+            for (int row = 0; row < values.length; row++) {
+                final double coefficient = values[row][variable];
+                final double otherCoefficient = values[row][other];
+                if (coefficient == otherCoefficient || rowSizes[row] == 1) {
+                    continue;
+                }
+
+                final boolean isBetter = types[row] == LESS_THAN && coefficient < otherCoefficient
+                        || types[row] == GREATER_THAN && coefficient > otherCoefficient;
+                if (!isBetter) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Keep the bounds that hold whichever value the probed binary takes, and propagate them if they changed.
+         */
+        private boolean mergeProbes(final long[] downLowerBounds,
+                                    final long[] downUpperBounds,
+                                    final long[] upLowerBounds,
+                                    final long[] upUpperBounds) {
+            final List<Integer> changedVariables = new ArrayList<>();
+            for (int variable = 0; variable < numVariables; variable++) {
+                final long lowerBound = Math.min(downLowerBounds[variable], upLowerBounds[variable]);
+                final long upperBound = Math.max(downUpperBounds[variable], upUpperBounds[variable]);
+                if (lowerBound > lowerBounds[variable] || upperBound < upperBounds[variable]) {
+                    lowerBounds[variable] = Math.max(lowerBounds[variable], lowerBound);
+                    upperBounds[variable] = Math.min(upperBounds[variable], upperBound);
+                    changedVariables.add(variable);
+                }
+            }
+
+            return changedVariables.isEmpty() || propagate(changedVariables);
+        }
+
+        /**
+         * Fix the variables that are dominated by one of their bounds: a variable no rows want more of, that doesn't
+         * improve the objective either, is fixed at its lower bound, and one all its rows want more of and the
+         * objective doesn't mind at its upper bound. Returns false if the program turns out to be infeasible.
+         */
+        private boolean fixDominatedColumns() {
+            for (int variable = 0; variable < numVariables; variable++) {
+                if (isFixed(variable)) {
+                    continue;
+                }
+
+                boolean isWorse = scores[variable] <= 0;
+                boolean isBetter = scores[variable] >= 0 && isInteger[variable]
+                        && upperBounds[variable] != BoundChange.NO_UPPER_BOUND;
+                for (int row = 0; row < values.length && (isWorse || isBetter); row++) {
+                    final double coefficient = values[row][variable];
+                    if (coefficient == 0d || isBoundRow(row, variable)) {
+                        continue;
+                    }
+
+                    // Equalities are made harder by moving their variables either way
+                    isWorse &= types[row] == LESS_THAN
+                            ? coefficient > 0
+                            : types[row] == GREATER_THAN && coefficient < 0;
+                    isBetter &= types[row] == LESS_THAN
+                            ? coefficient < 0
+                            : types[row] == GREATER_THAN && coefficient > 0;
+                }
+
+                if (isWorse || isBetter) {
+                    final long value = isWorse ? lowerBounds[variable] : upperBounds[variable];
+                    lowerBounds[variable] = value;
+                    upperBounds[variable] = value;
+                    dualFixings.add(new DualFixing(variable, value, -1));
+                    if (!propagate(Collections.singletonList(variable))) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Mark as integers the continuous variables that equalities over integers force to be integers.
+         */
+        private void findImpliedIntegers() {
+            for (int variable = 0; variable < numVariables; variable++) {
+                if (isInteger[variable] || isFixed(variable)) {
+                    continue;
+                }
+
+                for (int row = 0; row < values.length; row++) {
+                    if (types[row] == EQUALITY && Math.abs(values[row][variable]) == 1d && isIntegral(row, variable)) {
+                        isInteger[variable] = true;
+                        impliedIntegers++;
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Whether a row has an integer constant, and only integer variables with integer coefficients besides one.
+         */
+        private boolean isIntegral(final int row, final int skippedVariable) {
+            if (!isInteger(constantValues[row])) {
+                return false;
+            }
+
+            for (int variable = 0; variable < numVariables; variable++) {
+                final double coefficient = values[row][variable];
+                if (variable != skippedVariable && coefficient != 0d
+                        && (!program.isIntegerVariable(variable) && !isFixed(variable) || !isInteger(coefficient))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private static boolean isInteger(final double value) {
+            return Math.abs(value - Math.rint(value)) <= TOLERANCE;
+        }
+
+        /**
+         * Tighten the coefficients of free binaries in inequalities that hold at one of the binary's values no matter
+         * what. Writing the row as a^x <= b, with a largest activity M over the bounds: if a_j > 0 and the rest of the
+         * row is at most M - a_j < b, the row holds at x_j = 0, so a_j and b can both drop by b - (M - a_j). If a_j < 0
+         * and M + a_j < b < M, it holds at x_j = 1, so a_j can rise to b - M.
+         */
+        private void tightenCoefficients() {
+            for (int row = 0; row < values.length; row++) {
+                if (types[row] == EQUALITY || rowSizes[row] < 2) {
+                    continue;
+                }
+
+                final double sign = types[row] == LESS_THAN ? 1d : -1d;
+                double constant = sign * constantValues[row];
+                double maximumActivity = 0d;
+                for (int variable = 0; variable < numVariables; variable++) {
+                    final double coefficient = sign * values[row][variable];
+                    if (coefficient > 0 && upperBounds[variable] == BoundChange.NO_UPPER_BOUND) {
+                        maximumActivity = Double.POSITIVE_INFINITY;
+                        break;
+                    }
+                    maximumActivity += coefficient > 0
+                            ? coefficient * upperBounds[variable]
+                            : coefficient * lowerBounds[variable];
+                }
+                if (Double.isInfinite(maximumActivity) || maximumActivity <= constant + TOLERANCE) {
+                    continue;
+                }
+
+                for (int variable = 0; variable < numVariables; variable++) {
+                    final double coefficient = sign * values[row][variable];
+                    if (coefficient == 0d || !isFreeBinary(variable)) {
+                        continue;
+                    }
+
+                    final double newCoefficient;
+                    if (coefficient > 0) {
+                        final double slack = constant - (maximumActivity - coefficient);
+                        if (slack <= TOLERANCE || slack >= coefficient - TOLERANCE) {
+                            continue;
+                        }
+                        newCoefficient = coefficient - slack;
+                        constant -= slack;
+                        maximumActivity -= slack;
+                        constantValues[row] = sign * constant;
+                        isConstantChanged[row] = true;
+                    } else {
+                        if (maximumActivity + coefficient >= constant - TOLERANCE) {
+                            continue;
+                        }
+                        newCoefficient = constant - maximumActivity;
+                    }
+
+                    values[row][variable] = sign * newCoefficient;
+                    rows[row][variable] = toCoefficient(sign * newCoefficient);
+                    tightenedCoefficients++;
+                }
+            }
+        }
+
+        /**
+         * Take the fixed variables out of the program, along with the rows they empty and the rows the bounds make
+         * redundant. Returns null if an emptied row doesn't hold.
+         */
+        private Presolve build(final Presolve previous) {
+            final int[] reducedVariables = new int[numVariables];
+            final long[] fixedValues = new long[numVariables];
+            int numReducedVariables = 0;
+            for (int variable = 0; variable < numVariables; variable++) {
+                // The search needs something to search over, so the last variable stays if they're all fixed
+                final boolean isKept = !isFixed(variable) || variable == numVariables - 1 && numReducedVariables == 0;
+                reducedVariables[variable] = isKept ? numReducedVariables++ : -1;
+                fixedValues[variable] = isKept ? 0 : lowerBounds[variable];
+            }
+
+            double objectiveOffset = 0d;
+            final Coefficient[] costs = new Coefficient[numReducedVariables];
+            final List<Integer> integerVariables = new ArrayList<>();
+            for (int variable = 0; variable < numVariables; variable++) {
+                if (reducedVariables[variable] == -1) {
+                    objectiveOffset += Coefficients.asDouble(program.getCostVector().get(variable))
+                            * fixedValues[variable];
+                } else {
+                    costs[reducedVariables[variable]] = program.getCostVector().get(variable);
+                    if (isInteger[variable]) {
+                        integerVariables.add(reducedVariables[variable]);
+                    }
+                }
+            }
+
+            final MixedIntegerProgram.Builder builder = MixedIntegerProgram.newBuilder()
+                    .withCostVector(new Vector(costs))
+                    .withEngine(program.getEngine())
+                    .addIntegerVariables(integerVariables.stream().mapToInt(Integer::intValue).toArray());
+            if (!program.isMaximization()) {
+                builder.minimizeCostFunction();
+            }
+
+            long removedRows = 0;
+            for (int row = 0; row < rows.length; row++) {
+                final Coefficient[] coefficients = new Coefficient[numReducedVariables];
+                double constant = constantValues[row];
+                boolean isConstantSubstituted = false;
+                int numVariablesLeft = 0;
+                for (int variable = 0; variable < numVariables; variable++) {
+                    if (reducedVariables[variable] == -1) {
+                        constant -= values[row][variable] * fixedValues[variable];
+                        isConstantSubstituted |= values[row][variable] != 0d && fixedValues[variable] != 0;
+                    } else {
+                        coefficients[reducedVariables[variable]] = rows[row][variable];
+                        if (values[row][variable] != 0d) {
+                            numVariablesLeft++;
+                        }
+                    }
+                }
+
+                if (numVariablesLeft == 0) {
+                    if (!holds(types[row], constant, constantValues[row])) {
+                        return null;
+                    }
+                    removedRows++;
+                } else if (isRedundant(row)) {
+                    removedRows++;
+                } else {
+                    final ConstantCoefficient newConstant = isConstantChanged[row] || isConstantSubstituted
+                            ? toCoefficient(constant)
+                            : constants[row];
+                    addRow(builder, types[row], new Vector(coefficients), newConstant);
+                }
+            }
+
+            for (int variable = 0; variable < numVariables; variable++) {
+                // Bounds the rows imply anyway would only make the relaxations bigger
+                final boolean isBounded = hasBoundRow[variable] || isFixed(variable)
+                        || lowerBounds[variable] > rowLowerBounds[variable]
+                        || upperBounds[variable] < rowUpperBounds[variable];
+                if (reducedVariables[variable] == -1 || !isBounded) {
+                    continue;
+                }
+
+                final Vector unitVector = createUnitVector(numReducedVariables, reducedVariables[variable]);
+                if (upperBounds[variable] != BoundChange.NO_UPPER_BOUND) {
+                    builder.addLessThanInequality(unitVector, Coefficients.from(upperBounds[variable]));
+                }
+                if (lowerBounds[variable] > 0) {
+                    builder.addGreaterThanInequality(unitVector, Coefficients.from(lowerBounds[variable]));
+                }
+            }
+
+            final long numFixed = numVariables - numReducedVariables;
+            long dominatedColumns = 0;
+            for (final DualFixing fixing : dualFixings) {
+                dominatedColumns += reducedVariables[fixing.variable] == -1 ? 1 : 0;
+            }
+            return new Presolve(
+                    previous,
+                    program,
+                    builder.build(),
+                    reducedVariables,
+                    fixedValues,
+                    dualFixings,
+                    objectiveOffset,
+                    new PresolveStatistics(numFixed, removedRows, tightenedCoefficients, impliedIntegers,
+                            dominatedColumns)
+            );
+        }
+
+        /**
+         * Whether an inequality holds whatever values the variables take within their bounds.
+         */
+        private boolean isRedundant(final int row) {
+            if (types[row] == EQUALITY) {
+                return false;
+            }
+
+            final double sign = types[row] == LESS_THAN ? 1d : -1d;
+            double maximumActivity = 0d;
+            for (int variable = 0; variable < numVariables; variable++) {
+                final double coefficient = sign * values[row][variable];
+                if (coefficient > 0 && upperBounds[variable] == BoundChange.NO_UPPER_BOUND) {
+                    return false;
+                }
+                maximumActivity += coefficient > 0
+                        ? coefficient * upperBounds[variable]
+                        : coefficient * lowerBounds[variable];
+            }
+
+            return maximumActivity <= sign * constantValues[row] + TOLERANCE;
+        }
+
+        private static boolean holds(final int type, final double constant, final double originalConstant) {
+            final double tolerance = FEASIBILITY_TOLERANCE * Math.max(1d, Math.abs(originalConstant));
+            switch (type) {
+                case LESS_THAN:
+                    return constant >= -tolerance;
+                case GREATER_THAN:
+                    return constant <= tolerance;
+                default:
+                    return Math.abs(constant) <= tolerance;
+            }
+        }
+
+        private static void addRow(final MixedIntegerProgram.Builder builder,
+                                   final int type,
+                                   final Vector vector,
+                                   final ConstantCoefficient constant) {
+            switch (type) {
+                case LESS_THAN:
+                    builder.addLessThanInequality(vector, constant);
+                    break;
+                case GREATER_THAN:
+                    builder.addGreaterThanInequality(vector, constant);
+                    break;
+                default:
+                    builder.addEquality(vector, constant);
+            }
+        }
+
+        private static Vector createUnitVector(final int numVariables, final int variable) {
+            final Coefficient[] coefficients = new Coefficient[numVariables];
+            for (int i = 0; i < numVariables; i++) {
+                coefficients[i] = i == variable ? Coefficients.ONE : Coefficients.ZERO;
+            }
+
+            return new Vector(coefficients);
+        }
+
+        /**
+         * Integral values stay exact, so a program of integers keeps its exact engine.
+         */
+        private static ConstantCoefficient toCoefficient(final double value) {
+            return isInteger(value) && Math.abs(value) < 1e15
+                    ? Coefficients.from(Math.round(value))
+                    : Coefficients.from(value);
+        }
+    }
+}
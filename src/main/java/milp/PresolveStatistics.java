@@ -0,0 +1,71 @@
+package milp;
+
+/**
+ * How much presolve shrank a program, over the original presolve and any restarts.
+ */
+public final class PresolveStatistics {
+    private final long fixedVariables;
+    private final long removedRows;
+    private final long tightenedCoefficients;
+    private final long impliedIntegers;
+    private final long dominatedColumns;
+
+    PresolveStatistics(final long fixedVariables,
+                       final long removedRows,
+                       final long tightenedCoefficients,
+                       final long impliedIntegers,
+                       final long dominatedColumns) {
+        this.fixedVariables = fixedVariables;
+        this.removedRows = removedRows;
+        this.tightenedCoefficients = tightenedCoefficients;
+        this.impliedIntegers = impliedIntegers;
+        this.dominatedColumns = dominatedColumns;
+    }
+
+    /**
+     * How many variables were fixed, by propagation, probing or dominance, and removed from the program.
+     */
+    public long getFixedVariables() {
+        return fixedVariables;
+    }
+
+    /**
+     * How many rows were removed, because they were empty, redundant, or bounded a single integer variable.
+     */
+    public long getRemovedRows() {
+        return removedRows;
+    }
+
+    /**
+     * How many coefficients of binary variables were tightened, which leaves the integer solutions of their rows alone
+     * but cuts off some of their fractional ones.
+     */
+    public long getTightenedCoefficients() {
+        return tightenedCoefficients;
+    }
+
+    /**
+     * How many continuous variables were found to take integer values in every solution, and marked as integers.
+     */
+    public long getImpliedIntegers() {
+        return impliedIntegers;
+    }
+
+    /**
+     * How many variables were fixed because some other variable, or leaving them at a bound, is always at least as
+     * good.
+     */
+    public long getDominatedColumns() {
+        return dominatedColumns;
+    }
+
+    PresolveStatistics add(final PresolveStatistics other) {
+        return new PresolveStatistics(
+                fixedVariables + other.fixedVariables,
+                removedRows + other.removedRows,
+                tightenedCoefficients + other.tightenedCoefficients,
+                impliedIntegers + other.impliedIntegers,
+                dominatedColumns + other.dominatedColumns
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package milp;
+
+import core.WarmStart;
+import math.Vector;
+
+import java.util.Random;
+
+/**
+ * Looks for a feasible integer solution near the solution of a node's relaxation.
+ */
+interface PrimalHeuristic {
+    /**
+     * @param relaxation the final tableau of the node's relaxation, or null if it wasn't solved into one
+     * @param solution the values of the real variables in the relaxation's solution
+     * @param incumbent the best solution found so far, which mustn't be offered to directly
+     * @param random a source of randomness seeded by the node, so a deterministic search stays deterministic
+     * @return a feasible solution, or null if none was found
+     */
+    Vector findSolution(WarmStart relaxation, double[] solution, Incumbent incumbent, Random random);
+}
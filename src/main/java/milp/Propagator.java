@@ -0,0 +1,375 @@
+package milp;
+
+import coefficients.Coefficients;
+import core.WarmStart;
+import math.Vector;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tightens the bounds of a node's integer variables before its relaxation is solved.
+ * <p>
+ * Activity-based propagation looks at each row L <= a^x <= U within the current bounds: the smallest and largest
+ * values a^x can take without one of its variables bound a bound on that variable, which is rounded inwards since the
+ * variable is an integer. If even the smallest activity is above U, or the largest below L, the node is infeasible.
+ * Every variable watches the rows it appears in, and a row is only queued again once one of its variables' bounds has
+ * changed, so propagating a node costs about as much as the rows its new bounds touch.
+ * <p>
+ * Reduced-cost fixing works from the final tableau of the node's parent: raising a non-basic variable by t lowers the
+ * parent's objective by at least d t, where d is its reduced cost, so t can't exceed the parent's lead over the
+ * incumbent divided by d in any solution that beats the incumbent. A non-basic slack of a bound row bounds its
+ * variable the same way, from the other side.
+ */
+final class Propagator {
+    // Bounds only tighten by more than this, so rounding errors don't keep a row busy
+    private static final double TOLERANCE = 1e-6;
+    // Bounds beyond this are as good as infinite, and not worth rounding
+    private static final double MAX_BOUND = 1e12;
+    // How many times each row can be processed per call, on average, before propagation gives up
+    private static final int MAX_PASSES = 10;
+
+    private final MixedIntegerProgram program;
+    private final List<Row> rows;
+    // The rows each variable appears in
+    private final List<List<Row>> watchers;
+
+    Propagator(final MixedIntegerProgram program) {
+        this.program = program;
+        this.rows = new ArrayList<>();
+        for (int i = 0; i < program.getLessThanInequalities().size(); i++) {
+            addRow(program.getLessThanInequalities().get(i), Double.NEGATIVE_INFINITY,
+                    Coefficients.asDouble(program.getLessThanConstants().get(i)));
+        }
+        for (int i = 0; i < program.getEqualities().size(); i++) {
+            final double constant = Coefficients.asDouble(program.getEqualityConstants().get(i));
+            addRow(program.getEqualities().get(i), constant, constant);
+        }
+        for (int i = 0; i < program.getGreaterThanInequalities().size(); i++) {
+            addRow(program.getGreaterThanInequalities().get(i),
+                    Coefficients.asDouble(program.getGreaterThanConstants().get(i)), Double.POSITIVE_INFINITY);
+        }
+
+        this.watchers = new ArrayList<>();
+        for (int variable = 0; variable < program.getNumVariables(); variable++) {
+            watchers.add(new ArrayList<>());
+        }
+        for (final Row row : rows) {
+            for (final int variable : row.variables) {
+                watchers.get(variable).add(row);
+            }
+        }
+    }
+
+    private void addRow(final Vector vector, final double lowerLimit, final double upperLimit) {
+        final List<Integer> variables = new ArrayList<>();
+        for (int variable = 0; variable < vector.length(); variable++) {
+            if (Coefficients.asDouble(vector.get(variable)) != 0d) {
+                variables.add(variable);
+            }
+        }
+
+        final int[] variableArray = new int[variables.size()];
+        final double[] coefficients = new double[variables.size()];
+        for (int i = 0; i < variableArray.length; i++) {
+            variableArray[i] = variables.get(i);
+            coefficients[i] = Coefficients.asDouble(vector.get(variableArray[i]));
+        }
+        rows.add(new Row(rows.size(), variableArray, coefficients, lowerLimit, upperLimit));
+    }
+
+    /**
+     * Propagate the rows watched by the given variables, or every row if there are none, until nothing changes.
+     * Bounds are tightened in place, with BoundChange.NO_UPPER_BOUND standing for no upper bound.
+     *
+     * @return false if the bounds turn out to be infeasible
+     */
+    boolean propagate(final long[] lowerBounds, final long[] upperBounds, final List<Integer> changedVariables) {
+        final ArrayDeque<Row> queue = new ArrayDeque<>();
+        final boolean[] isQueued = new boolean[rows.size()];
+        if (changedVariables == null) {
+            queue.addAll(rows);
+            Arrays.fill(isQueued, true);
+        } else {
+            for (final int variable : changedVariables) {
+                enqueueWatchers(variable, queue, isQueued);
+            }
+        }
+
+        final List<Integer> tightenedVariables = new ArrayList<>();
+        int budget = MAX_PASSES * Math.max(rows.size(), 1);
+        while (!queue.isEmpty() && budget-- > 0) {
+            final Row row = queue.poll();
+            isQueued[row.index] = false;
+            tightenedVariables.clear();
+            if (!propagate(row, lowerBounds, upperBounds, tightenedVariables)) {
+                return false;
+            }
+
+            for (final int variable : tightenedVariables) {
+                enqueueWatchers(variable, queue, isQueued);
+            }
+        }
+
+        return true;
+    }
+
+    private void enqueueWatchers(final int variable, final ArrayDeque<Row> queue, final boolean[] isQueued) {
+        for (final Row row : watchers.get(variable)) {
+            if (!isQueued[row.index]) {
+                isQueued[row.index] = true;
+                queue.add(row);
+            }
+        }
+    }
+
+    /**
+     * Tighten the bounds of the integer variables in a row, noting which ones changed.
+     */
+    private boolean propagate(final Row row,
+                              final long[] lowerBounds,
+                              final long[] upperBounds,
+                              final List<Integer> tightenedVariables) {
+        // The activities, split into their finite parts and how many infinite terms they have
+        double minimumActivity = 0d;
+        int numInfiniteMinimumTerms = 0;
+        double maximumActivity = 0d;
+        int numInfiniteMaximumTerms = 0;
+        for (int i = 0; i < row.variables.length; i++) {
+            final double minimumTerm = getMinimumTerm(row, i, lowerBounds, upperBounds);
+            final double maximumTerm = getMaximumTerm(row, i, lowerBounds, upperBounds);
+            if (Double.isInfinite(minimumTerm)) {
+                numInfiniteMinimumTerms++;
+            } else {
+                minimumActivity += minimumTerm;
+            }
+            if (Double.isInfinite(maximumTerm)) {
+                numInfiniteMaximumTerms++;
+            } else {
+                maximumActivity += maximumTerm;
+            }
+        }
+
+        final double tolerance = TOLERANCE * Math.max(1d, Math.max(Math.abs(row.lowerLimit), Math.abs(row.upperLimit)));
+        if (numInfiniteMinimumTerms == 0 && minimumActivity > row.upperLimit + tolerance
+                || numInfiniteMaximumTerms == 0 && maximumActivity < row.lowerLimit - tolerance) {
+            return false;
+        }
+
+        for (int i = 0; i < row.variables.length; i++) {
+            final int variable = row.variables[i];
+            if (!program.isIntegerVariable(variable)) {
+                continue;
+            }
+
+            // The activity of the rest of the row, or infinite if it's unbounded without this variable
+            final double minimumTerm = getMinimumTerm(row, i, lowerBounds, upperBounds);
+            final double maximumTerm = getMaximumTerm(row, i, lowerBounds, upperBounds);
+            final double minimumRest = getRest(minimumActivity, numInfiniteMinimumTerms, minimumTerm);
+            final double maximumRest = getRest(maximumActivity, numInfiniteMaximumTerms, maximumTerm);
+
+            // a x <= U - minimumRest and a x >= L - maximumRest
+            final double coefficient = row.coefficients[i];
+            final double fromUpper = (row.upperLimit - minimumRest) / coefficient;
+            final double fromLower = (row.lowerLimit - maximumRest) / coefficient;
+            final double upper = coefficient > 0 ? fromUpper : fromLower;
+            final double lower = coefficient > 0 ? fromLower : fromUpper;
+
+            boolean isTightened = false;
+            if (!Double.isNaN(upper) && upper < MAX_BOUND) {
+                final long newUpperBound = (long) Math.floor(upper + TOLERANCE);
+                if (newUpperBound < upperBounds[variable]) {
+                    upperBounds[variable] = newUpperBound;
+                    isTightened = true;
+                }
+            }
+            if (!Double.isNaN(lower) && lower > -MAX_BOUND && lower < MAX_BOUND) {
+                final long newLowerBound = (long) Math.ceil(lower - TOLERANCE);
+                if (newLowerBound > lowerBounds[variable]) {
+                    lowerBounds[variable] = newLowerBound;
+                    isTightened = true;
+                }
+            }
+
+            if (isTightened) {
+                if (lowerBounds[variable] > upperBounds[variable]) {
+                    return false;
+                }
+                tightenedVariables.add(variable);
+            }
+        }
+
+        return true;
+    }
+
+    private static double getMinimumTerm(final Row row,
+                                         final int i,
+                                         final long[] lowerBounds,
+                                         final long[] upperBounds) {
+        final double coefficient = row.coefficients[i];
+        return coefficient > 0
+                ? coefficient * lowerBounds[row.variables[i]]
+                : coefficient * toDouble(upperBounds[row.variables[i]]);
+    }
+
+    private static double getMaximumTerm(final Row row,
+                                         final int i,
+                                         final long[] lowerBounds,
+                                         final long[] upperBounds) {
+        final double coefficient = row.coefficients[i];
+        return coefficient > 0
+                ? coefficient * toDouble(upperBounds[row.variables[i]])
+                : coefficient * lowerBounds[row.variables[i]];
+    }
+
+    /**
+     * An activity without one of its terms: infinite if some other term is, and the finite part less the term if not.
+     */
+    private static double getRest(final double activity, final int numInfiniteTerms, final double term) {
+        if (Double.isInfinite(term)) {
+            return numInfiniteTerms == 1 ? activity : term;
+        }
+
+        return numInfiniteTerms == 0 ? activity - term : Double.NaN;
+    }
+
+    private static double toDouble(final long upperBound) {
+        return upperBound == BoundChange.NO_UPPER_BOUND ? Double.POSITIVE_INFINITY : upperBound;
+    }
+
+    /**
+     * Fix the variables that the parent's reduced costs rule out of any solution that beats the incumbent by more than
+     * the parent's lead, tightening the bounds in place and noting which variables changed.
+     *
+     * @param parent the final tableau of the node's parent
+     * @param lead how much the parent's objective is above the incumbent's, which must be finite
+     * @return false if the bounds turn out to be infeasible
+     */
+    boolean fixByReducedCosts(final WarmStart parent,
+                              final double lead,
+                              final long[] lowerBounds,
+                              final long[] upperBounds,
+                              final List<Integer> changedVariables) {
+        final int numRealVariables = program.getNumVariables();
+        final boolean[] isBasic = new boolean[parent.getNumVariables()];
+        for (final int variable : parent.getBasisVariables()) {
+            isBasic[variable] = true;
+        }
+
+        for (int variable = 0; variable < parent.getNumVariables(); variable++) {
+            if (isBasic[variable] || parent.isDropped(variable)) {
+                continue;
+            }
+
+            final double reducedCost = parent.getReducedCost(variable);
+            if (reducedCost <= TOLERANCE) {
+                continue;
+            }
+
+            // The variable can rise by at most this much from 0
+            final double maximumRise = lead / reducedCost;
+            if (variable < numRealVariables) {
+                if (program.isIntegerVariable(variable) && maximumRise < MAX_BOUND) {
+                    final long newUpperBound = (long) Math.floor(maximumRise + TOLERANCE);
+                    if (!tightenUpperBound(variable, newUpperBound, lowerBounds, upperBounds, changedVariables)) {
+                        return false;
+                    }
+                }
+            } else if (parent.isSlackVariable(variable) && !fixBoundRow(parent, variable, maximumRise, lowerBounds,
+                    upperBounds, changedVariables)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * If a slack s = d - c x_j belongs to a bound on a single integer variable, s <= maximumRise bounds x_j from the
+     * other side.
+     */
+    private boolean fixBoundRow(final WarmStart parent,
+                                final int slack,
+                                final double maximumRise,
+                                final long[] lowerBounds,
+                                final long[] upperBounds,
+                                final List<Integer> changedVariables) {
+        final double[] unitCoefficients = new double[parent.getNumVariables()];
+        unitCoefficients[slack] = 1d;
+        // s >= 0 projects onto -c^x >= -d
+        final double[] projection = parent.projectOntoRealVariables(unitCoefficients, 0d);
+        int variable = -1;
+        for (int i = 1; i < projection.length; i++) {
+            if (projection[i] != 0d) {
+                if (variable != -1) {
+                    return true;
+                }
+                variable = i - 1;
+            }
+        }
+        if (variable == -1 || !program.isIntegerVariable(variable) || maximumRise >= MAX_BOUND) {
+            return true;
+        }
+
+        // d - c x <= maximumRise
+        final double d = -projection[0];
+        final double c = -projection[variable + 1];
+        final double bound = (d - maximumRise) / c;
+        return c > 0
+                ? tightenLowerBound(variable, (long) Math.ceil(bound - TOLERANCE), lowerBounds, upperBounds,
+                        changedVariables)
+                : tightenUpperBound(variable, (long) Math.floor(bound + TOLERANCE), lowerBounds, upperBounds,
+                        changedVariables);
+    }
+
+    private static boolean tightenUpperBound(final int variable,
+                                             final long upperBound,
+                                             final long[] lowerBounds,
+                                             final long[] upperBounds,
+                                             final List<Integer> changedVariables) {
+        if (upperBound < upperBounds[variable]) {
+            upperBounds[variable] = upperBound;
+            changedVariables.add(variable);
+        }
+
+        return lowerBounds[variable] <= upperBounds[variable];
+    }
+
+    private static boolean tightenLowerBound(final int variable,
+                                             final long lowerBound,
+                                             final long[] lowerBounds,
+                                             final long[] upperBounds,
+                                             final List<Integer> changedVariables) {
+        if (lowerBound > lowerBounds[variable]) {
+            lowerBounds[variable] = lowerBound;
+            changedVariables.add(variable);
+        }
+
+        return lowerBounds[variable] <= upperBounds[variable];
+    }
+
+    /**
+     * A row L <= a^x <= U, with infinite limits for inequalities, holding only its nonzero coefficients.
+     */
+    private static final class Row {
+        private final int index;
+        private final int[] variables;
+        private final double[] coefficients;
+        private final double lowerLimit;
+        private final double upperLimit;
+
+        private Row(final int index,
+                    final int[] variables,
+                    final double[] coefficients,
+                    final double lowerLimit,
+                    final double upperLimit) {
+            this.index = index;
+            this.variables = variables;
+            this.coefficients = coefficients;
+            this.lowerLimit = lowerLimit;
+            this.upperLimit = upperLimit;
+        }
+    }
+}
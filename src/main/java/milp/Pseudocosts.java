@@ -0,0 +1,67 @@
+package milp;
+
+/**
+ * The branching history of each variable: the average drop in the objective per unit that a variable was moved by,
+ * rounding up and rounding down. These are learned from every child whose relaxation gets solved, and from strong
+ * branching.
+ * <p>
+ * Workers of a parallel search share one instance, so every method is synchronized. Updates are rare next to the
+ * relaxations they come from.
+ */
+final class Pseudocosts {
+    private final double[] upGains;
+    private final long[] upCounts;
+    private final double[] downGains;
+    private final long[] downCounts;
+    // Over every variable, for the ones without a history of their own
+    private double totalUpGain;
+    private long totalUpCount;
+    private double totalDownGain;
+    private long totalDownCount;
+
+    Pseudocosts(final int numVariables) {
+        this.upGains = new double[numVariables];
+        this.upCounts = new long[numVariables];
+        this.downGains = new double[numVariables];
+        this.downCounts = new long[numVariables];
+    }
+
+    /**
+     * Record that moving a variable up or down by distance made the objective drop by gain.
+     */
+    synchronized void update(final int variable, final boolean isUp, final double gain, final double distance) {
+        final double gainPerUnit = Math.max(gain, 0d) / distance;
+        if (isUp) {
+            upGains[variable] += gainPerUnit;
+            upCounts[variable]++;
+            totalUpGain += gainPerUnit;
+            totalUpCount++;
+        } else {
+            downGains[variable] += gainPerUnit;
+            downCounts[variable]++;
+            totalDownGain += gainPerUnit;
+            totalDownCount++;
+        }
+    }
+
+    /**
+     * The expected drop in the objective per unit of moving a variable up or down. Falls back to the average over every
+     * variable without a history, and to 1 without any history at all.
+     */
+    synchronized double get(final int variable, final boolean isUp) {
+        final long count = isUp ? upCounts[variable] : downCounts[variable];
+        if (count > 0) {
+            return (isUp ? upGains[variable] : downGains[variable]) / count;
+        }
+
+        final long totalCount = isUp ? totalUpCount : totalDownCount;
+        return totalCount == 0 ? 1d : (isUp ? totalUpGain : totalDownGain) / totalCount;
+    }
+
+    /**
+     * How many times the variable's pseudocosts have been updated, in whichever direction has been updated least.
+     */
+    synchronized long getReliability(final int variable) {
+        return Math.min(upCounts[variable], downCounts[variable]);
+    }
+}
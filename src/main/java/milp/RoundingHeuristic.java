@@ -0,0 +1,146 @@
+package milp;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import core.PivotJournal;
+import core.Simplex;
+import core.WarmStart;
+import math.Vector;
+
+import java.util.Random;
+
+/**
+ * Rounds the integer variables of a relaxation's solution, either to the nearest integers or randomly, with each
+ * variable rounded up with a probability equal to its fractional part.
+ * <p>
+ * A rounded point that violates a constraint can still be saved if there are continuous variables: with the integer
+ * variables fixed at their rounded values, the relaxation is re-solved for the continuous ones.
+ */
+final class RoundingHeuristic implements PrimalHeuristic {
+    // How far a rounded point can be from satisfying a constraint and still count as feasible
+    static final double FEASIBILITY_TOLERANCE = 1e-6;
+    // How many random roundings to try per call
+    private static final int RANDOMIZED_TRIES = 5;
+
+    private final MixedIntegerProgram program;
+    private final boolean randomized;
+
+    RoundingHeuristic(final MixedIntegerProgram program, final boolean randomized) {
+        this.program = program;
+        this.randomized = randomized;
+    }
+
+    @Override
+    public Vector findSolution(final WarmStart relaxation,
+                               final double[] solution,
+                               final Incumbent incumbent,
+                               final Random random) {
+        // The tries share one copy of the tableau, each rolling its fixings back
+        final PivotJournal journal = startJournal(program, relaxation);
+        for (int i = 0; i < (randomized ? RANDOMIZED_TRIES : 1); i++) {
+            final double[] point = solution.clone();
+            for (int variable = 0; variable < point.length; variable++) {
+                if (!program.isIntegerVariable(variable)) {
+                    continue;
+                }
+
+                final double floor = Math.floor(point[variable]);
+                if (randomized) {
+                    point[variable] = random.nextDouble() < point[variable] - floor ? floor + 1 : floor;
+                } else {
+                    point[variable] = Math.rint(point[variable]);
+                }
+            }
+
+            final Vector feasibleSolution = complete(program, journal, point);
+            if (feasibleSolution != null) {
+                return feasibleSolution;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Start the journal complete fixes variables in, or return null if it won't need one, because there's no
+     * relaxation or nothing to re-solve it for.
+     */
+    static PivotJournal startJournal(final MixedIntegerProgram program, final WarmStart relaxation) {
+        return relaxation == null || !program.hasContinuousVariables() ? null : relaxation.startJournal();
+    }
+
+    /**
+     * Return a point as a solution if it's feasible. Otherwise fix its integer variables in the journal and re-solve
+     * the relaxation for the continuous ones, if there is a journal, and return that solution if it's feasible.
+     * Returns null if neither is. The fixings are rolled back again either way.
+     */
+    static Vector complete(final MixedIntegerProgram program, final PivotJournal journal, final double[] point) {
+        if (program.isFeasible(point, FEASIBILITY_TOLERANCE)) {
+            return toVector(point);
+        }
+        if (journal == null || !program.hasContinuousVariables()) {
+            return null;
+        }
+
+        final int size = journal.size();
+        WarmStart fixedRelaxation = journal.getWarmStart();
+        for (int variable = 0; variable < point.length && fixedRelaxation.isOptimal(); variable++) {
+            if (program.isIntegerVariable(variable)) {
+                fixedRelaxation = fix(program, journal, variable, Math.round(point[variable]));
+            }
+        }
+
+        final double[] fixedSolution;
+        if (!fixedRelaxation.isFeasible()) {
+            fixedSolution = null;
+        } else if (fixedRelaxation.isOptimal()) {
+            fixedSolution = CutLoop.toArray(fixedRelaxation.getOptimalSolution());
+        } else {
+            fixedSolution = solveFixed(program, point);
+        }
+        journal.rollback(size);
+        return fixedSolution != null && program.isFeasible(fixedSolution, FEASIBILITY_TOLERANCE)
+                ? toVector(fixedSolution)
+                : null;
+    }
+
+    /**
+     * Fix a variable of the journal's relaxation at a value, returning an infeasible relaxation if it can't be.
+     */
+    private static WarmStart fix(final MixedIntegerProgram program,
+                                 final PivotJournal journal,
+                                 final int variable,
+                                 final long value) {
+        final Vector unitVector = program.createUnitVector(variable);
+        final WarmStart boundedRelaxation = journal.addLessThanInequality(unitVector, Coefficients.from(value));
+        return boundedRelaxation.isOptimal()
+                ? journal.addGreaterThanInequality(unitVector, Coefficients.from(value))
+                : boundedRelaxation;
+    }
+
+    /**
+     * Solve the relaxation from scratch with the integer variables fixed at their rounded values, for when the dual
+     * simplex was cut short. Returns null if it's infeasible.
+     */
+    private static double[] solveFixed(final MixedIntegerProgram program, final double[] point) {
+        final long[] lowerBounds = new long[point.length];
+        final long[] upperBounds = new long[point.length];
+        for (int variable = 0; variable < point.length; variable++) {
+            final boolean isInteger = program.isIntegerVariable(variable);
+            lowerBounds[variable] = isInteger ? Math.round(point[variable]) : 0L;
+            upperBounds[variable] = isInteger ? Math.round(point[variable]) : BoundChange.NO_UPPER_BOUND;
+        }
+
+        final Simplex simplex = program.solveRelaxation(lowerBounds, upperBounds, false);
+        return simplex.isFeasible() ? CutLoop.toArray(simplex.getOptimalSolution()) : null;
+    }
+
+    static Vector toVector(final double[] values) {
+        final Coefficient[] coefficients = new Coefficient[values.length];
+        for (int i = 0; i < values.length; i++) {
+            coefficients[i] = Coefficients.from(values[i]);
+        }
+
+        return new Vector(coefficients);
+    }
+}
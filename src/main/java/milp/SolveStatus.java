@@ -0,0 +1,32 @@
+package milp;
+
+/**
+ * How a branch-and-bound solve ended.
+ */
+public enum SolveStatus {
+    /**
+     * The search finished, and the incumbent is optimal to within the gap tolerances.
+     */
+    OPTIMAL,
+
+    /**
+     * A time or node limit stopped the search with an incumbent, which may not be optimal. The best bound says how far
+     * from optimal it could be.
+     */
+    FEASIBLE,
+
+    /**
+     * The search finished without finding an integer solution, so there is none.
+     */
+    INFEASIBLE,
+
+    /**
+     * The relaxation is unbounded, so the program either is too or has no integer solution at all.
+     */
+    UNBOUNDED,
+
+    /**
+     * A time or node limit stopped the search before it found an integer solution.
+     */
+    LIMIT
+}
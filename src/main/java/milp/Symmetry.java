@@ -0,0 +1,532 @@
+package milp;
+
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import math.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The permutation symmetries of a program, and the symmetry-breaking constraints they give rise to.
+ * <p>
+ * A symmetry is a permutation of the variables that, along with a permutation of the rows, maps the program onto
+ * itself: the same costs, integrality, row types, right hand sides and coefficients. Interchangeable machines are the
+ * typical example, where swapping two machines' variables changes nothing. Symmetries are found on the graph with a
+ * vertex for every variable and row, and an edge for every nonzero coefficient. Refining its coloring until every
+ * vertex's color determines the colors of its neighbors leaves variables that might be symmetric in the same cell. A
+ * permutation mapping one variable onto another is then searched for by giving both the same new color, each in its
+ * own copy of the graph, refining the two copies together, and repeating with the next non-singleton cell until every
+ * cell has one vertex per copy. The permutation this pairs the copies up into is only kept if it checks out.
+ * <p>
+ * Searching between neighboring variables of each cell finds adjacent transpositions wherever the symmetry is a full
+ * permutation group, as with interchangeable machines. Every generator found adds the constraint x >=lex g(x) over the
+ * binary variables in index order, which the lexicographically largest solution of every orbit satisfies. Adjacent
+ * transpositions of machines then sort the machines' columns, so each class of symmetric solutions is searched once.
+ * The constraints are propagated on a node's bounds: the first binary g moves that isn't fixed to the same value as
+ * its image has to be at least that image.
+ */
+final class Symmetry {
+    // Search nodes per pair of variables, and over all pairs, before giving up on finding more symmetries
+    private static final int MAX_SEARCH_NODES = 100;
+    private static final int MAX_TOTAL_SEARCH_NODES = 10_000;
+    private static final int MAX_GENERATORS = 1000;
+
+    private final int numVariables;
+    private final List<int[]> generators;
+    // For each generator g, the binary positions i it moves, in order, followed by g^-1(i) for each
+    private final List<int[]> lexPairs;
+
+    private Symmetry(final int numVariables, final List<int[]> generators, final boolean[] binaryVariables) {
+        this.numVariables = numVariables;
+        this.generators = generators;
+        this.lexPairs = new ArrayList<>();
+        for (final int[] generator : generators) {
+            final int[] inverse = new int[numVariables];
+            for (int variable = 0; variable < numVariables; variable++) {
+                inverse[generator[variable]] = variable;
+            }
+
+            final List<Integer> positions = new ArrayList<>();
+            for (int variable = 0; variable < numVariables; variable++) {
+                if (binaryVariables[variable] && inverse[variable] != variable) {
+                    positions.add(variable);
+                }
+            }
+            final int[] pairs = new int[2 * positions.size()];
+            for (int i = 0; i < positions.size(); i++) {
+                pairs[2 * i] = positions.get(i);
+                pairs[2 * i + 1] = inverse[positions.get(i)];
+            }
+            lexPairs.add(pairs);
+        }
+    }
+
+    /**
+     * Find the symmetries of a program.
+     */
+    static Symmetry detect(final MixedIntegerProgram program) {
+        final Graph graph = new Graph(program);
+        final int numVertices = graph.numVertices;
+        final int[] baseColors = graph.refine(graph.initialColors);
+
+        final List<int[]> generators = new ArrayList<>();
+        final int[] orbits = new int[program.getNumVariables()];
+        for (int variable = 0; variable < orbits.length; variable++) {
+            orbits[variable] = variable;
+        }
+
+        final int[] budget = {MAX_TOTAL_SEARCH_NODES};
+        for (final int[] cell : graph.getVariableCells(baseColors)) {
+            for (int i = 0; i + 1 < cell.length && generators.size() < MAX_GENERATORS && budget[0] > 0; i++) {
+                if (find(orbits, cell[i]) == find(orbits, cell[i + 1])) {
+                    continue;
+                }
+
+                final int[] colors = Arrays.copyOf(baseColors, 2 * numVertices);
+                System.arraycopy(baseColors, 0, colors, numVertices, numVertices);
+                final int[] permutation = graph.search(
+                        graph.individualize(colors, cell[i], numVertices + cell[i + 1]),
+                        new int[]{MAX_SEARCH_NODES},
+                        budget
+                );
+                if (permutation != null) {
+                    generators.add(permutation);
+                    for (int variable = 0; variable < orbits.length; variable++) {
+                        orbits[find(orbits, variable)] = find(orbits, permutation[variable]);
+                    }
+                }
+            }
+        }
+
+        final boolean[] binaryVariables = new boolean[program.getNumVariables()];
+        for (int variable = 0; variable < binaryVariables.length; variable++) {
+            binaryVariables[variable] = program.isBinaryVariable(variable);
+        }
+        return new Symmetry(program.getNumVariables(), generators, binaryVariables);
+    }
+
+    private static int find(final int[] parents, final int variable) {
+        int root = variable;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+
+        return root;
+    }
+
+    int getNumGenerators() {
+        return generators.size();
+    }
+
+    /**
+     * The i-th generator, as the image of every variable.
+     */
+    int[] getGenerator(final int i) {
+        return generators.get(i).clone();
+    }
+
+    /**
+     * For each variable, the smallest variable in its orbit under the generators.
+     */
+    int[] getOrbits() {
+        final int[] parents = new int[numVariables];
+        for (int variable = 0; variable < numVariables; variable++) {
+            parents[variable] = variable;
+        }
+        for (final int[] generator : generators) {
+            for (int variable = 0; variable < numVariables; variable++) {
+                final int root = find(parents, variable);
+                final int otherRoot = find(parents, generator[variable]);
+                parents[Math.max(root, otherRoot)] = Math.min(root, otherRoot);
+            }
+        }
+
+        final int[] orbits = new int[numVariables];
+        for (int variable = 0; variable < numVariables; variable++) {
+            orbits[variable] = find(parents, variable);
+        }
+        return orbits;
+    }
+
+    /**
+     * Tighten a node's bounds with the symmetry-breaking constraints, in place, noting which variables changed.
+     *
+     * @return false if the bounds violate one of the constraints
+     */
+    boolean propagate(final long[] lowerBounds, final long[] upperBounds, final List<Integer> changedVariables) {
+        for (final int[] pairs : lexPairs) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                final int variable = pairs[i];
+                final int image = pairs[i + 1];
+                if (upperBounds[variable] == 0 && lowerBounds[image] == 1) {
+                    return false;
+                }
+                if (lowerBounds[variable] == 1 && upperBounds[image] == 0) {
+                    // Strictly larger here, so the rest doesn't matter
+                    break;
+                }
+
+                // Everything before is equal, so this variable has to be at least its image
+                if (upperBounds[variable] == 0 && upperBounds[image] != 0) {
+                    upperBounds[image] = 0;
+                    changedVariables.add(image);
+                }
+                if (lowerBounds[image] == 1 && lowerBounds[variable] != 1) {
+                    lowerBounds[variable] = 1;
+                    changedVariables.add(variable);
+                }
+                if (!isFixedTo(lowerBounds, upperBounds, variable, image)) {
+                    break;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Whether a variable and its image are both fixed, to the same value.
+     */
+    private static boolean isFixedTo(final long[] lowerBounds,
+                                     final long[] upperBounds,
+                                     final int variable,
+                                     final int image) {
+        return lowerBounds[variable] == upperBounds[variable]
+                && lowerBounds[image] == upperBounds[image]
+                && lowerBounds[variable] == lowerBounds[image];
+    }
+
+    /**
+     * The program as a colored graph: vertices 0 to n - 1 are the variables and n onwards the rows, with an edge for
+     * every nonzero coefficient. Colors are refined on any number of copies of the graph at once, copy c's vertices
+     * being offset by c times the number of vertices.
+     */
+    private static final class Graph {
+        private static final int LESS_THAN = 0;
+        private static final int EQUALITY = 1;
+        private static final int GREATER_THAN = 2;
+
+        private final int numVariables;
+        private final int numVertices;
+        private final int[][] neighbors;
+        private final double[][] weights;
+        private final int[] rowTypes;
+        private final double[] constants;
+        private final double[] costs;
+        private final int[] initialColors;
+
+        private Graph(final MixedIntegerProgram program) {
+            this.numVariables = program.getNumVariables();
+            final List<Vector> rows = new ArrayList<>();
+            final List<Integer> types = new ArrayList<>();
+            final List<ConstantCoefficient> rowConstants = new ArrayList<>();
+            addRows(program.getLessThanInequalities(), program.getLessThanConstants(), LESS_THAN, rows, types,
+                    rowConstants);
+            addRows(program.getEqualities(), program.getEqualityConstants(), EQUALITY, rows, types, rowConstants);
+            addRows(program.getGreaterThanInequalities(), program.getGreaterThanConstants(), GREATER_THAN, rows,
+                    types, rowConstants);
+
+            this.numVertices = numVariables + rows.size();
+            this.rowTypes = new int[rows.size()];
+            this.constants = new double[rows.size()];
+            final List<List<Integer>> neighborLists = new ArrayList<>();
+            final List<List<Double>> weightLists = new ArrayList<>();
+            for (int vertex = 0; vertex < numVertices; vertex++) {
+                neighborLists.add(new ArrayList<>());
+                weightLists.add(new ArrayList<>());
+            }
+            for (int row = 0; row < rows.size(); row++) {
+                rowTypes[row] = types.get(row);
+                constants[row] = Coefficients.asDouble(rowConstants.get(row));
+                final Vector vector = rows.get(row);
+                for (int variable = 0; variable < numVariables; variable++) {
+                    final double coefficient = Coefficients.asDouble(vector.get(variable));
+                    if (coefficient != 0d) {
+                        neighborLists.get(numVariables + row).add(variable);
+                        weightLists.get(numVariables + row).add(coefficient);
+                        neighborLists.get(variable).add(numVariables + row);
+                        weightLists.get(variable).add(coefficient);
+                    }
+                }
+            }
+
+            this.neighbors = new int[numVertices][];
+            this.weights = new double[numVertices][];
+            for (int vertex = 0; vertex < numVertices; vertex++) {
+                neighbors[vertex] = neighborLists.get(vertex).stream().mapToInt(Integer::intValue).toArray();
+                weights[vertex] = weightLists.get(vertex).stream().mapToDouble(Double::doubleValue).toArray();
+            }
+
+            this.costs = new double[numVariables];
+            final long[][] keys = new long[numVertices][];
+            for (int variable = 0; variable < numVariables; variable++) {
+                costs[variable] = Coefficients.asDouble(program.getCostVector().get(variable));
+                keys[variable] = new long[]{
+                        0,
+                        Double.doubleToLongBits(costs[variable] + 0d),
+                        program.isIntegerVariable(variable) ? 1 : 0,
+                        program.isBinaryVariable(variable) ? 1 : 0
+                };
+            }
+            for (int row = 0; row < rows.size(); row++) {
+                keys[numVariables + row] = new long[]{
+                        1,
+                        rowTypes[row],
+                        Double.doubleToLongBits(constants[row] + 0d),
+                        0
+                };
+            }
+            this.initialColors = rank(keys);
+        }
+
+        private static void addRows(final List<Vector> vectors,
+                                    final List<ConstantCoefficient> vectorConstants,
+                                    final int type,
+                                    final List<Vector> rows,
+                                    final List<Integer> types,
+                                    final List<ConstantCoefficient> rowConstants) {
+            for (int i = 0; i < vectors.size(); i++) {
+                rows.add(vectors.get(i));
+                types.add(type);
+                rowConstants.add(vectorConstants.get(i));
+            }
+        }
+
+        /**
+         * Refine colors on the given number of copies of the graph until they're stable: until no two vertices of
+         * the same color see different numbers of neighbors of some color along edges of some weight. New colors are
+         * numbered in a canonical order, so copies with matching colors stay matched.
+         */
+        private int[] refine(final int[] colors) {
+            int[] currentColors = colors;
+            int numColors = countColors(currentColors);
+            while (true) {
+                final long[][] signatures = new long[currentColors.length][];
+                for (int vertex = 0; vertex < currentColors.length; vertex++) {
+                    signatures[vertex] = getSignature(currentColors, vertex);
+                }
+
+                final int[] newColors = rank(signatures);
+                final int newNumColors = countColors(newColors);
+                if (newNumColors == numColors) {
+                    return newColors;
+                }
+                currentColors = newColors;
+                numColors = newNumColors;
+            }
+        }
+
+        /**
+         * A vertex's color, followed by the sorted weights and colors of its neighbors.
+         */
+        private long[] getSignature(final int[] colors, final int vertex) {
+            final int offset = vertex - vertex % numVertices;
+            final int base = vertex % numVertices;
+            final long[][] pairs = new long[neighbors[base].length][];
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] = new long[]{
+                        Double.doubleToLongBits(weights[base][i] + 0d),
+                        colors[offset + neighbors[base][i]]
+                };
+            }
+            Arrays.sort(pairs, Graph::compare);
+
+            final long[] signature = new long[1 + 2 * pairs.length];
+            signature[0] = colors[vertex];
+            for (int i = 0; i < pairs.length; i++) {
+                signature[1 + 2 * i] = pairs[i][0];
+                signature[2 + 2 * i] = pairs[i][1];
+            }
+            return signature;
+        }
+
+        /**
+         * Give two vertices, one in each copy, the same new color, which no other vertex has.
+         */
+        private int[] individualize(final int[] colors, final int vertex, final int otherVertex) {
+            final int[] newColors = colors.clone();
+            final int newColor = countColors(colors) == 0 ? 0 : Arrays.stream(colors).max().getAsInt() + 1;
+            newColors[vertex] = newColor;
+            newColors[otherVertex] = newColor;
+            return refine(newColors);
+        }
+
+        /**
+         * Search for a symmetry that maps each vertex of the first copy onto the vertex of the second copy with the
+         * same color, individualizing vertices until the colors pair the copies up. Returns the permutation of the
+         * variables, or null if none was found within the budgets.
+         */
+        private int[] search(final int[] colors, final int[] pairBudget, final int[] totalBudget) {
+            final int numColors = Arrays.stream(colors).max().getAsInt() + 1;
+            final int[] firstCounts = new int[numColors];
+            final int[] secondCounts = new int[numColors];
+            for (int vertex = 0; vertex < numVertices; vertex++) {
+                firstCounts[colors[vertex]]++;
+                secondCounts[colors[numVertices + vertex]]++;
+            }
+            int branchingColor = -1;
+            for (int color = 0; color < numColors; color++) {
+                if (firstCounts[color] != secondCounts[color]) {
+                    return null;
+                }
+                if (firstCounts[color] > 1
+                        && (branchingColor == -1 || firstCounts[color] < firstCounts[branchingColor])) {
+                    branchingColor = color;
+                }
+            }
+
+            final int[] guess = toPermutation(colors, numColors);
+            if (guess != null || branchingColor == -1) {
+                return guess;
+            }
+
+            int vertex = 0;
+            while (colors[vertex] != branchingColor) {
+                vertex++;
+            }
+            for (int otherVertex = 0; otherVertex < numVertices; otherVertex++) {
+                if (colors[numVertices + otherVertex] != branchingColor) {
+                    continue;
+                }
+                if (pairBudget[0]-- <= 0 || totalBudget[0]-- <= 0) {
+                    return null;
+                }
+
+                final int[] permutation = search(
+                        individualize(colors, vertex, numVertices + otherVertex),
+                        pairBudget,
+                        totalBudget
+                );
+                if (permutation != null) {
+                    return permutation;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * The permutation that maps every vertex of the first copy onto the vertex of the second with the same color,
+         * restricted to the variables, or null if it isn't a symmetry of the program. Colors shared by several
+         * vertices pair them up in index order, which is usually right, and saves individualizing any further.
+         */
+        private int[] toPermutation(final int[] colors, final int numColors) {
+            final int[] cellStarts = new int[numColors + 1];
+            for (int vertex = 0; vertex < numVertices; vertex++) {
+                cellStarts[colors[numVertices + vertex] + 1]++;
+            }
+            for (int color = 0; color < numColors; color++) {
+                cellStarts[color + 1] += cellStarts[color];
+            }
+            final int[] cells = new int[numVertices];
+            final int[] cellEnds = Arrays.copyOf(cellStarts, numColors);
+            for (int vertex = 0; vertex < numVertices; vertex++) {
+                cells[cellEnds[colors[numVertices + vertex]]++] = vertex;
+            }
+
+            final int[] permutation = new int[numVertices];
+            for (int vertex = 0; vertex < numVertices; vertex++) {
+                permutation[vertex] = cells[cellStarts[colors[vertex]]++];
+            }
+
+            return isSymmetry(permutation) ? Arrays.copyOf(permutation, numVariables) : null;
+        }
+
+        private boolean isSymmetry(final int[] permutation) {
+            for (int variable = 0; variable < numVariables; variable++) {
+                if (permutation[variable] >= numVariables || costs[permutation[variable]] != costs[variable]) {
+                    return false;
+                }
+            }
+
+            final double[] imageRow = new double[numVariables];
+            for (int vertex = numVariables; vertex < numVertices; vertex++) {
+                final int image = permutation[vertex];
+                final int row = vertex - numVariables;
+                if (image < numVariables
+                        || rowTypes[image - numVariables] != rowTypes[row]
+                        || constants[image - numVariables] != constants[row]
+                        || neighbors[image].length != neighbors[vertex].length) {
+                    return false;
+                }
+
+                for (int i = 0; i < neighbors[image].length; i++) {
+                    imageRow[neighbors[image][i]] = weights[image][i];
+                }
+                boolean isMatch = true;
+                for (int i = 0; i < neighbors[vertex].length && isMatch; i++) {
+                    isMatch = imageRow[permutation[neighbors[vertex][i]]] == weights[vertex][i];
+                }
+                for (int i = 0; i < neighbors[image].length; i++) {
+                    imageRow[neighbors[image][i]] = 0d;
+                }
+                if (!isMatch) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * The cells of more than one variable, each in index order, ordered by their first variable.
+         */
+        private List<int[]> getVariableCells(final int[] colors) {
+            final int numColors = Arrays.stream(colors).max().orElse(-1) + 1;
+            final List<List<Integer>> cells = new ArrayList<>();
+            for (int color = 0; color < numColors; color++) {
+                cells.add(new ArrayList<>());
+            }
+            for (int variable = 0; variable < numVariables; variable++) {
+                cells.get(colors[variable]).add(variable);
+            }
+
+            final List<int[]> variableCells = new ArrayList<>();
+            for (final List<Integer> cell : cells) {
+                if (cell.size() > 1) {
+                    variableCells.add(cell.stream().mapToInt(Integer::intValue).toArray());
+                }
+            }
+            variableCells.sort(Comparator.comparingInt(cell -> cell[0]));
+            return variableCells;
+        }
+
+        /**
+         * Number keys by their rank among the distinct keys, in lexicographic order.
+         */
+        private static int[] rank(final long[][] keys) {
+            final Integer[] order = new Integer[keys.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (first, second) -> compare(keys[first], keys[second]));
+
+            final int[] ranks = new int[keys.length];
+            int rank = -1;
+            for (int i = 0; i < order.length; i++) {
+                if (i == 0 || compare(keys[order[i - 1]], keys[order[i]]) != 0) {
+                    rank++;
+                }
+                ranks[order[i]] = rank;
+            }
+            return ranks;
+        }
+
+        private static int compare(final long[] first, final long[] second) {
+            for (int i = 0; i < Math.min(first.length, second.length); i++) {
+                if (first[i] != second[i]) {
+                    return Long.compare(first[i], second[i]);
+                }
+            }
+
+            return Integer.compare(first.length, second.length);
+        }
+
+        private static int countColors(final int[] colors) {
+            return colors.length == 0 ? 0 : (int) Arrays.stream(colors).distinct().count();
+        }
+    }
+}
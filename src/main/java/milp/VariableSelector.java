@@ -0,0 +1,215 @@
+package milp;
+
+import coefficients.Coefficients;
+import core.PivotJournal;
+import core.WarmStart;
+import math.Vector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Picks the variable to branch a node on, by one of the branching rules.
+ * <p>
+ * Strong branching looks at the candidates in order of promise, the most fractional ones first or, for reliability
+ * branching, those with the best pseudocost scores first. It gives up once a few candidates in a row fail to beat the
+ * best one so far, since the rest are unlikely to either. Without a final tableau to strong branch from, strong
+ * branching falls back to the most fractional variable, and reliability branching to pseudocosts. The children are
+ * solved in a PivotJournal and rolled back, so strong branching copies the tableau once per node, not per child.
+ */
+final class VariableSelector {
+    private static final double INTEGRALITY_TOLERANCE = 1e-6;
+    // Keeps a drop of zero in one child from zeroing out the other child's drop
+    private static final double MINIMUM_GAIN = 1e-6;
+    private static final int MAX_STRONG_BRANCHING_CANDIDATES = 10;
+    // How many candidates in a row can fail to improve on the best before strong branching stops
+    private static final int LOOKAHEAD = 4;
+
+    private final MixedIntegerProgram program;
+    private final BranchingRule rule;
+    private final Pseudocosts pseudocosts;
+    private final int maxPivots;
+    private final int reliabilityThreshold;
+
+    VariableSelector(final MixedIntegerProgram program,
+                     final BranchingRule rule,
+                     final Pseudocosts pseudocosts,
+                     final int maxPivots,
+                     final int reliabilityThreshold) {
+        this.program = program;
+        this.rule = rule;
+        this.pseudocosts = pseudocosts;
+        this.maxPivots = maxPivots;
+        this.reliabilityThreshold = reliabilityThreshold;
+    }
+
+    /**
+     * Pick the variable to branch on, given a fractional solution of a node's relaxation.
+     *
+     * @param score the (maximized) objective value of the relaxation
+     * @param relaxation the final tableau of the relaxation, or null if there is none
+     */
+    Selection select(final Vector solution, final double score, final WarmStart relaxation) {
+        final double[] values = new double[solution.length()];
+        final List<Integer> candidates = new ArrayList<>();
+        for (int variable = 0; variable < values.length; variable++) {
+            values[variable] = Coefficients.asDouble(solution.get(variable));
+            if (program.isIntegerVariable(variable) && getFractionality(values[variable]) > INTEGRALITY_TOLERANCE) {
+                candidates.add(variable);
+            }
+        }
+
+        final Comparator<Integer> byFractionality = Comparator.comparingDouble(
+                (Integer variable) -> getFractionality(values[variable])).reversed();
+        final Comparator<Integer> byPseudocostScore = Comparator.comparingDouble(
+                (Integer variable) -> getPseudocostScore(variable, values[variable])).reversed();
+        final boolean canStrongBranch = relaxation != null && relaxation.isFeasible();
+        switch (rule) {
+            case MOST_FRACTIONAL:
+                candidates.sort(byFractionality);
+                return new Selection(candidates.get(0), BranchingRule.MOST_FRACTIONAL);
+            case STRONG:
+                candidates.sort(byFractionality);
+                return canStrongBranch
+                        ? strongBranch(candidates, values, score, relaxation, false)
+                        : new Selection(candidates.get(0), BranchingRule.MOST_FRACTIONAL);
+            case PSEUDOCOST:
+            case RELIABILITY:
+                candidates.sort(byPseudocostScore);
+                return rule == BranchingRule.RELIABILITY && canStrongBranch
+                        ? strongBranch(candidates, values, score, relaxation, true)
+                        : new Selection(candidates.get(0), BranchingRule.PSEUDOCOST);
+            default:
+                throw new IllegalArgumentException("Unknown branching rule " + rule);
+        }
+    }
+
+    /**
+     * Strong branch on the candidates in order, skipping those whose pseudocosts are reliable if asked to, and scoring
+     * them by their pseudocosts instead. The selection is credited to strong branching if that's what scored the
+     * winner.
+     */
+    private Selection strongBranch(final List<Integer> candidates,
+                                   final double[] values,
+                                   final double score,
+                                   final WarmStart relaxation,
+                                   final boolean skipReliable) {
+        int bestVariable = candidates.get(0);
+        double bestScore = Double.NEGATIVE_INFINITY;
+        boolean isBestStrong = false;
+        int numStrongBranched = 0;
+        int sinceImprovement = 0;
+        PivotJournal journal = null;
+        for (final int variable : candidates) {
+            final boolean isReliable = skipReliable && pseudocosts.getReliability(variable) >= reliabilityThreshold;
+            if (!isReliable && numStrongBranched == MAX_STRONG_BRANCHING_CANDIDATES) {
+                continue;
+            }
+            if (!isReliable && journal == null) {
+                journal = relaxation.startJournal();
+            }
+
+            final double candidateScore = isReliable
+                    ? getPseudocostScore(variable, values[variable])
+                    : getStrongBranchingScore(variable, values[variable], score, journal);
+            numStrongBranched += isReliable ? 0 : 1;
+            if (candidateScore > bestScore) {
+                bestVariable = variable;
+                bestScore = candidateScore;
+                isBestStrong = !isReliable;
+                sinceImprovement = 0;
+            } else if (++sinceImprovement == LOOKAHEAD) {
+                break;
+            }
+        }
+
+        return new Selection(bestVariable, isBestStrong ? BranchingRule.STRONG : BranchingRule.PSEUDOCOST);
+    }
+
+    /**
+     * Solve both children of a variable in the journal, with a limited number of pivots each, rolling each back once
+     * it's scored, and record the drops in the objective as pseudocosts if the children were solved to optimality. An
+     * infeasible child counts as an infinite drop.
+     */
+    private double getStrongBranchingScore(final int variable,
+                                           final double value,
+                                           final double score,
+                                           final PivotJournal journal) {
+        final Vector unitVector = program.createUnitVector(variable);
+        final double floor = Math.floor(value);
+        final WarmStart downChild = journal.addLessThanInequality(
+                unitVector,
+                Coefficients.from((long) floor),
+                maxPivots
+        );
+        final double downGain = getGain(downChild, score);
+        final boolean isDownChildOptimal = downChild.isOptimal();
+        journal.rollback(0);
+
+        final WarmStart upChild = journal.addGreaterThanInequality(
+                unitVector,
+                Coefficients.from((long) floor + 1),
+                maxPivots
+        );
+        final double upGain = getGain(upChild, score);
+        final boolean isUpChildOptimal = upChild.isOptimal();
+        journal.rollback(0);
+
+        if (isDownChildOptimal) {
+            pseudocosts.update(variable, false, downGain, value - floor);
+        }
+        if (isUpChildOptimal) {
+            pseudocosts.update(variable, true, upGain, floor + 1 - value);
+        }
+
+        return getProductScore(downGain, upGain);
+    }
+
+    private double getGain(final WarmStart child, final double score) {
+        if (!child.isFeasible()) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        final double childScore = program.isMaximization() ? child.getOptimalValue() : -child.getOptimalValue();
+        return Math.max(score - childScore, 0d);
+    }
+
+    private double getPseudocostScore(final int variable, final double value) {
+        final double fractionalPart = value - Math.floor(value);
+        return getProductScore(
+                pseudocosts.get(variable, false) * fractionalPart,
+                pseudocosts.get(variable, true) * (1 - fractionalPart)
+        );
+    }
+
+    private static double getProductScore(final double downGain, final double upGain) {
+        return Math.max(downGain, MINIMUM_GAIN) * Math.max(upGain, MINIMUM_GAIN);
+    }
+
+    private static double getFractionality(final double value) {
+        final double fractionalPart = value - Math.floor(value);
+        return Math.min(fractionalPart, 1 - fractionalPart);
+    }
+
+    /**
+     * The variable to branch on, and the rule that picked it.
+     */
+    static final class Selection {
+        private final int variable;
+        private final BranchingRule rule;
+
+        private Selection(final int variable, final BranchingRule rule) {
+            this.variable = variable;
+            this.rule = rule;
+        }
+
+        int getVariable() {
+            return variable;
+        }
+
+        BranchingRule getRule() {
+            return rule;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package milp;
+
+import core.WarmStart;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The final tableaus of the most recently branched nodes, kept for their children to warm start from.
+ * <p>
+ * A tableau is as big as the whole problem, so only a few are kept, and the oldest is evicted first. A depth-first
+ * dive always finds its parent's tableau here, while other node selections find it less often and fall back to a
+ * cold solve. A tableau is dropped as soon as both children have taken it. Tableaus are only ever added while
+ * branching, so in a deterministic search which children find theirs doesn't depend on scheduling.
+ */
+final class WarmStartCache {
+    private final Map<Long, Entry> entries;
+
+    WarmStartCache(final int capacity) {
+        this.entries = new LinkedHashMap<Long, Entry>() {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized void put(final long nodeId, final WarmStart warmStart) {
+        entries.put(nodeId, new Entry(warmStart));
+    }
+
+    /**
+     * Take the tableau of a node for one of its children, or return null if it's been evicted.
+     */
+    synchronized WarmStart take(final long nodeId) {
+        final Entry entry = entries.get(nodeId);
+        if (entry == null) {
+            return null;
+        }
+
+        if (--entry.remainingChildren == 0) {
+            entries.remove(nodeId);
+        }
+        return entry.warmStart;
+    }
+
+    private static final class Entry {
+        private final WarmStart warmStart;
+        private int remainingChildren;
+
+        private Entry(final WarmStart warmStart) {
+            this.warmStart = warmStart;
+            this.remainingChildren = 2;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package solver;
 
 import coefficients.ConstantCoefficient;
+import core.ScalingReport;
 import core.Simplex;
+import core.SimplexEngine;
 import lang.Preconditions;
 import math.Vector;
 
@@ -46,6 +48,17 @@ public class LinearProgramSolver implements Solver {
         return simplex.getOptimalValue();
     }
 
+    public SimplexEngine getEngine() {
+        return simplex.getEngine();
+    }
+
+    /**
+     * How much scaling narrowed the spread of the coefficients, if the program was scaled.
+     */
+    public Optional<ScalingReport> getScalingReport() {
+        return simplex.getScalingReport();
+    }
+
     public static Builder newBuilder() {
         return new Builder();
     }
@@ -67,6 +80,41 @@ public class LinearProgramSolver implements Solver {
             return this;
         }
 
+        /**
+         * Override the engine the underlying Simplex would otherwise pick for itself.
+         */
+        public Builder withEngine(final SimplexEngine engine) {
+            simplexBuilder.withEngine(engine);
+            return this;
+        }
+
+        /**
+         * Presolve the program before solving it, which shrinks it by removing the rows and variables it can settle on
+         * its own. The solution is still one of the original program.
+         */
+        public Builder withPresolve() {
+            simplexBuilder.withPresolve();
+            return this;
+        }
+
+        /**
+         * Scale the program so its coefficients are all about 1, which keeps the double engines from rounding their
+         * way to wrong pivots on badly scaled programs. The solution is still one of the original program.
+         */
+        public Builder withScaling() {
+            simplexBuilder.withScaling();
+            return this;
+        }
+
+        /**
+         * Start the Simplex from a crash basis, which saves pivots on programs whose equalities have variables of
+         * their own, like explicit slack or excess variables.
+         */
+        public Builder withCrashBasis() {
+            simplexBuilder.withCrashBasis();
+            return this;
+        }
+
         public Builder withCostVector(final Vector costVector) {
             simplexBuilder.withCostVector(costVector);
             return this;
@@ -4,6 +4,7 @@ import coefficients.Coefficient;
 import coefficients.Coefficients;
 import coefficients.ConstantCoefficient;
 import core.Simplex;
+import core.Tableau;
 import lang.Preconditions;
 import math.Vector;
 
@@ -59,6 +60,7 @@ public final class MaxNormSolver implements Solver {
 
     private static Simplex createModifiedSimplex(final List<Vector> dataVectors, final Vector targetVector) {
         final Simplex.Builder simplexBuilder = Simplex.newBuilder()
+                .withTableauLayout(Tableau.Layout.COLUMN_MAJOR)
                 .minimizeCostFunction()
                 .withCostVector(Vector.newBuilder()
                         .addAllCoefficients(IntStream.range(0, dataVectors.get(0).length())
@@ -0,0 +1,399 @@
+package solver;
+
+import coefficients.ConstantCoefficient;
+import core.SimplexEngine;
+import lang.Preconditions;
+import math.Vector;
+import milp.BranchAndBound;
+import milp.BranchAndBoundResult;
+import milp.BranchingRule;
+import milp.Heuristic;
+import milp.IncumbentCallback;
+import milp.LagrangianRelaxation;
+import milp.MixedIntegerProgram;
+import milp.NodeSelection;
+import milp.SolveStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * This solver handles problems of the following type:
+ * <p>
+ * min [or max] c^x
+ * <p>
+ * s.t.
+ * <p>
+ * Ax <= b
+ * Cx = d
+ * Ef = g
+ * x >= 0
+ * <p>
+ * where x is a vector in R^n, and x_i are integers for the variables marked as such.
+ * <p>
+ * The problem is solved by branch-and-bound over Simplex relaxations, which can stop early once the best solution is
+ * within a gap tolerance of the optimum. The gap actually achieved is reported alongside the solution.
+ */
+public class MixedIntegerProgramSolver implements Solver {
+    private final BranchAndBoundResult result;
+
+    private MixedIntegerProgramSolver(final BranchAndBoundResult result) {
+        this.result = result;
+    }
+
+    @Override
+    public Optional<Vector> getOptimalSolutionIfFeasible() {
+        return result.getIncumbent();
+    }
+
+    @Override
+    public double getOptimalValue() {
+        return result.getIncumbentValue();
+    }
+
+    /**
+     * A bound on the objective value of any integer solution, proven by the search.
+     */
+    public double getBestBound() {
+        return result.getBestBound();
+    }
+
+    /**
+     * The relative gap between the solution and the best bound, which is 0 if the solution is proven optimal.
+     */
+    public double getOptimalityGap() {
+        return result.getGap();
+    }
+
+    public boolean isUnbounded() {
+        return result.isUnbounded();
+    }
+
+    /**
+     * Whether the solution is proven optimal, or a limit stopped the search before it could be.
+     */
+    public SolveStatus getStatus() {
+        return result.getStatus();
+    }
+
+    public long getNodeCount() {
+        return result.getNodeCount();
+    }
+
+    /**
+     * How many nodes each branching rule picked the branching variable of, counted like
+     * BranchAndBoundResult.getBranchingCounts.
+     */
+    public Map<BranchingRule, Long> getBranchingCounts() {
+        return result.getBranchingCounts();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final MixedIntegerProgram.Builder programBuilder;
+        private final BranchAndBound.Builder branchAndBoundBuilder;
+
+        private Builder() {
+            this.programBuilder = MixedIntegerProgram.newBuilder();
+            this.branchAndBoundBuilder = BranchAndBound.newBuilder();
+        }
+
+        public Builder maximizingCost() {
+            programBuilder.maximizeCostFunction();
+            return this;
+        }
+
+        public Builder minimizingCost() {
+            programBuilder.minimizeCostFunction();
+            return this;
+        }
+
+        public Builder withCostVector(final Vector costVector) {
+            programBuilder.withCostVector(costVector);
+            return this;
+        }
+
+        /**
+         * Mark variables (by their index in the cost vector) as integers. All other variables are continuous.
+         */
+        public Builder withIntegerVariables(final int... variables) {
+            programBuilder.addIntegerVariables(variables);
+            return this;
+        }
+
+        public Builder withNodeSelection(final NodeSelection nodeSelection) {
+            branchAndBoundBuilder.withNodeSelection(nodeSelection);
+            return this;
+        }
+
+        /**
+         * Stop once the solution is proven to be within this relative gap of the optimum. Defaults to 0.
+         */
+        public Builder withGapTolerance(final double gapTolerance) {
+            branchAndBoundBuilder.withGapTolerance(gapTolerance);
+            return this;
+        }
+
+        /**
+         * Stop once the solution is proven to be within this absolute gap of the optimum. Defaults to 0.
+         */
+        public Builder withAbsoluteGapTolerance(final double absoluteGapTolerance) {
+            branchAndBoundBuilder.withAbsoluteGapTolerance(absoluteGapTolerance);
+            return this;
+        }
+
+        /**
+         * Return the best solution found once this much time has passed. Defaults to no limit.
+         */
+        public Builder withTimeLimit(final Duration timeLimit) {
+            branchAndBoundBuilder.withTimeLimit(timeLimit);
+            return this;
+        }
+
+        /**
+         * Return the best solution found once this many relaxations have been solved. Defaults to no limit.
+         */
+        public Builder withNodeLimit(final long nodeLimit) {
+            branchAndBoundBuilder.withNodeLimit(nodeLimit);
+            return this;
+        }
+
+        /**
+         * Notify the callback of every better solution as soon as it's found.
+         */
+        public Builder withIncumbentCallback(final IncumbentCallback incumbentCallback) {
+            branchAndBoundBuilder.withIncumbentCallback(incumbentCallback);
+            return this;
+        }
+
+        /**
+         * Search the branch-and-bound tree with this many threads. Defaults to 1.
+         */
+        public Builder withThreads(final int threads) {
+            branchAndBoundBuilder.withThreads(threads);
+            return this;
+        }
+
+        /**
+         * Search the tree in synchronized rounds of this many nodes, so that every run returns exactly the same
+         * solution and node count regardless of the number of threads.
+         */
+        public Builder withDeterministicRounds(final int roundSize) {
+            branchAndBoundBuilder.withDeterministicRounds(roundSize);
+            return this;
+        }
+
+        /**
+         * Spill open nodes to a file once they take up more than this many bytes of memory, so that huge searches
+         * slow down rather than run out of memory.
+         */
+        public Builder withNodeMemoryLimit(final long nodeMemoryLimit) {
+            branchAndBoundBuilder.withNodeMemoryLimit(nodeMemoryLimit);
+            return this;
+        }
+
+        /**
+         * Tighten the root relaxation with up to this many rounds of cuts. Defaults to 10, and 0 turns cuts off.
+         */
+        public Builder withRootCutRounds(final int rootCutRounds) {
+            branchAndBoundBuilder.withRootCutRounds(rootCutRounds);
+            return this;
+        }
+
+        /**
+         * Add a round of local cuts at every node whose depth is a multiple of this. Defaults to 0, i.e. only cut at
+         * the root.
+         */
+        public Builder withTreeCutFrequency(final int treeCutFrequency) {
+            branchAndBoundBuilder.withTreeCutFrequency(treeCutFrequency);
+            return this;
+        }
+
+        /**
+         * Run a primal heuristic at every fractional node whose depth is a multiple of this, or never with 0.
+         */
+        public Builder withHeuristicFrequency(final Heuristic heuristic, final int frequency) {
+            branchAndBoundBuilder.withHeuristicFrequency(heuristic, frequency);
+            return this;
+        }
+
+        /**
+         * How to pick the variable to branch on. Defaults to RELIABILITY.
+         */
+        public Builder withBranchingRule(final BranchingRule branchingRule) {
+            branchAndBoundBuilder.withBranchingRule(branchingRule);
+            return this;
+        }
+
+        /**
+         * Cut the dual simplex short after this many pivots when strong branching on a child. Defaults to 20.
+         */
+        public Builder withStrongBranchingPivots(final int strongBranchingPivots) {
+            branchAndBoundBuilder.withStrongBranchingPivots(strongBranchingPivots);
+            return this;
+        }
+
+        /**
+         * Trust a variable's pseudocosts, rather than strong branching on it, once both directions have been learned
+         * this many times. Defaults to 4.
+         */
+        public Builder withReliabilityThreshold(final int reliabilityThreshold) {
+            branchAndBoundBuilder.withReliabilityThreshold(reliabilityThreshold);
+            return this;
+        }
+
+        /**
+         * Tighten the bounds of each node by propagation and reduced-cost fixing before solving its relaxation.
+         * Defaults to true.
+         */
+        public Builder withPropagation(final boolean propagation) {
+            branchAndBoundBuilder.withPropagation(propagation);
+            return this;
+        }
+
+        /**
+         * Learn conflicts from infeasible nodes, keeping up to this many of them to prune other nodes with. Defaults
+         * to 0, i.e. no conflict analysis.
+         */
+        public Builder withConflictStoreSize(final int conflictStoreSize) {
+            branchAndBoundBuilder.withConflictStoreSize(conflictStoreSize);
+            return this;
+        }
+
+        /**
+         * Detect symmetric variables, such as those of interchangeable machines, and search each class of symmetric
+         * solutions once. Defaults to true.
+         */
+        public Builder withSymmetryBreaking(final boolean symmetryBreaking) {
+            branchAndBoundBuilder.withSymmetryBreaking(symmetryBreaking);
+            return this;
+        }
+
+        /**
+         * Presolve the program before searching it. Defaults to true.
+         */
+        public Builder withPresolve(final boolean presolving) {
+            branchAndBoundBuilder.withPresolve(presolving);
+            return this;
+        }
+
+        /**
+         * How many times the search can restart from the root on a program presolved again, once the incumbent fixes
+         * enough variables by reduced costs. Defaults to 1.
+         */
+        public Builder withRestarts(final int maxRestarts) {
+            branchAndBoundBuilder.withRestarts(maxRestarts);
+            return this;
+        }
+
+        /**
+         * Bound the program by Lagrangian relaxation before searching it, with the rows it dualizes given by their
+         * index among the rows of their type, in the order they were added. Off by default.
+         */
+        public Builder withLagrangianRelaxation(final LagrangianRelaxation lagrangianRelaxation) {
+            branchAndBoundBuilder.withLagrangianRelaxation(lagrangianRelaxation);
+            return this;
+        }
+
+        /**
+         * The engine every relaxation is solved with, which is otherwise picked automatically.
+         */
+        public Builder withEngine(final SimplexEngine engine) {
+            programBuilder.withEngine(engine);
+            return this;
+        }
+
+        public Builder addLessThanInequality(final ConstantCoefficient lessThanConstant,
+                                             final double... lessThanInequalityVariables) {
+            programBuilder.addLessThanInequality(
+                    Vector.newBuilder().addAllDoubleCoefficients(lessThanInequalityVariables).build(),
+                    lessThanConstant
+            );
+            return this;
+        }
+
+        public Builder addLessThanInequality(final ConstantCoefficient lessThanConstant,
+                                             final ConstantCoefficient... lessThanInequalityVariables) {
+            programBuilder.addLessThanInequality(
+                    Vector.newBuilder().addAllCoefficients(lessThanInequalityVariables).build(),
+                    lessThanConstant
+            );
+            return this;
+        }
+
+        public Builder withLessThanInequalities(final List<Vector> lessThanInequalities,
+                                                final List<ConstantCoefficient> lessThanConstants) {
+            Preconditions.checkArgument(lessThanInequalities.size() == lessThanConstants.size());
+            for (int i = 0; i < lessThanConstants.size(); i++) {
+                programBuilder.addLessThanInequality(lessThanInequalities.get(i), lessThanConstants.get(i));
+            }
+
+            return this;
+        }
+
+        public Builder addEquality(final ConstantCoefficient equalityConstant,
+                                   final double... equalityVariables) {
+            programBuilder.addEquality(
+                    Vector.newBuilder().addAllDoubleCoefficients(equalityVariables).build(),
+                    equalityConstant
+            );
+            return this;
+        }
+
+        public Builder addEquality(final ConstantCoefficient equalityConstant,
+                                   final ConstantCoefficient... equalityVariables) {
+            programBuilder.addEquality(
+                    Vector.newBuilder().addAllCoefficients(equalityVariables).build(),
+                    equalityConstant
+            );
+            return this;
+        }
+
+        public Builder withEqualities(final List<Vector> equalities,
+                                      final List<ConstantCoefficient> equalityConstants) {
+            Preconditions.checkArgument(equalities.size() == equalityConstants.size());
+            for (int i = 0; i < equalityConstants.size(); i++) {
+                programBuilder.addEquality(equalities.get(i), equalityConstants.get(i));
+            }
+
+            return this;
+        }
+
+        public Builder addGreaterThanInequality(final ConstantCoefficient greaterThanConstant,
+                                                final double... greaterThanInequalityVariables) {
+            programBuilder.addGreaterThanInequality(
+                    Vector.newBuilder().addAllDoubleCoefficients(greaterThanInequalityVariables).build(),
+                    greaterThanConstant
+            );
+            return this;
+        }
+
+        public Builder addGreaterThanInequality(final ConstantCoefficient greaterThanConstant,
+                                                final ConstantCoefficient... greaterThanInequalityVariables) {
+            programBuilder.addGreaterThanInequality(
+                    Vector.newBuilder().addAllCoefficients(greaterThanInequalityVariables).build(),
+                    greaterThanConstant
+            );
+            return this;
+        }
+
+        public Builder withGreaterThanInequalities(final List<Vector> greaterThanInequalities,
+                                                   final List<ConstantCoefficient> greaterThanConstants) {
+            Preconditions.checkArgument(greaterThanInequalities.size() == greaterThanConstants.size());
+            for (int i = 0; i < greaterThanConstants.size(); i++) {
+                programBuilder.addGreaterThanInequality(greaterThanInequalities.get(i), greaterThanConstants.get(i));
+            }
+
+            return this;
+        }
+
+        public MixedIntegerProgramSolver build() {
+            return new MixedIntegerProgramSolver(branchAndBoundBuilder.build().solve(programBuilder.build()));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package core;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import math.Vector;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LinearPresolveTest {
+    private static Vector createVector(final int... coefficients) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final int coefficient : coefficients) {
+            builder.addCoefficient(coefficient);
+        }
+
+        return builder.build();
+    }
+
+    private static LinearPresolve presolve(final Simplex.Builder builder) {
+        return builder.presolve();
+    }
+
+    @Test
+    public void testSingletonRowsBecomeBounds() {
+        // max x + y s.t. x <= 3, y >= 1, 2y <= 8, x + y <= 6
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .withCostVector(createVector(1, 1))
+                .addLessThanInequality(createVector(1, 0), Coefficients.from(3))
+                .addGreaterThanInequality(createVector(0, 1), Coefficients.ONE)
+                .addLessThanInequality(createVector(0, 2), Coefficients.from(8))
+                .addLessThanInequality(createVector(1, 1), Coefficients.from(6));
+
+        final LinearPresolve presolve = presolve(builder);
+        // Only x + y <= 6 is left, along with the upper bounds 3 on x and 4 - 1 on y shifted by its lower bound
+        assertEquals(1, presolve.getRemovedRows());
+        assertEquals(0, presolve.getRemovedColumns());
+        assertEquals(Collections.singletonList(createVector(1, 1)), presolve.getLessThanInequalities().subList(0, 1));
+        assertEquals(Coefficients.from(5), presolve.getLessThanConstants().get(0));
+
+        final Simplex simplex = builder.withPresolve().build();
+        assertEquals(6, simplex.getOptimalValue(), 0d);
+        assertTrue(simplex.isFeasible());
+    }
+
+    @Test
+    public void testFixesDominatedColumns() {
+        // max x - y + z s.t. x + y <= 4, 2x + 3y <= 7, z <= 1: y only hurts, so it stays at 0, and z only helps
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .withCostVector(createVector(1, -1, 1))
+                .addLessThanInequality(createVector(1, 1, 0), Coefficients.from(4))
+                .addLessThanInequality(createVector(2, 3, 0), Coefficients.from(7))
+                .addLessThanInequality(createVector(0, 0, 1), Coefficients.ONE);
+
+        // Without y, the rows over x are singletons too, and x only helps once they're bounds
+        final LinearPresolve presolve = presolve(builder);
+        assertEquals(3, presolve.getRemovedColumns());
+        assertEquals(3, presolve.getRemovedRows());
+
+        final Simplex simplex = builder.withPresolve().build();
+        assertEquals(4.5, simplex.getOptimalValue(), 0d);
+        assertEquals("[7/2,0,1]", simplex.getOptimalSolution().toString());
+    }
+
+    @Test
+    public void testEliminatesDoubletonEqualities() {
+        // min x + 2y + z s.t. x - y = 1, x + y + z >= 5, y + z <= 10
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .minimizeCostFunction()
+                .withCostVector(createVector(1, 2, 1))
+                .addEquality(createVector(1, -1, 0), Coefficients.ONE)
+                .addGreaterThanInequality(createVector(1, 1, 1), Coefficients.from(5))
+                .addLessThanInequality(createVector(0, 1, 1), Coefficients.from(10));
+
+        final LinearPresolve presolve = presolve(builder);
+        assertTrue(presolve.getRemovedColumns() >= 1);
+        assertTrue(presolve.getEqualities().isEmpty());
+
+        final Simplex simplex = builder.withPresolve().build();
+        final Simplex unpresolved = builder.build();
+        assertEquals(unpresolved.getOptimalValue(), simplex.getOptimalValue(), 0d);
+        final Vector solution = simplex.getOptimalSolution();
+        assertEquals(1, Coefficients.asDouble(solution.get(0)) - Coefficients.asDouble(solution.get(1)), 0d);
+    }
+
+    @Test
+    public void testMergesDuplicateRows() {
+        // max x + y s.t. x + y <= 4, 2x + 2y <= 6, -x - y <= -1, x + 2y <= 5
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .withCostVector(createVector(1, 1))
+                .addLessThanInequality(createVector(1, 1), Coefficients.from(4))
+                .addLessThanInequality(createVector(2, 2), Coefficients.from(6))
+                .addLessThanInequality(createVector(-1, -1), Coefficients.from(-1))
+                .addLessThanInequality(createVector(1, 2), Coefficients.from(5));
+
+        // 1 <= x + y <= 3 is left as a pair of rows, along with x + 2y <= 5
+        final LinearPresolve presolve = presolve(builder);
+        assertEquals(1, presolve.getRemovedRows());
+        assertEquals(2, presolve.getLessThanInequalities().size());
+        assertEquals(1, presolve.getGreaterThanInequalities().size());
+
+        assertEquals(3, builder.withPresolve().build().getOptimalValue(), 0d);
+    }
+
+    @Test
+    public void testMergesOpposingRowsIntoAnEquality() {
+        // max x s.t. x + y <= 2, -x - y <= -2, x - y <= 1
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .withCostVector(createVector(1, 0))
+                .addLessThanInequality(createVector(1, 1), Coefficients.from(2))
+                .addLessThanInequality(createVector(-1, -1), Coefficients.from(-2))
+                .addLessThanInequality(createVector(1, -1), Coefficients.ONE);
+
+        final Simplex simplex = builder.withPresolve().build();
+        assertEquals(1.5, simplex.getOptimalValue(), 0d);
+        assertEquals("[3/2,1/2]", simplex.getOptimalSolution().toString());
+    }
+
+    @Test
+    public void testDetectsInfeasibility() {
+        // x <= 1 and x >= 2 are both singletons, and their bounds cross
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .withCostVector(createVector(1, 1))
+                .addLessThanInequality(createVector(1, 0), Coefficients.ONE)
+                .addGreaterThanInequality(createVector(1, 0), Coefficients.from(2))
+                .addLessThanInequality(createVector(1, 1), Coefficients.from(5));
+
+        assertTrue(presolve(builder).isInfeasible());
+        final Simplex simplex = builder.withPresolve().build();
+        assertFalse(simplex.isFeasible());
+        assertEquals(Double.NEGATIVE_INFINITY, simplex.getOptimalValue(), 0d);
+        assertEquals(2, simplex.getOptimalSolution().length());
+    }
+
+    @Test
+    public void testDetectsUnboundedness() {
+        // max x + y s.t. x <= 2: nothing holds y back once presolve has removed the only row
+        final Simplex simplex = Simplex.newBuilder()
+                .withCostVector(createVector(1, 1))
+                .addLessThanInequality(createVector(1, 0), Coefficients.from(2))
+                .withPresolve()
+                .build();
+        assertTrue(simplex.isFeasible());
+        assertFalse(simplex.isBounded());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRetainingTheFinalTableau() {
+        Simplex.newBuilder()
+                .withCostVector(createVector(1))
+                .addLessThanInequality(createVector(1), Coefficients.ONE)
+                .withPresolve()
+                .withFinalTableauRetained()
+                .build();
+    }
+
+    @Test
+    public void testRandomProblemsKeepTheirOptimum() {
+        final Random random = new Random(11);
+        for (int trial = 0; trial < 50; trial++) {
+            final int numVariables = 3 + random.nextInt(5);
+            final Simplex.Builder builder = Simplex.newBuilder().withCostVector(randomVector(random, numVariables, 1));
+            if (random.nextBoolean()) {
+                builder.minimizeCostFunction();
+            }
+            // Every row as a^x - b, with its sign: negative for <=, zero for = and positive for >=
+            final List<Vector> rows = new ArrayList<>();
+            final List<ConstantCoefficient> constants = new ArrayList<>();
+            final List<Integer> signs = new ArrayList<>();
+            for (int variable = 0; variable < numVariables; variable++) {
+                // Every variable gets an upper bound, so the problem is bounded
+                final int[] unit = new int[numVariables];
+                unit[variable] = 1 + random.nextInt(2);
+                rows.add(createVector(unit));
+                constants.add(Coefficients.from(2 + random.nextInt(8)));
+                signs.add(-1);
+            }
+            final int numRows = 1 + random.nextInt(5);
+            for (int row = 0; row < numRows; row++) {
+                final Vector vector = randomVector(random, numVariables, 3);
+                rows.add(vector);
+                constants.add(Coefficients.from(random.nextInt(7) - 1));
+                signs.add(random.nextInt(3) - 1);
+                if (random.nextInt(3) == 0) {
+                    // A multiple of the last row
+                    rows.add(Vector.scale(vector, Coefficients.from(-2)));
+                    constants.add(Coefficients.from(-random.nextInt(9)));
+                    signs.add(random.nextInt(3) - 1);
+                }
+            }
+            for (int row = 0; row < rows.size(); row++) {
+                if (signs.get(row) < 0) {
+                    builder.addLessThanInequality(rows.get(row), constants.get(row));
+                } else if (signs.get(row) == 0) {
+                    builder.addEquality(rows.get(row), constants.get(row));
+                } else {
+                    builder.addGreaterThanInequality(rows.get(row), constants.get(row));
+                }
+            }
+
+            final Simplex simplex = builder.build();
+            final Simplex presolved = builder.withPresolve().build();
+            assertEquals(simplex.isFeasible(), presolved.isFeasible());
+            assertEquals(simplex.getOptimalValue(), presolved.getOptimalValue(), 1e-9);
+            if (!presolved.isFeasible()) {
+                continue;
+            }
+
+            final Vector solution = presolved.getOptimalSolution();
+            for (int row = 0; row < rows.size(); row++) {
+                final double slack = rows.get(row).dotProductAsDouble(solution)
+                        - Coefficients.asDouble(constants.get(row));
+                assertTrue(signs.get(row) < 0 ? slack <= 1e-9 : signs.get(row) > 0 ? slack >= -1e-9 : slack == 0);
+            }
+            for (final Coefficient value : solution.getValues()) {
+                assertTrue(Coefficients.isNonNegative(value));
+            }
+        }
+    }
+
+    private static Vector randomVector(final Random random, final int length, final int range) {
+        final int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            // Mostly zeros, so that singletons and doubletons turn up
+            values[i] = random.nextInt(3) == 0 ? random.nextInt(2 * range + 1) - range : 0;
+        }
+
+        return createVector(values);
+    }
+}
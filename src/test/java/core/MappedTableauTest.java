@@ -0,0 +1,181 @@
+package core;
+
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedTableauTest {
+    private static Simplex.Builder createMaximizationBuilder() {
+        // max 3x + 2y s.t. 2x + y <= 18, 2x + 3y <= 42, 3x + y <= 24
+        return Simplex.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(3).addCoefficient(2).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(2).addCoefficient(1).build(),
+                        Coefficients.from(18))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(2).addCoefficient(3).build(),
+                        Coefficients.from(42))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(3).addCoefficient(1).build(),
+                        Coefficients.from(24));
+    }
+
+    @Test
+    public void testMappedEngineMatchesCoefficientEngine() {
+        final Simplex simplex = createMaximizationBuilder()
+                .withEngine(SimplexEngine.MEMORY_MAPPED)
+                .build();
+
+        assertEquals(SimplexEngine.MEMORY_MAPPED, simplex.getEngine());
+        assertEquals(33.0, simplex.getOptimalValue(), 1e-9);
+        assertEquals(3.0, Coefficients.asDouble(simplex.getOptimalSolution().get(0)), 1e-9);
+        assertEquals(12.0, Coefficients.asDouble(simplex.getOptimalSolution().get(1)), 1e-9);
+    }
+
+    @Test
+    public void testMappedEngineWithAllThreeTypesOfInequalities() {
+        final Simplex simplex = Simplex.newBuilder()
+                .withEngine(SimplexEngine.MEMORY_MAPPED)
+                .withCostVector(Vector.newBuilder()
+                        .addCoefficient(2)
+                        .addCoefficient(-1)
+                        .addCoefficient(3)
+                        .build())
+                .addEquality(Vector.newBuilder().addCoefficient(1).addCoefficient(1).addCoefficient(1).build(),
+                        Coefficients.from(4))
+                .addGreaterThanInequality(Vector.newBuilder()
+                                .addCoefficient(1)
+                                .addCoefficient(-2)
+                                .addCoefficient(1)
+                                .build(),
+                        Coefficients.from(3))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(0).addCoefficient(2).addCoefficient(1).build(),
+                        Coefficients.from(2))
+                .build();
+
+        assertEquals(10.0, simplex.getOptimalValue(), 1e-9);
+        assertTrue(simplex.isFeasible());
+        assertTrue(simplex.isBounded());
+    }
+
+    @Test
+    public void testMappedEngineDetectsInfeasibleAndUnboundedProblems() {
+        final Simplex infeasibleSimplex = Simplex.newBuilder()
+                .withEngine(SimplexEngine.MEMORY_MAPPED)
+                .withCostVector(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build(),
+                        Coefficients.from(2))
+                .addGreaterThanInequality(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build(),
+                        Coefficients.from(3))
+                .build();
+        assertFalse(infeasibleSimplex.isFeasible());
+
+        final Simplex unboundedSimplex = Simplex.newBuilder()
+                .withEngine(SimplexEngine.MEMORY_MAPPED)
+                .withCostVector(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build())
+                .addGreaterThanInequality(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build(),
+                        Coefficients.from(3))
+                .build();
+        assertTrue(unboundedSimplex.isFeasible());
+        assertFalse(unboundedSimplex.isBounded());
+        assertEquals(Double.POSITIVE_INFINITY, unboundedSimplex.getOptimalValue(), 0d);
+    }
+
+    @Test
+    public void testMappedEngineResumesFromTableauFile() throws IOException {
+        final Path tableauFile = Files.createTempFile("mapped-tableau-test", ".tableau");
+        try {
+            final Simplex firstSimplex = createMaximizationBuilder()
+                    .withEngine(SimplexEngine.MEMORY_MAPPED)
+                    .withTableauFile(tableauFile)
+                    .build();
+            final Simplex resumedSimplex = createMaximizationBuilder()
+                    .withEngine(SimplexEngine.MEMORY_MAPPED)
+                    .withTableauFile(tableauFile)
+                    .build();
+
+            assertEquals(firstSimplex.getOptimalValue(), resumedSimplex.getOptimalValue(), 0d);
+            assertEquals(firstSimplex.getOptimalSolution(), resumedSimplex.getOptimalSolution());
+        } finally {
+            Files.deleteIfExists(tableauFile);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMappedEngineRejectsTableauFileOfAnotherProblem() throws IOException {
+        final Path tableauFile = Files.createTempFile("mapped-tableau-test", ".tableau");
+        try {
+            createMaximizationBuilder()
+                    .withEngine(SimplexEngine.MEMORY_MAPPED)
+                    .withTableauFile(tableauFile)
+                    .build();
+            createMaximizationBuilder()
+                    .minimizeCostFunction()
+                    .withEngine(SimplexEngine.MEMORY_MAPPED)
+                    .withTableauFile(tableauFile)
+                    .build();
+        } finally {
+            Files.deleteIfExists(tableauFile);
+        }
+    }
+
+    @Test
+    public void testPivotSurvivesReopeningTheFile() throws IOException {
+        final Path tableauFile = Files.createTempFile("mapped-tableau-test", ".tableau");
+        try {
+            // max x s.t. x + y <= 4, with slack s in the basis
+            try (MappedTableau tableau = MappedTableau.create(tableauFile, 1, 3, 42L)) {
+                tableau.setBasisVariables(new int[]{2});
+                tableau.setRow(0, new double[]{4, 1, 1, 1});
+                tableau.setObjectiveRows(new double[]{0, 0, 0, 0}, new double[]{0, -1, 0, 0});
+                tableau.checkpoint();
+
+                assertEquals(1, tableau.findOptimalPivotCol());
+                assertEquals(0, tableau.findOptimalPivotRow(1));
+                tableau.pivot(0, 1);
+            }
+
+            try (MappedTableau tableau = MappedTableau.resume(tableauFile, 1, 3, 42L).get()) {
+                assertEquals(1, tableau.getIterations());
+                assertArrayEquals(new int[]{0}, tableau.getBasisVariables());
+                assertArrayEquals(new double[]{4}, tableau.getBasisValues(), 0d);
+                assertEquals(-1, tableau.findOptimalPivotCol());
+            }
+        } finally {
+            Files.deleteIfExists(tableauFile);
+        }
+    }
+
+    @Test
+    public void testPivotsReuseTheirMappings() throws IOException {
+        final Path tableauFile = Files.createTempFile("mapped-tableau-test", ".tableau");
+        try (MappedTableau tableau = MappedTableau.create(tableauFile, 2, 4, 42L)) {
+            // x + y + s = 4, x - y + t = 2, pivoted back and forth between x and y in the first row
+            tableau.setBasisVariables(new int[]{2, 3});
+            tableau.setRow(0, new double[]{4, 1, 1, 1, 0});
+            tableau.setRow(1, new double[]{2, 1, -1, 0, 1});
+            tableau.setObjectiveRows(new double[]{0, 0, 0, 0, 0}, new double[]{0, -1, -1, 0, 0});
+            tableau.checkpoint();
+            tableau.pivot(0, 1);
+            tableau.pivot(0, 2);
+            final int numMappings = tableau.getNumMappings();
+            for (int i = 0; i < 100; i++) {
+                tableau.pivot(0, 1 + i % 2);
+            }
+
+            // One header, and a basis and a single block of rows in each of the two regions
+            assertEquals(5, numMappings);
+            assertEquals(numMappings, tableau.getNumMappings());
+            assertEquals(102, tableau.getIterations());
+            assertArrayEquals(new double[]{4, 6}, tableau.getBasisValues(), 1e-9);
+        } finally {
+            Files.deleteIfExists(tableauFile);
+        }
+    }
+}
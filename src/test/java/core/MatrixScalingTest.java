@@ -0,0 +1,144 @@
+package core;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MatrixScalingTest {
+    private static final int NUM_ROWS = 6;
+    private static final int NUM_VARIABLES = 8;
+
+    /**
+     * A random integer LP, max c^x s.t. Ax <= b, x <= 5, built both as it is and with row i scaled by R_i and variable
+     * j replaced by x_j / C_j, where R and C are random powers of 10. The scaled LP has the same optimum, but its
+     * coefficients span many orders of magnitude.
+     */
+    private static Simplex.Builder[] createProblems(final long seed) {
+        final Random random = new Random(seed);
+        final double[] rowScales = new double[NUM_ROWS];
+        final double[] columnScales = new double[NUM_VARIABLES];
+        for (int row = 0; row < NUM_ROWS; row++) {
+            rowScales[row] = Math.pow(10, random.nextInt(11) - 4);
+        }
+        for (int column = 0; column < NUM_VARIABLES; column++) {
+            columnScales[column] = Math.pow(10, random.nextInt(7) - 3);
+        }
+
+        final Simplex.Builder exactBuilder = Simplex.newBuilder().withEngine(SimplexEngine.RATIONAL);
+        final Simplex.Builder badlyScaledBuilder = Simplex.newBuilder().withEngine(SimplexEngine.DOUBLE);
+        final Vector.Builder exactCosts = Vector.newBuilder();
+        final Vector.Builder badlyScaledCosts = Vector.newBuilder();
+        for (int column = 0; column < NUM_VARIABLES; column++) {
+            final int cost = 1 + random.nextInt(9);
+            exactCosts.addCoefficient(cost);
+            badlyScaledCosts.addCoefficient(cost * columnScales[column]);
+        }
+        exactBuilder.withCostVector(exactCosts.build());
+        badlyScaledBuilder.withCostVector(badlyScaledCosts.build());
+
+        for (int row = 0; row < NUM_ROWS; row++) {
+            final Vector.Builder exactRow = Vector.newBuilder();
+            final Vector.Builder badlyScaledRow = Vector.newBuilder();
+            for (int column = 0; column < NUM_VARIABLES; column++) {
+                final int coefficient = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(9);
+                exactRow.addCoefficient(coefficient);
+                badlyScaledRow.addCoefficient(coefficient * rowScales[row] * columnScales[column]);
+            }
+            final int constant = 10 + random.nextInt(40);
+            exactBuilder.addLessThanInequality(exactRow.build(), Coefficients.from(constant));
+            badlyScaledBuilder.addLessThanInequality(badlyScaledRow.build(),
+                    Coefficients.from(constant * rowScales[row]));
+        }
+        for (int column = 0; column < NUM_VARIABLES; column++) {
+            final Vector.Builder exactRow = Vector.newBuilder();
+            final Vector.Builder badlyScaledRow = Vector.newBuilder();
+            for (int i = 0; i < NUM_VARIABLES; i++) {
+                exactRow.addCoefficient(i == column ? 1 : 0);
+                badlyScaledRow.addCoefficient(i == column ? columnScales[column] : 0);
+            }
+            exactBuilder.addLessThanInequality(exactRow.build(), Coefficients.from(5));
+            badlyScaledBuilder.addLessThanInequality(badlyScaledRow.build(), Coefficients.from(5d));
+        }
+
+        return new Simplex.Builder[]{exactBuilder, badlyScaledBuilder};
+    }
+
+    @Test
+    public void testScalingFindsTheOptimumOfBadlyScaledProblems() {
+        int numUnscaledMisses = 0;
+        int numUnscaledPivots = 0;
+        int numScaledPivots = 0;
+        for (long seed = 0; seed < 40; seed++) {
+            final Simplex.Builder[] builders = createProblems(seed);
+            final double optimalValue = builders[0].build().getOptimalValue();
+            final Simplex unscaled = builders[1].build();
+            final Simplex scaled = builders[1].withScaling().build();
+
+            assertEquals(optimalValue, scaled.getOptimalValue(), 1e-9 * optimalValue);
+            numUnscaledMisses += Math.abs(unscaled.getOptimalValue() - optimalValue) > 1e-9 * optimalValue ? 1 : 0;
+            numUnscaledPivots += unscaled.getSolutionTrace().size();
+            numScaledPivots += scaled.getSolutionTrace().size();
+
+            final ScalingReport report = scaled.getScalingReport().get();
+            assertTrue(report.getOriginalSpread() > 1e6);
+            assertTrue(report.getScaledSpread() < 100);
+            assertTrue(report.getImprovement() > 1e4);
+        }
+        // Without scaling, the ratio test picks wrong pivots often enough to end up at the wrong vertex
+        assertTrue(numUnscaledMisses > 0);
+        assertTrue(numScaledPivots < numUnscaledPivots);
+    }
+
+    @Test
+    public void testSolutionsAreUnscaled() {
+        // max x + 1000y s.t. 1000x + y <= 2000, 0.001x + y <= 1
+        final Simplex simplex = Simplex.newBuilder()
+                .withEngine(SimplexEngine.DOUBLE)
+                .withCostVector(Vector.newBuilder().addCoefficient(1).addCoefficient(1000).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(1000).addCoefficient(1).build(),
+                        Coefficients.from(2000))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(0.001).addCoefficient(1).build(),
+                        Coefficients.from(1))
+                .withScaling()
+                .build();
+
+        final Vector solution = simplex.getOptimalSolution();
+        final double x = Coefficients.asDouble(solution.get(0));
+        final double y = Coefficients.asDouble(solution.get(1));
+        assertEquals(x + 1000 * y, simplex.getOptimalValue(), 1e-9);
+        assertTrue(1000 * x + y <= 2000 + 1e-9);
+        assertTrue(0.001 * x + y <= 1 + 1e-9);
+    }
+
+    @Test
+    public void testScalesAfterPresolving() {
+        final Simplex.Builder[] builders = createProblems(3);
+        final double optimalValue = builders[0].build().getOptimalValue();
+        final Simplex simplex = builders[1].withPresolve().withScaling().build();
+
+        assertEquals(optimalValue, simplex.getOptimalValue(), 1e-9 * optimalValue);
+        assertTrue(simplex.getScalingReport().isPresent());
+        assertEquals(NUM_VARIABLES, simplex.getOptimalSolution().length());
+        for (final Coefficient value : simplex.getOptimalSolution().getValues()) {
+            assertTrue(Coefficients.isNonNegative(value));
+        }
+    }
+
+    @Test
+    public void testExactEnginesDoNotScale() {
+        final Simplex simplex = createProblems(1)[0].withScaling().build();
+        assertFalse(simplex.getScalingReport().isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRetainingTheFinalTableau() {
+        createProblems(1)[1].withScaling().withFinalTableauRetained().build();
+    }
+}
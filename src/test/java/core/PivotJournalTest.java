@@ -0,0 +1,152 @@
+package core;
+
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PivotJournalTest {
+    private static final int NUM_VARIABLES = 8;
+
+    private static WarmStart createRelaxation(final long seed) {
+        // A random max c^x s.t. Ax <= b with positive costs and coefficients, so it's bounded and feasible at 0
+        final Random random = new Random(seed);
+        final Vector.Builder costVector = Vector.newBuilder();
+        for (int column = 0; column < NUM_VARIABLES; column++) {
+            costVector.addCoefficient(1 + random.nextInt(9));
+        }
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .withEngine(SimplexEngine.DOUBLE)
+                .withFinalTableauRetained()
+                .withCostVector(costVector.build());
+        for (int row = 0; row < 6; row++) {
+            final Vector.Builder rowBuilder = Vector.newBuilder();
+            for (int column = 0; column < NUM_VARIABLES; column++) {
+                rowBuilder.addCoefficient(1 + random.nextInt(9));
+            }
+            builder.addLessThanInequality(rowBuilder.build(), Coefficients.from(20 + random.nextInt(40)));
+        }
+
+        return builder.build().getWarmStart().get();
+    }
+
+    private static Vector createUnitVector(final int variable) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (int i = 0; i < NUM_VARIABLES; i++) {
+            builder.addCoefficient(i == variable ? 1 : 0);
+        }
+
+        return builder.build();
+    }
+
+    private static void assertSameRelaxation(final WarmStart expected, final WarmStart actual) {
+        assertEquals(expected.isFeasible(), actual.isFeasible());
+        assertEquals(expected.isOptimal(), actual.isOptimal());
+        assertEquals(expected.getOptimalValue(), actual.getOptimalValue(), 1e-9);
+        for (int variable = 0; variable < NUM_VARIABLES; variable++) {
+            assertEquals(Coefficients.asDouble(expected.getOptimalSolution().get(variable)),
+                    Coefficients.asDouble(actual.getOptimalSolution().get(variable)), 1e-9);
+        }
+    }
+
+    @Test
+    public void testConstraintsMatchThoseAddedToCopies() {
+        for (long seed = 0; seed < 10; seed++) {
+            final Random random = new Random(seed);
+            WarmStart copied = createRelaxation(seed);
+            final PivotJournal journal = copied.startJournal();
+            // Enough bounds to make the tableau grow past the room it was copied with
+            for (int i = 0; i < 40 && copied.isOptimal(); i++) {
+                final int variable = random.nextInt(NUM_VARIABLES);
+                final double value = Coefficients.asDouble(copied.getOptimalSolution().get(variable));
+                final Vector unitVector = createUnitVector(variable);
+                final boolean roundUp = random.nextBoolean();
+                if (roundUp) {
+                    final long bound = (long) Math.ceil(value) + random.nextInt(2);
+                    copied = copied.addGreaterThanInequality(unitVector, Coefficients.from(bound));
+                    assertSameRelaxation(copied,
+                            journal.addGreaterThanInequality(unitVector, Coefficients.from(bound)));
+                } else {
+                    final long bound = Math.max(0, (long) Math.floor(value) - random.nextInt(2));
+                    copied = copied.addLessThanInequality(unitVector, Coefficients.from(bound));
+                    assertSameRelaxation(copied, journal.addLessThanInequality(unitVector, Coefficients.from(bound)));
+                }
+                // Without a rollback in between, the journal pivots exactly like the copies do
+                assertArrayEquals(copied.getBasisVariables(), journal.getWarmStart().getBasisVariables());
+                assertEquals(copied.getNumRows(), journal.getWarmStart().getNumRows());
+                assertEquals(copied.getNumVariables(), journal.getWarmStart().getNumVariables());
+            }
+        }
+    }
+
+    @Test
+    public void testRollbackRestoresEarlierRelaxations() {
+        for (long seed = 0; seed < 10; seed++) {
+            final Random random = new Random(seed);
+            final PivotJournal journal = createRelaxation(seed).startJournal();
+            final List<WarmStart> copies = new ArrayList<>();
+            copies.add(createRelaxation(seed));
+            for (int i = 0; i < 20 && journal.getWarmStart().isOptimal(); i++) {
+                final int variable = random.nextInt(NUM_VARIABLES);
+                final Vector unitVector = createUnitVector(variable);
+                final double value = Coefficients.asDouble(journal.getWarmStart().getOptimalSolution().get(variable));
+                final long bound = Math.max(0, (long) Math.floor(value));
+                journal.addLessThanInequality(unitVector, Coefficients.from(bound));
+                copies.add(copies.get(copies.size() - 1).addLessThanInequality(unitVector, Coefficients.from(bound)));
+
+                // Try a bound that may well be infeasible, and take it back again
+                final int size = journal.size();
+                journal.addGreaterThanInequality(unitVector, Coefficients.from(bound + 1 + random.nextInt(5)));
+                assertSameRelaxation(copies.get(size), journal.rollback(size));
+            }
+
+            while (journal.size() > 0) {
+                final int size = random.nextInt(journal.size());
+                assertSameRelaxation(copies.get(size), journal.rollback(size));
+                assertEquals(size, journal.size());
+            }
+        }
+    }
+
+    @Test
+    public void testRollsBackAnInfeasibleConstraint() {
+        final WarmStart relaxation = createRelaxation(1L);
+        final PivotJournal journal = relaxation.startJournal();
+        final WarmStart infeasible = journal.addGreaterThanInequality(createUnitVector(0), Coefficients.from(1000));
+        assertFalse(infeasible.isFeasible());
+
+        final WarmStart restored = journal.rollback(0);
+        assertTrue(restored.isOptimal());
+        assertSameRelaxation(relaxation, restored);
+        assertSameRelaxation(
+                relaxation.addLessThanInequality(createUnitVector(1), Coefficients.from(0)),
+                journal.addLessThanInequality(createUnitVector(1), Coefficients.from(0))
+        );
+    }
+
+    @Test
+    public void testLeavesTheRelaxationItStartedFromAlone() {
+        final WarmStart relaxation = createRelaxation(2L);
+        final double value = relaxation.getOptimalValue();
+        final PivotJournal journal = relaxation.startJournal();
+        for (int variable = 0; variable < NUM_VARIABLES; variable++) {
+            journal.addLessThanInequality(createUnitVector(variable), Coefficients.from(0));
+        }
+
+        assertEquals(0d, journal.getWarmStart().getOptimalValue(), 1e-9);
+        assertEquals(value, relaxation.getOptimalValue(), 0d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRollingBackConstraintsThatWereNeverAdded() {
+        createRelaxation(3L).startJournal().rollback(1);
+    }
+}
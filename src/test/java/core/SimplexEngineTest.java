@@ -0,0 +1,133 @@
+package core;
+
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SimplexEngineTest {
+    private static Simplex.Builder createMixedBuilder() {
+        // max 2x - y + 3z s.t. x + y + z = 4, x - 2y + z >= 3, 2y + z <= 2
+        return Simplex.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(2).addCoefficient(-1).addCoefficient(3).build())
+                .addEquality(Vector.newBuilder().addCoefficient(1).addCoefficient(1).addCoefficient(1).build(),
+                        Coefficients.from(4))
+                .addGreaterThanInequality(Vector.newBuilder()
+                                .addCoefficient(1)
+                                .addCoefficient(-2)
+                                .addCoefficient(1)
+                                .build(),
+                        Coefficients.from(3))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(0).addCoefficient(2).addCoefficient(1).build(),
+                        Coefficients.from(2));
+    }
+
+    @Test
+    public void testAutomaticSelectionByCoefficientType() {
+        assertEquals(SimplexEngine.FRACTION_FREE, createMixedBuilder().build().getEngine());
+
+        final Simplex rationalSimplex = Simplex.newBuilder()
+                .withCostVector(Vector.newBuilder().addRationalCoefficient(1, 2).addCoefficient(1).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build(),
+                        Coefficients.from(3))
+                .build();
+        assertEquals(SimplexEngine.RATIONAL, rationalSimplex.getEngine());
+        assertEquals("[0,3]", rationalSimplex.getOptimalSolution().toString());
+
+        final Simplex doubleSimplex = Simplex.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(1.5).addCoefficient(1).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build(),
+                        Coefficients.from(3))
+                .build();
+        assertEquals(SimplexEngine.DOUBLE, doubleSimplex.getEngine());
+        assertEquals(4.5, doubleSimplex.getOptimalValue(), 1e-9);
+    }
+
+    @Test
+    public void testAutomaticSelectionPicksRationalEngineForSparseIntegerProblems() {
+        // max x + y + z + w s.t. x <= 1, y <= 2, z <= 3, w <= 4
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .withCostVector(Vector.newBuilder()
+                        .addCoefficient(1)
+                        .addCoefficient(1)
+                        .addCoefficient(1)
+                        .addCoefficient(1)
+                        .build());
+        for (int i = 0; i < 4; i++) {
+            final Vector.Builder constraintBuilder = Vector.newBuilder();
+            for (int j = 0; j < 4; j++) {
+                constraintBuilder.addCoefficient(i == j ? 1 : 0);
+            }
+            builder.addLessThanInequality(constraintBuilder.build(), Coefficients.from(i + 1));
+        }
+
+        final Simplex simplex = builder.build();
+        assertEquals(SimplexEngine.RATIONAL, simplex.getEngine());
+        assertEquals("[1,2,3,4]", simplex.getOptimalSolution().toString());
+    }
+
+    @Test
+    public void testAutomaticSelectionKeepsTheSlackColumnsOfTallProblemsImplicit() {
+        // max x + y s.t. x + y >= 1 and x + iy <= 2000 for i = 1, ..., 1500, which would be a 1503 x 1506 dense tableau
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build())
+                .addGreaterThanInequality(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build(),
+                        Coefficients.from(1));
+        for (int i = 1; i <= 1500; i++) {
+            builder.addLessThanInequality(Vector.newBuilder().addCoefficient(1).addCoefficient(i).build(),
+                    Coefficients.from(2000));
+        }
+
+        final Simplex simplex = builder.build();
+        assertEquals(SimplexEngine.RATIONAL, simplex.getEngine());
+        assertEquals("[2000,0]", simplex.getOptimalSolution().toString());
+    }
+
+    @Test
+    public void testEveryEngineTakesTheSamePath() {
+        final Simplex coefficientSimplex = createMixedBuilder().withEngine(SimplexEngine.COEFFICIENT).build();
+        for (final SimplexEngine engine : new SimplexEngine[]{SimplexEngine.RATIONAL, SimplexEngine.FRACTION_FREE}) {
+            final Simplex simplex = createMixedBuilder().withEngine(engine).build();
+            assertEquals(engine, simplex.getEngine());
+            assertEquals(coefficientSimplex.getSolutionTrace(), simplex.getSolutionTrace());
+            assertEquals(coefficientSimplex.getOptimalValue(), simplex.getOptimalValue(), 0d);
+        }
+
+        for (final Tableau.Layout layout : Tableau.Layout.values()) {
+            final Simplex simplex = createMixedBuilder()
+                    .withEngine(SimplexEngine.DOUBLE)
+                    .withTableauLayout(layout)
+                    .build();
+            assertEquals(coefficientSimplex.getSolutionTrace().size(), simplex.getSolutionTrace().size());
+            assertEquals(coefficientSimplex.getOptimalValue(), simplex.getOptimalValue(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testFractionFreeEngineHandlesGrowingDenominators() {
+        // max 3x + 5y + 4z s.t. 2x + 3y <= 8, 2y + 5z <= 10, 3x + 2y + 4z <= 15
+        final Simplex simplex = Simplex.newBuilder()
+                .withEngine(SimplexEngine.FRACTION_FREE)
+                .withCostVector(Vector.newBuilder().addCoefficient(3).addCoefficient(5).addCoefficient(4).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(2).addCoefficient(3).addCoefficient(0).build(),
+                        Coefficients.from(8))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(0).addCoefficient(2).addCoefficient(5).build(),
+                        Coefficients.from(10))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(3).addCoefficient(2).addCoefficient(4).build(),
+                        Coefficients.from(15))
+                .build();
+
+        assertEquals("[89/41,50/41,62/41]", simplex.getOptimalSolution().toString());
+        assertEquals(765.0 / 41, simplex.getOptimalValue(), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFractionFreeEngineRejectsRationalCoefficients() {
+        Simplex.newBuilder()
+                .withEngine(SimplexEngine.FRACTION_FREE)
+                .withCostVector(Vector.newBuilder().addRationalCoefficient(1, 2).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(1).build(), Coefficients.from(3))
+                .build();
+    }
+}
@@ -4,6 +4,10 @@ import coefficients.Coefficients;
 import math.Vector;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 public class SimplexTest {
@@ -375,4 +379,110 @@ public class SimplexTest {
         assertTrue(dietProblemSimplex.isBounded());
         assertTrue(dietProblemSimplex.isFeasible());
     }
+
+    /**
+     * A min cost flow around a ring of nodes with random chords, where each node's balance row has a free excess
+     * variable that can soak up its supply, as models that tolerate unshipped supply have.
+     */
+    private static Simplex.Builder createFlowWithExcess(final long seed, final SimplexEngine engine) {
+        final int numNodes = 20;
+        final Random random = new Random(seed);
+        final List<int[]> arcs = new ArrayList<>();
+        for (int node = 0; node < numNodes; node++) {
+            arcs.add(new int[]{node, (node + 1) % numNodes});
+            arcs.add(new int[]{node, random.nextInt(numNodes)});
+        }
+        final int[] supplies = new int[numNodes];
+        for (int i = 0; i < numNodes / 3; i++) {
+            final int amount = 1 + random.nextInt(9);
+            supplies[random.nextInt(numNodes)] += amount;
+            supplies[random.nextInt(numNodes)] -= amount;
+        }
+
+        final Simplex.Builder builder = Simplex.newBuilder().minimizeCostFunction().withEngine(engine);
+        final Vector.Builder costs = Vector.newBuilder();
+        for (int arc = 0; arc < arcs.size(); arc++) {
+            costs.addCoefficient(1 + random.nextInt(20));
+        }
+        for (int node = 0; node < numNodes; node++) {
+            costs.addCoefficient(0);
+        }
+        builder.withCostVector(costs.build());
+        for (int node = 0; node < numNodes; node++) {
+            final Vector.Builder row = Vector.newBuilder();
+            for (final int[] arc : arcs) {
+                row.addCoefficient(arc[0] == arc[1] ? 0 : arc[0] == node ? 1 : arc[1] == node ? -1 : 0);
+            }
+            for (int excessNode = 0; excessNode < numNodes; excessNode++) {
+                row.addCoefficient(excessNode == node ? (supplies[node] >= 0 ? 1 : -1) : 0);
+            }
+            builder.addEquality(row.build(), Coefficients.from(supplies[node]));
+        }
+
+        return builder;
+    }
+
+    @Test
+    public void testCrashBasisSavesPivots() {
+        for (final SimplexEngine engine : new SimplexEngine[]{SimplexEngine.DOUBLE, SimplexEngine.RATIONAL}) {
+            int numPivots = 0;
+            int numCrashPivots = 0;
+            for (long seed = 0; seed < 10; seed++) {
+                final Simplex.Builder builder = createFlowWithExcess(seed, engine);
+                final Simplex simplex = builder.build();
+                final Simplex crashSimplex = builder.withCrashBasis().build();
+
+                assertEquals(simplex.isFeasible(), crashSimplex.isFeasible());
+                assertEquals(simplex.getOptimalValue(), crashSimplex.getOptimalValue(), 1e-9);
+                numPivots += simplex.getSolutionTrace().size();
+                numCrashPivots += crashSimplex.getSolutionTrace().size();
+            }
+            assertTrue(numCrashPivots < numPivots);
+        }
+    }
+
+    @Test
+    public void testCrashBasisKeepsTheOptimum() {
+        // max 2x + 3y s.t. x + y + s = 4, x + 3y - t = 6, x <= 3, with s free and t costly
+        final Simplex.Builder builder = Simplex.newBuilder()
+                .withCostVector(Vector.newBuilder()
+                        .addCoefficient(2)
+                        .addCoefficient(3)
+                        .addCoefficient(0)
+                        .addCoefficient(-1)
+                        .build())
+                .addEquality(Vector.newBuilder()
+                                .addCoefficient(1)
+                                .addCoefficient(1)
+                                .addCoefficient(1)
+                                .addCoefficient(0)
+                                .build(),
+                        Coefficients.from(4))
+                .addEquality(Vector.newBuilder()
+                                .addCoefficient(1)
+                                .addCoefficient(3)
+                                .addCoefficient(0)
+                                .addCoefficient(-1)
+                                .build(),
+                        Coefficients.from(6))
+                .addLessThanInequality(Vector.newBuilder()
+                                .addCoefficient(1)
+                                .addCoefficient(0)
+                                .addCoefficient(0)
+                                .addCoefficient(0)
+                                .build(),
+                        Coefficients.from(3));
+
+        for (final SimplexEngine engine : new SimplexEngine[]{
+                SimplexEngine.DOUBLE, SimplexEngine.RATIONAL, SimplexEngine.FRACTION_FREE, SimplexEngine.COEFFICIENT}) {
+            final Simplex simplex = builder.withEngine(engine).withCrashBasis().build();
+            assertTrue(simplex.isFeasible());
+            assertEquals(9, simplex.getOptimalValue(), 1e-9);
+            final double[] expectedSolution = {3, 1, 0, 0};
+            for (int variable = 0; variable < expectedSolution.length; variable++) {
+                assertEquals(expectedSolution[variable],
+                        Coefficients.asDouble(simplex.getOptimalSolution().get(variable)), 1e-9);
+            }
+        }
+    }
 }
@@ -0,0 +1,105 @@
+package core;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TableauTest {
+    private static Tableau createExplicitTableau() {
+        // 2x + y + s1 = 18, 2x + 3y + s2 = 42, 3x + y + s3 = 24
+        return new Tableau(
+                5,
+                new Vector(Coefficients.from(18), Coefficients.from(2), Coefficients.from(1),
+                        Coefficients.ONE, Coefficients.ZERO, Coefficients.ZERO),
+                new Vector(Coefficients.from(42), Coefficients.from(2), Coefficients.from(3),
+                        Coefficients.ZERO, Coefficients.ONE, Coefficients.ZERO),
+                new Vector(Coefficients.from(24), Coefficients.from(3), Coefficients.from(1),
+                        Coefficients.ZERO, Coefficients.ZERO, Coefficients.ONE)
+        );
+    }
+
+    private static Tableau createImplicitTableau() {
+        return createImplicitTableau(Tableau.Layout.ROW_MAJOR);
+    }
+
+    private static Tableau createImplicitTableau(final Tableau.Layout layout) {
+        return Tableau.withImplicitColumns(
+                layout,
+                new Vector[]{
+                        new Vector(Coefficients.from(18), Coefficients.from(2), Coefficients.from(1)),
+                        new Vector(Coefficients.from(42), Coefficients.from(2), Coefficients.from(3)),
+                        new Vector(Coefficients.from(24), Coefficients.from(3), Coefficients.from(1))
+                },
+                Tableau.ImplicitColumn.unit(0, Coefficients.ONE),
+                Tableau.ImplicitColumn.unit(1, Coefficients.ONE),
+                Tableau.ImplicitColumn.unit(2, Coefficients.ONE)
+        );
+    }
+
+    @Test
+    public void testImplicitColumnsMatchExplicitColumns() {
+        Tableau explicitTableau = createExplicitTableau();
+        Tableau implicitTableau = createImplicitTableau();
+        assertEquals(5, implicitTableau.getWidth());
+        assertEquals(explicitTableau, implicitTableau);
+
+        explicitTableau = explicitTableau.pivot(2, 1).pivot(0, 2);
+        implicitTableau = implicitTableau.pivot(2, 1).pivot(0, 2);
+        assertEquals(explicitTableau, implicitTableau);
+        assertEquals("6", implicitTableau.get(0, 0).toString());
+        assertEquals("6", implicitTableau.get(2, 0).toString());
+    }
+
+    @Test
+    public void testColumnMajorLayoutMatchesRowMajorLayout() {
+        Tableau rowMajorTableau = createImplicitTableau(Tableau.Layout.ROW_MAJOR);
+        Tableau columnMajorTableau = createImplicitTableau(Tableau.Layout.COLUMN_MAJOR);
+        assertEquals(Tableau.Layout.COLUMN_MAJOR, columnMajorTableau.getLayout());
+        assertEquals(rowMajorTableau, columnMajorTableau);
+        assertEquals(rowMajorTableau.findOptimalPivotRow(1), columnMajorTableau.findOptimalPivotRow(1));
+
+        rowMajorTableau = rowMajorTableau.pivot(2, 1).pivot(0, 2);
+        columnMajorTableau = columnMajorTableau.pivot(2, 1).pivot(0, 2);
+        assertEquals(rowMajorTableau, columnMajorTableau);
+        assertEquals(rowMajorTableau.findOptimalPivotRow(5), columnMajorTableau.findOptimalPivotRow(5));
+    }
+
+    @Test
+    public void testColumnMajorPivotSharesUntouchedColumns() {
+        final Tableau tableau = createImplicitTableau(Tableau.Layout.COLUMN_MAJOR);
+        // After the first pivot x's column is a unit column for row 2, so pivoting on row 1 carries it over as is
+        final Tableau pivotedTableau = tableau.pivot(2, 1);
+        final Tableau twicePivotedTableau = pivotedTableau.pivot(1, 2);
+        assertTrue(pivotedTableau.getColumn(0) != tableau.getColumn(0));
+        assertTrue(twicePivotedTableau.getColumn(1) == pivotedTableau.getColumn(1));
+    }
+
+    @Test
+    public void testArtificialColumnIsDroppedWhenItLeavesTheBasis() {
+        // x + y + a = 4
+        final Tableau tableau = Tableau.withImplicitColumns(
+                new Vector[]{new Vector(Coefficients.from(4), Coefficients.ONE, Coefficients.ONE)},
+                Tableau.ImplicitColumn.artificial(0)
+        );
+        assertFalse(tableau.isDropped(3));
+        assertEquals(Coefficients.ONE, tableau.get(0, 3));
+
+        final Tableau pivotedTableau = tableau.pivot(0, 1);
+        assertTrue(pivotedTableau.isDropped(3));
+        assertEquals(Coefficients.ZERO, pivotedTableau.get(0, 3));
+    }
+
+    @Test
+    public void testWeightedColumnSum() {
+        final Tableau tableau = createImplicitTableau();
+        final Coefficient[] weights = {Coefficients.from(1), Coefficients.from(2), Coefficients.from(3)};
+
+        assertEquals(Coefficients.from(15), tableau.weightedColumnSum(1, weights));
+        assertEquals(Coefficients.from(2), tableau.weightedColumnSum(4, weights));
+    }
+}
@@ -0,0 +1,135 @@
+package core;
+
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WarmStartTest {
+    private static Simplex.Builder createMaximizationBuilder() {
+        // max 3x + 2y s.t. 2x + y <= 18, 2x + 3y <= 42, 3x + y <= 24
+        return Simplex.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(3).addCoefficient(2).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(2).addCoefficient(1).build(),
+                        Coefficients.from(18))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(2).addCoefficient(3).build(),
+                        Coefficients.from(42))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(3).addCoefficient(1).build(),
+                        Coefficients.from(24));
+    }
+
+    private static Simplex.Builder createMixedBuilder() {
+        // max 2x - y + 3z s.t. x + y + z = 4, x - 2y + z >= 3, 2y + z <= 2
+        return Simplex.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(2).addCoefficient(-1).addCoefficient(3).build())
+                .addEquality(Vector.newBuilder().addCoefficient(1).addCoefficient(1).addCoefficient(1).build(),
+                        Coefficients.from(4))
+                .addGreaterThanInequality(Vector.newBuilder()
+                                .addCoefficient(1)
+                                .addCoefficient(-2)
+                                .addCoefficient(1)
+                                .build(),
+                        Coefficients.from(3))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(0).addCoefficient(2).addCoefficient(1).build(),
+                        Coefficients.from(2));
+    }
+
+    private static WarmStart solveWarmStart(final Simplex.Builder builder) {
+        final Simplex simplex = builder.withEngine(SimplexEngine.DOUBLE).withFinalTableauRetained().build();
+        assertTrue(simplex.getWarmStart().isPresent());
+        return simplex.getWarmStart().get();
+    }
+
+    @Test
+    public void testAddedConstraintMatchesColdSolve() {
+        final Vector x = Vector.newBuilder().addCoefficient(1).addCoefficient(0).build();
+        final WarmStart warmStart = solveWarmStart(createMaximizationBuilder())
+                .addLessThanInequality(x, Coefficients.from(2));
+        final Simplex coldSimplex = createMaximizationBuilder()
+                .addLessThanInequality(x, Coefficients.from(2))
+                .build();
+
+        assertTrue(warmStart.isFeasible());
+        assertEquals(coldSimplex.getOptimalValue(), warmStart.getOptimalValue(), 1e-9);
+        assertEquals(2.0, Coefficients.asDouble(warmStart.getOptimalSolution().get(0)), 1e-9);
+        assertEquals(1, warmStart.getNumPivots());
+    }
+
+    @Test
+    public void testPivotLimitLeavesABoundThatCanBeReoptimized() {
+        final Vector x = Vector.newBuilder().addCoefficient(1).addCoefficient(0).build();
+        final Vector y = Vector.newBuilder().addCoefficient(0).addCoefficient(1).build();
+        final WarmStart parent = solveWarmStart(createMaximizationBuilder());
+        final WarmStart limited = parent.addLessThanInequality(x, Coefficients.from(2), 0);
+        final WarmStart optimal = parent.addLessThanInequality(x, Coefficients.from(2));
+
+        assertTrue(limited.isFeasible());
+        assertFalse(limited.isOptimal());
+        assertTrue(optimal.isOptimal());
+        assertTrue(limited.getOptimalValue() >= optimal.getOptimalValue() - 1e-9);
+
+        // The dual simplex picks up where it stopped once there's another constraint to add
+        final Simplex coldSimplex = createMaximizationBuilder()
+                .addLessThanInequality(x, Coefficients.from(2))
+                .addLessThanInequality(y, Coefficients.from(10))
+                .build();
+        final WarmStart child = limited.addLessThanInequality(y, Coefficients.from(10));
+        assertTrue(child.isOptimal());
+        assertEquals(coldSimplex.getOptimalValue(), child.getOptimalValue(), 1e-9);
+    }
+
+    @Test
+    public void testConstraintsCanBeAddedOneAfterAnother() {
+        final Vector y = Vector.newBuilder().addCoefficient(0).addCoefficient(1).build();
+        final Vector xPlusY = Vector.newBuilder().addCoefficient(1).addCoefficient(1).build();
+        final WarmStart parent = solveWarmStart(createMaximizationBuilder());
+        final WarmStart child = parent.addGreaterThanInequality(y, Coefficients.from(13));
+        final WarmStart grandchild = child.addLessThanInequality(xPlusY, Coefficients.from(14));
+        final Simplex coldSimplex = createMaximizationBuilder()
+                .addGreaterThanInequality(y, Coefficients.from(13))
+                .addLessThanInequality(xPlusY, Coefficients.from(14))
+                .build();
+
+        assertEquals(coldSimplex.getOptimalValue(), grandchild.getOptimalValue(), 1e-9);
+        // Adding to a WarmStart leaves it as it was
+        assertEquals(33.0, parent.getOptimalValue(), 1e-9);
+        assertEquals(parent.getBasisVariables().length + 2, grandchild.getBasisVariables().length);
+    }
+
+    @Test
+    public void testAddedConstraintWithEqualitiesAndGreaterThanInequalities() {
+        final Vector z = Vector.newBuilder().addCoefficient(0).addCoefficient(0).addCoefficient(1).build();
+        final WarmStart warmStart = solveWarmStart(createMixedBuilder()).addLessThanInequality(z, Coefficients.ONE);
+        final Simplex coldSimplex = createMixedBuilder()
+                .addLessThanInequality(z, Coefficients.ONE)
+                .build();
+
+        assertTrue(coldSimplex.isFeasible());
+        assertTrue(warmStart.isFeasible());
+        assertEquals(coldSimplex.getOptimalValue(), warmStart.getOptimalValue(), 1e-9);
+    }
+
+    @Test
+    public void testInfeasibleConstraintIsDetected() {
+        // 3x + y <= 24 keeps x <= 8
+        final Vector x = Vector.newBuilder().addCoefficient(1).addCoefficient(0).build();
+        final WarmStart warmStart = solveWarmStart(createMaximizationBuilder())
+                .addGreaterThanInequality(x, Coefficients.from(9));
+
+        assertFalse(warmStart.isFeasible());
+    }
+
+    @Test
+    public void testFinalTableauIsOnlyRetainedWhenAskedFor() {
+        assertFalse(createMaximizationBuilder().withEngine(SimplexEngine.DOUBLE).build().getWarmStart().isPresent());
+        assertFalse(createMaximizationBuilder()
+                .withEngine(SimplexEngine.RATIONAL)
+                .withFinalTableauRetained()
+                .build()
+                .getWarmStart()
+                .isPresent());
+    }
+}
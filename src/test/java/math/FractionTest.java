@@ -0,0 +1,36 @@
+package math;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FractionTest {
+    @Test
+    public void testFractionsAreKeptInLowestTerms() {
+        assertEquals("3/2", Fraction.of(-6, -4).toString());
+        assertEquals("-3/2", Fraction.of(6, -4).toString());
+        assertEquals(Fraction.ZERO, Fraction.of(0, 7));
+        assertEquals("2", Fraction.of(1, 3).add(Fraction.of(5, 3)).toString());
+    }
+
+    @Test
+    public void testArithmetic() {
+        final Fraction a = Fraction.of(2, 3);
+        final Fraction b = Fraction.of(-5, 7);
+        assertEquals(Fraction.of(-1, 21), a.add(b));
+        assertEquals(Fraction.of(29, 21), a.subtract(b));
+        assertEquals(Fraction.of(-10, 21), a.multiply(b));
+        assertEquals(Fraction.of(-14, 15), a.divide(b));
+        assertTrue(b.compareTo(a) < 0);
+    }
+
+    @Test
+    public void testFractionsDoNotOverflow() {
+        final Fraction huge = Fraction.of(BigInteger.TEN.pow(400).add(BigInteger.ONE), BigInteger.TEN.pow(400));
+        assertEquals(1.0, huge.doubleValue(), 1e-15);
+        assertEquals(Fraction.ONE, huge.subtract(Fraction.of(BigInteger.ONE, BigInteger.TEN.pow(400))));
+    }
+}
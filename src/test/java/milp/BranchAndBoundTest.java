@@ -0,0 +1,587 @@
+package milp;
+
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BranchAndBoundTest {
+    /**
+     * A 0-1 knapsack with a few items, with random weights and values that are all within a small range, which takes
+     * quite a few nodes to solve.
+     */
+    static MixedIntegerProgram createKnapsack(final int numItems, final long seed) {
+        final Random random = new Random(seed);
+        final Vector.Builder costBuilder = Vector.newBuilder();
+        final Vector.Builder weightBuilder = Vector.newBuilder();
+        long totalWeight = 0;
+        for (int item = 0; item < numItems; item++) {
+            final int weight = 20 + random.nextInt(10);
+            costBuilder.addCoefficient(weight + random.nextInt(5));
+            weightBuilder.addCoefficient(weight);
+            totalWeight += weight;
+        }
+
+        final MixedIntegerProgram.Builder builder = MixedIntegerProgram.newBuilder()
+                .withCostVector(costBuilder.build())
+                .addLessThanInequality(weightBuilder.build(), Coefficients.from(totalWeight / 2));
+        for (int item = 0; item < numItems; item++) {
+            final Vector.Builder itemBuilder = Vector.newBuilder();
+            for (int j = 0; j < numItems; j++) {
+                itemBuilder.addCoefficient(item == j ? 1 : 0);
+            }
+            builder.addLessThanInequality(itemBuilder.build(), Coefficients.ONE).addIntegerVariables(item);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * A 0-1 knapsack with several weight rows, whose relaxations have more than one fractional variable to pick from.
+     */
+    static MixedIntegerProgram createMultidimensionalKnapsack(final int numItems,
+                                                              final int numRows,
+                                                              final long seed) {
+        final Random random = new Random(seed);
+        final Vector.Builder costBuilder = Vector.newBuilder();
+        for (int item = 0; item < numItems; item++) {
+            costBuilder.addCoefficient(10 + random.nextInt(40));
+        }
+
+        final MixedIntegerProgram.Builder builder = MixedIntegerProgram.newBuilder()
+                .withCostVector(costBuilder.build());
+        for (int row = 0; row < numRows; row++) {
+            final Vector.Builder weightBuilder = Vector.newBuilder();
+            long totalWeight = 0;
+            for (int item = 0; item < numItems; item++) {
+                final int weight = 5 + random.nextInt(30);
+                weightBuilder.addCoefficient(weight);
+                totalWeight += weight;
+            }
+            builder.addLessThanInequality(weightBuilder.build(), Coefficients.from(totalWeight / 2));
+        }
+        for (int item = 0; item < numItems; item++) {
+            final Vector.Builder itemBuilder = Vector.newBuilder();
+            for (int j = 0; j < numItems; j++) {
+                itemBuilder.addCoefficient(item == j ? 1 : 0);
+            }
+            builder.addLessThanInequality(itemBuilder.build(), Coefficients.ONE).addIntegerVariables(item);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * A 0-1 program whose weight rows must each land in a narrow window, so that many branches turn out infeasible.
+     */
+    private static MixedIntegerProgram createMarketSplit(final int numItems, final int numRows, final long seed) {
+        final Random random = new Random(seed);
+        final Vector.Builder costBuilder = Vector.newBuilder();
+        for (int item = 0; item < numItems; item++) {
+            costBuilder.addCoefficient(1 + random.nextInt(20));
+        }
+
+        final MixedIntegerProgram.Builder builder = MixedIntegerProgram.newBuilder()
+                .withCostVector(costBuilder.build());
+        for (int row = 0; row < numRows; row++) {
+            final Vector.Builder weightBuilder = Vector.newBuilder();
+            long totalWeight = 0;
+            for (int item = 0; item < numItems; item++) {
+                final int weight = random.nextInt(40);
+                weightBuilder.addCoefficient(weight);
+                totalWeight += weight;
+            }
+            final Vector weights = weightBuilder.build();
+            builder.addLessThanInequality(weights, Coefficients.from(totalWeight / 2))
+                    .addGreaterThanInequality(weights, Coefficients.from(totalWeight / 2 - 3));
+        }
+        for (int item = 0; item < numItems; item++) {
+            final Vector.Builder itemBuilder = Vector.newBuilder();
+            for (int j = 0; j < numItems; j++) {
+                itemBuilder.addCoefficient(item == j ? 1 : 0);
+            }
+            builder.addLessThanInequality(itemBuilder.build(), Coefficients.ONE).addIntegerVariables(item);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Pack jobs with random sizes and profits into identical bins, at a cost of 0.5 per bin used. Each bin's leftover
+     * capacity can be sold off, up to 2.5 of it, at 0.25 per unit, which makes the program mixed: x_jb says whether job
+     * j goes in bin b, y_b whether bin b is used, and the continuous s_b how much of it is sold off, with
+     * sum_j w_j x_jb + s_b <= capacity * y_b.
+     */
+    static MixedIntegerProgram createBinPackingWithLeftovers(final int numJobs,
+                                                             final int numBins,
+                                                             final int capacity,
+                                                             final long seed) {
+        final Random random = new Random(seed);
+        final int[] sizes = new int[numJobs];
+        final int[] profits = new int[numJobs];
+        for (int job = 0; job < numJobs; job++) {
+            sizes[job] = 1 + random.nextInt(capacity - 1);
+            profits[job] = 1 + random.nextInt(5);
+        }
+
+        final int numVariables = numJobs * numBins + 2 * numBins;
+        final double[] costs = new double[numVariables];
+        for (int job = 0; job < numJobs; job++) {
+            for (int bin = 0; bin < numBins; bin++) {
+                costs[job * numBins + bin] = profits[job];
+            }
+        }
+        for (int bin = 0; bin < numBins; bin++) {
+            costs[numJobs * numBins + bin] = -0.5;
+            costs[numJobs * numBins + numBins + bin] = 0.25;
+        }
+
+        final MixedIntegerProgram.Builder builder = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(costs));
+        for (int job = 0; job < numJobs; job++) {
+            final double[] row = new double[numVariables];
+            for (int bin = 0; bin < numBins; bin++) {
+                row[job * numBins + bin] = 1;
+            }
+            builder.addLessThanInequality(createVector(row), Coefficients.ONE);
+        }
+        for (int bin = 0; bin < numBins; bin++) {
+            final double[] row = new double[numVariables];
+            for (int job = 0; job < numJobs; job++) {
+                row[job * numBins + bin] = sizes[job];
+            }
+            row[numJobs * numBins + bin] = -capacity;
+            row[numJobs * numBins + numBins + bin] = 1;
+            builder.addLessThanInequality(createVector(row), Coefficients.ZERO);
+
+            final double[] leftover = new double[numVariables];
+            leftover[numJobs * numBins + numBins + bin] = 1;
+            builder.addLessThanInequality(createVector(leftover), Coefficients.from(2.5));
+            final double[] used = new double[numVariables];
+            used[numJobs * numBins + bin] = 1;
+            builder.addLessThanInequality(createVector(used), Coefficients.ONE);
+        }
+        for (int variable = 0; variable < numJobs * numBins + numBins; variable++) {
+            builder.addIntegerVariables(variable);
+        }
+
+        return builder.build();
+    }
+
+    private static Vector createVector(final double... values) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final double value : values) {
+            builder.addCoefficient(value);
+        }
+
+        return builder.build();
+    }
+
+    @Test
+    public void testParallelSearchFindsTheSameOptimum() {
+        final MixedIntegerProgram knapsack = createKnapsack(12, 7L);
+        final BranchAndBoundResult sequentialResult = BranchAndBound.newBuilder().build().solve(knapsack);
+        final BranchAndBoundResult parallelResult = BranchAndBound.newBuilder()
+                .withThreads(4)
+                .withRootCutRounds(0)
+                .build()
+                .solve(knapsack);
+
+        assertEquals(sequentialResult.getIncumbentValue(), parallelResult.getIncumbentValue(), 0d);
+        assertEquals(0.0, parallelResult.getGap(), 0d);
+        assertTrue(parallelResult.getNodeCount() > 1);
+    }
+
+    @Test
+    public void testDeterministicRoundsAreReproducible() {
+        final MixedIntegerProgram knapsack = createKnapsack(12, 11L);
+        final BranchAndBoundResult singleThreadResult = BranchAndBound.newBuilder()
+                .withDeterministicRounds(8)
+                .build()
+                .solve(knapsack);
+        for (int run = 0; run < 3; run++) {
+            final BranchAndBoundResult parallelResult = BranchAndBound.newBuilder()
+                    .withThreads(4)
+                    .withDeterministicRounds(8)
+                    .build()
+                    .solve(knapsack);
+
+            assertEquals(singleThreadResult.getIncumbent(), parallelResult.getIncumbent());
+            assertEquals(singleThreadResult.getNodeCount(), parallelResult.getNodeCount());
+        }
+
+        final BranchAndBoundResult sequentialResult = BranchAndBound.newBuilder().build().solve(knapsack);
+        assertEquals(sequentialResult.getIncumbentValue(), singleThreadResult.getIncumbentValue(), 0d);
+    }
+
+    @Test
+    public void testStoredBasesDoNotChangeTheSearch() {
+        final MixedIntegerProgram knapsack = createKnapsack(10, 3L);
+        final BranchAndBoundResult result = BranchAndBound.newBuilder().build().solve(knapsack);
+        final BranchAndBoundResult resultWithBases = BranchAndBound.newBuilder()
+                .withStoredBases(true)
+                .build()
+                .solve(knapsack);
+
+        assertEquals(result.getIncumbent(), resultWithBases.getIncumbent());
+        assertEquals(result.getNodeCount(), resultWithBases.getNodeCount());
+    }
+
+    @Test
+    public void testNodeMemoryLimitDoesNotChangeTheSearch() {
+        final MixedIntegerProgram knapsack = createKnapsack(12, 7L);
+        final BranchAndBoundResult result = BranchAndBound.newBuilder().build().solve(knapsack);
+        final BranchAndBoundResult limitedResult = BranchAndBound.newBuilder()
+                .withNodeMemoryLimit(1000)
+                .build()
+                .solve(knapsack);
+
+        assertEquals(result.getIncumbent(), limitedResult.getIncumbent());
+        assertEquals(result.getNodeCount(), limitedResult.getNodeCount());
+    }
+
+    @Test
+    public void testWarmStartsMatchColdSolves() {
+        final MixedIntegerProgram knapsack = createKnapsack(12, 5L);
+        final BranchAndBoundResult coldResult = BranchAndBound.newBuilder()
+                .withNodeSelection(NodeSelection.DEPTH_FIRST)
+                .withWarmStarts(false)
+                .build()
+                .solve(knapsack);
+        final BranchAndBoundResult warmResult = BranchAndBound.newBuilder()
+                .withNodeSelection(NodeSelection.DEPTH_FIRST)
+                .withRootCutRounds(0)
+                .build()
+                .solve(knapsack);
+
+        assertEquals(coldResult.getIncumbentValue(), warmResult.getIncumbentValue(), 0d);
+        assertEquals(0, coldResult.getWarmStartCount());
+        // A depth-first search warm starts every node but the root, short of the odd evicted sibling
+        assertTrue(warmResult.getWarmStartCount() > warmResult.getNodeCount() / 2);
+    }
+
+    @Test
+    public void testCutsDoNotChangeTheOptimum() {
+        final MixedIntegerProgram knapsack = createKnapsack(22, 3L);
+        final BranchAndBoundResult uncutResult = BranchAndBound.newBuilder()
+                .withRootCutRounds(0)
+                .build()
+                .solve(knapsack);
+        final BranchAndBoundResult cutResult = BranchAndBound.newBuilder()
+                .withTreeCutFrequency(2)
+                .build()
+                .solve(knapsack);
+
+        assertEquals(uncutResult.getIncumbentValue(), cutResult.getIncumbentValue(), 0d);
+        assertTrue(uncutResult.getCutRounds().isEmpty());
+        assertFalse(cutResult.getCutRounds().isEmpty());
+        for (final CutRound round : cutResult.getCutRounds()) {
+            assertTrue(round.getBoundAfter() <= round.getBoundBefore() + 1e-9);
+        }
+        assertTrue(cutResult.getNodeCount() <= uncutResult.getNodeCount());
+    }
+
+    @Test
+    public void testHeuristicsDoNotChangeTheOptimum() {
+        final MixedIntegerProgram knapsack = createKnapsack(16, 11L);
+        final BranchAndBound.Builder builder = BranchAndBound.newBuilder().withRootCutRounds(0);
+        for (final Heuristic heuristic : Heuristic.values()) {
+            builder.withHeuristicFrequency(heuristic, 0);
+        }
+        final BranchAndBoundResult plainResult = builder.build().solve(knapsack);
+        final BranchAndBoundResult heuristicResult = BranchAndBound.newBuilder()
+                .withRootCutRounds(0)
+                .build()
+                .solve(knapsack);
+
+        assertEquals(plainResult.getIncumbentValue(), heuristicResult.getIncumbentValue(), 0d);
+        for (final HeuristicStatistics statistics : plainResult.getHeuristicStatistics().values()) {
+            assertEquals(0, statistics.getCalls());
+        }
+
+        final HeuristicStatistics rounding = heuristicResult.getHeuristicStatistics().get(Heuristic.ROUNDING);
+        assertTrue(rounding.getCalls() > 0);
+        assertTrue(rounding.getImprovements() > 0);
+        assertEquals(1, heuristicResult.getHeuristicStatistics().get(Heuristic.FEASIBILITY_PUMP).getCalls());
+        for (final HeuristicStatistics statistics : heuristicResult.getHeuristicStatistics().values()) {
+            assertTrue(statistics.getImprovements() <= statistics.getSolutions());
+            assertTrue(statistics.getSolutions() <= statistics.getCalls());
+        }
+        assertTrue(heuristicResult.getNodeCount() <= plainResult.getNodeCount());
+    }
+
+    @Test
+    public void testBranchingRulesAgreeOnTheOptimum() {
+        final MixedIntegerProgram knapsack = createMultidimensionalKnapsack(24, 3, 5L);
+        final BranchAndBoundResult mostFractionalResult = BranchAndBound.newBuilder()
+                .withRootCutRounds(0)
+                .withBranchingRule(BranchingRule.MOST_FRACTIONAL)
+                .build()
+                .solve(knapsack);
+        assertTrue(mostFractionalResult.getBranchingCounts().get(BranchingRule.MOST_FRACTIONAL) > 0);
+        assertEquals(0L, (long) mostFractionalResult.getBranchingCounts().get(BranchingRule.STRONG));
+
+        for (final BranchingRule rule : BranchingRule.values()) {
+            final BranchAndBoundResult result = BranchAndBound.newBuilder()
+                    .withRootCutRounds(0)
+                    .withBranchingRule(rule)
+                    .build()
+                    .solve(knapsack);
+            assertEquals(mostFractionalResult.getIncumbentValue(), result.getIncumbentValue(), 0d);
+
+            long numBranched = 0;
+            for (final long count : result.getBranchingCounts().values()) {
+                numBranched += count;
+            }
+            // Every node branched on was solved, and so were the leaves below it
+            assertTrue(numBranched > 0);
+            assertTrue(numBranched < result.getNodeCount());
+            if (rule == BranchingRule.STRONG) {
+                assertEquals(numBranched, (long) result.getBranchingCounts().get(BranchingRule.STRONG));
+            }
+        }
+    }
+
+    @Test
+    public void testPropagationDoesNotChangeTheOptimum() {
+        final MixedIntegerProgram knapsack = createMultidimensionalKnapsack(30, 4, 11L);
+        final BranchAndBoundResult plainResult = BranchAndBound.newBuilder()
+                .withRootCutRounds(0)
+                .withPropagation(false)
+                .build()
+                .solve(knapsack);
+        assertEquals(0L, plainResult.getPropagationPruneCount());
+        assertEquals(0L, plainResult.getPropagatedBoundCount());
+
+        final BranchAndBoundResult propagatedResult = BranchAndBound.newBuilder()
+                .withRootCutRounds(0)
+                .build()
+                .solve(knapsack);
+        assertEquals(plainResult.getIncumbentValue(), propagatedResult.getIncumbentValue(), 0d);
+        assertTrue(propagatedResult.getPropagatedBoundCount() > 0);
+        assertTrue(propagatedResult.getPropagationPruneCount() > 0);
+    }
+
+    @Test
+    public void testConflictsDoNotChangeTheOptimum() {
+        final MixedIntegerProgram marketSplit = createMarketSplit(20, 3, 2L);
+        final BranchAndBoundResult plainResult = BranchAndBound.newBuilder()
+                .withRootCutRounds(0)
+                .withNodeSelection(NodeSelection.DEPTH_FIRST)
+                .build()
+                .solve(marketSplit);
+        assertEquals(0L, plainResult.getConflictStatistics().getConflicts());
+
+        final BranchAndBoundResult conflictResult = BranchAndBound.newBuilder()
+                .withRootCutRounds(0)
+                .withNodeSelection(NodeSelection.DEPTH_FIRST)
+                .withConflictStoreSize(100)
+                .build()
+                .solve(marketSplit);
+        assertEquals(plainResult.getIncumbentValue(), conflictResult.getIncumbentValue(), 0d);
+        final ConflictStatistics statistics = conflictResult.getConflictStatistics();
+        assertTrue(statistics.getConflicts() > 0);
+        assertTrue(statistics.getPrunedNodes() + statistics.getTightenedBounds() > 0);
+        assertTrue(statistics.getConflicts() - statistics.getEvictions() <= 100);
+    }
+
+    @Test
+    public void testConflictsKeepDeterministicRoundsReproducible() {
+        final MixedIntegerProgram marketSplit = createMarketSplit(20, 3, 2L);
+        final BranchAndBoundResult firstResult = BranchAndBound.newBuilder()
+                .withRootCutRounds(0)
+                .withThreads(4)
+                .withDeterministicRounds(8)
+                .withConflictStoreSize(100)
+                .build()
+                .solve(marketSplit);
+        for (int run = 0; run < 3; run++) {
+            final BranchAndBoundResult result = BranchAndBound.newBuilder()
+                    .withRootCutRounds(0)
+                    .withThreads(4)
+                    .withDeterministicRounds(8)
+                    .withConflictStoreSize(100)
+                    .build()
+                    .solve(marketSplit);
+            assertEquals(firstResult.getIncumbentValue(), result.getIncumbentValue(), 0d);
+            assertEquals(firstResult.getNodeCount(), result.getNodeCount());
+            assertEquals(
+                    firstResult.getConflictStatistics().getConflicts(),
+                    result.getConflictStatistics().getConflicts()
+            );
+        }
+    }
+
+    @Test
+    public void testSymmetryBreakingShrinksTheTree() {
+        final MixedIntegerProgram binPacking = SymmetryTest.createBinPacking(new int[]{5, 6, 7, 8, 9}, 5, 14);
+        final BranchAndBoundResult plainResult = BranchAndBound.newBuilder()
+                .withSymmetryBreaking(false)
+                .build()
+                .solve(binPacking);
+        assertEquals(0, plainResult.getSymmetryGeneratorCount());
+
+        final BranchAndBoundResult symmetryResult = BranchAndBound.newBuilder().build().solve(binPacking);
+        assertEquals(plainResult.getIncumbentValue(), symmetryResult.getIncumbentValue(), 0d);
+        assertEquals(4, symmetryResult.getSymmetryGeneratorCount());
+        assertTrue(symmetryResult.getNodeCount() < plainResult.getNodeCount());
+    }
+
+    @Test
+    public void testNodeLimitReturnsTheIncumbentSoFar() {
+        final MixedIntegerProgram knapsack = createKnapsack(22, 3L);
+        final BranchAndBoundResult exactResult = BranchAndBound.newBuilder().build().solve(knapsack);
+        assertEquals(SolveStatus.OPTIMAL, exactResult.getStatus());
+
+        final BranchAndBoundResult limitedResult = BranchAndBound.newBuilder()
+                .withNodeSelection(NodeSelection.DEPTH_FIRST)
+                .withRootCutRounds(0)
+                .withNodeLimit(5)
+                .build()
+                .solve(knapsack);
+        assertEquals(SolveStatus.FEASIBLE, limitedResult.getStatus());
+        assertEquals(5, limitedResult.getNodeCount());
+        assertTrue(limitedResult.getIncumbentValue() <= exactResult.getIncumbentValue());
+        assertTrue(limitedResult.getBestBound() >= exactResult.getIncumbentValue());
+        assertTrue(limitedResult.getGap() > 0);
+    }
+
+    @Test
+    public void testTimeLimitStopsBeforeAnyIncumbent() {
+        final BranchAndBoundResult result = BranchAndBound.newBuilder()
+                .withThreads(4)
+                .withTimeLimit(Duration.ofNanos(1))
+                .build()
+                .solve(createKnapsack(12, 7L));
+
+        assertEquals(SolveStatus.LIMIT, result.getStatus());
+        assertEquals(0, result.getNodeCount());
+        assertFalse(result.getIncumbent().isPresent());
+        assertEquals(Double.POSITIVE_INFINITY, result.getBestBound(), 0d);
+    }
+
+    @Test
+    public void testIncumbentCallbackReportsEveryImprovement() {
+        final List<Double> values = Collections.synchronizedList(new ArrayList<>());
+        final BranchAndBoundResult result = BranchAndBound.newBuilder()
+                .withThreads(4)
+                .withIncumbentCallback((solution, value) -> values.add(value))
+                .build()
+                .solve(createKnapsack(16, 11L));
+
+        assertFalse(values.isEmpty());
+        for (int i = 1; i < values.size(); i++) {
+            assertTrue(values.get(i) > values.get(i - 1));
+        }
+        assertEquals(result.getIncumbentValue(), values.get(values.size() - 1), 0d);
+    }
+
+    @Test
+    public void testPresolveAndRestartsKeepTheOptimum() {
+        final List<MixedIntegerProgram> programs = new ArrayList<>();
+        programs.add(createMultidimensionalKnapsack(45, 8, 1L));
+        programs.add(createMarketSplit(12, 2, 3L));
+        programs.add(SymmetryTest.createBinPacking(new int[]{5, 6, 7, 8, 9}, 5, 14));
+        int numRestarts = 0;
+        for (final MixedIntegerProgram program : programs) {
+            final BranchAndBoundResult plainResult = BranchAndBound.newBuilder()
+                    .withPresolve(false)
+                    .withRestarts(0)
+                    .build()
+                    .solve(program);
+            final BranchAndBoundResult result = BranchAndBound.newBuilder().build().solve(program);
+
+            assertEquals(plainResult.getStatus(), result.getStatus());
+            assertEquals(plainResult.getIncumbentValue(), result.getIncumbentValue(), 1e-9);
+            final Vector solution = result.getIncumbent().get();
+            assertEquals(program.getNumVariables(), solution.length());
+            assertEquals(result.getIncumbentValue(), solution.dotProductAsDouble(program.getCostVector()), 1e-9);
+            numRestarts += result.getRestartCount();
+        }
+
+        // The first knapsack fixes most of its items by reduced costs at the root
+        assertTrue(numRestarts > 0);
+    }
+
+    @Test
+    public void testBinariesJustPastTheirBoundsAreNotBranchedOn() {
+        // After a restart, the relaxation of this one leaves a binary at 1 + 1e-9, which used to be branched on forever
+        final MixedIntegerProgram program = createBinPackingWithLeftovers(4, 2, 5, 7L);
+        final BranchAndBoundResult plainResult = BranchAndBound.newBuilder()
+                .withRootCutRounds(0)
+                .withRestarts(0)
+                .build()
+                .solve(program);
+        final BranchAndBoundResult result = BranchAndBound.newBuilder().withNodeLimit(1000).build().solve(program);
+
+        assertEquals(SolveStatus.OPTIMAL, result.getStatus());
+        assertEquals(plainResult.getIncumbentValue(), result.getIncumbentValue(), 1e-9);
+    }
+
+    @Test
+    public void testRestartsKeepIncumbentsFeasible() {
+        int numRestarts = 0;
+        for (long seed = 0; seed < 10; seed++) {
+            final MixedIntegerProgram program = createBinPackingWithLeftovers(4, 2, 5, seed);
+            final BranchAndBoundResult plainResult = BranchAndBound.newBuilder()
+                    .withRootCutRounds(0)
+                    .withRestarts(0)
+                    .build()
+                    .solve(program);
+            final BranchAndBoundResult result = BranchAndBound.newBuilder().build().solve(program);
+
+            assertEquals(plainResult.getIncumbentValue(), result.getIncumbentValue(), 1e-9);
+            assertTrue(program.isFeasible(CutLoop.toArray(result.getIncumbent().get()), 1e-9));
+            numRestarts += result.getRestartCount();
+        }
+
+        assertTrue(numRestarts > 0);
+    }
+
+    @Test
+    public void testLagrangianBoundKeepsTheOptimum() {
+        final MixedIntegerProgram program = LagrangianRelaxationTest.createAssignment(4, 10, 5L);
+        final BranchAndBoundResult plainResult = BranchAndBound.newBuilder().build().solve(program);
+        final BranchAndBoundResult result = BranchAndBound.newBuilder()
+                .withLagrangianRelaxation(LagrangianRelaxation.newBuilder()
+                        .withDualizedEqualities(0, 1, 2, 3, 4, 5, 6, 7, 8, 9)
+                        .build())
+                .build()
+                .solve(program);
+
+        assertEquals(SolveStatus.OPTIMAL, result.getStatus());
+        assertEquals(plainResult.getIncumbentValue(), result.getIncumbentValue(), 1e-9);
+        assertEquals(result.getIncumbentValue(), result.getBestBound(), 1e-6);
+        assertTrue(result.getNodeCount() <= plainResult.getNodeCount());
+    }
+
+    @Test
+    public void testIncumbentOnlyImproves() {
+        final Incumbent incumbent = new Incumbent();
+        assertEquals(Double.NEGATIVE_INFINITY, incumbent.getScore(), 0d);
+        assertTrue(incumbent.offer(Vector.newBuilder().addCoefficient(1).build(), 1.0));
+        assertTrue(!incumbent.offer(Vector.newBuilder().addCoefficient(0).build(), 0.5));
+        assertEquals("[1]", incumbent.getVector().toString());
+
+        incumbent.recordPrunedScore(3.0);
+        incumbent.recordPrunedScore(2.0);
+        assertEquals(3.0, incumbent.getPrunedScore(), 0d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRowsShorterThanTheCostVector() {
+        MixedIntegerProgram.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(1).build(), Coefficients.ONE)
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package milp;
+
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CliqueCutSeparatorTest {
+    /**
+     * Three binaries with x1 + x2 <= 1, x2 + x3 <= 1, x1 + x3 <= 1, whose relaxation is solved by (0.5, 0.5, 0.5).
+     */
+    private static MixedIntegerProgram createProgram() {
+        return MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(1, 1, 1))
+                .addLessThanInequality(createVector(1, 1, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(0, 1, 1), Coefficients.ONE)
+                .addLessThanInequality(createVector(1, 0, 1), Coefficients.ONE)
+                .addLessThanInequality(createVector(1, 0, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(0, 1, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(0, 0, 1), Coefficients.ONE)
+                .addIntegerVariables(0, 1, 2)
+                .build();
+    }
+
+    private static Vector createVector(final int... coefficients) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final int coefficient : coefficients) {
+            builder.addCoefficient(coefficient);
+        }
+
+        return builder.build();
+    }
+
+    @Test
+    public void testConflictGraphHasAnEdgePerPackingRow() {
+        final CliqueCutSeparator separator = new CliqueCutSeparator(createProgram());
+
+        assertTrue(separator.isConflict(0, 2));
+        assertTrue(separator.isConflict(2, 4));
+        assertTrue(separator.isConflict(4, 0));
+        // No complements conflict, since none of the rows had a negative coefficient
+        assertFalse(separator.isConflict(1, 3));
+    }
+
+    @Test
+    public void testTriangleGivesACliqueCut() {
+        final double[] solution = {0.5, 0.5, 0.5};
+        final List<Cut> cuts = new CliqueCutSeparator(createProgram()).separate(null, solution);
+
+        // x1 + x2 + x3 <= 1, found once even though it grows from every literal
+        assertEquals(1, cuts.size());
+        assertEquals(0.5 / Math.sqrt(3), cuts.get(0).getEfficacy(solution), 1e-9);
+        assertTrue(cuts.get(0).getEfficacy(new double[]{1, 0, 0}) <= 0);
+    }
+
+    @Test
+    public void testCliqueCutsSolveTheRootOfATriangle() {
+        final BranchAndBoundResult result = BranchAndBound.newBuilder().build().solve(createProgram());
+
+        assertEquals(1.0, result.getIncumbentValue(), 1e-9);
+        assertEquals(1, result.getNodeCount());
+        assertEquals(1, result.getCutRounds().get(0).getNumCuts());
+    }
+}
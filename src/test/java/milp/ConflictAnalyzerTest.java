@@ -0,0 +1,103 @@
+package milp;
+
+import coefficients.Coefficients;
+import core.WarmStart;
+import math.Vector;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConflictAnalyzerTest {
+    private static Vector createVector(final int... coefficients) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final int coefficient : coefficients) {
+            builder.addCoefficient(coefficient);
+        }
+
+        return builder.build();
+    }
+
+    private static long[] createUpperBounds(final int numVariables) {
+        final long[] upperBounds = new long[numVariables];
+        for (int variable = 0; variable < numVariables; variable++) {
+            upperBounds[variable] = BoundChange.NO_UPPER_BOUND;
+        }
+
+        return upperBounds;
+    }
+
+    private static long[] createGlobalUpperBounds(final MixedIntegerProgram program, final Propagator propagator) {
+        final long[] upperBounds = createUpperBounds(program.getNumVariables());
+        assertTrue(propagator.propagate(new long[program.getNumVariables()], upperBounds, null));
+        return upperBounds;
+    }
+
+    /**
+     * Binaries a, b, c and d, where a implies c, b implies d, and c and d exclude each other, plus an unrelated
+     * binary e.
+     */
+    @Test
+    public void testPropagationConflictsOnlyKeepTheBoundsToBlame() {
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(1, 1, 1, 1, 1))
+                .addLessThanInequality(createVector(1, 0, -1, 0, 0), Coefficients.ZERO)
+                .addLessThanInequality(createVector(0, 1, 0, -1, 0), Coefficients.ZERO)
+                .addLessThanInequality(createVector(0, 0, 1, 1, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(0, 0, 0, 0, 1), Coefficients.ONE)
+                .addIntegerVariables(0, 1, 2, 3, 4)
+                .build();
+        final Propagator propagator = new Propagator(program);
+        final long[] globalLowerBounds = new long[5];
+        final long[] globalUpperBounds = createGlobalUpperBounds(program, propagator);
+        final ConflictAnalyzer analyzer = new ConflictAnalyzer(program, propagator, globalLowerBounds,
+                globalUpperBounds, 10);
+
+        final long[] lowerBounds = {1, 1, 0, 0, 1};
+        assertFalse(propagator.propagate(lowerBounds.clone(), globalUpperBounds.clone(), null));
+        final Conflict conflict = analyzer.analyzePropagation(lowerBounds, globalUpperBounds.clone());
+        assertEquals("[x0 >= 1, x1 >= 1]", conflict.toString());
+    }
+
+    /**
+     * max x + y + w over binaries x, y and w, with a continuous z where z >= x and z + y <= 1, so x and y exclude
+     * each other through a row propagation can't use.
+     */
+    @Test
+    public void testRelaxationConflictsComeFromTheFarkasRow() {
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(1, 1, 0, 1))
+                .addGreaterThanInequality(createVector(-1, 0, 1, 0), Coefficients.ZERO)
+                .addLessThanInequality(createVector(0, 1, 1, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(1, 0, 0, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(0, 1, 0, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(0, 0, 0, 1), Coefficients.ONE)
+                .addIntegerVariables(0, 1, 3)
+                .build();
+        final Propagator propagator = new Propagator(program);
+        final long[] globalLowerBounds = new long[4];
+        final long[] globalUpperBounds = createGlobalUpperBounds(program, propagator);
+        final ConflictAnalyzer analyzer = new ConflictAnalyzer(program, propagator, globalLowerBounds,
+                globalUpperBounds, 10);
+
+        final long[] lowerBounds = {1, 1, 0, 1};
+        assertTrue(propagator.propagate(lowerBounds.clone(), globalUpperBounds.clone(), null));
+        final WarmStart root = program.solveRelaxation(Node.root(), true).getWarmStart().get();
+        final WarmStart relaxation = program.solveRelaxation(lowerBounds, globalUpperBounds, root);
+        assertFalse(relaxation.isFeasible());
+
+        final Conflict conflict = analyzer.analyzeRelaxation(relaxation, false, lowerBounds, globalUpperBounds);
+        assertEquals("[x0 >= 1, x1 >= 1]", conflict.toString());
+
+        // Without the tableau, or with local rows in it, every bound is blamed
+        assertEquals(
+                "[x0 >= 1, x1 >= 1, x3 >= 1]",
+                analyzer.analyzeRelaxation(relaxation, true, lowerBounds, globalUpperBounds).toString()
+        );
+        assertEquals(
+                "[x0 >= 1, x1 >= 1, x3 >= 1]",
+                analyzer.analyzeRelaxation(null, false, lowerBounds, globalUpperBounds).toString()
+        );
+    }
+}
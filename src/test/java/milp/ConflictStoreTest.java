@@ -0,0 +1,119 @@
+package milp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConflictStoreTest {
+    private static final int NUM_VARIABLES = 4;
+
+    /**
+     * x_first >= 1 and x_second <= 0.
+     */
+    private static Conflict createConflict(final int first, final int second) {
+        return new Conflict.Builder()
+                .add(first, 1, false)
+                .add(second, 0, true)
+                .build();
+    }
+
+    private static long[] createLowerBounds() {
+        return new long[NUM_VARIABLES];
+    }
+
+    private static long[] createUpperBounds() {
+        final long[] upperBounds = new long[NUM_VARIABLES];
+        for (int variable = 0; variable < NUM_VARIABLES; variable++) {
+            upperBounds[variable] = 5;
+        }
+
+        return upperBounds;
+    }
+
+    @Test
+    public void testConflictsPruneAndTighten() {
+        final ConflictStore store = new ConflictStore(10, 100, false);
+        store.add(createConflict(0, 1), 1);
+
+        // Both bounds hold, so the node is infeasible
+        final long[] lowerBounds = createLowerBounds();
+        final long[] upperBounds = createUpperBounds();
+        lowerBounds[0] = 1;
+        upperBounds[1] = 0;
+        assertFalse(store.propagate(lowerBounds, upperBounds, new ArrayList<>(), 2));
+
+        // Only the first holds, so the second can't
+        final long[] otherLowerBounds = createLowerBounds();
+        final long[] otherUpperBounds = createUpperBounds();
+        otherLowerBounds[0] = 2;
+        final List<Integer> changedVariables = new ArrayList<>();
+        assertTrue(store.propagate(otherLowerBounds, otherUpperBounds, changedVariables, 3));
+        assertEquals(1L, otherLowerBounds[1]);
+        assertEquals(Collections.singletonList(1), changedVariables);
+
+        // Neither holds yet, so nothing is known
+        final long[] looseLowerBounds = createLowerBounds();
+        final long[] looseUpperBounds = createUpperBounds();
+        assertTrue(store.propagate(looseLowerBounds, looseUpperBounds, new ArrayList<>(), 4));
+        assertEquals(0L, looseLowerBounds[1]);
+
+        final ConflictStatistics statistics = store.getStatistics();
+        assertEquals(1L, statistics.getConflicts());
+        assertEquals(1L, statistics.getPrunedNodes());
+        assertEquals(1L, statistics.getTightenedBounds());
+    }
+
+    @Test
+    public void testTheLeastRecentlyUsedConflictIsEvicted() {
+        final ConflictStore store = new ConflictStore(2, 100, false);
+        store.add(createConflict(0, 1), 1);
+        store.add(createConflict(2, 3), 2);
+
+        // Use the first conflict, which leaves the second as the oldest
+        final long[] lowerBounds = createLowerBounds();
+        lowerBounds[0] = 1;
+        store.propagate(lowerBounds, createUpperBounds(), new ArrayList<>(), 3);
+
+        store.add(createConflict(1, 2), 4);
+        assertEquals(2, store.size());
+        assertEquals(1L, store.getStatistics().getEvictions());
+
+        final long[] otherLowerBounds = createLowerBounds();
+        otherLowerBounds[2] = 1;
+        final long[] otherUpperBounds = createUpperBounds();
+        assertTrue(store.propagate(otherLowerBounds, otherUpperBounds, new ArrayList<>(), 5));
+        assertEquals(5L, otherUpperBounds[3]);
+    }
+
+    @Test
+    public void testUnusedConflictsAgeOut() {
+        final ConflictStore store = new ConflictStore(10, 5, false);
+        store.add(createConflict(0, 1), 1);
+        store.add(createConflict(2, 3), 10);
+
+        assertEquals(1, store.size());
+        assertEquals(1L, store.getStatistics().getEvictions());
+    }
+
+    @Test
+    public void testDeferredConflictsWaitForAFlush() {
+        final ConflictStore store = new ConflictStore(1, 100, true);
+        store.add(createConflict(2, 3), 7);
+        store.add(createConflict(0, 1), 5);
+        assertEquals(0, store.size());
+
+        // Added in node order, so the conflict of node 7 evicts that of node 5
+        store.flush();
+        assertEquals(1, store.size());
+        final long[] lowerBounds = createLowerBounds();
+        lowerBounds[2] = 1;
+        assertTrue(store.propagate(lowerBounds, createUpperBounds(), new ArrayList<>(), 8));
+        assertEquals(1L, lowerBounds[3]);
+    }
+}
@@ -0,0 +1,117 @@
+package milp;
+
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CoverCutSeparatorTest {
+    /**
+     * Binary variables with the given knapsack row over them.
+     */
+    private static MixedIntegerProgram createProgram(final int capacity, final int... weights) {
+        final Vector.Builder weightBuilder = Vector.newBuilder();
+        final Vector.Builder costBuilder = Vector.newBuilder();
+        for (final int weight : weights) {
+            weightBuilder.addCoefficient(weight);
+            costBuilder.addCoefficient(1);
+        }
+
+        final MixedIntegerProgram.Builder builder = MixedIntegerProgram.newBuilder()
+                .withCostVector(costBuilder.build())
+                .addLessThanInequality(weightBuilder.build(), Coefficients.from(capacity));
+        for (int item = 0; item < weights.length; item++) {
+            final Vector.Builder itemBuilder = Vector.newBuilder();
+            for (int j = 0; j < weights.length; j++) {
+                itemBuilder.addCoefficient(item == j ? 1 : 0);
+            }
+            builder.addLessThanInequality(itemBuilder.build(), Coefficients.ONE).addIntegerVariables(item);
+        }
+
+        return builder.build();
+    }
+
+    private static Vector createVector(final int... coefficients) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final int coefficient : coefficients) {
+            builder.addCoefficient(coefficient);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Check a cut against every 0/1 point that fits in the knapsack.
+     */
+    private static void assertValid(final Cut cut, final int capacity, final int... weights) {
+        for (int point = 0; point < 1 << weights.length; point++) {
+            final double[] solution = new double[weights.length];
+            int weight = 0;
+            for (int item = 0; item < weights.length; item++) {
+                solution[item] = (point >> item) & 1;
+                weight += weights[item] * solution[item];
+            }
+            assertTrue(weight > capacity || cut.getEfficacy(solution) <= 1e-9);
+        }
+    }
+
+    @Test
+    public void testCoverInequalityIsViolatedAndValid() {
+        final MixedIntegerProgram program = createProgram(12, 5, 5, 5);
+        final List<KnapsackRow> rows = KnapsackRow.extractAll(program);
+        assertEquals(1, rows.size());
+
+        // x1 + x2 + x3 <= 2
+        final double[] solution = {1, 1, 0.4};
+        final Cut cut = new CoverCutSeparator(program).separate(rows.get(0), solution);
+        assertEquals(0.4 / Math.sqrt(3), cut.getEfficacy(solution), 1e-9);
+        assertValid(cut, 12, 5, 5, 5);
+    }
+
+    @Test
+    public void testItemsOutsideTheCoverAreLifted() {
+        final MixedIntegerProgram program = createProgram(12, 5, 5, 5, 9);
+        final KnapsackRow row = KnapsackRow.extractAll(program).get(0);
+
+        // The cover x1 + x2 + x3 <= 2 lifts x4 to x1 + x2 + x3 + 2 x4 <= 2, since x4 fits with none of the others
+        final double[] solution = {1, 1, 0.4, 0};
+        final Cut cut = new CoverCutSeparator(program).separate(row, solution);
+        // which cuts off a point the cover alone doesn't
+        assertEquals(0.4 / Math.sqrt(7), cut.getEfficacy(new double[]{0, 0, 0.4, 1}), 1e-9);
+        assertValid(cut, 12, 5, 5, 5, 9);
+    }
+
+    @Test
+    public void testNoCutWhenTheCoverIsNotViolated() {
+        final MixedIntegerProgram program = createProgram(12, 5, 5, 5);
+        final KnapsackRow row = KnapsackRow.extractAll(program).get(0);
+
+        assertNull(new CoverCutSeparator(program).separate(row, new double[]{1, 0.4, 0.4}));
+    }
+
+    @Test
+    public void testNegativeWeightsAreComplemented() {
+        // 5 x1 + 5 x2 - 5 x3 <= 7 is 5 x1 + 5 x2 + 5 (1 - x3) <= 12
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(1, 1, 1))
+                .addLessThanInequality(createVector(5, 5, -5), Coefficients.from(7))
+                .addLessThanInequality(createVector(1, 0, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(0, 1, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(0, 0, 1), Coefficients.ONE)
+                .addIntegerVariables(0, 1, 2)
+                .build();
+        final KnapsackRow row = KnapsackRow.extractAll(program).get(0);
+        assertEquals(12.0, row.getCapacity(), 0d);
+        assertTrue(row.isComplemented(2));
+
+        // x1 + x2 + (1 - x3) <= 2, i.e. x1 + x2 - x3 <= 1
+        final Cut cut = new CoverCutSeparator(program).separate(row, new double[]{1, 1, 0.6});
+        assertEquals(0.6 / Math.sqrt(3), cut.getEfficacy(new double[]{1, 1, 0.4}), 1e-9);
+        assertTrue(cut.getEfficacy(new double[]{1, 1, 1}) <= 0);
+    }
+}
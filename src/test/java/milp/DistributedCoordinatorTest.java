@@ -0,0 +1,169 @@
+package milp;
+
+import coefficients.Coefficient;
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DistributedCoordinatorTest {
+    private static final String HOST = "localhost";
+
+    // Workers and solves block for as long as they run, so they each get a thread of their own
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<Long> startWorker(final MixedIntegerProgram program,
+                                                final DistributedCoordinator coordinator) {
+        final DistributedWorker worker = DistributedWorker.newBuilder().withNodesPerSlice(4).build();
+        return CompletableFuture.supplyAsync(() -> worker.run(program, HOST, coordinator.getPort()), executor);
+    }
+
+    private CompletableFuture<BranchAndBoundResult> startSolve(final MixedIntegerProgram program,
+                                                               final DistributedCoordinator coordinator) {
+        return CompletableFuture.supplyAsync(() -> coordinator.solve(program), executor);
+    }
+
+    @Test
+    public void testWorkersFindTheOptimum() throws Exception {
+        final MixedIntegerProgram program = BranchAndBoundTest.createMultidimensionalKnapsack(30, 5, 2L);
+        final BranchAndBoundResult expectedResult = BranchAndBound.newBuilder().build().solve(program);
+
+        try (DistributedCoordinator coordinator = DistributedCoordinator.newBuilder().build()) {
+            final List<CompletableFuture<Long>> workers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                workers.add(startWorker(program, coordinator));
+            }
+            final BranchAndBoundResult result = coordinator.solve(program);
+
+            assertEquals(SolveStatus.OPTIMAL, result.getStatus());
+            assertEquals(expectedResult.getIncumbentValue(), result.getIncumbentValue(), 1e-9);
+            assertEquals(
+                    result.getIncumbentValue(),
+                    result.getIncumbent().get().dotProductAsDouble(program.getCostVector()),
+                    1e-9
+            );
+            long nodeCount = 0;
+            for (final CompletableFuture<Long> worker : workers) {
+                nodeCount += worker.get();
+            }
+            assertEquals(result.getNodeCount(), nodeCount);
+            assertTrue(nodeCount > 1);
+
+            // The workers' own statistics add up too
+            final long branchingCount = result.getBranchingCounts().values().stream().mapToLong(Long::longValue).sum();
+            assertTrue(branchingCount > 0);
+            assertTrue(result.getWarmStartCount() > 0);
+        }
+    }
+
+    @Test
+    public void testWorkersCanJoinAtAnyTime() throws Exception {
+        final MixedIntegerProgram program = BranchAndBoundTest.createKnapsack(12, 7L);
+        try (DistributedCoordinator coordinator = DistributedCoordinator.newBuilder().build()) {
+            final CompletableFuture<BranchAndBoundResult> result = startSolve(program, coordinator);
+            final long firstNodeCount = startWorker(program, coordinator).get();
+            assertEquals(result.get().getNodeCount(), firstNodeCount);
+
+            // A worker that joins after the solve is over is told to stop straight away
+            assertEquals(0L, (long) startWorker(program, coordinator).get());
+        }
+    }
+
+    @Test
+    public void testNodesOfAWorkerThatDropsOutAreHandedOut() throws Exception {
+        final MixedIntegerProgram program = BranchAndBoundTest.createKnapsack(12, 7L);
+        final BranchAndBoundResult expectedResult = BranchAndBound.newBuilder().build().solve(program);
+
+        try (DistributedCoordinator coordinator = DistributedCoordinator.newBuilder().build()) {
+            final CompletableFuture<BranchAndBoundResult> result = startSolve(program, coordinator);
+
+            // Take the root, then hang up without reporting on it
+            try (Socket socket = new Socket(HOST, coordinator.getPort());
+                 DataInputStream input = new DataInputStream(socket.getInputStream());
+                 DataOutputStream output = new DataOutputStream(socket.getOutputStream())) {
+                output.writeByte(DistributedProtocol.HELLO);
+                output.writeLong(DistributedProtocol.fingerprint(program));
+                assertEquals(DistributedProtocol.ACCEPT, input.readByte());
+                input.readInt();
+                output.writeByte(DistributedProtocol.REPORT);
+                output.writeLong(0);
+                output.writeBoolean(false);
+                output.writeDouble(Double.NEGATIVE_INFINITY);
+                DistributedProtocol.writeVector(output, null);
+                DistributedProtocol.writeNodes(output, Collections.emptyList());
+                DistributedProtocol.writeStatistics(output, expectedResult);
+                assertEquals(DistributedProtocol.WORK, input.readByte());
+                DistributedProtocol.readVector(input);
+                assertEquals(1, DistributedProtocol.readNodes(input).size());
+            }
+
+            startWorker(program, coordinator).get();
+            assertEquals(expectedResult.getIncumbentValue(), result.get().getIncumbentValue(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testIgnoresInfeasibleIncumbentsFromWorkers() throws Exception {
+        final MixedIntegerProgram program = BranchAndBoundTest.createKnapsack(12, 7L);
+        final BranchAndBoundResult expectedResult = BranchAndBound.newBuilder().build().solve(program);
+
+        try (DistributedCoordinator coordinator = DistributedCoordinator.newBuilder().build()) {
+            final CompletableFuture<BranchAndBoundResult> result = startSolve(program, coordinator);
+
+            // Claim that taking every item fits, which would beat the real optimum, and send the root back
+            final Coefficient[] everyItem = new Coefficient[program.getNumVariables()];
+            Arrays.fill(everyItem, Coefficients.ONE);
+            try (Socket socket = new Socket(HOST, coordinator.getPort());
+                 DataInputStream input = new DataInputStream(socket.getInputStream());
+                 DataOutputStream output = new DataOutputStream(socket.getOutputStream())) {
+                output.writeByte(DistributedProtocol.HELLO);
+                output.writeLong(DistributedProtocol.fingerprint(program));
+                assertEquals(DistributedProtocol.ACCEPT, input.readByte());
+                input.readInt();
+                output.writeByte(DistributedProtocol.REPORT);
+                output.writeLong(0);
+                output.writeBoolean(false);
+                output.writeDouble(Double.NEGATIVE_INFINITY);
+                DistributedProtocol.writeVector(output, new Vector(everyItem));
+                DistributedProtocol.writeNodes(output, Collections.emptyList());
+                DistributedProtocol.writeStatistics(output, expectedResult);
+                assertEquals(DistributedProtocol.WORK, input.readByte());
+                assertNull(DistributedProtocol.readVector(input));
+            }
+
+            startWorker(program, coordinator).get();
+            assertEquals(expectedResult.getIncumbentValue(), result.get().getIncumbentValue(), 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsWorkersWithADifferentProgram() throws IOException {
+        try (DistributedCoordinator coordinator = DistributedCoordinator.newBuilder().build()) {
+            startSolve(BranchAndBoundTest.createKnapsack(12, 7L), coordinator);
+            DistributedWorker.newBuilder()
+                    .build()
+                    .run(BranchAndBoundTest.createKnapsack(12, 8L), HOST, coordinator.getPort());
+        }
+    }
+}
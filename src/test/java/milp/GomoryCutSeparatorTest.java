@@ -0,0 +1,111 @@
+package milp;
+
+import coefficients.Coefficients;
+import core.WarmStart;
+import math.Vector;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GomoryCutSeparatorTest {
+    private static MixedIntegerProgram createProgram() {
+        // max y s.t. 3x + 2y <= 6, -3x + 2y <= 0, x and y integer, whose relaxation is solved by (1, 1.5)
+        return MixedIntegerProgram.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(0).addCoefficient(1).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(3).addCoefficient(2).build(),
+                        Coefficients.from(6))
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(-3).addCoefficient(2).build(),
+                        Coefficients.from(0))
+                .addIntegerVariables(0, 1)
+                .build();
+    }
+
+    private static WarmStart solveRoot(final MixedIntegerProgram program) {
+        return program.solveRelaxation(Node.root(), true).getWarmStart().get();
+    }
+
+    @Test
+    public void testCutsSeparateTheRelaxationButNoIntegerSolution() {
+        final MixedIntegerProgram program = createProgram();
+        final WarmStart relaxation = solveRoot(program);
+        final double[] solution = CutLoop.toArray(relaxation.getOptimalSolution());
+        assertEquals(1.5, solution[1], 1e-9);
+
+        final List<Cut> cuts = new GomoryCutSeparator(program).separate(relaxation, solution);
+        assertFalse(cuts.isEmpty());
+        for (final Cut cut : cuts) {
+            assertTrue(cut.getEfficacy(solution) > 0);
+            for (int x = 0; x <= 2; x++) {
+                for (int y = 0; y <= 3; y++) {
+                    final boolean isFeasible = 3 * x + 2 * y <= 6 && -3 * x + 2 * y <= 0;
+                    assertTrue(!isFeasible || cut.getEfficacy(new double[]{x, y}) <= 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCutRoundsTightenTheBound() {
+        final MixedIntegerProgram program = createProgram();
+        final CutLoop.Result result = new CutLoop(
+                Collections.singletonList(new GomoryCutSeparator(program))
+        ).run(solveRoot(program), 10);
+
+        assertFalse(result.getRounds().isEmpty());
+        assertEquals(1.5, result.getRounds().get(0).getBoundBefore(), 1e-9);
+        assertTrue(result.getRounds().get(0).getBoundImprovement() > 0);
+        // The integer optimum is 1, which no cut can go past
+        assertTrue(result.getRelaxation().getOptimalValue() >= 1 - 1e-9);
+    }
+
+    @Test
+    public void testNoCutsForAnIntegralSolution() {
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(1).build())
+                .addLessThanInequality(Vector.newBuilder().addCoefficient(1).build(), Coefficients.from(3))
+                .addIntegerVariables(0)
+                .build();
+        final WarmStart relaxation = solveRoot(program);
+
+        assertTrue(new GomoryCutSeparator(program)
+                .separate(relaxation, CutLoop.toArray(relaxation.getOptimalSolution()))
+                .isEmpty());
+    }
+
+    @Test
+    public void testCutsOfMixedProgramsKeepTheOptimum() {
+        for (long seed = 70; seed < 80; seed++) {
+            final MixedIntegerProgram program = BranchAndBoundTest.createBinPackingWithLeftovers(3, 3, 6, seed);
+            final BranchAndBoundResult uncutResult = BranchAndBound.newBuilder()
+                    .withRootCutRounds(0)
+                    .build()
+                    .solve(program);
+            final double[] optimum = CutLoop.toArray(uncutResult.getIncumbent().get());
+
+            final CutLoop.Result result = new CutLoop(
+                    Collections.singletonList(new GomoryCutSeparator(program))
+            ).run(solveRoot(program), 10);
+            for (final Cut cut : result.getCuts()) {
+                assertTrue(cut.getEfficacy(optimum) <= 1e-9);
+                final double[] coefficients = CutLoop.toArray(cut.getCoefficients());
+                double largestCoefficient = 0d;
+                for (final double coefficient : coefficients) {
+                    largestCoefficient = Math.max(largestCoefficient, Math.abs(coefficient));
+                }
+                for (final double coefficient : coefficients) {
+                    assertTrue(coefficient == 0d || Math.abs(coefficient) >= 1e-9 * largestCoefficient);
+                }
+            }
+
+            // Seed 73 used to lose its optimum of 9 to a cut whose noise blew up the dual simplex
+            final BranchAndBoundResult cutResult = BranchAndBound.newBuilder().build().solve(program);
+            assertEquals(SolveStatus.OPTIMAL, cutResult.getStatus());
+            assertEquals(uncutResult.getIncumbentValue(), cutResult.getIncumbentValue(), 1e-9);
+        }
+    }
+}
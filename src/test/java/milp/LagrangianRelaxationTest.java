@@ -0,0 +1,174 @@
+package milp;
+
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LagrangianRelaxationTest {
+    private static final int NUM_MACHINES = 3;
+    private static final int NUM_JOBS = 8;
+
+    /**
+     * A generalized assignment problem: assign every job to one machine, within each machine's capacity, at the least
+     * cost. Variable m * numJobs + j assigns job j to machine m. The equalities, one per job, link the machines, and
+     * without them every machine is a knapsack of its own.
+     */
+    static MixedIntegerProgram createAssignment(final int numMachines, final int numJobs, final long seed) {
+        final Random random = new Random(seed);
+        final int numVariables = numMachines * numJobs;
+        final double[] costs = new double[numVariables];
+        final double[][] weights = new double[numMachines][numVariables];
+        for (int machine = 0; machine < numMachines; machine++) {
+            for (int job = 0; job < numJobs; job++) {
+                costs[machine * numJobs + job] = 10 + random.nextInt(40);
+                weights[machine][machine * numJobs + job] = 5 + random.nextInt(20);
+            }
+        }
+
+        final MixedIntegerProgram.Builder builder = MixedIntegerProgram.newBuilder()
+                .minimizeCostFunction()
+                .withCostVector(createVector(costs));
+        for (int job = 0; job < numJobs; job++) {
+            final double[] row = new double[numVariables];
+            for (int machine = 0; machine < numMachines; machine++) {
+                row[machine * numJobs + job] = 1;
+            }
+            builder.addEquality(createVector(row), Coefficients.ONE);
+        }
+        for (int machine = 0; machine < numMachines; machine++) {
+            // Room for about half again a machine's share of the jobs
+            builder.addLessThanInequality(createVector(weights[machine]), Coefficients.from(15 * numJobs / 2));
+        }
+        for (int variable = 0; variable < numVariables; variable++) {
+            final double[] unit = new double[numVariables];
+            unit[variable] = 1;
+            builder.addLessThanInequality(createVector(unit), Coefficients.ONE).addIntegerVariables(variable);
+        }
+
+        return builder.build();
+    }
+
+    private static Vector createVector(final double... coefficients) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final double coefficient : coefficients) {
+            builder.addCoefficient(coefficient);
+        }
+
+        return builder.build();
+    }
+
+    private static int[] range(final int size) {
+        final int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+
+        return values;
+    }
+
+    private static LagrangianRelaxation.Builder dualizeAssignments() {
+        return LagrangianRelaxation.newBuilder().withDualizedEqualities(range(NUM_JOBS));
+    }
+
+    @Test
+    public void testIntegerSubproblemsBoundTighterThanTheRelaxation() {
+        final MixedIntegerProgram program = createAssignment(NUM_MACHINES, NUM_JOBS, 3L);
+        final double optimum = BranchAndBound.newBuilder().build().solve(program).getIncumbentValue();
+        final double relaxationBound = program.solveRelaxation(Node.root()).getOptimalValue();
+
+        for (final MultiplierUpdate multiplierUpdate : MultiplierUpdate.values()) {
+            final LagrangianResult result = dualizeAssignments()
+                    .withMultiplierUpdate(multiplierUpdate)
+                    .build()
+                    .solve(program);
+            assertTrue(result.getBound() <= optimum + 1e-6);
+            // The knapsacks' own relaxations aren't integral, so their integer solutions do better
+            assertTrue(result.getBound() > relaxationBound + 1);
+        }
+    }
+
+    @Test
+    public void testLinearSubproblemsConvergeToTheRelaxation() {
+        final MixedIntegerProgram program = createAssignment(NUM_MACHINES, NUM_JOBS, 3L);
+        final double relaxationBound = program.solveRelaxation(Node.root()).getOptimalValue();
+
+        final LagrangianResult bundleResult = dualizeAssignments()
+                .withIntegerSubproblems(false)
+                .build()
+                .solve(program);
+        assertEquals(relaxationBound, bundleResult.getBound(), 1e-6);
+
+        final LagrangianResult subgradientResult = dualizeAssignments()
+                .withIntegerSubproblems(false)
+                .withMultiplierUpdate(MultiplierUpdate.SUBGRADIENT)
+                .build()
+                .solve(program);
+        assertTrue(subgradientResult.getBound() <= relaxationBound + 1e-6);
+        assertEquals(relaxationBound, subgradientResult.getBound(), 1e-3 * relaxationBound);
+        // The bundle gets there in far fewer steps
+        assertTrue(bundleResult.getIterations() < subgradientResult.getIterations());
+    }
+
+    @Test
+    public void testFindsFeasibleSolutions() {
+        final MixedIntegerProgram program = createAssignment(NUM_MACHINES, NUM_JOBS, 7L);
+        final LagrangianResult result = dualizeAssignments().build().solve(program);
+
+        final Vector solution = result.getSolution().get();
+        final double[] values = new double[solution.length()];
+        for (int variable = 0; variable < values.length; variable++) {
+            values[variable] = Coefficients.asDouble(solution.get(variable));
+        }
+        assertTrue(program.isFeasible(values, 1e-9));
+        assertEquals(result.getBound(), solution.dotProductAsDouble(program.getCostVector()), 1e-6);
+    }
+
+    @Test
+    public void testMultipliersOfInequalitiesStayNonNegative() {
+        final MixedIntegerProgram program = createAssignment(NUM_MACHINES, NUM_JOBS, 4L);
+        final double optimum = BranchAndBound.newBuilder().build().solve(program).getIncumbentValue();
+
+        // Dualizing the capacities leaves a choice of machine per job, which is integral on its own
+        final LagrangianResult result = LagrangianRelaxation.newBuilder()
+                .withDualizedLessThanInequalities(range(NUM_MACHINES))
+                .build()
+                .solve(program);
+        assertTrue(result.getBound() <= optimum + 1e-6);
+        assertEquals(NUM_MACHINES, result.getMultipliers().length);
+        for (final double multiplier : result.getMultipliers()) {
+            assertTrue(multiplier >= 0);
+        }
+    }
+
+    @Test
+    public void testInfeasibleSubproblemsBoundEverything() {
+        // x0 + x1 = 1 is dualized, which leaves x0 >= 2 with x0 <= 1
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(1, 1))
+                .addEquality(createVector(1, 1), Coefficients.ONE)
+                .addLessThanInequality(createVector(1, 0), Coefficients.ONE)
+                .addGreaterThanInequality(createVector(1, 0), Coefficients.from(2))
+                .build();
+
+        final LagrangianResult result = LagrangianRelaxation.newBuilder()
+                .withDualizedEqualities(0)
+                .build()
+                .solve(program);
+        assertEquals(Double.NEGATIVE_INFINITY, result.getBound(), 0d);
+        assertEquals(SolveStatus.INFEASIBLE, BranchAndBound.newBuilder()
+                .withLagrangianRelaxation(LagrangianRelaxation.newBuilder().withDualizedEqualities(0).build())
+                .build()
+                .solve(program)
+                .getStatus());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRowsOutsideTheProgram() {
+        dualizeAssignments().build().solve(createAssignment(NUM_MACHINES, NUM_JOBS - 1, 1L));
+    }
+}
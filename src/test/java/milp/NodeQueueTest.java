@@ -0,0 +1,136 @@
+package milp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NodeQueueTest {
+    private static List<Node> createNodes(final int numNodes) {
+        final Random random = new Random(5L);
+        final CompressedBasis basis = CompressedBasis.compress(new int[]{3, 1, 4, 1, 5});
+        final List<Node> nodes = new ArrayList<>();
+        Node parent = Node.root();
+        for (int i = 0; i < numNodes; i++) {
+            final Node node = parent.upperBoundChild(i + 1, random.nextInt(1000), random.nextInt(20), i, basis);
+            nodes.add(node);
+            if (random.nextBoolean()) {
+                parent = node;
+            }
+        }
+
+        return nodes;
+    }
+
+    @Test
+    public void testSpillingKeepsTheOrder() throws IOException {
+        for (final NodeSelection nodeSelection : NodeSelection.values()) {
+            final List<Node> nodes = createNodes(2000);
+            try (NodeQueue unlimitedQueue = new NodeQueue(nodeSelection.getComparator());
+                 NodeQueue spillingQueue = new NodeQueue(nodeSelection.getComparator(), 10_000, null)) {
+                // Interleave adding and polling, the way a search does
+                for (int i = 0; i < nodes.size(); i++) {
+                    unlimitedQueue.add(nodes.get(i));
+                    spillingQueue.add(nodes.get(i));
+                    if (i % 3 == 0) {
+                        assertSameNode(unlimitedQueue.poll(), spillingQueue.poll());
+                    }
+                }
+                assertTrue(spillingQueue.getNumSpills() > 0);
+                assertTrue(spillingQueue.getNumSpilledNodes() > 0);
+                assertEquals(unlimitedQueue.size(), spillingQueue.size());
+
+                while (!unlimitedQueue.isEmpty()) {
+                    assertSameNode(unlimitedQueue.poll(), spillingQueue.poll());
+                }
+                assertTrue(spillingQueue.isEmpty());
+                assertNull(spillingQueue.poll());
+            }
+        }
+    }
+
+    @Test
+    public void testSpilledNodesKeepTheirBoundsAndBasis() throws IOException {
+        try (NodeQueue queue = new NodeQueue(NodeSelection.BREADTH_FIRST.getComparator(), 1, null)) {
+            for (final Node node : createNodes(10)) {
+                queue.add(node);
+            }
+
+            final Node node = queue.poll();
+            assertEquals(1, node.getId());
+            assertArrayEquals(new int[]{3, 1, 4, 1, 5}, node.getParentBasis().decompress());
+        }
+    }
+
+    @Test
+    public void testSpillFilesOnlyHoldNodesThatAreStillSpilled() throws IOException {
+        final List<Node> nodes = createNodes(2000);
+        long maxNodeBytes = 0;
+        for (final Node node : nodes) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            NodeCodec.write(new DataOutputStream(bytes), node);
+            maxNodeBytes = Math.max(maxNodeBytes, bytes.size());
+        }
+
+        final Path spillDirectory = Files.createTempDirectory("node-queue-test");
+        try (NodeQueue queue = new NodeQueue(NodeSelection.BREADTH_FIRST.getComparator(), 2000, spillDirectory)) {
+            // Keep a steady frontier of 200 nodes while the rest pass through the spill files
+            for (int i = 0; i < nodes.size(); i++) {
+                queue.add(nodes.get(i));
+                if (i >= 200) {
+                    queue.poll();
+                }
+
+                final long diskUsed = getDiskUsed(spillDirectory);
+                assertEquals(queue.getSpillFileSize(), diskUsed);
+                assertTrue(diskUsed <= 2 * queue.getNumSpilledNodes() * maxNodeBytes);
+            }
+            assertTrue(queue.getNumSpills() > 100);
+
+            while (!queue.isEmpty()) {
+                queue.poll();
+            }
+            assertEquals(0, getDiskUsed(spillDirectory));
+        } finally {
+            Files.delete(spillDirectory);
+        }
+    }
+
+    private static long getDiskUsed(final Path directory) throws IOException {
+        long diskUsed = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                diskUsed += Files.size(file);
+            }
+        }
+
+        return diskUsed;
+    }
+
+    private static void assertSameNode(final Node expected, final Node actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getDepth(), actual.getDepth());
+        assertEquals(expected.getBound(), actual.getBound(), 0d);
+
+        final long[] expectedLowerBounds = new long[20];
+        final long[] expectedUpperBounds = new long[20];
+        final long[] actualLowerBounds = new long[20];
+        final long[] actualUpperBounds = new long[20];
+        expected.getBounds(expectedLowerBounds, expectedUpperBounds);
+        actual.getBounds(actualLowerBounds, actualUpperBounds);
+        assertArrayEquals(expectedLowerBounds, actualLowerBounds);
+        assertArrayEquals(expectedUpperBounds, actualUpperBounds);
+    }
+}
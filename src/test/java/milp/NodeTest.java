@@ -0,0 +1,59 @@
+package milp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NodeTest {
+    @Test
+    public void testBoundsAreRebuiltFromTheChain() {
+        final Node root = Node.root();
+        final Node child = root.upperBoundChild(1, 10.0, 0, 5, null);
+        final Node grandchild = child.lowerBoundChild(2, 9.0, 1, 2, null);
+        final Node greatGrandchild = grandchild.upperBoundChild(3, 8.0, 0, 3, null);
+
+        final long[] lowerBounds = new long[3];
+        final long[] upperBounds = new long[3];
+        greatGrandchild.getBounds(lowerBounds, upperBounds);
+        assertArrayEquals(new long[]{0, 2, 0}, lowerBounds);
+        assertArrayEquals(new long[]{3, BoundChange.NO_UPPER_BOUND, BoundChange.NO_UPPER_BOUND}, upperBounds);
+        assertEquals(3, greatGrandchild.getDepth());
+
+        // Siblings share the chain above them
+        final Node sibling = grandchild.lowerBoundChild(4, 8.0, 0, 4, null);
+        assertSame(greatGrandchild.getBoundChanges().getParent(), sibling.getBoundChanges().getParent());
+        assertNull(root.getBoundChanges());
+    }
+
+    @Test
+    public void testBasisCompression() {
+        final int[] basisVariables = {40, 41, 42, 3, 44, 100000, 45, 0, -1};
+        final CompressedBasis basis = CompressedBasis.compress(basisVariables);
+        assertArrayEquals(basisVariables, basis.decompress());
+        assertTrue(basis.getCompressedSize() < Integer.BYTES * basisVariables.length);
+    }
+
+    @Test
+    public void testMillionsOfOpenNodesFitInMemory() {
+        // A deep, narrow tree: one long dive with a sibling left open at every level
+        final int numNodes = 1_000_000;
+        final CompressedBasis basis = CompressedBasis.compress(new int[]{0, 1, 2, 3});
+        final Node[] openNodes = new Node[numNodes];
+        Node node = Node.root();
+        for (int i = 0; i < numNodes; i++) {
+            openNodes[i] = node.upperBoundChild(2 * i + 1, 1.0, i % 50, numNodes - i, basis);
+            node = node.lowerBoundChild(2 * i + 2, 1.0, i % 50, i, basis);
+        }
+
+        final long[] lowerBounds = new long[50];
+        final long[] upperBounds = new long[50];
+        openNodes[numNodes - 1].getBounds(lowerBounds, upperBounds);
+        assertEquals(numNodes - 51, lowerBounds[49]);
+        assertEquals(1, upperBounds[49]);
+        assertArrayEquals(new int[]{0, 1, 2, 3}, openNodes[0].getParentBasis().decompress());
+    }
+}
@@ -0,0 +1,54 @@
+package milp;
+
+/**
+ * Compares the throughput of the opportunistic and deterministic parallel searches on a knapsack that takes a few
+ * thousand nodes to solve. This is not a test, run it by hand with:
+ * <p>
+ * java milp.ParallelSearchBenchmark [threads] [items] [round size]
+ */
+public final class ParallelSearchBenchmark {
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    private ParallelSearchBenchmark() {
+        // Exists to defeat instantiation
+    }
+
+    public static void main(final String[] args) {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final int numItems = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+        final int roundSize = args.length > 2 ? Integer.parseInt(args[2]) : 4 * threads;
+        final MixedIntegerProgram knapsack = BranchAndBoundTest.createKnapsack(numItems, 7L);
+
+        final double opportunisticRate = measure("opportunistic", knapsack, BranchAndBound.newBuilder()
+                .withThreads(threads)
+                .build());
+        final double deterministicRate = measure("deterministic", knapsack, BranchAndBound.newBuilder()
+                .withThreads(threads)
+                .withDeterministicRounds(roundSize)
+                .build());
+        System.out.printf("deterministic/opportunistic throughput: %.2f%n", deterministicRate / opportunisticRate);
+    }
+
+    /**
+     * Solve the program a few times and return the number of nodes solved per second.
+     */
+    private static double measure(final String name,
+                                  final MixedIntegerProgram program,
+                                  final BranchAndBound branchAndBound) {
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            branchAndBound.solve(program);
+        }
+
+        long totalNodes = 0;
+        final long start = System.nanoTime();
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            totalNodes += branchAndBound.solve(program).getNodeCount();
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        final double rate = totalNodes / seconds;
+        System.out.printf("%s: %d nodes in %.2fs, %.0f nodes/s%n", name, totalNodes / MEASURED_RUNS,
+                seconds / MEASURED_RUNS, rate);
+        return rate;
+    }
+}
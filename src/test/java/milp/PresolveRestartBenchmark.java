@@ -0,0 +1,61 @@
+package milp;
+
+/**
+ * Compares the node counts and wall times of searches with and without presolve and root restarts, on a
+ * multidimensional knapsack that fixes most of its items by reduced costs at the root and on a bin packing with
+ * continuous leftovers. This is not a test, run it by hand with:
+ * <p>
+ * java milp.PresolveRestartBenchmark [items] [jobs]
+ */
+public final class PresolveRestartBenchmark {
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    private PresolveRestartBenchmark() {
+        // Exists to defeat instantiation
+    }
+
+    public static void main(final String[] args) {
+        final int numItems = args.length > 0 ? Integer.parseInt(args[0]) : 45;
+        final int numJobs = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        compare("knapsack", BranchAndBoundTest.createMultidimensionalKnapsack(numItems, 8, 1L));
+        compare("bin packing", BranchAndBoundTest.createBinPackingWithLeftovers(numJobs, 3, 10, 1L));
+    }
+
+    private static void compare(final String name, final MixedIntegerProgram program) {
+        System.out.println(name + ":");
+        final double plainValue = measure("  plain", program, BranchAndBound.newBuilder()
+                .withPresolve(false)
+                .withRestarts(0)
+                .build());
+        final double presolvedValue = measure("  presolve", program, BranchAndBound.newBuilder()
+                .withRestarts(0)
+                .build());
+        final double restartedValue = measure("  presolve and restarts", program, BranchAndBound.newBuilder()
+                .build());
+        if (presolvedValue != plainValue || restartedValue != plainValue) {
+            System.out.printf("  optima differ: %s, %s and %s%n", plainValue, presolvedValue, restartedValue);
+        }
+    }
+
+    /**
+     * Solve the program a few times, print the nodes and time each solve took, and return the optimum.
+     */
+    private static double measure(final String name,
+                                  final MixedIntegerProgram program,
+                                  final BranchAndBound branchAndBound) {
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            branchAndBound.solve(program);
+        }
+
+        BranchAndBoundResult result = null;
+        final long start = System.nanoTime();
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            result = branchAndBound.solve(program);
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s: %d nodes, %d restarts in %.3fs, optimum %s%n", name, result.getNodeCount(),
+                result.getRestartCount(), seconds / MEASURED_RUNS, result.getIncumbentValue());
+        return result.getIncumbentValue();
+    }
+}
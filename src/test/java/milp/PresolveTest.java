@@ -0,0 +1,133 @@
+package milp;
+
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PresolveTest {
+    private static Vector createVector(final double... coefficients) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final double coefficient : coefficients) {
+            builder.addCoefficient(coefficient);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Add a row x_i <= 1 for each of the given variables, and mark them as integers, which makes them binaries.
+     */
+    private static MixedIntegerProgram.Builder addBinaries(final MixedIntegerProgram.Builder builder,
+                                                           final int numVariables,
+                                                           final int... variables) {
+        for (final int variable : variables) {
+            final double[] unit = new double[numVariables];
+            unit[variable] = 1;
+            builder.addLessThanInequality(createVector(unit), Coefficients.ONE).addIntegerVariables(variable);
+        }
+
+        return builder;
+    }
+
+    @Test
+    public void testProbingFixesBinaries() {
+        // x0 = 1 leaves neither x1 nor x2 to cover the last row, which only shows by trying it
+        final MixedIntegerProgram program = addBinaries(MixedIntegerProgram.newBuilder(), 3, 0, 1, 2)
+                .withCostVector(createVector(1, 1, 1))
+                .addLessThanInequality(createVector(1, 1, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(1, 0, 1), Coefficients.ONE)
+                .addGreaterThanInequality(createVector(0, 1, 1), Coefficients.ONE)
+                .build();
+
+        final Presolve presolve = Presolve.run(program, null, null, null);
+        assertEquals(1, presolve.getStatistics().getFixedVariables());
+        assertEquals(2, presolve.getProgram().getNumVariables());
+
+        final BranchAndBoundResult result = BranchAndBound.newBuilder()
+                .withPresolve(false)
+                .build()
+                .solve(presolve.getProgram());
+        assertEquals(2d, result.getIncumbentValue() + presolve.getObjectiveOffset(), 0d);
+        assertEquals("[0,1,1]", presolve.restore(result.getIncumbent().get()).toString());
+    }
+
+    @Test
+    public void testProbingFindsInfeasiblePrograms() {
+        final MixedIntegerProgram program = addBinaries(MixedIntegerProgram.newBuilder(), 3, 0, 1, 2)
+                .withCostVector(createVector(1, 1, 1))
+                .addLessThanInequality(createVector(1, 1, 0), Coefficients.ONE)
+                .addLessThanInequality(createVector(1, 0, 1), Coefficients.ONE)
+                .addLessThanInequality(createVector(0, 1, 1), Coefficients.ONE)
+                .addGreaterThanInequality(createVector(1, 1, 1), Coefficients.from(2))
+                .build();
+
+        assertNull(Presolve.run(program, null, null, null));
+    }
+
+    @Test
+    public void testTightensCoefficients() {
+        // 2x0 + 3x1 <= 4 only rules out both, which x0 + x1 <= 1 says with a tighter relaxation
+        final MixedIntegerProgram program = addBinaries(MixedIntegerProgram.newBuilder(), 2, 0, 1)
+                .withCostVector(createVector(1, 2))
+                .addLessThanInequality(createVector(2, 3), Coefficients.from(4))
+                .build();
+
+        final Presolve presolve = Presolve.run(program, null, null, null);
+        assertEquals(2, presolve.getStatistics().getTightenedCoefficients());
+        final MixedIntegerProgram reducedProgram = presolve.getProgram();
+        assertEquals("[1,1]", reducedProgram.getLessThanInequalities().get(0).toString());
+        assertEquals(1d, Coefficients.asDouble(reducedProgram.getLessThanConstants().get(0)), 0d);
+    }
+
+    @Test
+    public void testFixesDominatedColumns() {
+        // x1 does everything x0 and x2 do, for more
+        final MixedIntegerProgram program = addBinaries(MixedIntegerProgram.newBuilder(), 3, 0, 1, 2)
+                .withCostVector(createVector(2, 3, -1))
+                .addLessThanInequality(createVector(1, 1, 1), Coefficients.ONE)
+                .build();
+
+        final Presolve presolve = Presolve.run(program, null, null, null);
+        assertEquals(2, presolve.getStatistics().getDominatedColumns());
+        assertEquals(1, presolve.getProgram().getNumVariables());
+
+        // Solutions using x0 or x2 move over to x1
+        assertEquals("[1]", presolve.reduce(createVector(1, 0, 0)).toString());
+        assertEquals("[1]", presolve.reduce(createVector(0, 0, 1)).toString());
+        assertEquals("[0,1,0]", presolve.restore(presolve.reduce(createVector(1, 0, 0))).toString());
+    }
+
+    @Test
+    public void testFindsImpliedIntegers() {
+        // y = x0 + 2x1 is an integer whatever x0 and x1 are
+        final MixedIntegerProgram program = addBinaries(MixedIntegerProgram.newBuilder(), 3, 0, 1)
+                .withCostVector(createVector(1, 1, 1))
+                .addEquality(createVector(1, 2, -1), Coefficients.ZERO)
+                .build();
+
+        final Presolve presolve = Presolve.run(program, null, null, null);
+        assertEquals(1, presolve.getStatistics().getImpliedIntegers());
+        assertTrue(presolve.getProgram().isIntegerVariable(2));
+        assertFalse(program.isIntegerVariable(2));
+    }
+
+    @Test
+    public void testReduceRejectsSolutionsOutsideTheBounds() {
+        final MixedIntegerProgram program = addBinaries(MixedIntegerProgram.newBuilder(), 2, 0, 1)
+                .withCostVector(createVector(1, 1))
+                .addLessThanInequality(createVector(1, 1), Coefficients.from(2))
+                .build();
+        final long[] lowerBounds = {1, 0};
+        final long[] upperBounds = {1, 1};
+
+        final Presolve presolve = Presolve.run(program, lowerBounds, upperBounds, null);
+        assertEquals(1d, presolve.getObjectiveOffset(), 0d);
+        assertNull(presolve.reduce(createVector(0, 1)));
+        assertEquals(1d, Coefficients.asDouble(presolve.reduce(createVector(1, 1)).get(0)), 0d);
+    }
+}
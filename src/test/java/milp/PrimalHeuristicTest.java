@@ -0,0 +1,86 @@
+package milp;
+
+import coefficients.Coefficients;
+import core.WarmStart;
+import math.Vector;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PrimalHeuristicTest {
+    private static Vector createVector(final int... coefficients) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final int coefficient : coefficients) {
+            builder.addCoefficient(coefficient);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * max 5x + 4y + 3z, with x and y general integers and z continuous, whose relaxation is fractional. Rounding it
+     * breaks the first row, which only re-solving for z can fix.
+     */
+    private static MixedIntegerProgram createMixedProgram() {
+        return MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(5, 4, 3))
+                .addLessThanInequality(createVector(6, 4, 2), Coefficients.from(23))
+                .addLessThanInequality(createVector(1, 1, 0), Coefficients.from(5))
+                .addLessThanInequality(createVector(0, 0, 1), Coefficients.from(3))
+                .addGreaterThanInequality(createVector(2, -1, 1), Coefficients.from(1))
+                .addIntegerVariables(0, 1)
+                .build();
+    }
+
+    private static void assertFeasible(final MixedIntegerProgram program, final Vector solution) {
+        final double[] values = CutLoop.toArray(solution);
+        assertTrue(program.isFeasible(values, 1e-6));
+        for (int variable = 0; variable < values.length; variable++) {
+            if (program.isIntegerVariable(variable)) {
+                assertEquals(Math.rint(values[variable]), values[variable], 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testEveryHeuristicFindsAFeasibleSolution() {
+        final MixedIntegerProgram program = createMixedProgram();
+        final WarmStart relaxation = program.solveRelaxation(Node.root(), true).getWarmStart().get();
+        final double[] solution = CutLoop.toArray(relaxation.getOptimalSolution());
+        assertTrue(solution[0] != Math.rint(solution[0]) || solution[1] != Math.rint(solution[1]));
+
+        final PrimalHeuristic[] heuristics = {
+                new RoundingHeuristic(program, false),
+                new RoundingHeuristic(program, true),
+                new DivingHeuristic(program, false),
+                new FeasibilityPump(program)
+        };
+        for (final PrimalHeuristic heuristic : heuristics) {
+            final Vector heuristicSolution =
+                    heuristic.findSolution(relaxation, solution, new Incumbent(), new Random(0));
+            assertNotNull(heuristicSolution);
+            assertFeasible(program, heuristicSolution);
+        }
+    }
+
+    @Test
+    public void testGuidedDivingNeedsAnIncumbent() {
+        final MixedIntegerProgram program = createMixedProgram();
+        final WarmStart relaxation = program.solveRelaxation(Node.root(), true).getWarmStart().get();
+        final double[] solution = CutLoop.toArray(relaxation.getOptimalSolution());
+        final DivingHeuristic guidedDiving = new DivingHeuristic(program, true);
+        final Incumbent incumbent = new Incumbent();
+        assertNull(guidedDiving.findSolution(relaxation, solution, incumbent, new Random(0)));
+
+        incumbent.offer(createVector(0, 0, 1), 3);
+        final Vector guidedSolution = guidedDiving.findSolution(relaxation, solution, incumbent, new Random(0));
+        assertNotNull(guidedSolution);
+        assertFeasible(program, guidedSolution);
+        assertTrue(guidedSolution.dotProductAsDouble(program.getCostVector()) > 3);
+    }
+}
@@ -0,0 +1,144 @@
+package milp;
+
+import coefficients.Coefficients;
+import core.WarmStart;
+import math.Vector;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PropagatorTest {
+    private static Vector createVector(final int... coefficients) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final int coefficient : coefficients) {
+            builder.addCoefficient(coefficient);
+        }
+
+        return builder.build();
+    }
+
+    private static long[] createLowerBounds(final int numVariables) {
+        return new long[numVariables];
+    }
+
+    private static long[] createUpperBounds(final int numVariables) {
+        final long[] upperBounds = new long[numVariables];
+        for (int variable = 0; variable < numVariables; variable++) {
+            upperBounds[variable] = BoundChange.NO_UPPER_BOUND;
+        }
+
+        return upperBounds;
+    }
+
+    @Test
+    public void testActivitiesTightenIntegerBounds() {
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(1, 1, 1))
+                .addLessThanInequality(createVector(2, 3, 0), Coefficients.from(7))
+                .addEquality(createVector(0, 1, 1), Coefficients.from(4))
+                .addIntegerVariables(0, 1, 2)
+                .build();
+        final Propagator propagator = new Propagator(program);
+        final long[] lowerBounds = createLowerBounds(3);
+        final long[] upperBounds = createUpperBounds(3);
+
+        assertTrue(propagator.propagate(lowerBounds, upperBounds, null));
+        assertEquals(3L, upperBounds[0]);
+        assertEquals(2L, upperBounds[1]);
+        assertEquals(2L, lowerBounds[2]);
+        assertEquals(4L, upperBounds[2]);
+
+        // x >= 2 leaves room for at most one y, which forces z >= 3
+        lowerBounds[0] = 2;
+        assertTrue(propagator.propagate(lowerBounds, upperBounds, Collections.singletonList(0)));
+        assertEquals(1L, upperBounds[1]);
+        assertEquals(3L, lowerBounds[2]);
+    }
+
+    @Test
+    public void testContinuousVariablesAreNotTightened() {
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(1, 1))
+                .addLessThanInequality(createVector(2, 3), Coefficients.from(7))
+                .addIntegerVariables(0)
+                .build();
+        final long[] lowerBounds = createLowerBounds(2);
+        final long[] upperBounds = createUpperBounds(2);
+
+        assertTrue(new Propagator(program).propagate(lowerBounds, upperBounds, null));
+        assertEquals(3L, upperBounds[0]);
+        assertEquals(BoundChange.NO_UPPER_BOUND, upperBounds[1]);
+    }
+
+    @Test
+    public void testInfeasibleBoundsAreDetected() {
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(1, 1))
+                .addGreaterThanInequality(createVector(1, 1), Coefficients.from(5))
+                .addIntegerVariables(0, 1)
+                .build();
+        final Propagator propagator = new Propagator(program);
+        final long[] lowerBounds = createLowerBounds(2);
+        final long[] upperBounds = createUpperBounds(2);
+        upperBounds[0] = 1;
+        upperBounds[1] = 2;
+
+        assertFalse(propagator.propagate(lowerBounds, upperBounds, Collections.singletonList(1)));
+    }
+
+    /**
+     * max 3x + y subject to x + y <= 4 and x <= 3 is solved by x = 3, y = 1, where raising the slack of x <= 3 costs 2
+     * per unit. Against an incumbent of 11 that rules out any x below 3.
+     */
+    @Test
+    public void testReducedCostsFixBoundedVariables() {
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(3, 1))
+                .addLessThanInequality(createVector(1, 1), Coefficients.from(4))
+                .addLessThanInequality(createVector(1, 0), Coefficients.from(3))
+                .addIntegerVariables(0, 1)
+                .build();
+        final WarmStart relaxation = program.solveRelaxation(Node.root(), true).getWarmStart().get();
+        assertEquals(10d, relaxation.getOptimalValue(), 1e-9);
+
+        final long[] lowerBounds = createLowerBounds(2);
+        final long[] upperBounds = createUpperBounds(2);
+        final List<Integer> changedVariables = new ArrayList<>();
+        assertTrue(new Propagator(program).fixByReducedCosts(relaxation, 1d, lowerBounds, upperBounds,
+                changedVariables));
+        assertEquals(3L, lowerBounds[0]);
+        assertEquals(Collections.singletonList(0), changedVariables);
+    }
+
+    /**
+     * max 3x + y subject to x + y <= 4 is solved by x = 4, where raising y costs 2 per unit.
+     */
+    @Test
+    public void testReducedCostsFixNonBasicVariables() {
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(3, 1))
+                .addLessThanInequality(createVector(1, 1), Coefficients.from(4))
+                .addIntegerVariables(0, 1)
+                .build();
+        final WarmStart relaxation = program.solveRelaxation(Node.root(), true).getWarmStart().get();
+        final Propagator propagator = new Propagator(program);
+
+        final long[] lowerBounds = createLowerBounds(2);
+        final long[] upperBounds = createUpperBounds(2);
+        assertTrue(propagator.fixByReducedCosts(relaxation, 1.5, lowerBounds, upperBounds, new ArrayList<>()));
+        assertEquals(0L, upperBounds[1]);
+        assertEquals(BoundChange.NO_UPPER_BOUND, upperBounds[0]);
+
+        // A larger lead leaves room for y
+        final long[] looseUpperBounds = createUpperBounds(2);
+        assertTrue(propagator.fixByReducedCosts(relaxation, 4d, createLowerBounds(2), looseUpperBounds,
+                new ArrayList<>()));
+        assertEquals(2L, looseUpperBounds[1]);
+    }
+}
@@ -0,0 +1,128 @@
+package milp;
+
+import coefficients.Coefficients;
+import math.Vector;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SymmetryTest {
+    /**
+     * Pack items of the given weights into identical bins, using as few as possible. Each bin b has the variables
+     * y_b, whether it's used, followed by x_ib, whether item i is in it.
+     */
+    static MixedIntegerProgram createBinPacking(final int[] weights, final int numBins, final int capacity) {
+        final int numItems = weights.length;
+        final int numVariables = numBins * (numItems + 1);
+        final double[] costs = new double[numVariables];
+        for (int bin = 0; bin < numBins; bin++) {
+            costs[bin * (numItems + 1)] = 1;
+        }
+
+        final MixedIntegerProgram.Builder builder = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(costs))
+                .minimizeCostFunction();
+        for (int item = 0; item < numItems; item++) {
+            final double[] assignment = new double[numVariables];
+            for (int bin = 0; bin < numBins; bin++) {
+                assignment[bin * (numItems + 1) + 1 + item] = 1;
+            }
+            builder.addEquality(createVector(assignment), Coefficients.ONE);
+        }
+        for (int bin = 0; bin < numBins; bin++) {
+            final double[] load = new double[numVariables];
+            load[bin * (numItems + 1)] = -capacity;
+            for (int item = 0; item < numItems; item++) {
+                load[bin * (numItems + 1) + 1 + item] = weights[item];
+            }
+            builder.addLessThanInequality(createVector(load), Coefficients.ZERO);
+        }
+        for (int variable = 0; variable < numVariables; variable++) {
+            final double[] unit = new double[numVariables];
+            unit[variable] = 1;
+            builder.addLessThanInequality(createVector(unit), Coefficients.ONE).addIntegerVariables(variable);
+        }
+
+        return builder.build();
+    }
+
+    private static Vector createVector(final double... coefficients) {
+        final Vector.Builder builder = Vector.newBuilder();
+        for (final double coefficient : coefficients) {
+            builder.addCoefficient(coefficient);
+        }
+
+        return builder.build();
+    }
+
+    @Test
+    public void testDetectsInterchangeableBins() {
+        final Symmetry symmetry = Symmetry.detect(createBinPacking(new int[]{3, 4, 5}, 3, 8));
+
+        // Swapping bins 0 and 1, then bins 1 and 2, generates every permutation of the bins
+        assertEquals(2, symmetry.getNumGenerators());
+        assertArrayEquals(new int[]{4, 5, 6, 7, 0, 1, 2, 3, 8, 9, 10, 11}, symmetry.getGenerator(0));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 8, 9, 10, 11, 4, 5, 6, 7}, symmetry.getGenerator(1));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 0, 1, 2, 3, 0, 1, 2, 3}, symmetry.getOrbits());
+    }
+
+    @Test
+    public void testDetectsInterchangeableItems() {
+        // Items of the same weight are interchangeable as well, within every bin at once
+        final Symmetry symmetry = Symmetry.detect(createBinPacking(new int[]{3, 3, 5}, 2, 8));
+
+        assertEquals(2, symmetry.getNumGenerators());
+        assertArrayEquals(new int[]{0, 1, 1, 3, 0, 1, 1, 3}, symmetry.getOrbits());
+    }
+
+    @Test
+    public void testAsymmetricProgramHasNoGenerators() {
+        final MixedIntegerProgram program = MixedIntegerProgram.newBuilder()
+                .withCostVector(createVector(1, 2, 3))
+                .addLessThanInequality(createVector(1, 1, 1), Coefficients.from(2))
+                .addIntegerVariables(0, 1, 2)
+                .build();
+
+        final Symmetry symmetry = Symmetry.detect(program);
+        assertEquals(0, symmetry.getNumGenerators());
+        assertArrayEquals(new int[]{0, 1, 2}, symmetry.getOrbits());
+    }
+
+    @Test
+    public void testPropagationSortsSymmetricBins() {
+        final Symmetry symmetry = Symmetry.detect(createBinPacking(new int[]{3, 4, 5}, 3, 8));
+        final long[] lowerBounds = new long[12];
+        final long[] upperBounds = new long[12];
+        Arrays.fill(upperBounds, 1L);
+
+        // An unused bin 0 leaves bins 1 and 2 unused too, since used bins come first
+        upperBounds[0] = 0;
+        final List<Integer> changedVariables = new ArrayList<>();
+        assertTrue(symmetry.propagate(lowerBounds, upperBounds, changedVariables));
+        assertEquals(0L, upperBounds[4]);
+        assertEquals(0L, upperBounds[8]);
+        assertEquals(Arrays.asList(4, 8), changedVariables);
+    }
+
+    @Test
+    public void testPropagationRejectsOutOfOrderBins() {
+        final Symmetry symmetry = Symmetry.detect(createBinPacking(new int[]{3, 4, 5}, 3, 8));
+        final long[] lowerBounds = new long[12];
+        final long[] upperBounds = new long[12];
+        Arrays.fill(upperBounds, 1L);
+
+        // Bins 0 and 1 are both used, so bin 0 has to hold item 0 if bin 1 does
+        lowerBounds[0] = 1;
+        lowerBounds[4] = 1;
+        upperBounds[1] = 0;
+        lowerBounds[5] = 1;
+        assertFalse(symmetry.propagate(lowerBounds, upperBounds, new ArrayList<>()));
+    }
+}
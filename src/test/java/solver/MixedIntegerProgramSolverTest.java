@@ -0,0 +1,169 @@
+package solver;
+
+import coefficients.Coefficients;
+import coefficients.ConstantCoefficient;
+import math.Vector;
+import milp.BranchingRule;
+import milp.NodeSelection;
+import milp.SolveStatus;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MixedIntegerProgramSolverTest {
+    private static MixedIntegerProgramSolver.Builder createKnapsackBuilder() {
+        // max 10a + 13b + 7c + 8d s.t. 3a + 4b + 2c + 3d <= 7, with each item taken at most once
+        final MixedIntegerProgramSolver.Builder builder = MixedIntegerProgramSolver.newBuilder()
+                .maximizingCost()
+                .withCostVector(Vector.newBuilder()
+                        .addCoefficient(10)
+                        .addCoefficient(13)
+                        .addCoefficient(7)
+                        .addCoefficient(8)
+                        .build())
+                .withIntegerVariables(0, 1, 2, 3)
+                .addLessThanInequality(Coefficients.from(7),
+                        Coefficients.from(3), Coefficients.from(4), Coefficients.from(2), Coefficients.from(3));
+        for (int item = 0; item < 4; item++) {
+            final ConstantCoefficient[] itemCoefficients = new ConstantCoefficient[4];
+            for (int j = 0; j < 4; j++) {
+                itemCoefficients[j] = item == j ? Coefficients.ONE : Coefficients.ZERO;
+            }
+            builder.addLessThanInequality(Coefficients.ONE, itemCoefficients);
+        }
+
+        return builder;
+    }
+
+    @Test
+    public void testIntegerSolutionIsBelowTheRelaxation() {
+        // max 5x + 4y s.t. 6x + 4y <= 24, x + 2y <= 6, whose relaxation peaks at (3, 3/2) with 21
+        final MixedIntegerProgramSolver solver = MixedIntegerProgramSolver.newBuilder()
+                .maximizingCost()
+                .withCostVector(Vector.newBuilder().addCoefficient(5).addCoefficient(4).build())
+                .withIntegerVariables(0, 1)
+                .addLessThanInequality(Coefficients.from(24), Coefficients.from(6), Coefficients.from(4))
+                .addLessThanInequality(Coefficients.from(6), Coefficients.ONE, Coefficients.from(2))
+                .build();
+
+        assertEquals("[4,0]", solver.getOptimalSolutionIfFeasible().get().toString());
+        assertEquals(20.0, solver.getOptimalValue(), 0d);
+        assertEquals(20.0, solver.getBestBound(), 0d);
+        assertEquals(0.0, solver.getOptimalityGap(), 0d);
+    }
+
+    @Test
+    public void testKnapsackWithEveryNodeSelection() {
+        for (final NodeSelection nodeSelection : NodeSelection.values()) {
+            final MixedIntegerProgramSolver solver = createKnapsackBuilder()
+                    .withNodeSelection(nodeSelection)
+                    .withRootCutRounds(0)
+                    .build();
+
+            assertEquals("[1,1,0,0]", solver.getOptimalSolutionIfFeasible().get().toString());
+            assertEquals(23.0, solver.getOptimalValue(), 0d);
+            assertTrue(solver.getNodeCount() > 1);
+        }
+    }
+
+    @Test
+    public void testKnapsackWithEveryBranchingRule() {
+        for (final BranchingRule branchingRule : BranchingRule.values()) {
+            final MixedIntegerProgramSolver solver = createKnapsackBuilder()
+                    .withBranchingRule(branchingRule)
+                    .withStrongBranchingPivots(5)
+                    .withReliabilityThreshold(1)
+                    .withRootCutRounds(0)
+                    .build();
+
+            assertEquals("[1,1,0,0]", solver.getOptimalSolutionIfFeasible().get().toString());
+            // Reliability branching is counted under the rules it picked by
+            final BranchingRule countedRule = branchingRule == BranchingRule.RELIABILITY
+                    ? BranchingRule.STRONG
+                    : branchingRule;
+            assertTrue(solver.getBranchingCounts().get(countedRule) > 0);
+        }
+    }
+
+    @Test
+    public void testMixedIntegerMinimization() {
+        // min x + y s.t. 2x + 2y >= 3, 2x - 2y <= 1, with only x an integer
+        final MixedIntegerProgramSolver solver = MixedIntegerProgramSolver.newBuilder()
+                .minimizingCost()
+                .withCostVector(Vector.newBuilder().addCoefficient(1).addCoefficient(1).build())
+                .withIntegerVariables(0)
+                .addGreaterThanInequality(Coefficients.from(3), Coefficients.from(2), Coefficients.from(2))
+                .addLessThanInequality(Coefficients.ONE, Coefficients.from(2), Coefficients.from(-2))
+                .build();
+
+        assertEquals(1.5, solver.getOptimalValue(), 1e-9);
+        assertEquals(0.0, solver.getOptimalityGap(), 1e-9);
+    }
+
+    @Test
+    public void testGapToleranceStopsEarly() {
+        final MixedIntegerProgramSolver exactSolver = createKnapsackBuilder().build();
+        final MixedIntegerProgramSolver roughSolver = createKnapsackBuilder()
+                .withNodeSelection(NodeSelection.DEPTH_FIRST)
+                .withGapTolerance(0.5)
+                .build();
+
+        assertTrue(roughSolver.getNodeCount() <= exactSolver.getNodeCount());
+        assertTrue(roughSolver.getOptimalityGap() <= 0.5);
+        assertTrue(roughSolver.getBestBound() >= 23.0);
+        assertTrue(roughSolver.getOptimalValue() <= 23.0);
+    }
+
+    @Test
+    public void testNodeLimitStillReturnsASolution() {
+        final MixedIntegerProgramSolver solver = createKnapsackBuilder()
+                .withNodeSelection(NodeSelection.DEPTH_FIRST)
+                .withNodeLimit(1)
+                .build();
+
+        assertEquals(1, solver.getNodeCount());
+        assertTrue(solver.getStatus() == SolveStatus.FEASIBLE || solver.getStatus() == SolveStatus.OPTIMAL);
+        assertTrue(solver.getOptimalSolutionIfFeasible().isPresent());
+        assertTrue(solver.getOptimalValue() <= 23.0);
+    }
+
+    @Test
+    public void testInfeasibleAndUnboundedPrograms() {
+        // 2x = 1 has no integer solution
+        final MixedIntegerProgramSolver infeasibleSolver = MixedIntegerProgramSolver.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(1).build())
+                .withIntegerVariables(0)
+                .addEquality(Coefficients.ONE, Coefficients.from(2))
+                .build();
+        assertEquals(SolveStatus.INFEASIBLE, infeasibleSolver.getStatus());
+        assertFalse(infeasibleSolver.getOptimalSolutionIfFeasible().isPresent());
+        assertEquals(Double.NEGATIVE_INFINITY, infeasibleSolver.getOptimalValue(), 0d);
+        assertEquals(Double.POSITIVE_INFINITY, infeasibleSolver.getOptimalityGap(), 0d);
+
+        final MixedIntegerProgramSolver unboundedSolver = MixedIntegerProgramSolver.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(1).build())
+                .withIntegerVariables(0)
+                .addGreaterThanInequality(Coefficients.ONE, Coefficients.ONE)
+                .build();
+        assertEquals(SolveStatus.UNBOUNDED, unboundedSolver.getStatus());
+        assertTrue(unboundedSolver.isUnbounded());
+        assertFalse(unboundedSolver.getOptimalSolutionIfFeasible().isPresent());
+        assertEquals(Double.POSITIVE_INFINITY, unboundedSolver.getOptimalValue(), 0d);
+    }
+
+    @Test
+    public void testDoubleCoefficients() {
+        // max 3x + 2y s.t. x + y <= 4.5, x <= 2.5, with only x an integer
+        final MixedIntegerProgramSolver solver = MixedIntegerProgramSolver.newBuilder()
+                .withCostVector(Vector.newBuilder().addCoefficient(3.0).addCoefficient(2.0).build())
+                .withIntegerVariables(0)
+                .addLessThanInequality(Coefficients.from(4.5), 1.0, 1.0)
+                .addLessThanInequality(Coefficients.from(2.5), 1.0, 0.0)
+                .build();
+
+        assertEquals(11.0, solver.getOptimalValue(), 1e-9);
+        assertEquals(2.0, Coefficients.asDouble(solver.getOptimalSolutionIfFeasible().get().get(0)), 0d);
+    }
+}